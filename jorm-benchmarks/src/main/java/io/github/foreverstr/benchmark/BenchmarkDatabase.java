@@ -0,0 +1,66 @@
+package io.github.foreverstr.benchmark;
+
+import io.github.foreverstr.session.factory.Jorm;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * 基准测试共用的 H2 内存库，每个 JMH 状态对象使用独立的库，避免相互干扰
+ * @author duyujie
+ */
+final class BenchmarkDatabase {
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS users (id BIGINT PRIMARY KEY AUTO_INCREMENT, user_name VARCHAR(255), "
+                    + "age INT, status VARCHAR(255), department VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS narrow_rows (id BIGINT PRIMARY KEY AUTO_INCREMENT, name VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS wide_rows (id BIGINT PRIMARY KEY AUTO_INCREMENT, "
+                    + "int1 INT, int2 INT, int3 INT, int4 INT, int5 INT, int6 INT, "
+                    + "long1 BIGINT, long2 BIGINT, long3 BIGINT, "
+                    + "str1 VARCHAR(64), str2 VARCHAR(64), str3 VARCHAR(64), str4 VARCHAR(64), "
+                    + "str5 VARCHAR(64), str6 VARCHAR(64), "
+                    + "double1 DOUBLE, double2 DOUBLE, flag BOOLEAN, short1 SMALLINT)"
+    };
+
+    private final JdbcDataSource dataSource = new JdbcDataSource();
+
+    private BenchmarkDatabase(String url) {
+        dataSource.setURL(url);
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+    }
+
+    /**
+     * 创建新的内存库并注册为 Jorm 的数据源
+     */
+    static BenchmarkDatabase create() throws SQLException {
+        String url = String.format("jdbc:h2:mem:bench_%s;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_UPPER=false",
+                UUID.randomUUID().toString().replace("-", ""));
+        BenchmarkDatabase db = new BenchmarkDatabase(url);
+        try (Connection conn = db.connect(); Statement stmt = conn.createStatement()) {
+            for (String ddl : SCHEMA) {
+                stmt.execute(ddl);
+            }
+        }
+        Jorm.setDataSource(db.dataSource);
+        return db;
+    }
+
+    Connection connect() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    void execute(String sql) throws SQLException {
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    // 关闭内存库，释放数据
+    void shutdown() throws SQLException {
+        execute("SHUTDOWN");
+    }
+}
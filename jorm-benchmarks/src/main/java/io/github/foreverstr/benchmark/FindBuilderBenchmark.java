@@ -0,0 +1,76 @@
+package io.github.foreverstr.benchmark;
+
+import io.github.foreverstr.dto.Condition;
+import io.github.foreverstr.entity.User;
+import io.github.foreverstr.session.FindSession;
+import io.github.foreverstr.sqlBuilder.FindBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>查询 SQL 生成与二级缓存键生成的开销，二者在每次 Find 时都会执行。</p>
+ * <p>{@code generateCacheKey} 是私有方法，通过 MethodHandle 调用，句柄为静态常量，JIT 后与直接调用开销相当。</p>
+ * @author duyujie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindBuilderBenchmark {
+    private static final MethodHandle GENERATE_CACHE_KEY;
+
+    static {
+        try {
+            Method method = FindSession.class.getDeclaredMethod("generateCacheKey", Class.class, List.class,
+                    Integer.class, String.class, String.class, List.class, String.class);
+            method.setAccessible(true);
+            GENERATE_CACHE_KEY = MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"0", "2", "4"})
+    public int conditionCount;
+
+    private final List<Condition> having = Collections.emptyList();
+    private List<Condition> conditions;
+    private FindSession session;
+
+    @Setup
+    public void setUp() {
+        Condition[] candidates = {
+                new Condition("status", "=", "active"),
+                new Condition("age", ">", 18),
+                new Condition("department", "=", "R&D"),
+                new Condition("user_name", "LIKE", "A%")
+        };
+        conditions = new ArrayList<>();
+        for (int i = 0; i < conditionCount; i++) {
+            conditions.add(candidates[i]);
+        }
+        // 只用于调用私有方法，不会访问连接
+        session = new FindSession((Connection) null);
+    }
+
+    @Benchmark
+    public String buildFindSelect() {
+        return FindBuilder.buildFindSelect(User.class, conditions, 10, "age DESC", null, having, "*");
+    }
+
+    @Benchmark
+    public String generateCacheKey() throws Throwable {
+        return (String) GENERATE_CACHE_KEY.invokeExact(session, (Class<?>) User.class, conditions,
+                (Integer) 10, "age DESC", (String) null, having, "*");
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.foreverstr.benchmark;
+
+import io.github.foreverstr.annotation.GeneratedValue;
+import io.github.foreverstr.annotation.Id;
+import io.github.foreverstr.annotation.Table;
+import io.github.foreverstr.annotation.Enum.GenerationType;
+
+/**
+ * 两列的窄表实体
+ */
+@Table(name = "narrow_rows")
+public class NarrowRow {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String name;
+
+    public NarrowRow() {
+    }
+
+    public NarrowRow(String name) {
+        this.name = name;
+    }
+}
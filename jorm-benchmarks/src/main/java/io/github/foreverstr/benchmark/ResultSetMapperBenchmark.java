@@ -0,0 +1,93 @@
+package io.github.foreverstr.benchmark;
+
+import io.github.foreverstr.entity.User;
+import io.github.foreverstr.session.SaveSession;
+import io.github.foreverstr.session.factory.Jorm;
+import io.github.foreverstr.util.ResultSetMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>{@link ResultSetMapper#mapToList} 在不同行宽、行数下的开销。</p>
+ * <p>{@code jdbcRead} 只执行同一查询并按下标读取所有列，两者之差即为映射本身的成本。</p>
+ * @author duyujie
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultSetMapperBenchmark {
+    @Param({"narrow", "user", "wide"})
+    public String width;
+
+    @Param({"10", "100", "1000"})
+    public int rows;
+
+    private BenchmarkDatabase db;
+    private Connection connection;
+    private PreparedStatement query;
+    private Class<?> entityClass;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        db = BenchmarkDatabase.create();
+        List<Object> entities = new ArrayList<>(rows);
+        String table;
+        switch (width) {
+            case "narrow":
+                entityClass = NarrowRow.class;
+                table = "narrow_rows";
+                for (int i = 0; i < rows; i++) entities.add(new NarrowRow("row-" + i));
+                break;
+            case "user":
+                entityClass = User.class;
+                table = "users";
+                for (int i = 0; i < rows; i++) entities.add(new User("user-" + i, 20 + i % 50, "active"));
+                break;
+            default:
+                entityClass = WideRow.class;
+                table = "wide_rows";
+                for (int i = 0; i < rows; i++) entities.add(new WideRow(i));
+        }
+        connection = db.connect();
+        try (SaveSession session = Jorm.saveSession(connection)) {
+            session.batchSave(entities);
+        }
+        query = connection.prepareStatement("SELECT * FROM " + table);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        query.close();
+        connection.close();
+        db.shutdown();
+    }
+
+    @Benchmark
+    public List<?> mapToList() throws Exception {
+        try (ResultSet rs = query.executeQuery()) {
+            return ResultSetMapper.mapToList(rs, entityClass);
+        }
+    }
+
+    @Benchmark
+    public void jdbcRead(Blackhole bh) throws Exception {
+        try (ResultSet rs = query.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    bh.consume(rs.getObject(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.foreverstr.benchmark;
+
+import io.github.foreverstr.entity.User;
+import io.github.foreverstr.session.SaveSession;
+import io.github.foreverstr.session.factory.Jorm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>插入 batchSize 行：逐条 save、batchSave 与原生 JDBC 逐条/批量插入的对比。</p>
+ * <p>所有方式共用同一个外部连接（自动提交），测量不含连接获取。每轮迭代前清空表，避免表增长影响结果。</p>
+ * @author duyujie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark {
+    private static final String INSERT_SQL = "INSERT INTO users (user_name, age, status, department) VALUES (?, ?, ?, ?)";
+
+    @Param({"1", "10", "100"})
+    public int batchSize;
+
+    private BenchmarkDatabase db;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        db = BenchmarkDatabase.create();
+        connection = db.connect();
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws Exception {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("TRUNCATE TABLE users");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        db.shutdown();
+    }
+
+    private List<User> newUsers() {
+        List<User> users = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            users.add(new User("user-" + i, 20 + i % 50, "active"));
+        }
+        return users;
+    }
+
+    @Benchmark
+    public List<User> jormSave() {
+        List<User> users = newUsers();
+        try (SaveSession session = Jorm.saveSession(connection)) {
+            for (User user : users) {
+                session.save(user);
+            }
+        }
+        return users;
+    }
+
+    @Benchmark
+    public List<Long> jormBatchSave() {
+        try (SaveSession session = Jorm.saveSession(connection)) {
+            return session.batchSave(newUsers());
+        }
+    }
+
+    @Benchmark
+    public void jdbcInsert(Blackhole bh) throws Exception {
+        List<User> users = newUsers();
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (User user : users) {
+                bind(stmt, user);
+                stmt.executeUpdate();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        user.setId(keys.getLong(1));
+                    }
+                }
+            }
+        }
+        bh.consume(users);
+    }
+
+    @Benchmark
+    public int[] jdbcBatch() throws Exception {
+        List<User> users = newUsers();
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_SQL)) {
+            for (User user : users) {
+                bind(stmt, user);
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, User user) throws Exception {
+        stmt.setString(1, user.getName());
+        stmt.setInt(2, user.getAge());
+        stmt.setString(3, user.getStatus());
+        stmt.setString(4, user.getDepartment());
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.foreverstr.benchmark;
+
+import io.github.foreverstr.cache.CacheManager;
+import io.github.foreverstr.entity.User;
+import io.github.foreverstr.session.FindSession;
+import io.github.foreverstr.session.SaveSession;
+import io.github.foreverstr.session.factory.Jorm;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>单次主键查询中会话本身的分配：每次新建 {@link FindSession} 对照 {@link FindSession#recycled()}。</p>
+ * <p>两组都从只返回同一个连接（关闭操作被忽略）的数据源获取托管连接，排除 H2 建连的分配，
+ * {@code gc.alloc.rate.norm} 的差值即会话对象、条件列表与保存点、一级缓存容器的成本。</p>
+ * @author duyujie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionRecyclingBenchmark {
+    private BenchmarkDatabase db;
+    private Connection connection;
+    private Long id;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        db = BenchmarkDatabase.create();
+        CacheManager.setCacheEnabled(false);
+        connection = db.connect();
+        try (SaveSession session = Jorm.saveSession(connection)) {
+            id = session.batchSave(Collections.singletonList(new User("user", 30, "active"))).get(0);
+        }
+        Jorm.setDataSource(new SharedConnectionDataSource(connection));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        db.shutdown();
+    }
+
+    @Benchmark
+    public List<User> newSession() {
+        try (FindSession session = new FindSession()) {
+            return session.Where("id", id).Find(User.class);
+        }
+    }
+
+    @Benchmark
+    public List<User> recycledSession() {
+        try (FindSession session = FindSession.recycled()) {
+            return session.Where("id", id).Find(User.class);
+        }
+    }
+
+    // 始终返回同一个连接，会话关闭连接时不真正关闭
+    private static final class SharedConnectionDataSource implements DataSource {
+        private final Connection shared;
+
+        private SharedConnectionDataSource(Connection target) {
+            this.shared = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("close")) {
+                            return null;
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        @Override
+        public Connection getConnection() {
+            return shared;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return shared;
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            throw new SQLException("不支持 unwrap");
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.foreverstr.benchmark;
+
+import io.github.foreverstr.entity.User;
+import io.github.foreverstr.session.FindSession;
+import io.github.foreverstr.session.SaveSession;
+import io.github.foreverstr.session.factory.Jorm;
+import io.github.foreverstr.transaction.TransactionTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>TransactionTemplate.execute 的固定开销：空事务与包含一次主键查询的事务，
+ * 对照组为原生 JDBC 手动开启、提交事务。</p>
+ * <p>两边都从未加连接池的 H2 数据源获取新连接，差值即模板本身（ThreadLocal、回调列表、会话创建）的成本。</p>
+ * @author duyujie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionBenchmark {
+    private BenchmarkDatabase db;
+    private TransactionTemplate template;
+    private Long id;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        db = BenchmarkDatabase.create();
+        template = new TransactionTemplate();
+        try (Connection connection = db.connect(); SaveSession session = Jorm.saveSession(connection)) {
+            id = session.batchSave(Collections.singletonList(new User("user", 30, "active"))).get(0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.shutdown();
+    }
+
+    @Benchmark
+    public Object templateEmpty() {
+        return template.execute(() -> null);
+    }
+
+    @Benchmark
+    public List<User> templateFind() {
+        return template.execute(() -> {
+            try (FindSession session = new FindSession()) {
+                return session.Where("id", id).Find(User.class);
+            }
+        });
+    }
+
+    @Benchmark
+    public void jdbcEmpty() throws Exception {
+        try (Connection connection = db.connect()) {
+            connection.setAutoCommit(false);
+            connection.commit();
+        }
+    }
+
+    @Benchmark
+    public void jdbcFind(Blackhole bh) throws Exception {
+        try (Connection connection = db.connect()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT * FROM users WHERE id = ?")) {
+                stmt.setLong(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        bh.consume(rs.getString("user_name"));
+                    }
+                }
+            }
+            connection.commit();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.foreverstr.benchmark;
+
+import io.github.foreverstr.entity.User;
+import io.github.foreverstr.session.SaveSession;
+import io.github.foreverstr.session.UpdateSession;
+import io.github.foreverstr.session.factory.Jorm;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按主键更新单行：UpdateSession.Update 与原生 JDBC 的对比
+ * @author duyujie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateBenchmark {
+    private static final int ROWS = 1000;
+
+    private BenchmarkDatabase db;
+    private Connection connection;
+    private List<Long> ids;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        db = BenchmarkDatabase.create();
+        connection = db.connect();
+        List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(new User("user-" + i, 20 + i % 50, "active"));
+        }
+        try (SaveSession session = Jorm.saveSession(connection)) {
+            ids = session.batchSave(users);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        db.shutdown();
+    }
+
+    // 轮流更新不同的行，避免总是命中同一行
+    private Long nextId() {
+        cursor = cursor + 1 == ids.size() ? 0 : cursor + 1;
+        return ids.get(cursor);
+    }
+
+    @Benchmark
+    public void jormUpdate() {
+        try (UpdateSession session = Jorm.updateSession(connection)) {
+            session.Model(User.class).Where("id", nextId()).Set("age", cursor).Update();
+        }
+    }
+
+    @Benchmark
+    public int jdbcUpdate() throws Exception {
+        try (PreparedStatement stmt = connection.prepareStatement("UPDATE users SET age = ? WHERE id = ?")) {
+            Long id = nextId();
+            stmt.setInt(1, cursor);
+            stmt.setLong(2, id);
+            return stmt.executeUpdate();
+        }
+    }
+}
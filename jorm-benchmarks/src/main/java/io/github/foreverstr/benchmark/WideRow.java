@@ -0,0 +1,60 @@
+package io.github.foreverstr.benchmark;
+
+import io.github.foreverstr.annotation.GeneratedValue;
+import io.github.foreverstr.annotation.Id;
+import io.github.foreverstr.annotation.Table;
+import io.github.foreverstr.annotation.Enum.GenerationType;
+
+/**
+ * 二十列、类型混合的宽表实体
+ */
+@Table(name = "wide_rows")
+public class WideRow {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private int int1;
+    private int int2;
+    private int int3;
+    private int int4;
+    private int int5;
+    private int int6;
+    private long long1;
+    private long long2;
+    private long long3;
+    private String str1;
+    private String str2;
+    private String str3;
+    private String str4;
+    private String str5;
+    private String str6;
+    private double double1;
+    private double double2;
+    private boolean flag;
+    private short short1;
+
+    public WideRow() {
+    }
+
+    public WideRow(int seed) {
+        this.int1 = seed;
+        this.int2 = seed + 1;
+        this.int3 = seed + 2;
+        this.int4 = seed + 3;
+        this.int5 = seed + 4;
+        this.int6 = seed + 5;
+        this.long1 = seed * 31L;
+        this.long2 = seed * 37L;
+        this.long3 = seed * 41L;
+        this.str1 = "alpha-" + seed;
+        this.str2 = "beta-" + seed;
+        this.str3 = "gamma-" + seed;
+        this.str4 = "delta-" + seed;
+        this.str5 = "epsilon-" + seed;
+        this.str6 = "zeta-" + seed;
+        this.double1 = seed * 0.5;
+        this.double2 = seed * 0.25;
+        this.flag = (seed & 1) == 0;
+        this.short1 = (short) (seed % 1000);
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.foreverstr.loadtest;
+
+import io.github.foreverstr.instrument.LatencyHistogram;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * <p>限制同时打开连接数的 DataSource 包装，模拟连接池容量与耗尽。</p>
+ * <p>连接数达到上限时调用方排队等待，超时抛出 {@link SQLTransientConnectionException}；
+ * 等待耗时记入 {@link #getWaitHistogram()}。连接关闭时归还名额。</p>
+ * @author duyujie
+ */
+public class BoundedDataSource implements DataSource {
+    private final DataSource target;
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * @param target 被包装的数据源
+     * @param maxConnections 最大同时打开的连接数
+     * @param timeout 等待超时
+     * @param unit 时间单位
+     */
+    public BoundedDataSource(DataSource target, int maxConnections, long timeout, TimeUnit unit) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("最大连接数必须大于0");
+        }
+        this.target = target;
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return wrap(target.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return wrap(target.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("等待连接时被中断", e);
+        }
+        waitHistogram.record(System.nanoTime() - start);
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("连接池已耗尽，等待超时");
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean(false);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    public LatencyHistogram getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public void resetStatistics() {
+        waitHistogram.reset();
+        timeouts.reset();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return target.isWrapperFor(iface);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        target.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        target.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return target.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return target.getParentLogger();
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.foreverstr.loadtest;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * <p>为每次数据库往返注入固定延迟的 DataSource 包装，用本地 H2 模拟远程数据库。</p>
+ * <p>获取连接时注入建连延迟；语句的 execute* 方法以及 commit、rollback 注入往返延迟。
+ * 延迟可带随机抖动，抖动比例 0.2 表示在 ±20% 范围内均匀分布。</p>
+ * @author duyujie
+ */
+public class LatencyInjectingDataSource implements DataSource {
+    private final DataSource target;
+    private final long connectNanos;
+    private final long roundTripNanos;
+    private final double jitter;
+
+    /**
+     * @param target 被包装的数据源
+     * @param connectNanos 获取连接的延迟（纳秒）
+     * @param roundTripNanos 每次往返的延迟（纳秒）
+     * @param jitter 抖动比例，取值 0~1
+     */
+    public LatencyInjectingDataSource(DataSource target, long connectNanos, long roundTripNanos, double jitter) {
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("抖动比例必须在 0~1 之间");
+        }
+        this.target = target;
+        this.connectNanos = connectNanos;
+        this.roundTripNanos = roundTripNanos;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        pause(connectNanos);
+        return wrap(target.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        pause(connectNanos);
+        return wrap(target.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        long delay = jitter == 0 ? nanos
+                : (long) (nanos * (1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1)));
+        // parkNanos 可能提前返回，循环直到达到目标时间
+        long deadline = System.nanoTime() + delay;
+        for (long remaining = delay; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("commit".equals(name) || "rollback".equals(name)) {
+                pause(roundTripNanos);
+            }
+            Object result = LatencyInjectingDataSource.invoke(connection, method, args);
+            if (result instanceof Statement) {
+                Class<?> type = method.getReturnType();
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler((Statement) result));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+
+        StatementHandler(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                pause(roundTripNanos);
+            }
+            return LatencyInjectingDataSource.invoke(statement, method, args);
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return target.isWrapperFor(iface);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        target.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        target.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return target.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return target.getParentLogger();
+    }
+}
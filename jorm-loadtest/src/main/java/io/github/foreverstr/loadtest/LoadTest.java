@@ -0,0 +1,163 @@
+package io.github.foreverstr.loadtest;
+
+import io.github.foreverstr.cache.CacheManager;
+import io.github.foreverstr.cache.CacheRegionStats;
+import io.github.foreverstr.cache.impl.OffHeapSecondLevelCache;
+import io.github.foreverstr.entity.User;
+import io.github.foreverstr.instrument.LatencyHistogram;
+import io.github.foreverstr.session.SaveSession;
+import io.github.foreverstr.session.factory.Jorm;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>多线程压测入口：对 H2 内存库执行混合 CRUD 负载，依次使用配置的各个线程数，
+ * 输出每种操作的吞吐量与延迟分位，以及连接等待与缓存命中情况。</p>
+ * <pre>
+ *   java -jar target/loadtest.jar --threads=1,8,32 --latency-us=1000 --pool=8
+ * </pre>
+ * @author duyujie
+ * @see LoadTestConfig
+ */
+public final class LoadTest {
+    private static final WorkloadOperation[] OPERATIONS = WorkloadOperation.values();
+
+    private final LoadTestConfig config;
+    private final BoundedDataSource dataSource;
+    private final Workload workload;
+
+    private LoadTest(LoadTestConfig config) throws Exception {
+        this.config = config;
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL(String.format("jdbc:h2:mem:load_%s;DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_UPPER=false",
+                UUID.randomUUID().toString().replace("-", "")));
+        h2.setUser("sa");
+        h2.setPassword("");
+        try (Connection conn = h2.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (id BIGINT PRIMARY KEY AUTO_INCREMENT, user_name VARCHAR(255), "
+                    + "age INT, status VARCHAR(255), department VARCHAR(255))");
+            stmt.execute("CREATE INDEX idx_users_department ON users (department)");
+            List<User> users = new ArrayList<>(config.rows);
+            for (int i = 0; i < config.rows; i++) {
+                users.add(Workload.newUser(ThreadLocalRandom.current()));
+            }
+            try (SaveSession session = Jorm.saveSession(conn)) {
+                session.batchSave(users);
+            }
+        }
+        LatencyInjectingDataSource remote = new LatencyInjectingDataSource(h2,
+                TimeUnit.MICROSECONDS.toNanos(config.connectLatencyMicros),
+                TimeUnit.MICROSECONDS.toNanos(config.latencyMicros), config.jitter);
+        this.dataSource = new BoundedDataSource(remote, config.poolSize, config.poolTimeoutMillis, TimeUnit.MILLISECONDS);
+        Jorm.setDataSource(dataSource);
+        if (config.cache) {
+            CacheManager.setSecondLevelCache(new OffHeapSecondLevelCache(32L * 1024 * 1024));
+        }
+        this.workload = new Workload(config.mix, config.rows);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        System.out.println("配置: " + config);
+        LoadTest test = new LoadTest(config);
+        for (int threads : config.threads) {
+            test.runRound(threads);
+        }
+    }
+
+    private void runRound(int threads) throws InterruptedException {
+        Round warmup = new Round();
+        drive(threads, TimeUnit.SECONDS.toNanos(config.warmupSeconds), warmup);
+        dataSource.resetStatistics();
+        CacheManager.getStatistics().reset();
+
+        Round round = new Round();
+        long start = System.nanoTime();
+        drive(threads, TimeUnit.SECONDS.toNanos(config.durationSeconds), round);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        report(threads, seconds, round);
+    }
+
+    private void drive(int threads, long durationNanos, Round round) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + durationNanos;
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        WorkloadOperation operation = workload.next();
+                        long begin = System.nanoTime();
+                        try {
+                            workload.run(operation);
+                            round.latencies[operation.ordinal()].record(System.nanoTime() - begin);
+                        } catch (RuntimeException e) {
+                            round.errors[operation.ordinal()].increment();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        executor.shutdown();
+    }
+
+    private void report(int threads, double seconds, Round round) {
+        long totalOps = 0;
+        long totalErrors = 0;
+        StringBuilder rows = new StringBuilder();
+        for (WorkloadOperation operation : OPERATIONS) {
+            LatencyHistogram.Snapshot s = round.latencies[operation.ordinal()].snapshot();
+            long errors = round.errors[operation.ordinal()].sum();
+            totalOps += s.getCount();
+            totalErrors += errors;
+            rows.append(String.format(Locale.ROOT, "  %-8s %10d %10.1f %9.3f %9.3f %9.3f %9.3f %8d%n",
+                    operation.label(), s.getCount(), s.getCount() / seconds,
+                    s.getPercentileNanos(50) / 1e6, s.getPercentileNanos(95) / 1e6,
+                    s.getPercentileNanos(99) / 1e6, s.getMaxNanos() / 1e6, errors));
+        }
+        LatencyHistogram.Snapshot wait = dataSource.getWaitHistogram().snapshot();
+        System.out.printf(Locale.ROOT, "%n线程数=%d 时长=%.1fs 吞吐=%.1f ops/s 失败=%d%n",
+                threads, seconds, totalOps / seconds, totalErrors);
+        System.out.printf(Locale.ROOT, "  %-8s %10s %10s %9s %9s %9s %9s %8s%n",
+                "op", "count", "ops/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)", "errors");
+        System.out.print(rows);
+        System.out.printf(Locale.ROOT, "  连接等待: p50=%.3fms p99=%.3fms max=%.3fms 超时=%d%n",
+                wait.getPercentileNanos(50) / 1e6, wait.getPercentileNanos(99) / 1e6,
+                wait.getMaxNanos() / 1e6, dataSource.getTimeouts());
+        if (config.cache) {
+            CacheRegionStats cache = CacheManager.getStatistics().snapshot(User.class.getName());
+            System.out.printf(Locale.ROOT, "  缓存: 命中率=%.1f%% 命中=%d 未命中=%d 失效=%d%n",
+                    cache.getHitRatio() * 100, cache.getHits(), cache.getMisses(), cache.getInvalidations());
+        }
+    }
+
+    /**
+     * 单轮测量的累计值
+     */
+    private static final class Round {
+        final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+        final LongAdder[] errors = new LongAdder[OPERATIONS.length];
+
+        Round() {
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                latencies[i] = new LatencyHistogram();
+                errors[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.foreverstr.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>压测参数，通过 {@code --key=value} 形式的命令行参数覆盖默认值：</p>
+ * <pre>
+ *   --threads=1,4,16          依次运行的并发线程数
+ *   --duration=10             每轮测量时长（秒）
+ *   --warmup=3                每轮预热时长（秒）
+ *   --latency-us=500          每次数据库往返注入的延迟（微秒）
+ *   --connect-latency-us=2000 获取连接注入的延迟（微秒）
+ *   --jitter=0.2              延迟抖动比例
+ *   --pool=8                  最大同时打开的连接数
+ *   --pool-timeout-ms=1000    等待连接的超时（毫秒）
+ *   --cache=offheap           二级缓存：offheap 或 none
+ *   --rows=1000               预置数据行数
+ *   --mix=find:60,save:15,update:15,delete:5,tx:5  操作比例
+ * </pre>
+ * @author duyujie
+ */
+final class LoadTestConfig {
+    int[] threads = {1, 4, 16};
+    int durationSeconds = 10;
+    int warmupSeconds = 3;
+    long latencyMicros = 500;
+    long connectLatencyMicros = 2000;
+    double jitter = 0.2;
+    int poolSize = 8;
+    long poolTimeoutMillis = 1000;
+    boolean cache = true;
+    int rows = 1000;
+    final Map<WorkloadOperation, Integer> mix = new EnumMap<>(WorkloadOperation.class);
+
+    private LoadTestConfig() {
+        mix.put(WorkloadOperation.FIND, 60);
+        mix.put(WorkloadOperation.SAVE, 15);
+        mix.put(WorkloadOperation.UPDATE, 15);
+        mix.put(WorkloadOperation.DELETE, 5);
+        mix.put(WorkloadOperation.TRANSACTION, 5);
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+                case "threads":
+                    List<Integer> counts = new ArrayList<>();
+                    for (String part : value.split(",")) counts.add(Integer.parseInt(part.trim()));
+                    config.threads = counts.stream().mapToInt(Integer::intValue).toArray();
+                    break;
+                case "duration":
+                    config.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "warmup":
+                    config.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "latency-us":
+                    config.latencyMicros = Long.parseLong(value);
+                    break;
+                case "connect-latency-us":
+                    config.connectLatencyMicros = Long.parseLong(value);
+                    break;
+                case "jitter":
+                    config.jitter = Double.parseDouble(value);
+                    break;
+                case "pool":
+                    config.poolSize = Integer.parseInt(value);
+                    break;
+                case "pool-timeout-ms":
+                    config.poolTimeoutMillis = Long.parseLong(value);
+                    break;
+                case "cache":
+                    config.cache = !"none".equalsIgnoreCase(value);
+                    break;
+                case "rows":
+                    config.rows = Integer.parseInt(value);
+                    break;
+                case "mix":
+                    config.mix.clear();
+                    for (String part : value.split(",")) {
+                        String[] kv = part.split(":");
+                        config.mix.put(WorkloadOperation.fromName(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数: " + key);
+            }
+        }
+        return config;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("latency=%dus connect=%dus jitter=%.2f pool=%d cache=%s rows=%d mix=%s",
+                latencyMicros, connectLatencyMicros, jitter, poolSize, cache ? "offheap" : "none", rows, mix);
+    }
+}
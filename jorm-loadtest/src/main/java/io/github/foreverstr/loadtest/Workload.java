@@ -0,0 +1,98 @@
+package io.github.foreverstr.loadtest;
+
+import io.github.foreverstr.entity.User;
+import io.github.foreverstr.session.SaveSession;
+import io.github.foreverstr.session.UpdateSession;
+import io.github.foreverstr.session.base.JormSession;
+import io.github.foreverstr.transaction.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>混合 CRUD 负载：按配置比例随机选择操作，通过 {@link JormSession} 与 {@link TransactionTemplate} 执行。</p>
+ * <p>查询按部门过滤，部门取值有限，开启二级缓存时会产生稳定的命中；写操作会失效对应缓存区域。</p>
+ * @author duyujie
+ */
+final class Workload {
+    static final String[] DEPARTMENTS = {"R&D", "Sales", "Ops", "HR", "Finance", "Legal", "QA", "Support"};
+
+    private final WorkloadOperation[] table = new WorkloadOperation[100];
+    private final TransactionTemplate template = new TransactionTemplate();
+    private final int rows;
+
+    Workload(Map<WorkloadOperation, Integer> mix, int rows) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("操作比例之和必须大于0");
+        }
+        // 按比例展开为 100 格的抽样表
+        int index = 0;
+        int accumulated = 0;
+        for (Map.Entry<WorkloadOperation, Integer> e : mix.entrySet()) {
+            accumulated += e.getValue();
+            int end = (int) Math.round(accumulated * 100.0 / total);
+            while (index < end) table[index++] = e.getKey();
+        }
+        this.rows = rows;
+    }
+
+    WorkloadOperation next() {
+        return table[ThreadLocalRandom.current().nextInt(table.length)];
+    }
+
+    void run(WorkloadOperation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case FIND:
+                try (JormSession session = new JormSession()) {
+                    session.findSession()
+                            .Where("department", DEPARTMENTS[random.nextInt(DEPARTMENTS.length)])
+                            .Limit(20)
+                            .Find(User.class);
+                }
+                break;
+            case SAVE:
+                try (JormSession session = new JormSession()) {
+                    session.saveSession().save(newUser(random));
+                }
+                break;
+            case UPDATE:
+                try (JormSession session = new JormSession()) {
+                    session.updateSession().Model(User.class)
+                            .Where("id", randomId(random))
+                            .Set("age", 18 + random.nextInt(50))
+                            .Update();
+                }
+                break;
+            case DELETE:
+                try (JormSession session = new JormSession()) {
+                    session.deleteSession().Where("id", randomId(random)).Delete(User.class);
+                }
+                break;
+            case TRANSACTION:
+                template.execute(() -> {
+                    try (SaveSession session = new SaveSession()) {
+                        session.save(newUser(random));
+                    }
+                    try (UpdateSession session = new UpdateSession()) {
+                        session.Model(User.class).Where("id", randomId(random)).Set("status", "moved").Update();
+                    }
+                    return null;
+                });
+                break;
+            default:
+                throw new IllegalStateException(operation.name());
+        }
+    }
+
+    static User newUser(ThreadLocalRandom random) {
+        User user = new User("user-" + random.nextInt(1_000_000), 18 + random.nextInt(50), "active");
+        user.setDepartment(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+        return user;
+    }
+
+    private long randomId(ThreadLocalRandom random) {
+        return 1 + random.nextInt(rows);
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.foreverstr.loadtest;
+
+/**
+ * 压测中的操作类型
+ * @author duyujie
+ */
+enum WorkloadOperation {
+    FIND("find"),
+    SAVE("save"),
+    UPDATE("update"),
+    DELETE("delete"),
+    TRANSACTION("tx");
+
+    private final String label;
+
+    WorkloadOperation(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+
+    static WorkloadOperation fromName(String name) {
+        for (WorkloadOperation op : values()) {
+            if (op.label.equalsIgnoreCase(name) || op.name().equalsIgnoreCase(name)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("未知操作: " + name);
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.foreverstr.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cacheable 注解（类级别，配置实体查询结果的二级缓存策略）
+ * <pre>
+ * &#64;Table(name = "users")
+ * &#64;Cacheable(ttl = 600, cacheEmpty = true, negativeTtl = 30)
+ * public class User { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Cacheable {
+    // 是否缓存该实体的查询结果
+    boolean enabled() default true;
+    // 非空结果的过期时间，小于等于 0 表示使用缓存实现自身的默认过期策略
+    long ttl() default -1;
+    // 是否缓存空结果（负缓存），仅在缓存实现支持按条目过期（SecondLevelCache#supportsTtl）时生效
+    boolean cacheEmpty() default false;
+    // 空结果的过期时间，应远小于 ttl
+    long negativeTtl() default 60;
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+}
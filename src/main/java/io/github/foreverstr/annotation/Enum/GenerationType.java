@@ -2,8 +2,16 @@ package io.github.foreverstr.annotation.Enum;
 
 /**
  * 主键生成策略
+ * <ul>
+ *     <li>AUTO：不生成，使用实体上已有的值</li>
+ *     <li>IDENTITY：数据库自增列，插入后通过 generated keys 回填</li>
+ *     <li>SEQUENCE：hi-lo 号段，每次从数据库序列取一个 hi 值换取 allocationSize 个主键</li>
+ *     <li>TABLE：hi-lo 号段，hi 值保存在键值表 jorm_sequences 中，适用于没有序列的数据库</li>
+ *     <li>SNOWFLAKE：时间戳 + 机器号 + 序号，完全在客户端生成</li>
+ * </ul>
+ * 除 AUTO、IDENTITY 外的策略在插入前于客户端分配主键，插入语句不需要回读生成的主键。
  * @author 杜玉杰
  */
 public enum GenerationType {
-    AUTO, IDENTITY
-}
\ No newline at end of file
+    AUTO, IDENTITY, SEQUENCE, TABLE, SNOWFLAKE
+}
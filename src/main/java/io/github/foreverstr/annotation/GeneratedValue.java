@@ -14,4 +14,14 @@ import java.lang.annotation.Target;
 @Target(ElementType.FIELD)
 public @interface GeneratedValue {
     GenerationType strategy() default GenerationType.AUTO;
+
+    /**
+     * SEQUENCE 为序列名，默认“表名_seq”；TABLE 为键值表中的键，默认表名
+     */
+    String generator() default "";
+
+    /**
+     * SEQUENCE、TABLE 策略每次向数据库申请的号段大小
+     */
+    int allocationSize() default 50;
 }
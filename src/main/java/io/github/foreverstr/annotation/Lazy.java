@@ -0,0 +1,14 @@
+package io.github.foreverstr.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lazy 注解（字段级别，标注大字段：默认查询不读取，需要时通过 FindSession.LoadLazy 批量加载）
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Lazy {
+}
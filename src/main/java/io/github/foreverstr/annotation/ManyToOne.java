@@ -0,0 +1,22 @@
+package io.github.foreverstr.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ManyToOne 注解（字段级别，标注引用的父实体，不对应数据库列）
+ * <pre>
+ * &#64;Column(name = "user_id")
+ * private Long userId;
+ * &#64;ManyToOne(foreignKey = "user_id")
+ * private User user;
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ManyToOne {
+    // 当前实体上保存父实体主键的列名
+    String foreignKey();
+}
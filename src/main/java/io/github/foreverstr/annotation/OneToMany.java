@@ -0,0 +1,22 @@
+package io.github.foreverstr.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * OneToMany 注解（字段级别，标注子实体集合，不对应数据库列，字段类型须为 List）
+ * <pre>
+ * &#64;OneToMany(foreignKey = "user_id")
+ * private List&lt;Order&gt; orders;
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface OneToMany {
+    // 子实体上引用当前实体主键的列名
+    String foreignKey();
+    // 子实体类型，默认从 List 的泛型参数推断
+    Class<?> targetEntity() default void.class;
+}
@@ -0,0 +1,14 @@
+package io.github.foreverstr.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Version 注解（字段级别，乐观锁版本号，类型为 int/Integer/long/Long：更新时作为条件并自增，影响 0 行视为冲突）
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Version {
+}
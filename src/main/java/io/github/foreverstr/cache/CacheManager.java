@@ -1,17 +1,32 @@
 package io.github.foreverstr.cache;
 
+import io.github.foreverstr.annotation.Cacheable;
 import io.github.foreverstr.cache.impl.NoOpSecondLevelCache;
+import io.github.foreverstr.cache.impl.StatisticsSecondLevelCache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CacheManager {
     private static SecondLevelCache secondLevelCache = new NoOpSecondLevelCache();
     private static boolean cacheEnabled = false;
+    private static final CacheStatistics statistics = new CacheStatistics();
+    // 编程方式注册的缓存策略，优先于注解
+    private static final Map<Class<?>, CachePolicy> registeredPolicies = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, CachePolicy> resolvedPolicies = new ConcurrentHashMap<>();
 
-    // 设置缓存实现
+    // 设置缓存实现，非空实现外层自动包裹统计装饰器；被替换的字节型缓存解除统计绑定
     public static void setSecondLevelCache(SecondLevelCache cache) {
-        secondLevelCache = cache;
+        unbindStatistics(secondLevelCache);
         cacheEnabled = (cache != null && !(cache instanceof NoOpSecondLevelCache));
+        secondLevelCache = cacheEnabled && !(cache instanceof StatisticsSecondLevelCache)
+                ? new StatisticsSecondLevelCache(cache, statistics) : cache;
     }
 
+    /**
+     * @return 当前使用的缓存；启用缓存时为包裹在配置实例外层的 {@link StatisticsSecondLevelCache}，
+     * 可通过 {@link StatisticsSecondLevelCache#getDelegate()} 取得配置的实例
+     */
     public static SecondLevelCache getSecondLevelCache() {
         return secondLevelCache;
     }
@@ -23,7 +38,46 @@ public class CacheManager {
     public static void setCacheEnabled(boolean enabled) {
         cacheEnabled = enabled;
         if (!enabled) {
+            unbindStatistics(secondLevelCache);
             secondLevelCache = new NoOpSecondLevelCache();
         }
     }
-}
\ No newline at end of file
+
+    private static void unbindStatistics(SecondLevelCache cache) {
+        if (cache instanceof StatisticsSecondLevelCache) {
+            SecondLevelCache delegate = ((StatisticsSecondLevelCache) cache).getDelegate();
+            if (delegate instanceof EncodedSecondLevelCache) {
+                ((EncodedSecondLevelCache) delegate).bindStatistics(null);
+            }
+        }
+    }
+
+    // 获取按区域统计的缓存命中、写入、淘汰等指标
+    public static CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    // 为实体注册缓存策略，覆盖实体上的 @Cacheable
+    public static void registerCachePolicy(Class<?> entityClass, CachePolicy policy) {
+        registeredPolicies.put(entityClass, policy);
+        resolvedPolicies.remove(entityClass);
+    }
+
+    // 移除编程方式注册的策略，恢复为注解或默认策略
+    public static void removeCachePolicy(Class<?> entityClass) {
+        registeredPolicies.remove(entityClass);
+        resolvedPolicies.remove(entityClass);
+    }
+
+    // 获取实体的缓存策略：注册策略 > @Cacheable > 默认策略
+    public static CachePolicy getCachePolicy(Class<?> entityClass) {
+        return resolvedPolicies.computeIfAbsent(entityClass, clazz -> {
+            CachePolicy registered = registeredPolicies.get(clazz);
+            if (registered != null) {
+                return registered;
+            }
+            Cacheable cacheable = clazz.getAnnotation(Cacheable.class);
+            return cacheable != null ? CachePolicy.from(cacheable) : CachePolicy.DEFAULT;
+        });
+    }
+}
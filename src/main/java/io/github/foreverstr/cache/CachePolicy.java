@@ -0,0 +1,92 @@
+package io.github.foreverstr.cache;
+
+import io.github.foreverstr.annotation.Cacheable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>单个实体（缓存区域）的二级缓存策略，不可变。</p>
+ * <p>策略来源优先级：{@link CacheManager#registerCachePolicy(Class, CachePolicy)} 注册的策略 &gt;
+ * 实体上的 {@link Cacheable} 注解 &gt; {@link #DEFAULT}。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class CachePolicy {
+    /**
+     * 默认策略：缓存非空结果，过期时间由缓存实现决定，不缓存空结果
+     */
+    public static final CachePolicy DEFAULT = new CachePolicy(true, -1, false, 0);
+    /**
+     * 不缓存
+     */
+    public static final CachePolicy DISABLED = new CachePolicy(false, -1, false, 0);
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final boolean cacheEmpty;
+    private final long negativeTtlMillis;
+
+    /**
+     * @param enabled 是否缓存
+     * @param ttlMillis 非空结果过期毫秒数，小于等于 0 表示使用缓存实现的默认策略
+     * @param cacheEmpty 是否缓存空结果
+     * @param negativeTtlMillis 空结果过期毫秒数
+     */
+    public CachePolicy(boolean enabled, long ttlMillis, boolean cacheEmpty, long negativeTtlMillis) {
+        this.enabled = enabled;
+        this.ttlMillis = ttlMillis;
+        this.cacheEmpty = cacheEmpty;
+        this.negativeTtlMillis = negativeTtlMillis;
+    }
+
+    /**
+     * 由注解构建策略
+     * @param cacheable 注解
+     * @return 策略
+     */
+    public static CachePolicy from(Cacheable cacheable) {
+        TimeUnit unit = cacheable.timeUnit();
+        return new CachePolicy(cacheable.enabled(),
+                cacheable.ttl() > 0 ? unit.toMillis(cacheable.ttl()) : -1,
+                cacheable.cacheEmpty(),
+                unit.toMillis(cacheable.negativeTtl()));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public boolean isCacheEmpty() {
+        return cacheEmpty;
+    }
+
+    public long getNegativeTtlMillis() {
+        return negativeTtlMillis;
+    }
+
+    /**
+     * @param empty 结果是否为空
+     * @return 该结果是否应写入缓存
+     */
+    public boolean shouldCache(boolean empty) {
+        return enabled && (!empty || (cacheEmpty && negativeTtlMillis > 0));
+    }
+
+    /**
+     * @param empty 结果是否为空
+     * @return 写入缓存时使用的过期毫秒数
+     */
+    public long ttlFor(boolean empty) {
+        return empty ? negativeTtlMillis : ttlMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "CachePolicy{enabled=" + enabled + ", ttlMillis=" + ttlMillis
+                + ", cacheEmpty=" + cacheEmpty + ", negativeTtlMillis=" + negativeTtlMillis + '}';
+    }
+}
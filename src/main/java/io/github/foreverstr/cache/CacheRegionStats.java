@@ -0,0 +1,113 @@
+package io.github.foreverstr.cache;
+
+/**
+ * 单个缓存区域的统计快照（不可变）
+ * @author duyujie
+ * @version 1.0
+ * @see CacheStatistics
+ */
+public final class CacheRegionStats {
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long evictions;
+    private final long invalidations;
+    private final long loads;
+    private final long totalLoadNanos;
+    private final long totalEntryRows;
+    private final long encodedEntries;
+    private final long totalEntryBytes;
+
+    CacheRegionStats(String region, long hits, long misses, long puts, long evictions, long invalidations,
+                     long loads, long totalLoadNanos, long totalEntryRows, long encodedEntries, long totalEntryBytes) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.loads = loads;
+        this.totalLoadNanos = totalLoadNanos;
+        this.totalEntryRows = totalEntryRows;
+        this.encodedEntries = encodedEntries;
+        this.totalEntryBytes = totalEntryBytes;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    public long getTotalLoadNanos() {
+        return totalLoadNanos;
+    }
+
+    public long getTotalEntryRows() {
+        return totalEntryRows;
+    }
+
+    public long getTotalEntryBytes() {
+        return totalEntryBytes;
+    }
+
+    /**
+     * @return 命中率，没有请求时为 0
+     */
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    /**
+     * @return 未命中时数据库加载的平均耗时（毫秒）
+     */
+    public double getAverageLoadMillis() {
+        return loads == 0 ? 0 : totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    /**
+     * @return 平均每个缓存条目的结果行数
+     */
+    public double getAverageEntryRows() {
+        return puts == 0 ? 0 : (double) totalEntryRows / puts;
+    }
+
+    /**
+     * @return 平均每个编码条目的字节数，非字节型缓存为 0
+     */
+    public double getAverageEntryBytes() {
+        return encodedEntries == 0 ? 0 : (double) totalEntryBytes / encodedEntries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheRegionStats{region=%s, hits=%d, misses=%d, hitRatio=%.3f, puts=%d, evictions=%d, "
+                        + "invalidations=%d, avgLoadMs=%.3f, avgRows=%.1f, avgBytes=%.1f}",
+                region, hits, misses, getHitRatio(), puts, evictions, invalidations,
+                getAverageLoadMillis(), getAverageEntryRows(), getAverageEntryBytes());
+    }
+}
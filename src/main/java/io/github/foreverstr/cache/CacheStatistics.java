@@ -0,0 +1,140 @@
+package io.github.foreverstr.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>二级缓存统计，按缓存区域（实体类全名）使用 {@link LongAdder} 分散计数，记录开销很低，适合高并发查询路径。</p>
+ * <p>通过 {@link CacheManager#getStatistics()} 获取，{@link #snapshot()} 返回某一时刻的只读快照：</p>
+ * <pre>
+ *     CacheRegionStats stats = CacheManager.getStatistics().snapshot(User.class.getName());
+ *     log.info("命中率 {}", stats.getHitRatio());
+ * </pre>
+ * @author duyujie
+ * @version 1.0
+ * @see CacheRegionStats
+ */
+public class CacheStatistics {
+    private final Map<String, Counters> regions = new ConcurrentHashMap<>();
+
+    public void recordHit(String region) {
+        counters(region).hits.increment();
+    }
+
+    public void recordMiss(String region) {
+        counters(region).misses.increment();
+    }
+
+    /**
+     * @param region 缓存区域
+     * @param rows 写入的结果行数，未知时传入负数
+     */
+    public void recordPut(String region, int rows) {
+        Counters c = counters(region);
+        c.puts.increment();
+        if (rows >= 0) {
+            c.entryRows.add(rows);
+        }
+    }
+
+    /**
+     * 记录编码后的条目大小，由字节型缓存（{@link EncodedSecondLevelCache}）上报
+     * @param region 缓存区域
+     * @param bytes 字节数
+     */
+    public void recordEntryBytes(String region, int bytes) {
+        Counters c = counters(region);
+        c.encodedEntries.increment();
+        c.entryBytes.add(bytes);
+    }
+
+    /**
+     * 记录因容量或过期被缓存实现淘汰的条目
+     * @param region 缓存区域
+     */
+    public void recordEviction(String region) {
+        counters(region).evictions.increment();
+    }
+
+    /**
+     * 记录主动失效（remove / clearRegion）
+     * @param region 缓存区域
+     */
+    public void recordInvalidation(String region) {
+        counters(region).invalidations.increment();
+    }
+
+    /**
+     * 记录未命中后从数据库加载的耗时
+     * @param region 缓存区域
+     * @param nanos 纳秒
+     */
+    public void recordLoad(String region, long nanos) {
+        Counters c = counters(region);
+        c.loads.increment();
+        c.loadNanos.add(nanos);
+    }
+
+    /**
+     * 记录 clearAll，对所有已知区域各计一次失效
+     */
+    public void recordClearAll() {
+        for (Counters c : regions.values()) {
+            c.invalidations.increment();
+        }
+    }
+
+    /**
+     * @return 所有区域的统计快照，按区域名排序
+     */
+    public Map<String, CacheRegionStats> snapshot() {
+        Map<String, CacheRegionStats> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Counters> e : new TreeMap<>(regions).entrySet()) {
+            result.put(e.getKey(), e.getValue().snapshot(e.getKey()));
+        }
+        return result;
+    }
+
+    /**
+     * @param region 缓存区域
+     * @return 指定区域的统计快照，没有记录时各项为 0
+     */
+    public CacheRegionStats snapshot(String region) {
+        Counters c = regions.get(region);
+        return c != null ? c.snapshot(region) : new Counters().snapshot(region);
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        regions.clear();
+    }
+
+    private Counters counters(String region) {
+        Counters c = regions.get(region);
+        return c != null ? c : regions.computeIfAbsent(region, r -> new Counters());
+    }
+
+    private static final class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder puts = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder loadNanos = new LongAdder();
+        private final LongAdder entryRows = new LongAdder();
+        private final LongAdder encodedEntries = new LongAdder();
+        private final LongAdder entryBytes = new LongAdder();
+
+        CacheRegionStats snapshot(String region) {
+            return new CacheRegionStats(region, hits.sum(), misses.sum(), puts.sum(), evictions.sum(),
+                    invalidations.sum(), loads.sum(), loadNanos.sum(), entryRows.sum(),
+                    encodedEntries.sum(), entryBytes.sum());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.foreverstr.cache;
+
+import io.github.foreverstr.cache.codec.BinaryRowCodec;
+import io.github.foreverstr.cache.codec.CacheCodec;
+import io.github.foreverstr.exception.JormException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>以字节形式存储查询结果的二级缓存基类。</p>
+ * <p>Jorm 以实体类全名作为缓存区域（region），本类据此解析实体类型，通过 {@link CacheCodec}
+ * 把实体列表编码为字节后交给子类存储；读取时再解码为新的实体实例，调用方修改返回的实体不会污染缓存。</p>
+ * <p>Redis、堆外内存等实现只需继承本类并实现字节级的读写即可。编解码失败时只记录日志并按未命中处理，
+ * 不影响查询本身。</p>
+ * <p>条目字节数与淘汰次数上报给绑定的 {@link CacheStatistics}，由 {@link CacheManager} 包裹统计装饰器时绑定；
+ * 未安装到 {@link CacheManager} 的实例不记录统计。</p>
+ * @author duyujie
+ * @version 1.0
+ * @see BinaryRowCodec
+ */
+public abstract class EncodedSecondLevelCache implements SecondLevelCache {
+    private static final Logger log = LoggerFactory.getLogger(EncodedSecondLevelCache.class);
+    private static final Class<?> UNRESOLVED = Void.class;
+
+    private final CacheCodec codec;
+    private final Map<String, Class<?>> regionTypes = new ConcurrentHashMap<>();
+    private volatile CacheStatistics statistics; // 由统计装饰器绑定，未绑定时不上报
+
+    protected EncodedSecondLevelCache() {
+        this(new BinaryRowCodec());
+    }
+
+    protected EncodedSecondLevelCache(CacheCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * 存储编码后的负载
+     * @param region 缓存区域
+     * @param key 缓存键
+     * @param payload 编码后的字节
+     */
+    protected abstract void putBytes(String region, String key, byte[] payload);
+
+    /**
+     * 带过期时间存储编码后的负载，支持过期的实现应覆盖本方法
+     * @param region 缓存区域
+     * @param key 缓存键
+     * @param payload 编码后的字节
+     * @param ttlMillis 过期毫秒数，小于等于 0 表示使用实现自身的默认过期策略
+     */
+    protected void putBytes(String region, String key, byte[] payload, long ttlMillis) {
+        putBytes(region, key, payload);
+    }
+
+    /**
+     * 读取编码后的负载
+     * @param region 缓存区域
+     * @param key 缓存键
+     * @return 字节，未命中时返回 null
+     */
+    protected abstract byte[] getBytes(String region, String key);
+
+    @Override
+    public void put(String region, String key, Object value) {
+        put(region, key, value, -1);
+    }
+
+    @Override
+    public void put(String region, String key, Object value, long ttlMillis) {
+        byte[] payload = encode(region, value);
+        if (payload != null) {
+            putBytes(region, key, payload, ttlMillis);
+            CacheStatistics current = statistics;
+            if (current != null) {
+                current.recordEntryBytes(region, payload.length);
+            }
+        }
+    }
+
+    @Override
+    public Object get(String region, String key) {
+        byte[] payload = getBytes(region, key);
+        if (payload == null) {
+            return null;
+        }
+        Class<?> type = resolveRegionType(region);
+        if (type == null) {
+            return null;
+        }
+        try {
+            List<?> result = codec.decode(type, payload);
+            if (result == null) {
+                log.debug("缓存负载与当前实体结构不兼容，按未命中处理: [Region={}, Key={}]", region, key);
+                remove(region, key);
+            }
+            return result;
+        } catch (JormException e) {
+            log.warn("[ErrorCode={}] 缓存解码失败，按未命中处理: [Region={}, Key={}]",
+                    e.getErrorCode().getCode(), region, key, e);
+            remove(region, key);
+            return null;
+        }
+    }
+
+    /**
+     * 把查询结果编码为字节，无法编码时返回 null
+     * @param region 缓存区域
+     * @param value 查询结果
+     * @return 字节或 null
+     */
+    @SuppressWarnings("unchecked")
+    protected byte[] encode(String region, Object value) {
+        if (!(value instanceof List)) {
+            log.debug("非列表类型的缓存值不做编码: [Region={}]", region);
+            return null;
+        }
+        Class<?> type = resolveRegionType(region);
+        if (type == null) {
+            return null;
+        }
+        List<Object> list = (List<Object>) value;
+        for (Object element : list) {
+            if (element == null || element.getClass() != type) {
+                log.debug("列表元素类型与缓存区域不一致，跳过缓存: [Region={}]", region);
+                return null;
+            }
+        }
+        try {
+            return codec.encode((Class<Object>) type, list);
+        } catch (JormException e) {
+            log.warn("[ErrorCode={}] 缓存编码失败，跳过缓存: [Region={}] {}",
+                    e.getErrorCode().getCode(), region, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存区域名即实体类全名，解析结果按区域缓存
+     * @param region 缓存区域
+     * @return 实体类型，无法解析时返回 null
+     */
+    protected Class<?> resolveRegionType(String region) {
+        Class<?> type = regionTypes.computeIfAbsent(region, r -> {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            try {
+                return Class.forName(r, false, loader != null ? loader : EncodedSecondLevelCache.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                log.warn("无法根据缓存区域解析实体类型: [Region={}]", r);
+                return UNRESOLVED;
+            }
+        });
+        return type == UNRESOLVED ? null : type;
+    }
+
+    protected CacheCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * 绑定统计，之后条目字节数与淘汰次数上报到该统计，传入 null 时停止上报。
+     * 由 {@link io.github.foreverstr.cache.impl.StatisticsSecondLevelCache} 在包裹本实例时调用
+     * @param statistics 统计，可为 null
+     */
+    public void bindStatistics(CacheStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * 上报因容量或过期被淘汰的条目，供子类调用
+     * @param region 缓存区域
+     */
+    protected void recordEviction(String region) {
+        CacheStatistics current = statistics;
+        if (current != null) {
+            current.recordEviction(region);
+        }
+    }
+}
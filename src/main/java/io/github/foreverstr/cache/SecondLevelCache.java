@@ -2,8 +2,28 @@ package io.github.foreverstr.cache;
 
 public interface SecondLevelCache {
     void put(String region, String key, Object value);
+
+    /**
+     * 带过期时间写入，由 {@link CachePolicy} 驱动。未实现过期的缓存忽略 ttl，退化为 {@link #put(String, String, Object)}
+     * @param region 缓存区域
+     * @param key 缓存键
+     * @param value 缓存值
+     * @param ttlMillis 过期毫秒数，小于等于 0 表示使用实现自身的默认过期策略
+     */
+    default void put(String region, String key, Object value, long ttlMillis) {
+        put(region, key, value);
+    }
+
+    /**
+     * 是否按 {@link #put(String, String, Object, long)} 的 ttl 让条目过期。返回 false 时 Jorm 不缓存空结果，
+     * 以免“未找到”在数据插入后一直有效
+     * @return 实现了按条目过期时返回 true
+     */
+    default boolean supportsTtl() {
+        return false;
+    }
     Object get(String region, String key);
     void remove(String region, String key);
     void clearRegion(String region);
     void clearAll();
-}
\ No newline at end of file
+}
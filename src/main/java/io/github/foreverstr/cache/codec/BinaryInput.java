@@ -0,0 +1,108 @@
+package io.github.foreverstr.cache.codec;
+
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 与 {@link BinaryOutput} 对应的字节输入
+ */
+final class BinaryInput {
+    private final byte[] buf;
+    private int pos;
+    private final int limit;
+    private String[] dictionary;
+
+    BinaryInput(byte[] buf, int offset, int limit) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = limit;
+    }
+
+    private void require(int n) {
+        if (pos + n > limit) {
+            throw new JormException(ErrorCode.CACHE_DECODE_FAILED, "缓存数据被截断");
+        }
+    }
+
+    int readByte() {
+        require(1);
+        return buf[pos++] & 0xFF;
+    }
+
+    int readInt() {
+        require(4);
+        int v = ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16)
+                | ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+        pos += 4;
+        return v;
+    }
+
+    long readLong() {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new JormException(ErrorCode.CACHE_DECODE_FAILED, "变长整数格式错误");
+    }
+
+    long readZigZag() {
+        long v = readVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    int readLength() {
+        long len = readVarLong();
+        if (len < 0 || len > limit - pos) {
+            throw new JormException(ErrorCode.CACHE_DECODE_FAILED, "长度字段越界: " + len);
+        }
+        return (int) len;
+    }
+
+    double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    float readFloat() {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    byte[] readByteArray() {
+        int len = readLength();
+        byte[] out = new byte[len];
+        System.arraycopy(buf, pos, out, 0, len);
+        pos += len;
+        return out;
+    }
+
+    void readDictionary() {
+        int count = readLength();
+        dictionary = new String[count];
+        for (int i = 0; i < count; i++) {
+            int len = readLength();
+            dictionary[i] = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+        }
+    }
+
+    String readString() {
+        long idx = readVarLong();
+        if (idx < 0 || idx >= dictionary.length) {
+            throw new JormException(ErrorCode.CACHE_DECODE_FAILED, "字符串字典下标越界: " + idx);
+        }
+        return dictionary[(int) idx];
+    }
+
+    int position() {
+        return pos;
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.foreverstr.cache.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可增长的字节输出，字符串写入按列表级字典去重
+ */
+final class BinaryOutput {
+    private byte[] buf;
+    private int size;
+    private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+
+    BinaryOutput(int initialCapacity) {
+        this.buf = new byte[Math.max(16, initialCapacity)];
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, size + extra));
+        }
+    }
+
+    void writeByte(int b) {
+        ensure(1);
+        buf[size++] = (byte) b;
+    }
+
+    void writeBytes(byte[] bytes, int off, int len) {
+        ensure(len);
+        System.arraycopy(bytes, off, buf, size, len);
+        size += len;
+    }
+
+    void writeInt(int v) {
+        ensure(4);
+        buf[size++] = (byte) (v >>> 24);
+        buf[size++] = (byte) (v >>> 16);
+        buf[size++] = (byte) (v >>> 8);
+        buf[size++] = (byte) v;
+    }
+
+    void writeLong(long v) {
+        writeInt((int) (v >>> 32));
+        writeInt((int) v);
+    }
+
+    // 无符号变长整数（LEB128）
+    void writeVarLong(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buf[size++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[size++] = (byte) v;
+    }
+
+    // 有符号整数先做 zigzag，小负数也只占一两个字节
+    void writeZigZag(long v) {
+        writeVarLong((v << 1) ^ (v >> 63));
+    }
+
+    void writeDouble(double v) {
+        writeLong(Double.doubleToRawLongBits(v));
+    }
+
+    void writeFloat(float v) {
+        writeInt(Float.floatToRawIntBits(v));
+    }
+
+    void writeByteArray(byte[] bytes) {
+        writeVarLong(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    // 字符串只写字典下标，字典本身在编码结束后统一写出
+    void writeString(String s) {
+        Integer idx = dictionaryIndex.get(s);
+        if (idx == null) {
+            idx = dictionary.size();
+            dictionary.add(s);
+            dictionaryIndex.put(s, idx);
+        }
+        writeVarLong(idx);
+    }
+
+    void writeDictionary(BinaryOutput target) {
+        target.writeVarLong(dictionary.size());
+        for (String s : dictionary) {
+            target.writeByteArray(s.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    void setByte(int position, int b) {
+        buf[position] = (byte) b;
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] buffer() {
+        return buf;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+}
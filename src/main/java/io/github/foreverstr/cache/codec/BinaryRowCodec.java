@@ -0,0 +1,239 @@
+package io.github.foreverstr.cache.codec;
+
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.util.EntityMetadata;
+import io.github.foreverstr.util.EntityMetadata.ColumnMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>基于实体元数据的紧凑二进制行格式编解码器</p>
+ * <p>格式如下：</p>
+ * <pre>
+ *   magic(1) version(1) flags(1) [rawLength(varint), 压缩时]
+ *   body: schemaHash(4) rowCount(varint) 字符串字典 行数据...
+ *   行数据: 空值位图(ceil(列数/8)) 非空列值...
+ * </pre>
+ * <p>列顺序取自 {@link EntityMetadata}，整数使用 zigzag 变长编码，字符串在单个列表内去重成字典，
+ * 超过阈值的负载可选 Deflate 压缩。解码通过预先绑定的构造器与字段句柄完成，不做逐行反射查找。</p>
+ * <p>schemaHash 由列名与编码方式计算，实体结构变化后旧负载解码返回 null（视为未命中）。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public class BinaryRowCodec implements CacheCodec {
+    private static final int MAGIC = 0x4A;
+    private static final int VERSION = 1;
+    private static final int FLAG_DEFLATED = 1;
+    // 默认超过 512 字节才尝试压缩，小负载压缩收益抵不过 CPU 开销
+    public static final int DEFAULT_COMPRESS_THRESHOLD = 512;
+
+    private final int compressThreshold;
+    private final Map<Class<?>, RowPlan> plans = new ConcurrentHashMap<>();
+
+    public BinaryRowCodec() {
+        this(DEFAULT_COMPRESS_THRESHOLD);
+    }
+
+    /**
+     * @param compressThreshold 触发压缩的最小负载字节数，小于等于 0 表示关闭压缩
+     */
+    public BinaryRowCodec(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public <T> byte[] encode(Class<T> entityClass, List<T> entities) {
+        RowPlan plan = planFor(entityClass);
+        ColumnMeta[] columns = plan.columns;
+        ColumnEncoding[] encodings = plan.encodings;
+        int bitmapBytes = (columns.length + 7) >>> 3;
+        BinaryOutput rows = new BinaryOutput(entities.size() * (bitmapBytes + columns.length * 4) + 16);
+        Object[] refValues = new Object[columns.length];
+        try {
+            for (T entity : entities) {
+                // 先读出引用类型列，确定空值位图
+                int bitmapStart = rows.size();
+                for (int b = 0; b < bitmapBytes; b++) rows.writeByte(0);
+                for (int i = 0; i < columns.length; i++) {
+                    if (encodings[i].isPrimitive()) continue;
+                    Object value = (Object) columns[i].getter().invokeExact((Object) entity);
+                    refValues[i] = value;
+                    if (value == null) {
+                        int pos = bitmapStart + (i >>> 3);
+                        rows.setByte(pos, rows.buffer()[pos] | (1 << (i & 7)));
+                    }
+                }
+                for (int i = 0; i < columns.length; i++) {
+                    if (encodings[i].isPrimitive()) {
+                        encodings[i].writePrimitive(columns[i], entity, rows);
+                    } else if (refValues[i] != null) {
+                        encodings[i].writeValue(refValues[i], rows);
+                    }
+                    refValues[i] = null;
+                }
+            }
+        } catch (JormException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new JormException(ErrorCode.CACHE_ENCODE_FAILED, entityClass.getName(), e);
+        }
+
+        BinaryOutput body = new BinaryOutput(rows.size() + 64);
+        body.writeInt(plan.schemaHash);
+        body.writeVarLong(entities.size());
+        rows.writeDictionary(body);
+        body.writeBytes(rows.buffer(), 0, rows.size());
+
+        BinaryOutput out = new BinaryOutput(body.size() + 8);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        byte[] compressed = compressThreshold > 0 && body.size() >= compressThreshold
+                ? deflate(body.buffer(), body.size()) : null;
+        if (compressed != null && compressed.length < body.size()) {
+            out.writeByte(FLAG_DEFLATED);
+            out.writeVarLong(body.size());
+            out.writeBytes(compressed, 0, compressed.length);
+        } else {
+            out.writeByte(0);
+            out.writeBytes(body.buffer(), 0, body.size());
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> decode(Class<T> entityClass, byte[] payload) {
+        RowPlan plan = planFor(entityClass);
+        if (payload.length < 3 || (payload[0] & 0xFF) != MAGIC) {
+            throw new JormException(ErrorCode.CACHE_DECODE_FAILED, "缓存数据格式无法识别");
+        }
+        if ((payload[1] & 0xFF) != VERSION) {
+            return null;
+        }
+        BinaryInput in;
+        if ((payload[2] & FLAG_DEFLATED) != 0) {
+            BinaryInput header = new BinaryInput(payload, 3, payload.length);
+            int rawLength = (int) header.readVarLong();
+            byte[] raw = inflate(payload, header.position(), payload.length - header.position(), rawLength);
+            in = new BinaryInput(raw, 0, raw.length);
+        } else {
+            in = new BinaryInput(payload, 3, payload.length);
+        }
+        if (in.readInt() != plan.schemaHash) {
+            return null;
+        }
+        int rowCount = in.readLength();
+        in.readDictionary();
+
+        ColumnMeta[] columns = plan.columns;
+        ColumnEncoding[] encodings = plan.encodings;
+        int bitmapBytes = (columns.length + 7) >>> 3;
+        byte[] bitmap = new byte[bitmapBytes];
+        List<T> result = new ArrayList<>(rowCount);
+        try {
+            for (int r = 0; r < rowCount; r++) {
+                Object entity = plan.metadata.newInstance();
+                for (int b = 0; b < bitmapBytes; b++) bitmap[b] = (byte) in.readByte();
+                for (int i = 0; i < columns.length; i++) {
+                    if (encodings[i].isPrimitive()) {
+                        encodings[i].readPrimitive(columns[i], entity, in);
+                    } else if ((bitmap[i >>> 3] & (1 << (i & 7))) == 0) {
+                        columns[i].setter().invokeExact(entity, encodings[i].readValue(columns[i], in));
+                    }
+                }
+                result.add((T) entity);
+            }
+        } catch (JormException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new JormException(ErrorCode.CACHE_DECODE_FAILED, entityClass.getName(), e);
+        }
+        return result;
+    }
+
+    private RowPlan planFor(Class<?> entityClass) {
+        RowPlan plan = plans.computeIfAbsent(entityClass, RowPlan::new);
+        if (plan.unsupported != null) {
+            throw new JormException(ErrorCode.UNSUPPORTED_CACHE_TYPE, plan.unsupported);
+        }
+        return plan;
+    }
+
+    private static byte[] deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            BinaryOutput out = new BinaryOutput(length / 2 + 16);
+            byte[] chunk = new byte[Math.min(8192, length + 64)];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.writeBytes(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            byte[] raw = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(raw, n, rawLength - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += read;
+            }
+            if (n != rawLength) {
+                throw new JormException(ErrorCode.CACHE_DECODE_FAILED, "解压长度不一致");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new JormException(ErrorCode.CACHE_DECODE_FAILED, "解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 单个实体类的编码计划
+     */
+    private static final class RowPlan {
+        private final EntityMetadata metadata;
+        private final ColumnMeta[] columns;
+        private final ColumnEncoding[] encodings;
+        private final int schemaHash;
+        private final String unsupported;
+
+        RowPlan(Class<?> entityClass) {
+            this.metadata = EntityMetadata.of(entityClass);
+            List<ColumnMeta> list = metadata.getColumns();
+            this.columns = list.toArray(new ColumnMeta[0]);
+            this.encodings = new ColumnEncoding[columns.length];
+            int hash = 17;
+            String reason = null;
+            for (int i = 0; i < columns.length; i++) {
+                ColumnEncoding encoding = ColumnEncoding.forType(columns[i].getType());
+                if (encoding == null && reason == null) {
+                    reason = String.format("%s.%s (%s)", entityClass.getName(),
+                            columns[i].getField().getName(), columns[i].getType().getName());
+                }
+                encodings[i] = encoding;
+                hash = 31 * hash + columns[i].getField().getName().hashCode();
+                hash = 31 * hash + (encoding == null ? 0 : encoding.name().hashCode());
+            }
+            this.schemaHash = hash;
+            this.unsupported = reason;
+        }
+    }
+}
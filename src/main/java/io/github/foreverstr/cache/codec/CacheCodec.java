@@ -0,0 +1,34 @@
+package io.github.foreverstr.cache.codec;
+
+import java.util.List;
+
+/**
+ * <p>二级缓存编解码器 SPI，负责把查询结果（实体列表）与字节数组互相转换。</p>
+ * <p>远程缓存（Redis 等）和堆外缓存通过编解码器存取字节，而不是依赖 Java 序列化或 JSON。
+ * 实现必须是线程安全的。</p>
+ * @author duyujie
+ * @version 1.0
+ * @see BinaryRowCodec
+ */
+public interface CacheCodec {
+
+    /**
+     * 编码实体列表
+     * @param entityClass 实体类型（列表中所有元素的确切类型）
+     * @param entities 实体列表，允许为空列表
+     * @param <T> 实体类型
+     * @return 编码后的字节
+     * @throws io.github.foreverstr.exception.JormException 50001/50003 编码失败或字段类型不支持
+     */
+    <T> byte[] encode(Class<T> entityClass, List<T> entities);
+
+    /**
+     * 解码实体列表
+     * @param entityClass 实体类型
+     * @param payload 由 {@link #encode(Class, List)} 产生的字节
+     * @param <T> 实体类型
+     * @return 实体列表；当字节由不兼容的实体结构（列增删、类型变化）编码时返回 null，调用方应视为未命中
+     * @throws io.github.foreverstr.exception.JormException 50002 字节损坏
+     */
+    <T> List<T> decode(Class<T> entityClass, byte[] payload);
+}
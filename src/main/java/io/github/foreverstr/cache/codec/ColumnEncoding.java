@@ -0,0 +1,228 @@
+package io.github.foreverstr.cache.codec;
+
+import io.github.foreverstr.util.EntityMetadata.ColumnMeta;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>列编码方式</p>
+ * <p>基本类型列直接通过元数据中的原始类型句柄读写，不经过装箱；引用类型列可为空，由行首的空值位图标记。</p>
+ * @author duyujie
+ */
+enum ColumnEncoding {
+    INT(true) {
+        @Override void writePrimitive(ColumnMeta col, Object entity, BinaryOutput out) throws Throwable {
+            out.writeZigZag((int) col.getter().invokeExact(entity));
+        }
+        @Override void readPrimitive(ColumnMeta col, Object entity, BinaryInput in) throws Throwable {
+            col.setter().invokeExact(entity, (int) in.readZigZag());
+        }
+    },
+    LONG(true) {
+        @Override void writePrimitive(ColumnMeta col, Object entity, BinaryOutput out) throws Throwable {
+            out.writeZigZag((long) col.getter().invokeExact(entity));
+        }
+        @Override void readPrimitive(ColumnMeta col, Object entity, BinaryInput in) throws Throwable {
+            col.setter().invokeExact(entity, in.readZigZag());
+        }
+    },
+    SHORT(true) {
+        @Override void writePrimitive(ColumnMeta col, Object entity, BinaryOutput out) throws Throwable {
+            out.writeZigZag((short) col.getter().invokeExact(entity));
+        }
+        @Override void readPrimitive(ColumnMeta col, Object entity, BinaryInput in) throws Throwable {
+            col.setter().invokeExact(entity, (short) in.readZigZag());
+        }
+    },
+    BYTE(true) {
+        @Override void writePrimitive(ColumnMeta col, Object entity, BinaryOutput out) throws Throwable {
+            out.writeByte((byte) col.getter().invokeExact(entity));
+        }
+        @Override void readPrimitive(ColumnMeta col, Object entity, BinaryInput in) throws Throwable {
+            col.setter().invokeExact(entity, (byte) in.readByte());
+        }
+    },
+    BOOLEAN(true) {
+        @Override void writePrimitive(ColumnMeta col, Object entity, BinaryOutput out) throws Throwable {
+            out.writeByte((boolean) col.getter().invokeExact(entity) ? 1 : 0);
+        }
+        @Override void readPrimitive(ColumnMeta col, Object entity, BinaryInput in) throws Throwable {
+            col.setter().invokeExact(entity, in.readByte() != 0);
+        }
+    },
+    DOUBLE(true) {
+        @Override void writePrimitive(ColumnMeta col, Object entity, BinaryOutput out) throws Throwable {
+            out.writeDouble((double) col.getter().invokeExact(entity));
+        }
+        @Override void readPrimitive(ColumnMeta col, Object entity, BinaryInput in) throws Throwable {
+            col.setter().invokeExact(entity, in.readDouble());
+        }
+    },
+    FLOAT(true) {
+        @Override void writePrimitive(ColumnMeta col, Object entity, BinaryOutput out) throws Throwable {
+            out.writeFloat((float) col.getter().invokeExact(entity));
+        }
+        @Override void readPrimitive(ColumnMeta col, Object entity, BinaryInput in) throws Throwable {
+            col.setter().invokeExact(entity, in.readFloat());
+        }
+    },
+    BOXED_INT(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeZigZag((Integer) value); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return (int) in.readZigZag(); }
+    },
+    BOXED_LONG(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeZigZag((Long) value); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return in.readZigZag(); }
+    },
+    BOXED_SHORT(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeZigZag((Short) value); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return (short) in.readZigZag(); }
+    },
+    BOXED_BYTE(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeByte((Byte) value); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return (byte) in.readByte(); }
+    },
+    BOXED_BOOLEAN(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeByte((Boolean) value ? 1 : 0); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return in.readByte() != 0; }
+    },
+    BOXED_DOUBLE(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeDouble((Double) value); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return in.readDouble(); }
+    },
+    BOXED_FLOAT(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeFloat((Float) value); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return in.readFloat(); }
+    },
+    STRING(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeString((String) value); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return in.readString(); }
+    },
+    // java.util.Date 字段由 TypeHandler 以 Timestamp 填充，按毫秒 + 纳秒保存以保留精度
+    TIMESTAMP(false) {
+        @Override void writeValue(Object value, BinaryOutput out) {
+            java.util.Date date = (java.util.Date) value;
+            out.writeZigZag(date.getTime());
+            // 纳秒加一写入，0 表示原值不是 Timestamp
+            out.writeVarLong(date instanceof Timestamp ? ((Timestamp) date).getNanos() + 1L : 0L);
+        }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) {
+            long millis = in.readZigZag();
+            long nanos = in.readVarLong();
+            Timestamp ts = new Timestamp(millis);
+            if (nanos > 0) ts.setNanos((int) (nanos - 1));
+            return ts;
+        }
+    },
+    SQL_DATE(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeZigZag(((java.sql.Date) value).getTime()); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return new java.sql.Date(in.readZigZag()); }
+    },
+    LOCAL_DATE(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeZigZag(((LocalDate) value).toEpochDay()); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return LocalDate.ofEpochDay(in.readZigZag()); }
+    },
+    LOCAL_DATE_TIME(false) {
+        @Override void writeValue(Object value, BinaryOutput out) {
+            LocalDateTime t = (LocalDateTime) value;
+            out.writeZigZag(t.toLocalDate().toEpochDay());
+            out.writeVarLong(t.toLocalTime().toNanoOfDay());
+        }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) {
+            LocalDate date = LocalDate.ofEpochDay(in.readZigZag());
+            return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readVarLong()));
+        }
+    },
+    BIG_DECIMAL(false) {
+        @Override void writeValue(Object value, BinaryOutput out) {
+            BigDecimal d = (BigDecimal) value;
+            out.writeZigZag(d.scale());
+            out.writeByteArray(d.unscaledValue().toByteArray());
+        }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) {
+            int scale = (int) in.readZigZag();
+            return new BigDecimal(new BigInteger(in.readByteArray()), scale);
+        }
+    },
+    BYTES(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeByteArray((byte[]) value); }
+        @Override Object readValue(ColumnMeta col, BinaryInput in) { return in.readByteArray(); }
+    },
+    // 枚举按名称进入字符串字典
+    ENUM(false) {
+        @Override void writeValue(Object value, BinaryOutput out) { out.writeString(((Enum<?>) value).name()); }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        @Override Object readValue(ColumnMeta col, BinaryInput in) {
+            return Enum.valueOf((Class<? extends Enum>) col.getType(), in.readString());
+        }
+    };
+
+    private static final Map<Class<?>, ColumnEncoding> byType = new HashMap<>();
+
+    static {
+        byType.put(int.class, INT);
+        byType.put(long.class, LONG);
+        byType.put(short.class, SHORT);
+        byType.put(byte.class, BYTE);
+        byType.put(boolean.class, BOOLEAN);
+        byType.put(double.class, DOUBLE);
+        byType.put(float.class, FLOAT);
+        byType.put(Integer.class, BOXED_INT);
+        byType.put(Long.class, BOXED_LONG);
+        byType.put(Short.class, BOXED_SHORT);
+        byType.put(Byte.class, BOXED_BYTE);
+        byType.put(Boolean.class, BOXED_BOOLEAN);
+        byType.put(Double.class, BOXED_DOUBLE);
+        byType.put(Float.class, BOXED_FLOAT);
+        byType.put(String.class, STRING);
+        byType.put(java.util.Date.class, TIMESTAMP);
+        byType.put(Timestamp.class, TIMESTAMP);
+        byType.put(java.sql.Date.class, SQL_DATE);
+        byType.put(LocalDate.class, LOCAL_DATE);
+        byType.put(LocalDateTime.class, LOCAL_DATE_TIME);
+        byType.put(BigDecimal.class, BIG_DECIMAL);
+        byType.put(byte[].class, BYTES);
+    }
+
+    private final boolean primitive;
+
+    ColumnEncoding(boolean primitive) {
+        this.primitive = primitive;
+    }
+
+    /**
+     * @param type 字段类型
+     * @return 对应编码，不支持时返回 null
+     */
+    static ColumnEncoding forType(Class<?> type) {
+        if (type.isEnum()) return ENUM;
+        return byType.get(type);
+    }
+
+    boolean isPrimitive() {
+        return primitive;
+    }
+
+    void writePrimitive(ColumnMeta col, Object entity, BinaryOutput out) throws Throwable {
+        throw new UnsupportedOperationException(name());
+    }
+
+    void readPrimitive(ColumnMeta col, Object entity, BinaryInput in) throws Throwable {
+        throw new UnsupportedOperationException(name());
+    }
+
+    void writeValue(Object value, BinaryOutput out) {
+        throw new UnsupportedOperationException(name());
+    }
+
+    Object readValue(ColumnMeta col, BinaryInput in) {
+        throw new UnsupportedOperationException(name());
+    }
+}
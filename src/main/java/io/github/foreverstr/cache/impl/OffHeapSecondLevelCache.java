@@ -0,0 +1,442 @@
+package io.github.foreverstr.cache.impl;
+
+import io.github.foreverstr.cache.EncodedSecondLevelCache;
+import io.github.foreverstr.cache.codec.BinaryRowCodec;
+import io.github.foreverstr.cache.codec.CacheCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>堆外二级缓存，编码后的查询结果存放在直接内存（{@link ByteBuffer#allocateDirect(int)}）中，
+ * 缓存数据量不再占用 Java 堆。</p>
+ * <p>缓存按键哈希分为若干段，每段是一块环形的直接内存，条目顺序追加写入；空间不足时从最旧的条目开始淘汰（FIFO），
+ * 总容量固定。每段有一个开放寻址的紧凑哈希索引（long 哈希 + int 偏移），条目头部保存完整的键用于校验哈希冲突。</p>
+ * <p>{@link #clearRegion(String)} 通过递增区域代数使旧条目失效，失效条目在读取时移出索引，其空间随环形写入自然回收。
+ * 带过期时间写入的条目（见 {@link io.github.foreverstr.cache.CachePolicy}）在过期后的首次读取时同样移出索引；
+ * 未指定过期时间的条目使用构造时传入的默认过期时间。</p>
+ * <p>示例：</p>
+ * <pre>
+ *     // 256MB 堆外缓存
+ *     CacheManager.setSecondLevelCache(new OffHeapSecondLevelCache(256L * 1024 * 1024));
+ * </pre>
+ * @author duyujie
+ * @version 1.0
+ * @see EncodedSecondLevelCache
+ */
+public class OffHeapSecondLevelCache extends EncodedSecondLevelCache {
+    private static final Logger log = LoggerFactory.getLogger(OffHeapSecondLevelCache.class);
+    // 条目头：entryLen(4) regionId(4) generation(4) keyLen(4) payloadLen(4) hash(8) expireAt(8)
+    static final int HEADER_BYTES = 36;
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final long capacity;
+    private final long defaultTtlMillis;
+    private final Map<String, RegionState> regions = new ConcurrentHashMap<>();
+    // 区域 id -> 区域名，淘汰时据此上报统计
+    private final Map<Integer, String> regionNames = new ConcurrentHashMap<>();
+    private final AtomicInteger regionIds = new AtomicInteger();
+
+    /**
+     * @param capacityBytes 堆外内存总容量（字节）
+     */
+    public OffHeapSecondLevelCache(long capacityBytes) {
+        this(capacityBytes, DEFAULT_SEGMENTS, new BinaryRowCodec());
+    }
+
+    /**
+     * @param capacityBytes 堆外内存总容量（字节）
+     * @param segmentCount 分段数，向上取整为 2 的幂；段越多锁竞争越小，但单个条目的上限（容量/段数）也越小
+     * @param codec 编解码器
+     */
+    public OffHeapSecondLevelCache(long capacityBytes, int segmentCount, CacheCodec codec) {
+        this(capacityBytes, segmentCount, codec, -1);
+    }
+
+    /**
+     * @param capacityBytes 堆外内存总容量（字节）
+     * @param segmentCount 分段数
+     * @param codec 编解码器
+     * @param defaultTtlMillis 未指定过期时间时的默认过期毫秒数，小于等于 0 表示不过期（仅受容量淘汰）
+     */
+    public OffHeapSecondLevelCache(long capacityBytes, int segmentCount, CacheCodec codec, long defaultTtlMillis) {
+        super(codec);
+        this.defaultTtlMillis = defaultTtlMillis;
+        if (segmentCount <= 0 || capacityBytes <= 0) {
+            throw new IllegalArgumentException("容量和分段数必须大于0");
+        }
+        int count = segmentCount == 1 ? 1 : Integer.highestOneBit((segmentCount - 1) << 1);
+        long perSegment = capacityBytes / count;
+        if (perSegment > Integer.MAX_VALUE || perSegment < HEADER_BYTES * 2) {
+            throw new IllegalArgumentException("单段容量必须在 " + HEADER_BYTES * 2 + " 字节到 2GB 之间: " + perSegment);
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment((int) perSegment, this::onEvicted);
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+        this.capacity = perSegment * count;
+    }
+
+    @Override
+    protected void putBytes(String region, String key, byte[] payload) {
+        putBytes(region, key, payload, -1);
+    }
+
+    @Override
+    protected void putBytes(String region, String key, byte[] payload, long ttlMillis) {
+        RegionState state = region(region);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(state.id, keyBytes);
+        long ttl = ttlMillis > 0 ? ttlMillis : defaultTtlMillis;
+        long expireAt = ttl > 0 ? System.currentTimeMillis() + ttl : Long.MAX_VALUE;
+        if (!segmentFor(hash).put(hash, state.id, state.generation.get(), expireAt, keyBytes, payload)) {
+            log.debug("缓存条目超过单段容量，跳过缓存: [Region={}, Size={}]", region, payload.length);
+        }
+    }
+
+    @Override
+    public boolean supportsTtl() {
+        return true;
+    }
+
+    @Override
+    protected byte[] getBytes(String region, String key) {
+        RegionState state = regions.get(region);
+        if (state == null) {
+            return null;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(state.id, keyBytes);
+        return segmentFor(hash).get(hash, state.id, state.generation.get(), System.currentTimeMillis(), keyBytes);
+    }
+
+    @Override
+    public void remove(String region, String key) {
+        RegionState state = regions.get(region);
+        if (state == null) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(state.id, keyBytes);
+        segmentFor(hash).remove(hash);
+    }
+
+    @Override
+    public void clearRegion(String region) {
+        RegionState state = regions.get(region);
+        if (state != null) {
+            state.generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return 当前索引中的条目数（可能包含已被 clearRegion 逻辑失效但尚未回收的条目）
+     */
+    public long size() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.count();
+        }
+        return total;
+    }
+
+    /**
+     * @return 因容量不足或过期被淘汰的条目数
+     */
+    public long evictionCount() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.evictions();
+        }
+        return total;
+    }
+
+    /**
+     * @return 环形缓冲区中已占用的字节数
+     */
+    public long usedBytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.usedBytes();
+        }
+        return total;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    private RegionState region(String region) {
+        RegionState state = regions.get(region);
+        return state != null ? state : regions.computeIfAbsent(region, r -> {
+            RegionState created = new RegionState(regionIds.incrementAndGet());
+            regionNames.put(created.id, r);
+            return created;
+        });
+    }
+
+    private void onEvicted(int regionId) {
+        String region = regionNames.get(regionId);
+        if (region != null) {
+            recordEviction(region);
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    // FNV-1a 64，再做一次混合使高位（选段）和低位（索引槽）都足够分散
+    static long hash(int regionId, byte[] key) {
+        long h = 0xcbf29ce484222325L ^ regionId;
+        for (byte b : key) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    private static final class RegionState {
+        private final int id;
+        private final AtomicInteger generation = new AtomicInteger();
+
+        RegionState(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * 单个分段：一块环形直接内存 + 开放寻址索引
+     */
+    static final class Segment {
+        private final ByteBuffer buffer;
+        private final int capacity;
+        private final IntConsumer evictionListener;
+        // 下一次写入位置、最旧条目位置、上一圈的结束位置（-1 表示当前没有未回收的上一圈数据）
+        private int head;
+        private int tail;
+        private int wrapEnd = -1;
+        private int count;
+        private long usedBytes;
+        private long evictions;
+        // 索引：hash 为 0 表示空槽
+        private long[] hashes = new long[64];
+        private int[] offsets = new int[64];
+        private int indexSize;
+
+        Segment(int capacity, IntConsumer evictionListener) {
+            this.capacity = capacity;
+            this.evictionListener = evictionListener;
+            this.buffer = ByteBuffer.allocateDirect(capacity);
+        }
+
+        synchronized boolean put(long hash, int regionId, int generation, long expireAt, byte[] key, byte[] payload) {
+            long size = (long) HEADER_BYTES + key.length + payload.length;
+            if (size > capacity) {
+                return false;
+            }
+            int slot = findSlot(hash);
+            if (slot >= 0) {
+                // 旧条目留在环中，淘汰时发现索引已不指向它即跳过
+                removeSlot(slot);
+            }
+            int offset = allocate((int) size);
+            buffer.putInt(offset, (int) size);
+            buffer.putInt(offset + 4, regionId);
+            buffer.putInt(offset + 8, generation);
+            buffer.putInt(offset + 12, key.length);
+            buffer.putInt(offset + 16, payload.length);
+            buffer.putLong(offset + 20, hash);
+            buffer.putLong(offset + 28, expireAt);
+            buffer.position(offset + HEADER_BYTES);
+            buffer.put(key);
+            buffer.put(payload);
+            insert(hash, offset);
+            return true;
+        }
+
+        synchronized byte[] get(long hash, int regionId, int generation, long now, byte[] key) {
+            int slot = findSlot(hash);
+            if (slot < 0) {
+                return null;
+            }
+            int offset = offsets[slot];
+            if (buffer.getInt(offset + 4) != regionId || buffer.getInt(offset + 12) != key.length
+                    || !keyEquals(offset + HEADER_BYTES, key)) {
+                return null; // 64 位哈希冲突
+            }
+            if (buffer.getInt(offset + 8) != generation) {
+                removeSlot(slot); // 区域已被清理
+                return null;
+            }
+            if (buffer.getLong(offset + 28) <= now) {
+                removeSlot(slot);
+                evictions++;
+                evictionListener.accept(regionId);
+                return null;
+            }
+            byte[] payload = new byte[buffer.getInt(offset + 16)];
+            buffer.position(offset + HEADER_BYTES + key.length);
+            buffer.get(payload);
+            return payload;
+        }
+
+        synchronized void remove(long hash) {
+            int slot = findSlot(hash);
+            if (slot >= 0) {
+                removeSlot(slot);
+            }
+        }
+
+        synchronized void clear() {
+            head = tail = count = 0;
+            wrapEnd = -1;
+            usedBytes = 0;
+            hashes = new long[64];
+            offsets = new int[64];
+            indexSize = 0;
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized long evictions() {
+            return evictions;
+        }
+
+        synchronized long usedBytes() {
+            return usedBytes;
+        }
+
+        // 在环上分配 size 字节，必要时淘汰最旧的条目
+        private int allocate(int size) {
+            if (head + size > capacity) {
+                // 尾部剩余空间不够：先回收上一圈剩下的条目，再从 0 开始新的一圈
+                while (count > 0 && tail >= head) {
+                    evictTail();
+                }
+                wrapEnd = head;
+                head = 0;
+            }
+            while (count > 0 && tail >= head && tail < head + size) {
+                evictTail();
+            }
+            int offset = head;
+            head += size;
+            count++;
+            usedBytes += size;
+            return offset;
+        }
+
+        private void evictTail() {
+            int size = buffer.getInt(tail);
+            long hash = buffer.getLong(tail + 20);
+            int slot = findSlot(hash);
+            if (slot >= 0 && offsets[slot] == tail) {
+                removeSlot(slot);
+                evictions++;
+                evictionListener.accept(buffer.getInt(tail + 4));
+            }
+            tail += size;
+            count--;
+            usedBytes -= size;
+            if (tail == wrapEnd) {
+                tail = 0;
+                wrapEnd = -1;
+            }
+            if (count == 0) {
+                head = tail = 0;
+                wrapEnd = -1;
+            }
+        }
+
+        private boolean keyEquals(int position, byte[] key) {
+            for (int i = 0; i < key.length; i++) {
+                if (buffer.get(position + i) != key[i]) return false;
+            }
+            return true;
+        }
+
+        private int findSlot(long hash) {
+            int mask = hashes.length - 1;
+            int slot = (int) hash & mask;
+            while (hashes[slot] != 0) {
+                if (hashes[slot] == hash) return slot;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(long hash, int offset) {
+            if ((indexSize + 1) * 4 > hashes.length * 3) {
+                resize();
+            }
+            int mask = hashes.length - 1;
+            int slot = (int) hash & mask;
+            while (hashes[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = hash;
+            offsets[slot] = offset;
+            indexSize++;
+        }
+
+        // 线性探测的后移删除，不留墓碑
+        private void removeSlot(int slot) {
+            int mask = hashes.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (hashes[next] != 0) {
+                int ideal = (int) hashes[next] & mask;
+                boolean movable = hole <= next
+                        ? (ideal <= hole || ideal > next)
+                        : (ideal <= hole && ideal > next);
+                if (movable) {
+                    hashes[hole] = hashes[next];
+                    offsets[hole] = offsets[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            hashes[hole] = 0;
+            indexSize--;
+        }
+
+        private void resize() {
+            long[] oldHashes = hashes;
+            int[] oldOffsets = offsets;
+            hashes = new long[oldHashes.length << 1];
+            offsets = new int[oldOffsets.length << 1];
+            int mask = hashes.length - 1;
+            for (int i = 0; i < oldHashes.length; i++) {
+                if (oldHashes[i] == 0) continue;
+                int slot = (int) oldHashes[i] & mask;
+                while (hashes[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                offsets[slot] = oldOffsets[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.foreverstr.cache.impl;
+
+import io.github.foreverstr.cache.CacheStatistics;
+import io.github.foreverstr.cache.EncodedSecondLevelCache;
+import io.github.foreverstr.cache.SecondLevelCache;
+
+import java.util.List;
+
+/**
+ * 统计装饰器，由 {@link io.github.foreverstr.cache.CacheManager} 自动包裹在配置的缓存实现外层，
+ * 记录命中、未命中、写入与失效次数；被包裹的是 {@link EncodedSecondLevelCache} 时同时绑定统计，
+ * 由其上报条目字节数与淘汰次数
+ * @author duyujie
+ * @version 1.0
+ */
+public class StatisticsSecondLevelCache implements SecondLevelCache {
+    private final SecondLevelCache delegate;
+    private final CacheStatistics statistics;
+
+    public StatisticsSecondLevelCache(SecondLevelCache delegate, CacheStatistics statistics) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+        if (delegate instanceof EncodedSecondLevelCache) {
+            ((EncodedSecondLevelCache) delegate).bindStatistics(statistics);
+        }
+    }
+
+    @Override
+    public void put(String region, String key, Object value) {
+        delegate.put(region, key, value);
+        statistics.recordPut(region, rows(value));
+    }
+
+    @Override
+    public void put(String region, String key, Object value, long ttlMillis) {
+        delegate.put(region, key, value, ttlMillis);
+        statistics.recordPut(region, rows(value));
+    }
+
+    @Override
+    public boolean supportsTtl() {
+        return delegate.supportsTtl();
+    }
+
+    @Override
+    public Object get(String region, String key) {
+        Object value = delegate.get(region, key);
+        if (value != null) {
+            statistics.recordHit(region);
+        } else {
+            statistics.recordMiss(region);
+        }
+        return value;
+    }
+
+    @Override
+    public void remove(String region, String key) {
+        delegate.remove(region, key);
+        statistics.recordInvalidation(region);
+    }
+
+    @Override
+    public void clearRegion(String region) {
+        delegate.clearRegion(region);
+        statistics.recordInvalidation(region);
+    }
+
+    @Override
+    public void clearAll() {
+        delegate.clearAll();
+        statistics.recordClearAll();
+    }
+
+    /**
+     * @return 被包裹的缓存实现
+     */
+    public SecondLevelCache getDelegate() {
+        return delegate;
+    }
+
+    private static int rows(Object value) {
+        return value instanceof List ? ((List<?>) value).size() : -1;
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.foreverstr.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>列式查询结果：每个查询列对应一个 {@link ColumnVector}，值按列连续存放。</p>
+ * <p>内存占用与列数成正比而不是与行数个对象成正比，适合在客户端对大量行做扫描与聚合。
+ * 数值列用原始类型数组，字符串列做字典编码，NULL 记录在位图中。</p>
+ * <pre>
+ * ColumnBatch batch = findSession.FindColumnar(User.class);
+ * int[] ages = batch.getIntColumn("age").values();
+ * </pre>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class ColumnBatch {
+    /**
+     * 每次扩容的行数粒度
+     */
+    public static final int CHUNK_SIZE = 1024;
+
+    private final List<ColumnVector> columns;
+    private final int rowCount;
+
+    private ColumnBatch(List<ColumnVector> columns, int rowCount) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * 从结果集按列下标读取所有剩余行
+     * @param rs 结果集，列顺序与 names 一致
+     * @param names 列名
+     * @param types 各列对应的 Java 类型
+     * @return 列式结果
+     * @throws SQLException 读取失败
+     */
+    public static ColumnBatch read(ResultSet rs, String[] names, Class<?>[] types) throws SQLException {
+        if (names.length != types.length) {
+            throw new IllegalArgumentException("列名与类型数量不一致");
+        }
+        int capacity = CHUNK_SIZE;
+        ColumnVector[] vectors = new ColumnVector[names.length];
+        for (int i = 0; i < names.length; i++) {
+            vectors[i] = vectorFor(names[i], types[i], capacity);
+        }
+        int rows = 0;
+        while (rs.next()) {
+            if (rows == capacity) {
+                // 按块扩容：小结果集只占一个块，大结果集按块倍增
+                capacity = Math.addExact(capacity, Math.max(CHUNK_SIZE, capacity));
+                for (ColumnVector vector : vectors) {
+                    vector.grow(capacity);
+                }
+            }
+            for (int i = 0; i < vectors.length; i++) {
+                vectors[i].read(rs, i + 1);
+            }
+            rows++;
+        }
+        List<ColumnVector> list = new ArrayList<>(vectors.length);
+        for (ColumnVector vector : vectors) {
+            vector.trim();
+            list.add(vector);
+        }
+        return new ColumnBatch(list, rows);
+    }
+
+    private static ColumnVector vectorFor(String name, Class<?> type, int capacity) {
+        if (type == long.class || type == Long.class) {
+            return new LongColumn(name, type, capacity);
+        }
+        if (type == int.class || type == Integer.class || type == short.class || type == Short.class
+                || type == byte.class || type == Byte.class) {
+            return new IntColumn(name, type, capacity);
+        }
+        if (type == double.class || type == Double.class || type == float.class || type == Float.class) {
+            return new DoubleColumn(name, type, capacity);
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return new BooleanColumn(name, type, capacity);
+        }
+        if (type == String.class) {
+            return new StringColumn(name, type, capacity);
+        }
+        return new ObjectColumn(name, type, capacity);
+    }
+
+    /**
+     * @return 行数
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return 所有列，顺序与查询列一致
+     */
+    public List<ColumnVector> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param name 列名（忽略大小写）
+     * @return 对应的列
+     * @throws IllegalArgumentException 列不存在
+     */
+    public ColumnVector getColumn(String name) {
+        for (ColumnVector column : columns) {
+            if (column.getName().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("结果中不存在列: " + name);
+    }
+
+    public LongColumn getLongColumn(String name) {
+        return typed(name, LongColumn.class);
+    }
+
+    public IntColumn getIntColumn(String name) {
+        return typed(name, IntColumn.class);
+    }
+
+    public DoubleColumn getDoubleColumn(String name) {
+        return typed(name, DoubleColumn.class);
+    }
+
+    public BooleanColumn getBooleanColumn(String name) {
+        return typed(name, BooleanColumn.class);
+    }
+
+    public StringColumn getStringColumn(String name) {
+        return typed(name, StringColumn.class);
+    }
+
+    private <C extends ColumnVector> C typed(String name, Class<C> type) {
+        ColumnVector column = getColumn(name);
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException(String.format("列 %s 的类型为 %s", name, column.getClass().getSimpleName()));
+        }
+        return type.cast(column);
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.foreverstr.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * <p>列式结果中的一列：值按行下标连续存放，NULL 记录在位图中。</p>
+ * <p>读取完成后不可变，可以被多个线程同时扫描。</p>
+ * @author duyujie
+ * @version 1.0
+ * @see ColumnBatch
+ */
+public abstract class ColumnVector {
+    private final String name;
+    private final Class<?> type;
+    // NULL 位图，首次出现 NULL 时才分配
+    private long[] nulls;
+    private int nullCount;
+    int size;
+
+    ColumnVector(String name, Class<?> type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * @return 列名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 对应实体字段的 Java 类型
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return 行数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param row 行下标
+     * @return 该行的值是否为 NULL
+     */
+    public boolean isNull(int row) {
+        checkRow(row);
+        return nulls != null && (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * @return NULL 的行数
+     */
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * 按对象读取，NULL 返回 null；扫描大量数据时应使用子类的原始类型访问方法
+     * @param row 行下标
+     * @return 值
+     */
+    public abstract Object get(int row);
+
+    // 从结果集的第 index 列读取当前行，写入第 size 行
+    abstract void read(ResultSet rs, int index) throws SQLException;
+
+    // 扩容到至少 capacity 行
+    abstract void grow(int capacity);
+
+    // 读取结束，裁剪到实际行数
+    abstract void trim();
+
+    void markNull(int row) {
+        if (nulls == null || nulls.length <= row >>> 6) {
+            nulls = nulls == null ? new long[(row >>> 6) + 1] : Arrays.copyOf(nulls, Math.max(nulls.length * 2, (row >>> 6) + 1));
+        }
+        nulls[row >>> 6] |= 1L << row;
+        nullCount++;
+    }
+
+    void trimNulls() {
+        if (nulls != null) {
+            nulls = Arrays.copyOf(nulls, (size + 63) >>> 6);
+        }
+    }
+
+    void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+    }
+}
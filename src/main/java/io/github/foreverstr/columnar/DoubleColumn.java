@@ -0,0 +1,63 @@
+package io.github.foreverstr.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * double 列，值存放在 double[] 中，NULL 行的值为 0.0
+ * @author duyujie
+ * @version 1.0
+ */
+public final class DoubleColumn extends ColumnVector {
+    private double[] values;
+
+    DoubleColumn(String name, Class<?> type, int capacity) {
+        super(name, type);
+        this.values = new double[capacity];
+    }
+
+    /**
+     * @param row 行下标
+     * @return 该行的值
+     */
+    public double getDouble(int row) {
+        checkRow(row);
+        return values[row];
+    }
+
+    /**
+     * 直接返回底层数组（长度等于行数），用于顺序扫描，调用方不应修改
+     * @return 列值
+     */
+    public double[] values() {
+        return values;
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    void read(ResultSet rs, int index) throws SQLException {
+        values[size] = rs.getDouble(index);
+        if (rs.wasNull()) {
+            markNull(size);
+        }
+        size++;
+    }
+
+    @Override
+    void grow(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void trim() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+        trimNulls();
+    }
+}
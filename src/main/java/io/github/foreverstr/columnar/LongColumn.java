@@ -0,0 +1,63 @@
+package io.github.foreverstr.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * long 列，值存放在 long[] 中，NULL 行的值为 0L
+ * @author duyujie
+ * @version 1.0
+ */
+public final class LongColumn extends ColumnVector {
+    private long[] values;
+
+    LongColumn(String name, Class<?> type, int capacity) {
+        super(name, type);
+        this.values = new long[capacity];
+    }
+
+    /**
+     * @param row 行下标
+     * @return 该行的值
+     */
+    public long getLong(int row) {
+        checkRow(row);
+        return values[row];
+    }
+
+    /**
+     * 直接返回底层数组（长度等于行数），用于顺序扫描，调用方不应修改
+     * @return 列值
+     */
+    public long[] values() {
+        return values;
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    @Override
+    void read(ResultSet rs, int index) throws SQLException {
+        values[size] = rs.getLong(index);
+        if (rs.wasNull()) {
+            markNull(size);
+        }
+        size++;
+    }
+
+    @Override
+    void grow(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void trim() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+        trimNulls();
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.foreverstr.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * 其他类型（日期、BigDecimal 等）的列，按对象存放
+ * @author duyujie
+ * @version 1.0
+ */
+public final class ObjectColumn extends ColumnVector {
+    private Object[] values;
+
+    ObjectColumn(String name, Class<?> type, int capacity) {
+        super(name, type);
+        this.values = new Object[capacity];
+    }
+
+    @Override
+    public Object get(int row) {
+        checkRow(row);
+        return values[row];
+    }
+
+    @Override
+    void read(ResultSet rs, int index) throws SQLException {
+        Object value = rs.getObject(index);
+        if (value == null) {
+            markNull(size);
+        }
+        values[size++] = value;
+    }
+
+    @Override
+    void grow(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    void trim() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+        trimNulls();
+    }
+}
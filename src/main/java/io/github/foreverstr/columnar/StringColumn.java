@@ -0,0 +1,100 @@
+package io.github.foreverstr.columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>字典编码的字符串列：每个不同的值只保存一份，行上存放 int 编码，NULL 行的编码为 -1。</p>
+ * <p>状态、部门这类低基数列按编码分组或比较即可，无需逐行比较字符串。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class StringColumn extends ColumnVector {
+    private int[] codes;
+    private List<String> dictionary = new ArrayList<>();
+    // 仅在读取期间使用
+    private Map<String, Integer> index = new HashMap<>();
+
+    StringColumn(String name, Class<?> type, int capacity) {
+        super(name, type);
+        this.codes = new int[capacity];
+    }
+
+    /**
+     * @param row 行下标
+     * @return 该行的值，NULL 时为 null
+     */
+    public String getString(int row) {
+        checkRow(row);
+        int code = codes[row];
+        return code < 0 ? null : dictionary.get(code);
+    }
+
+    /**
+     * @param row 行下标
+     * @return 该行值在字典中的编码，NULL 时为 -1
+     */
+    public int getCode(int row) {
+        checkRow(row);
+        return codes[row];
+    }
+
+    /**
+     * 直接返回底层编码数组（长度等于行数），用于顺序扫描，调用方不应修改
+     * @return 编码
+     */
+    public int[] codes() {
+        return codes;
+    }
+
+    /**
+     * @return 字典，下标即编码
+     */
+    public List<String> getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public Object get(int row) {
+        return getString(row);
+    }
+
+    @Override
+    void read(ResultSet rs, int i) throws SQLException {
+        String value = rs.getString(i);
+        if (value == null) {
+            codes[size] = -1;
+            markNull(size);
+        } else {
+            Integer code = index.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                index.put(value, code);
+            }
+            codes[size] = code;
+        }
+        size++;
+    }
+
+    @Override
+    void grow(int capacity) {
+        codes = Arrays.copyOf(codes, capacity);
+    }
+
+    @Override
+    void trim() {
+        if (codes.length != size) {
+            codes = Arrays.copyOf(codes, size);
+        }
+        trimNulls();
+        dictionary = Collections.unmodifiableList(dictionary);
+        index = null;
+    }
+}
@@ -0,0 +1,401 @@
+package io.github.foreverstr.diagnostics;
+
+import io.github.foreverstr.dialect.Dialect;
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.session.factory.Jorm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>查询计划守卫：每种语句形状（{@link SqlFingerprint}）第一次执行时采集一次方言的 EXPLAIN 结果，
+ * 与形状一起保存，并标记对行数达到阈值的表做全表扫描的形状。</p>
+ * <pre>
+ *     QueryPlanGuard guard = new QueryPlanGuard(100_000);
+ *     guard.setRejectFullScans(isTestEnvironment);
+ *     Jorm.setQueryPlanGuard(guard);
+ *     ...
+ *     guard.getFlagged().forEach(plan -&gt; log.warn(plan.toString()));
+ * </pre>
+ * <p>默认模式下 EXPLAIN 在后台线程中用数据源的独立连接执行，只写日志，不影响业务语句；
+ * 拒绝模式（开发、测试环境）下 EXPLAIN 在当前连接上同步执行，被标记的形状本次及以后的执行都抛出
+ * {@link ErrorCode#FULL_TABLE_SCAN}。查询、条件更新与条件删除会经过守卫，按主键的写入不会。</p>
+ * <p>未安装守卫时会话只多一次 volatile 读取。已采集的形状数达到上限后不再采集新形状。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public class QueryPlanGuard implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanGuard.class);
+    public static final int DEFAULT_MAX_SHAPES = 1000;
+
+    private static volatile QueryPlanGuard installed;
+
+    private final long fullScanThreshold;
+    private final Map<String, CompletableFuture<QueryPlan>> plans = new ConcurrentHashMap<>();
+    // 表行数只查一次，避免每个新形状都统计一遍
+    private final Map<String, Long> tableRows = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jorm-explain");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean rejectFullScans;
+    private volatile int maxShapes = DEFAULT_MAX_SHAPES;
+
+    /**
+     * @param fullScanThreshold 表行数达到该值时，对其全表扫描的形状被标记；为 0 时任何全表扫描都被标记
+     */
+    public QueryPlanGuard(long fullScanThreshold) {
+        if (fullScanThreshold < 0) {
+            throw new IllegalArgumentException("表行数阈值不能为负数");
+        }
+        this.fullScanThreshold = fullScanThreshold;
+    }
+
+    /**
+     * 安装全局守卫，传入 null 卸载
+     */
+    public static void install(QueryPlanGuard guard) {
+        installed = guard;
+    }
+
+    public static boolean isInstalled() {
+        return installed != null;
+    }
+
+    /**
+     * 会话执行生成的语句前调用；未安装守卫或形状已采集过时立即返回
+     * @param operation 操作
+     * @param entityClass 实体类
+     * @param sql 即将执行的语句
+     * @param params 绑定参数
+     * @param connection 即将执行语句的连接，拒绝模式下 EXPLAIN 在其上执行
+     * @throws JormException 40007 拒绝模式下形状对大表全表扫描
+     */
+    public static void inspect(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                               Connection connection) {
+        QueryPlanGuard guard = installed;
+        if (guard != null && sql != null) {
+            guard.check(operation, entityClass, sql, params, connection);
+        }
+    }
+
+    /**
+     * @param reject 为 true 时被标记的形状在执行前被拒绝，用于开发、测试环境
+     */
+    public void setRejectFullScans(boolean reject) {
+        this.rejectFullScans = reject;
+    }
+
+    public boolean isRejectFullScans() {
+        return rejectFullScans;
+    }
+
+    public void setMaxShapes(int maxShapes) {
+        if (maxShapes <= 0) {
+            throw new IllegalArgumentException("形状上限必须大于0");
+        }
+        this.maxShapes = maxShapes;
+    }
+
+    public long getFullScanThreshold() {
+        return fullScanThreshold;
+    }
+
+    /**
+     * @param sql 原始 SQL 或其指纹
+     * @return 已采集的计划，尚未采集或仍在执行 EXPLAIN 时为 null
+     */
+    public QueryPlan getPlan(String sql) {
+        CompletableFuture<QueryPlan> future = plans.get(SqlFingerprint.of(sql));
+        return future == null ? null : future.getNow(null);
+    }
+
+    /**
+     * @return 全部已采集的计划
+     */
+    public List<QueryPlan> getPlans() {
+        List<QueryPlan> result = new ArrayList<>();
+        for (CompletableFuture<QueryPlan> future : plans.values()) {
+            QueryPlan plan = future.getNow(null);
+            if (plan != null) {
+                result.add(plan);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 被标记为大表全表扫描的计划
+     */
+    public List<QueryPlan> getFlagged() {
+        List<QueryPlan> result = new ArrayList<>();
+        for (QueryPlan plan : getPlans()) {
+            if (plan.isFlagged()) {
+                result.add(plan);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 等待后台正在执行的 EXPLAIN 完成
+     * @return 超时前全部完成时为 true
+     */
+    public boolean awaitPlans(long timeout, TimeUnit unit) throws InterruptedException {
+        CompletableFuture<?> all = CompletableFuture.allOf(plans.values().toArray(new CompletableFuture<?>[0]));
+        try {
+            all.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 清空已采集的计划与表行数，之后每种形状重新采集
+     */
+    public void reset() {
+        plans.clear();
+        tableRows.clear();
+    }
+
+    /**
+     * 停止后台线程；当前安装的是本守卫时一并卸载
+     */
+    @Override
+    public void close() {
+        if (installed == this) {
+            installed = null;
+        }
+        executor.shutdown();
+    }
+
+    private void check(Operation operation, Class<?> entityClass, String sql, List<?> params, Connection connection) {
+        String fingerprint = SqlFingerprint.of(sql);
+        CompletableFuture<QueryPlan> existing = plans.get(fingerprint);
+        if (existing != null) {
+            QueryPlan plan = existing.getNow(null);
+            if (rejectFullScans && plan != null && plan.isFlagged()) {
+                throw rejected(plan);
+            }
+            return;
+        }
+        if (plans.size() >= maxShapes) {
+            return;
+        }
+        CompletableFuture<QueryPlan> future = new CompletableFuture<>();
+        if (plans.putIfAbsent(fingerprint, future) != null) {
+            // 其他线程正在采集同一形状
+            return;
+        }
+        if (rejectFullScans) {
+            QueryPlan plan = capture(operation, entityClass, fingerprint, sql, params, connection);
+            future.complete(plan);
+            if (plan.isFlagged()) {
+                throw rejected(plan);
+            }
+            return;
+        }
+        List<Object> bound = params == null ? Collections.emptyList() : new ArrayList<>(params);
+        try {
+            executor.execute(() -> {
+                try (Connection conn = Jorm.getDataSource().getConnection()) {
+                    future.complete(capture(operation, entityClass, fingerprint, sql, bound, conn));
+                } catch (SQLException | RuntimeException e) {
+                    log.warn("采集查询计划失败 [SQL={}]", fingerprint, e);
+                    future.complete(new QueryPlan(fingerprint, operation, entityClass, null,
+                            Collections.emptySet(), Collections.emptyMap(), String.valueOf(e.getMessage())));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 守卫已关闭
+            plans.remove(fingerprint, future);
+        }
+    }
+
+    private QueryPlan capture(Operation operation, Class<?> entityClass, String fingerprint, String sql,
+                              List<?> params, Connection connection) {
+        Dialect dialect = Jorm.getDialect(connection);
+        if (!dialect.supportsExplain()) {
+            return new QueryPlan(fingerprint, operation, entityClass, null, Collections.emptySet(),
+                    Collections.emptyMap(), "方言 " + dialect.getName() + " 不支持 EXPLAIN");
+        }
+        List<Map<String, String>> rows = new ArrayList<>();
+        try {
+            try (PreparedStatement stmt = connection.prepareStatement(dialect.explain(sql))) {
+                if (params != null) {
+                    for (int i = 0; i < params.size(); i++) {
+                        stmt.setObject(i + 1, params.get(i));
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        Map<String, String> row = new LinkedHashMap<>();
+                        for (int i = 1; i <= meta.getColumnCount(); i++) {
+                            row.put(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), rs.getString(i));
+                        }
+                        rows.add(row);
+                    }
+                }
+            }
+            Set<String> scanned = dialect.fullScanTables(rows);
+            Map<String, Long> flagged = new LinkedHashMap<>();
+            for (String table : scanned) {
+                long count = fullScanThreshold == 0 ? 0 : rowsOf(dialect, table, connection);
+                if (count >= fullScanThreshold) {
+                    flagged.put(table, count);
+                }
+            }
+            QueryPlan plan = new QueryPlan(fingerprint, operation, entityClass, render(rows), scanned, flagged, null);
+            if (plan.isFlagged()) {
+                log.warn("查询计划包含大表全表扫描 [表={}, SQL={}]{}{}", flagged, fingerprint,
+                        System.lineSeparator(), plan.getPlan());
+            } else {
+                log.debug("采集查询计划 [SQL={}]{}{}", fingerprint, System.lineSeparator(), plan.getPlan());
+            }
+            return plan;
+        } catch (SQLException e) {
+            log.warn("EXPLAIN 执行失败 [SQL={}]", fingerprint, e);
+            return new QueryPlan(fingerprint, operation, entityClass, null, Collections.emptySet(),
+                    Collections.emptyMap(), e.getMessage());
+        }
+    }
+
+    private long rowsOf(Dialect dialect, String table, Connection connection) throws SQLException {
+        Long cached = tableRows.get(table);
+        if (cached != null) {
+            return cached;
+        }
+        long count = 0;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(dialect.estimateRows(table))) {
+            if (rs.next()) {
+                count = rs.getLong(1);
+            }
+        }
+        tableRows.put(table, count);
+        return count;
+    }
+
+    // 单列计划（H2、PostgreSQL）按行拼接，多列计划（MySQL）每行输出列名与值
+    private static String render(List<Map<String, String>> rows) {
+        StringBuilder sb = new StringBuilder();
+        for (Map<String, String> row : rows) {
+            if (sb.length() > 0) {
+                sb.append(System.lineSeparator());
+            }
+            sb.append(row.size() == 1 ? row.values().iterator().next() : row.toString());
+        }
+        return sb.toString();
+    }
+
+    private static JormException rejected(QueryPlan plan) {
+        String errorMsg = String.format("查询计划包含大表全表扫描 [表=%s, SQL=%s]", plan.getFlaggedTables(), plan.getFingerprint());
+        log.error("[ErrorCode={}] {}", ErrorCode.FULL_TABLE_SCAN.getCode(), errorMsg);
+        return new JormException(ErrorCode.FULL_TABLE_SCAN, errorMsg);
+    }
+
+    /**
+     * 单个语句形状的执行计划（不可变）
+     */
+    public static final class QueryPlan {
+        private final String fingerprint;
+        private final Operation operation;
+        private final Class<?> entityClass;
+        private final String plan;
+        private final Set<String> fullScanTables;
+        private final Map<String, Long> flaggedTables;
+        private final String error;
+
+        QueryPlan(String fingerprint, Operation operation, Class<?> entityClass, String plan,
+                  Set<String> fullScanTables, Map<String, Long> flaggedTables, String error) {
+            this.fingerprint = fingerprint;
+            this.operation = operation;
+            this.entityClass = entityClass;
+            this.plan = plan;
+            this.fullScanTables = Collections.unmodifiableSet(new LinkedHashSet<>(fullScanTables));
+            this.flaggedTables = Collections.unmodifiableMap(new LinkedHashMap<>(flaggedTables));
+            this.error = error;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public Class<?> getEntityClass() {
+            return entityClass;
+        }
+
+        /**
+         * @return EXPLAIN 的输出，采集失败时为 null
+         */
+        public String getPlan() {
+            return plan;
+        }
+
+        /**
+         * @return 全表扫描的表，不论行数
+         */
+        public Set<String> getFullScanTables() {
+            return fullScanTables;
+        }
+
+        /**
+         * @return 行数达到阈值的全表扫描表及其行数
+         */
+        public Map<String, Long> getFlaggedTables() {
+            return flaggedTables;
+        }
+
+        public boolean isFlagged() {
+            return !flaggedTables.isEmpty();
+        }
+
+        /**
+         * @return 采集失败的原因，成功时为 null
+         */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            String head = String.format("[%s, %s, 全表扫描=%s, 标记=%s] %s", operation,
+                    entityClass == null ? null : entityClass.getSimpleName(), fullScanTables, flaggedTables, fingerprint);
+            return error != null ? head + System.lineSeparator() + "EXPLAIN 失败: " + error
+                    : head + System.lineSeparator() + plan;
+        }
+    }
+}
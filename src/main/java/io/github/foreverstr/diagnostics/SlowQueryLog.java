@@ -0,0 +1,209 @@
+package io.github.foreverstr.diagnostics;
+
+import io.github.foreverstr.instrument.JormListener;
+import io.github.foreverstr.instrument.LatencyHistogram;
+import io.github.foreverstr.instrument.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>慢查询日志：按 {@link SqlFingerprint} 聚合每种语句形状的执行次数、总耗时、最大耗时与 p99，
+ * 只有超过阈值的执行才写日志，绑定参数按采样率附带输出。</p>
+ * <pre>
+ *     SlowQueryLog slowLog = new SlowQueryLog(200, TimeUnit.MILLISECONDS);
+ *     slowLog.setParameterSampleRate(0.1);
+ *     Jorm.addListener(slowLog);
+ *     ...
+ *     log.info(slowLog.report(10));
+ * </pre>
+ * <p>聚合的指纹数达到上限后，新出现的形状计入 {@link #OVERFLOW} 条目，避免内存无限增长。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public class SlowQueryLog implements JormListener {
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+    // 超出指纹上限后的汇总条目
+    public static final String OVERFLOW = "<other>";
+    public static final int DEFAULT_MAX_FINGERPRINTS = 1000;
+
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private volatile long thresholdNanos;
+    private volatile double parameterSampleRate = 0;
+    private volatile int maxFingerprints = DEFAULT_MAX_FINGERPRINTS;
+
+    /**
+     * @param threshold 慢查询阈值
+     * @param unit 时间单位
+     */
+    public SlowQueryLog(long threshold, TimeUnit unit) {
+        setThreshold(threshold, unit);
+    }
+
+    public void setThreshold(long threshold, TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("慢查询阈值不能为负数");
+        }
+        this.thresholdNanos = unit.toNanos(threshold);
+    }
+
+    /**
+     * @param rate 慢查询日志附带参数的概率，0 表示从不输出参数，1 表示每次都输出
+     */
+    public void setParameterSampleRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("采样率必须在 0~1 之间");
+        }
+        this.parameterSampleRate = rate;
+    }
+
+    public void setMaxFingerprints(int maxFingerprints) {
+        if (maxFingerprints <= 0) {
+            throw new IllegalArgumentException("指纹上限必须大于0");
+        }
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    @Override
+    public void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                            long elapsedNanos, boolean success) {
+        String fingerprint = SqlFingerprint.of(sql);
+        aggregate(fingerprint).record(elapsedNanos, success);
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        double rate = parameterSampleRate;
+        if (rate > 0 && params != null && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate)) {
+            log.warn("慢查询 [耗时={}ms, 操作={}, 实体={}, 成功={}, SQL={}, 参数={}]",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), operation,
+                    entityClass == null ? null : entityClass.getSimpleName(), success, sql, params);
+        } else {
+            log.warn("慢查询 [耗时={}ms, 操作={}, 实体={}, 成功={}, SQL={}]",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), operation,
+                    entityClass == null ? null : entityClass.getSimpleName(), success, sql);
+        }
+    }
+
+    private Aggregate aggregate(String fingerprint) {
+        Aggregate aggregate = aggregates.get(fingerprint);
+        if (aggregate != null) {
+            return aggregate;
+        }
+        String key = aggregates.size() < maxFingerprints ? fingerprint : OVERFLOW;
+        return aggregates.computeIfAbsent(key, k -> new Aggregate());
+    }
+
+    /**
+     * @param n 返回条数
+     * @return 按总耗时降序的前 n 个语句形状
+     */
+    public List<QueryStats> top(int n) {
+        List<QueryStats> all = new ArrayList<>(aggregates.size());
+        for (Map.Entry<String, Aggregate> e : aggregates.entrySet()) {
+            all.add(e.getValue().snapshot(e.getKey()));
+        }
+        all.sort(Comparator.comparingLong(QueryStats::getTotalNanos).reversed());
+        return all.size() > n ? new ArrayList<>(all.subList(0, Math.max(0, n))) : all;
+    }
+
+    /**
+     * @param n 返回条数
+     * @return 便于直接写日志的前 n 名报表
+     */
+    public String report(int n) {
+        StringBuilder sb = new StringBuilder("SQL 耗时排行（按总耗时）:");
+        int rank = 1;
+        for (QueryStats stats : top(n)) {
+            sb.append(System.lineSeparator()).append(rank++).append(". ").append(stats);
+        }
+        return sb.toString();
+    }
+
+    public void reset() {
+        aggregates.clear();
+    }
+
+    /**
+     * 单个语句形状的累计值
+     */
+    private static final class Aggregate {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        void record(long nanos, boolean success) {
+            histogram.record(nanos);
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        QueryStats snapshot(String fingerprint) {
+            LatencyHistogram.Snapshot s = histogram.snapshot();
+            return new QueryStats(fingerprint, s.getCount(), errors.sum(), s.getTotalNanos(),
+                    s.getMaxNanos(), s.getPercentileNanos(99));
+        }
+    }
+
+    /**
+     * 单个语句形状的统计快照（不可变）
+     */
+    public static final class QueryStats {
+        private final String fingerprint;
+        private final long count;
+        private final long errors;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long p99Nanos;
+
+        QueryStats(String fingerprint, long count, long errors, long totalNanos, long maxNanos, long p99Nanos) {
+            this.fingerprint = fingerprint;
+            this.count = count;
+            this.errors = errors;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[count=%d, errors=%d, total=%.3fms, mean=%.3fms, p99=%.3fms, max=%.3fms] %s",
+                    count, errors, totalNanos / 1e6, getMeanNanos() / 1e6, p99Nanos / 1e6, maxNanos / 1e6, fingerprint);
+        }
+    }
+}
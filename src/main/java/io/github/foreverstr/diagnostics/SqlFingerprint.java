@@ -0,0 +1,140 @@
+package io.github.foreverstr.diagnostics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * <p>SQL 指纹：把只有字面量、IN 列表长度、LIMIT 数值或批量行数不同的语句归为同一形状。</p>
+ * <pre>
+ *   SELECT * FROM users WHERE status = ? LIMIT 10        -&gt; SELECT * FROM users WHERE status = ? LIMIT ?
+ *   DELETE FROM users WHERE id IN (?,?,?)               -&gt; DELETE FROM users WHERE id IN (?+)
+ *   INSERT INTO users (a, b) VALUES (?, ?), (?, ?)      -&gt; INSERT INTO users (a, b) VALUES (?+)
+ * </pre>
+ * <p>Jorm 生成的语句形状有限，归一化结果按原始 SQL 缓存。原始 SQL 可能因 LIMIT 数值等无限增长，
+ * 缓存分新旧两代，新一代写满后整体降为旧一代，不再使用的原始 SQL 随换代淘汰，常用语句始终只需一次哈希查找。
+ * 每个指纹还可以登记为一个整数编号（{@link #idOf(String)}），供需要定长记录的诊断工具使用。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class SqlFingerprint {
+    private static final int MAX_CACHED = 4096;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern REPEATED_ROWS = Pattern.compile("\\(\\?\\+\\)(?:\\s*,\\s*\\(\\?\\+\\))+");
+
+    private static final GenerationalCache<String> cache = new GenerationalCache<>(MAX_CACHED);
+    // 原始 SQL 到指纹编号、指纹到编号，编号从 1 开始，对应 fingerprints 中的下标 + 1
+    private static final GenerationalCache<Integer> idsBySql = new GenerationalCache<>(MAX_CACHED);
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final List<String> fingerprints = new CopyOnWriteArrayList<>();
+
+    private SqlFingerprint() {
+    }
+
+    /**
+     * @param sql 原始 SQL
+     * @return 归一化后的指纹
+     */
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String fingerprint = cache.get(sql);
+        if (fingerprint == null) {
+            fingerprint = normalize(sql);
+            cache.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 返回指纹的编号，同一指纹在进程内始终得到同一编号。已见过的 SQL 只需一次哈希查找
+     * @param sql 原始 SQL
+     * @return 从 1 开始的编号；登记的指纹数达到上限后新形状返回 0
+     */
+    public static int idOf(String sql) {
+        if (sql == null) {
+            return 0;
+        }
+        Integer id = idsBySql.get(sql);
+        if (id != null) {
+            return id;
+        }
+        String fingerprint = of(sql);
+        id = ids.get(fingerprint);
+        if (id == null) {
+            synchronized (ids) {
+                id = ids.get(fingerprint);
+                if (id == null) {
+                    if (ids.size() >= MAX_CACHED) {
+                        return 0;
+                    }
+                    // 先登记指纹再公开编号，拿到编号的线程一定能查到指纹
+                    fingerprints.add(fingerprint);
+                    id = fingerprints.size();
+                    ids.put(fingerprint, id);
+                }
+            }
+        }
+        idsBySql.put(sql, id);
+        return id;
+    }
+
+    /**
+     * @param id {@link #idOf(String)} 返回的编号
+     * @return 对应的指纹，未知编号返回 null
+     */
+    public static String byId(int id) {
+        return id <= 0 || id > fingerprints.size() ? null : fingerprints.get(id - 1);
+    }
+
+    static String normalize(String sql) {
+        String s = STRING_LITERAL.matcher(sql).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = WHITESPACE.matcher(s.trim()).replaceAll(" ");
+        s = PLACEHOLDER_LIST.matcher(s).replaceAll("(?+)");
+        return REPEATED_ROWS.matcher(s).replaceAll("(?+)");
+    }
+
+    // 两代缓存：读取先查新一代，旧一代命中时提升回新一代；新一代达到容量时整体降为旧一代，原旧一代丢弃。
+    // 换代存在竞争时条目数可能略超容量，不影响正确性
+    private static final class GenerationalCache<V> {
+        private final int capacity;
+        private volatile Map<String, V> young = new ConcurrentHashMap<>();
+        private volatile Map<String, V> old = new ConcurrentHashMap<>();
+
+        GenerationalCache(int capacity) {
+            this.capacity = capacity;
+        }
+
+        V get(String key) {
+            V value = young.get(key);
+            if (value == null) {
+                value = old.get(key);
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            return value;
+        }
+
+        void put(String key, V value) {
+            Map<String, V> current = young;
+            if (current.size() >= capacity) {
+                synchronized (this) {
+                    if (young == current) {
+                        old = current;
+                        young = new ConcurrentHashMap<>();
+                    }
+                    current = young;
+                }
+            }
+            current.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package io.github.foreverstr.diagnostics;
+
+import io.github.foreverstr.instrument.JormListener;
+import io.github.foreverstr.instrument.Operation;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * <p>SQL 执行轨迹环形缓冲：在内存中保留最近若干条语句的指纹编号、耗时、行数、连接标识、线程与结果，
+ * 供出问题时现场导出或筛选，适合常驻开启。</p>
+ * <pre>
+ *     SqlTraceRing trace = new SqlTraceRing();
+ *     Jorm.addListener(trace);
+ *     ...
+ *     log.warn(trace.dump());
+ *     List&lt;SqlTraceRing.TraceEntry&gt; failed = trace.filter(e -&gt; !e.isSuccess());
+ * </pre>
+ * <p>写入路径无锁、不分配对象、不格式化字符串：每条记录只占用一个序号，按序号写入并行的定长数组，
+ * 指纹以 {@link SqlFingerprint#idOf(String)} 的编号保存，格式化推迟到导出时。
+ * 读取时按槽位的发布序号校验，写入中或已被覆盖的记录会被跳过，因此快照是尽力而为的。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public class SqlTraceRing implements JormListener {
+    public static final int DEFAULT_CAPACITY = 4096;
+    // 槽位尚未写入或正在写入
+    private static final long UNPUBLISHED = -1L;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    // 每个槽位最后一次写完的序号
+    private final AtomicLongArray published;
+    private final int[] fingerprintIds;
+    private final long[] elapsedNanos;
+    private final AtomicLongArray rows;
+    private final int[] connectionIds;
+    private final long[] threadIds;
+    private final String[] threadNames;
+    private final Operation[] operations;
+    private final Class<?>[] entityClasses;
+    private final boolean[] successes;
+    private final long[] timestamps;
+    // 当前线程最后写入的序号，onRows 据此回填行数
+    private final ThreadLocal<long[]> lastSequence = ThreadLocal.withInitial(() -> new long[]{-1L});
+    private volatile long clearedBefore;
+
+    public SqlTraceRing() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 保留的记录数，向上取整为 2 的幂
+     */
+    public SqlTraceRing(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 24)) {
+            throw new IllegalArgumentException("容量必须在 1~16777216 之间");
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            published.set(i, UNPUBLISHED);
+        }
+        this.fingerprintIds = new int[this.capacity];
+        this.elapsedNanos = new long[this.capacity];
+        this.rows = new AtomicLongArray(this.capacity);
+        this.connectionIds = new int[this.capacity];
+        this.threadIds = new long[this.capacity];
+        this.threadNames = new String[this.capacity];
+        this.operations = new Operation[this.capacity];
+        this.entityClasses = new Class<?>[this.capacity];
+        this.successes = new boolean[this.capacity];
+        this.timestamps = new long[this.capacity];
+    }
+
+    @Override
+    public void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                            long elapsedNanos, boolean success, int connectionId) {
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        Thread thread = Thread.currentThread();
+        // 先撤销发布再写字段，读取方看到的序号不变才认为字段完整
+        published.set(slot, UNPUBLISHED);
+        VarHandle.storeStoreFence();
+        fingerprintIds[slot] = SqlFingerprint.idOf(sql);
+        this.elapsedNanos[slot] = elapsedNanos;
+        rows.setPlain(slot, -1L);
+        connectionIds[slot] = connectionId;
+        threadIds[slot] = thread.getId();
+        threadNames[slot] = thread.getName();
+        operations[slot] = operation;
+        entityClasses[slot] = entityClass;
+        successes[slot] = success;
+        timestamps[slot] = System.currentTimeMillis();
+        published.setRelease(slot, sequence);
+        lastSequence.get()[0] = sequence;
+    }
+
+    @Override
+    public void onRows(Operation operation, Class<?> entityClass, long count) {
+        long sequence = lastSequence.get()[0];
+        if (sequence < 0) {
+            return;
+        }
+        int slot = (int) (sequence & mask);
+        // 槽位已被其他记录覆盖时放弃回填
+        if (published.get(slot) == sequence) {
+            rows.set(slot, count);
+        }
+    }
+
+    /**
+     * @return 缓冲中现存的记录，按执行先后排列
+     */
+    public List<TraceEntry> snapshot() {
+        return filter(null);
+    }
+
+    /**
+     * @param predicate 筛选条件，为 null 时返回全部
+     * @return 满足条件的记录，按执行先后排列
+     */
+    public List<TraceEntry> filter(Predicate<? super TraceEntry> predicate) {
+        long end = cursor.get();
+        long start = Math.max(clearedBefore, end - capacity);
+        List<TraceEntry> result = new ArrayList<>();
+        for (long sequence = start; sequence < end; sequence++) {
+            TraceEntry entry = read(sequence);
+            if (entry != null && (predicate == null || predicate.test(entry))) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 便于直接写日志的全部记录，每行一条
+     */
+    public String dump() {
+        List<TraceEntry> entries = snapshot();
+        StringBuilder sb = new StringBuilder("SQL 执行轨迹（最近 ").append(entries.size()).append(" 条）:");
+        for (TraceEntry entry : entries) {
+            sb.append(System.lineSeparator()).append(entry);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 丢弃当前已有的记录，之后的写入不受影响
+     */
+    public void clear() {
+        clearedBefore = cursor.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return 自创建以来写入的记录总数（含已被覆盖的）
+     */
+    public long getRecordedCount() {
+        return cursor.get();
+    }
+
+    private TraceEntry read(long sequence) {
+        int slot = (int) (sequence & mask);
+        if (published.getAcquire(slot) != sequence) {
+            return null;
+        }
+        TraceEntry entry = new TraceEntry(sequence, timestamps[slot], operations[slot], entityClasses[slot],
+                fingerprintIds[slot], elapsedNanos[slot], rows.get(slot), connectionIds[slot],
+                threadIds[slot], threadNames[slot], successes[slot]);
+        VarHandle.loadLoadFence();
+        // 读取期间槽位被改写，字段可能来自两条记录
+        return published.get(slot) == sequence ? entry : null;
+    }
+
+    /**
+     * 一条执行记录（不可变）
+     */
+    public static final class TraceEntry {
+        private final long sequence;
+        private final long timestampMillis;
+        private final Operation operation;
+        private final Class<?> entityClass;
+        private final int fingerprintId;
+        private final long elapsedNanos;
+        private final long rows;
+        private final int connectionId;
+        private final long threadId;
+        private final String threadName;
+        private final boolean success;
+
+        TraceEntry(long sequence, long timestampMillis, Operation operation, Class<?> entityClass,
+                   int fingerprintId, long elapsedNanos, long rows, int connectionId,
+                   long threadId, String threadName, boolean success) {
+            this.sequence = sequence;
+            this.timestampMillis = timestampMillis;
+            this.operation = operation;
+            this.entityClass = entityClass;
+            this.fingerprintId = fingerprintId;
+            this.elapsedNanos = elapsedNanos;
+            this.rows = rows;
+            this.connectionId = connectionId;
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.success = success;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public Class<?> getEntityClass() {
+            return entityClass;
+        }
+
+        public int getFingerprintId() {
+            return fingerprintId;
+        }
+
+        /**
+         * @return 语句指纹，指纹数超出登记上限时为 null
+         */
+        public String getFingerprint() {
+            return SqlFingerprint.byId(fingerprintId);
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return 返回或影响的行数，未知时为 -1
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        public int getConnectionId() {
+            return connectionId;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("#%d %s [%s, %s, %.3fms, rows=%d, conn=%08x, thread=%s(%d), %s] %s",
+                    sequence, Instant.ofEpochMilli(timestampMillis), operation,
+                    entityClass == null ? null : entityClass.getSimpleName(), elapsedNanos / 1e6, rows,
+                    connectionId, threadName, threadId, success ? "ok" : "failed", getFingerprint());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.foreverstr.dialect;
+
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>数据库方言：SQL 生成与错误识别中与数据库相关的部分。</p>
+ * <p>默认实现只使用 SQL 标准语法，作为未识别数据库的兜底（{@link GenericDialect}）；
+ * 具体数据库覆盖其支持的更快写法。当前方言由 {@link io.github.foreverstr.session.factory.Jorm#getDialect()}
+ * 首次使用时根据 {@link java.sql.DatabaseMetaData} 识别，也可以手动指定。</p>
+ * @author duyujie
+ * @version 1.0
+ * @see Dialects
+ */
+public interface Dialect {
+
+    /**
+     * @return 方言名称
+     */
+    String getName();
+
+    /**
+     * 追加行数限制
+     * @param sql 完整的查询语句
+     * @param limit 最多返回的行数
+     * @return 带行数限制的语句
+     */
+    default String limit(String sql, int limit) {
+        return sql + " FETCH FIRST " + limit + " ROWS ONLY";
+    }
+
+    /**
+     * 构建最多删除 limit 行的 DELETE 语句
+     * @param table 表名
+     * @param where WHERE 子句内容（不含 WHERE 关键字），没有条件时为 null
+     * @param limit 最多删除的行数
+     * @return DELETE 语句，参数顺序与 where 中的占位符一致
+     * @throws JormException 40002 数据库不支持
+     */
+    default String deleteWithLimit(String table, String where, int limit) {
+        throw unsupported("DELETE ... LIMIT");
+    }
+
+    /**
+     * @return 是否支持 {@code INSERT ... VALUES (...), (...)} 多行插入；不支持时批量插入改用 JDBC batch
+     */
+    default boolean supportsMultiRowInsert() {
+        return false;
+    }
+
+    /**
+     * @return 单条语句允许的最大参数个数，多行插入按此拆分
+     */
+    default int getMaxParameters() {
+        return 2000;
+    }
+
+    /**
+     * @return 是否通过 {@code INSERT ... RETURNING} 取回自增主键（否则使用 JDBC generated keys）
+     */
+    default boolean supportsReturning() {
+        return false;
+    }
+
+    /**
+     * 为插入语句追加主键回读子句，仅在 {@link #supportsReturning()} 为 true 时调用
+     * @param insertSql 插入语句
+     * @param idColumn 主键列
+     * @return 带 RETURNING 的语句
+     */
+    default String returning(String insertSql, String idColumn) {
+        return insertSql + " RETURNING " + idColumn;
+    }
+
+    /**
+     * 构建按主键插入或更新的语句，每行的参数顺序与 columns 一致
+     * @param table 表名
+     * @param columns 写入的列，包含主键列
+     * @param keyColumn 主键列
+     * @param rows 行数
+     * @return 语句
+     * @throws JormException 40002 数据库不支持
+     */
+    default String upsert(String table, List<String> columns, String keyColumn, int rows) {
+        throw unsupported("UPSERT");
+    }
+
+    /**
+     * @param sequence 序列名
+     * @return 读取序列下一个值的查询
+     * @throws JormException 40002 数据库不支持序列
+     */
+    default String sequenceNextValue(String sequence) {
+        return "SELECT NEXT VALUE FOR " + sequence;
+    }
+
+    /**
+     * @param e 执行异常
+     * @return 是否为主键或唯一约束冲突
+     */
+    default boolean isDuplicateKey(SQLException e) {
+        return "23505".equals(e.getSQLState());
+    }
+
+    /**
+     * @return 是否支持 {@link #explain(String)}，不支持时不采集查询计划
+     */
+    default boolean supportsExplain() {
+        return false;
+    }
+
+    /**
+     * @param sql 查询、更新或删除语句，占位符与原语句一致
+     * @return 只返回执行计划、不真正执行的语句
+     * @throws JormException 40002 数据库不支持
+     */
+    default String explain(String sql) {
+        throw unsupported("EXPLAIN");
+    }
+
+    /**
+     * 从执行计划中找出全表扫描的表
+     * @param plan 执行计划结果集，每行一个 Map，键为小写的列标签
+     * @return 全表扫描的表名
+     */
+    default Set<String> fullScanTables(List<Map<String, String>> plan) {
+        return Collections.emptySet();
+    }
+
+    /**
+     * @param table 表名
+     * @return 第一列为表行数（可以是估算值）的查询
+     */
+    default String estimateRows(String table) {
+        return "SELECT COUNT(*) FROM " + table;
+    }
+
+    /**
+     * @param columns 列名
+     * @param rows 行数
+     * @return {@code (?, ?), (?, ?)} 形式的多行占位符
+     */
+    static String valueRows(List<String> columns, int rows) {
+        String row = "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    static JormException unsupported(String feature) {
+        return new JormException(ErrorCode.SQL_GENERATION_FAILED, "当前数据库方言不支持 " + feature);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.foreverstr.dialect;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * 根据 {@link DatabaseMetaData} 识别方言
+ * @author duyujie
+ * @version 1.0
+ */
+public final class Dialects {
+    private Dialects() {
+    }
+
+    /**
+     * @param metaData 连接的元数据
+     * @return 匹配的方言，未识别时为 {@link GenericDialect}
+     * @throws SQLException 读取元数据失败
+     */
+    public static Dialect detect(DatabaseMetaData metaData) throws SQLException {
+        return forProductName(metaData.getDatabaseProductName());
+    }
+
+    /**
+     * @param productName {@link DatabaseMetaData#getDatabaseProductName()}
+     * @return 匹配的方言，未识别时为 {@link GenericDialect}
+     */
+    public static Dialect forProductName(String productName) {
+        String name = productName == null ? "" : productName.toLowerCase(Locale.ROOT);
+        if (name.contains("h2")) {
+            return new H2Dialect();
+        }
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return new MySqlDialect();
+        }
+        if (name.contains("postgresql")) {
+            return new PostgreSqlDialect();
+        }
+        return new GenericDialect();
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.foreverstr.dialect;
+
+/**
+ * 未识别数据库的兜底方言：只使用 SQL 标准语法（FETCH FIRST、JDBC batch、generated keys）
+ * @author duyujie
+ * @version 1.0
+ */
+public class GenericDialect implements Dialect {
+    @Override
+    public String getName() {
+        return "generic";
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.foreverstr.dialect;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * H2 方言：LIMIT、DELETE ... LIMIT、多行插入，以及 {@code MERGE INTO ... KEY (...)} 形式的插入或更新。
+ * 各兼容模式（MODE=MySQL 等）下语法相同。执行计划中的 {@code tableScan} 注释表示全表扫描。
+ * @author duyujie
+ * @version 1.0
+ */
+public class H2Dialect implements Dialect {
+    // 如 /* PUBLIC.USERS.tableScan */
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\*\\s*(?:\\w+\\.)?(\\w+)\\.tableScan\\b");
+
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    @Override
+    public String limit(String sql, int limit) {
+        return sql + " LIMIT " + limit;
+    }
+
+    @Override
+    public String deleteWithLimit(String table, String where, int limit) {
+        return "DELETE FROM " + table + (where == null ? "" : " WHERE " + where) + " LIMIT " + limit;
+    }
+
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 65535;
+    }
+
+    @Override
+    public boolean supportsExplain() {
+        return true;
+    }
+
+    @Override
+    public String explain(String sql) {
+        return "EXPLAIN " + sql;
+    }
+
+    @Override
+    public Set<String> fullScanTables(List<Map<String, String>> plan) {
+        Set<String> tables = new LinkedHashSet<>();
+        for (Map<String, String> row : plan) {
+            Matcher matcher = TABLE_SCAN.matcher(String.valueOf(row.get("plan")));
+            while (matcher.find()) {
+                tables.add(matcher.group(1));
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public String upsert(String table, List<String> columns, String keyColumn, int rows) {
+        return "MERGE INTO " + table + " (" + String.join(", ", columns) + ") KEY (" + keyColumn + ") VALUES "
+                + Dialect.valueRows(columns, rows);
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.foreverstr.dialect;
+
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * MySQL / MariaDB 方言：LIMIT、DELETE ... LIMIT、多行插入与 {@code ON DUPLICATE KEY UPDATE}。不支持序列。
+ * 执行计划中 type 为 ALL 的表为全表扫描，表行数取 information_schema 中的估算值。
+ * @author duyujie
+ * @version 1.0
+ */
+public class MySqlDialect implements Dialect {
+    private static final int ER_DUP_ENTRY = 1062;
+
+    @Override
+    public String getName() {
+        return "mysql";
+    }
+
+    @Override
+    public String limit(String sql, int limit) {
+        return sql + " LIMIT " + limit;
+    }
+
+    @Override
+    public String deleteWithLimit(String table, String where, int limit) {
+        return "DELETE FROM " + table + (where == null ? "" : " WHERE " + where) + " LIMIT " + limit;
+    }
+
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 65535;
+    }
+
+    @Override
+    public String upsert(String table, List<String> columns, String keyColumn, int rows) {
+        String updates = columns.stream()
+                .filter(c -> !c.equalsIgnoreCase(keyColumn))
+                .map(c -> c + " = VALUES(" + c + ")")
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES "
+                + Dialect.valueRows(columns, rows)
+                + " ON DUPLICATE KEY UPDATE " + (updates.isEmpty() ? keyColumn + " = " + keyColumn : updates);
+    }
+
+    @Override
+    public boolean supportsExplain() {
+        return true;
+    }
+
+    @Override
+    public String explain(String sql) {
+        return "EXPLAIN " + sql;
+    }
+
+    @Override
+    public Set<String> fullScanTables(List<Map<String, String>> plan) {
+        Set<String> tables = new LinkedHashSet<>();
+        for (Map<String, String> row : plan) {
+            if ("ALL".equalsIgnoreCase(row.get("type")) && row.get("table") != null) {
+                tables.add(row.get("table"));
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public String estimateRows(String table) {
+        return "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '"
+                + table.replace("'", "''") + "'";
+    }
+
+    @Override
+    public String sequenceNextValue(String sequence) {
+        throw Dialect.unsupported("SEQUENCE，请改用 GenerationType.TABLE");
+    }
+
+    @Override
+    public boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == ER_DUP_ENTRY || Dialect.super.isDuplicateKey(e);
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.foreverstr.dialect;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL 方言：LIMIT、多行插入、{@code RETURNING} 回读主键、{@code ON CONFLICT ... DO UPDATE}，
+ * DELETE 的行数限制通过 ctid 子查询实现。执行计划中的 {@code Seq Scan} 为全表扫描，表行数取 pg_class 中的估算值。
+ * @author duyujie
+ * @version 1.0
+ */
+public class PostgreSqlDialect implements Dialect {
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\S+)");
+
+    @Override
+    public String getName() {
+        return "postgresql";
+    }
+
+    @Override
+    public String limit(String sql, int limit) {
+        return sql + " LIMIT " + limit;
+    }
+
+    @Override
+    public String deleteWithLimit(String table, String where, int limit) {
+        return "DELETE FROM " + table + " WHERE ctid IN (SELECT ctid FROM " + table
+                + (where == null ? "" : " WHERE " + where) + " LIMIT " + limit + ")";
+    }
+
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 32767;
+    }
+
+    @Override
+    public boolean supportsReturning() {
+        return true;
+    }
+
+    @Override
+    public String upsert(String table, List<String> columns, String keyColumn, int rows) {
+        String updates = columns.stream()
+                .filter(c -> !c.equalsIgnoreCase(keyColumn))
+                .map(c -> c + " = EXCLUDED." + c)
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES "
+                + Dialect.valueRows(columns, rows)
+                + " ON CONFLICT (" + keyColumn + ") " + (updates.isEmpty() ? "DO NOTHING" : "DO UPDATE SET " + updates);
+    }
+
+    @Override
+    public boolean supportsExplain() {
+        return true;
+    }
+
+    @Override
+    public String explain(String sql) {
+        return "EXPLAIN " + sql;
+    }
+
+    @Override
+    public Set<String> fullScanTables(List<Map<String, String>> plan) {
+        Set<String> tables = new LinkedHashSet<>();
+        for (Map<String, String> row : plan) {
+            Matcher matcher = SEQ_SCAN.matcher(String.valueOf(row.get("query plan")));
+            while (matcher.find()) {
+                tables.add(matcher.group(1));
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public String estimateRows(String table) {
+        // 从未 ANALYZE 的表 reltuples 为 -1
+        return "SELECT GREATEST(CAST(reltuples AS BIGINT), 0) FROM pg_class WHERE oid = to_regclass('"
+                + table.replace("'", "''") + "')";
+    }
+
+    @Override
+    public String sequenceNextValue(String sequence) {
+        return "SELECT nextval('" + sequence + "')";
+    }
+}
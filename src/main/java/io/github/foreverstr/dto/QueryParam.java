@@ -0,0 +1,73 @@
+package io.github.foreverstr.dto;
+
+import java.util.Objects;
+
+/**
+ * <p>预编译查询的参数占位符，作为条件值传给 {@code Where}/{@code Having}，执行时再绑定实际值。</p>
+ * <p>同一个查询中只能使用一种形式：按位置（{@link #at(int)}，从 0 开始连续编号）或按名称（{@link #named(String)}）。
+ * 同一位置或名称可以出现多次。</p>
+ * @author duyujie
+ * @version 1.0
+ * @see io.github.foreverstr.session.CompiledQuery
+ */
+public final class QueryParam {
+    private final String name;
+    private final int index;
+
+    private QueryParam(String name, int index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    /**
+     * @param name 参数名
+     * @return 按名称绑定的占位符
+     */
+    public static QueryParam named(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("参数名不能为空");
+        }
+        return new QueryParam(name, -1);
+    }
+
+    /**
+     * @param index 参数位置，从 0 开始
+     * @return 按位置绑定的占位符
+     */
+    public static QueryParam at(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("参数位置不能为负数");
+        }
+        return new QueryParam(null, index);
+    }
+
+    public boolean isNamed() {
+        return name != null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QueryParam)) return false;
+        QueryParam that = (QueryParam) o;
+        return index == that.index && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, index);
+    }
+
+    @Override
+    public String toString() {
+        return name != null ? ":" + name : "?" + index;
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.foreverstr.entity;
+
+import io.github.foreverstr.annotation.*;
+import io.github.foreverstr.annotation.Enum.GenerationType;
+
+@Table(name = "orders")
+public class Order {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+    private String item;
+    private int amount;
+
+    @ManyToOne(foreignKey = "user_id")
+    private User user;
+
+    public Order(Long userId, String item, int amount){
+        this.userId = userId;
+        this.item = item;
+        this.amount = amount;
+    }
+    public Order(){
+
+    }
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getItem() {
+        return item;
+    }
+
+    public void setItem(String item) {
+        this.item = item;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public void setAmount(int amount) {
+        this.amount = amount;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+}
@@ -3,6 +3,8 @@ package io.github.foreverstr.entity;
 import io.github.foreverstr.annotation.*;
 import io.github.foreverstr.annotation.Enum.GenerationType;
 
+import java.util.List;
+
 @Table(name = "users")
 public class User {
     @Id
@@ -18,6 +20,9 @@ public class User {
     @Aggregation
     private int totalAge;
 
+    @OneToMany(foreignKey = "user_id")
+    private List<Order> orders;
+
     public User(String name, int age, String status){
         this.name = name;
         this.age = age;
@@ -77,4 +82,12 @@ public class User {
     public void setTotalAge(int totalAge) {
         this.totalAge = totalAge;
     }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<Order> orders) {
+        this.orders = orders;
+    }
 }
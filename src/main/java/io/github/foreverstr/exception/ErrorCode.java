@@ -7,6 +7,7 @@ package io.github.foreverstr.exception;
  * <p> 20xxx：会话相关错误</p>
  * <p> 30xxx：事务相关错误</p>
  * <p> 40xxx：SQL构建错误</p>
+ * <p> 50xxx：缓存相关错误</p>
  * @author 杜玉杰
  * @version 1.0
  */
@@ -28,6 +29,9 @@ public enum ErrorCode {
     INVALID_COLUMN("10013","当前列无效" ),
     PARAMETER_BINDING_FAILED("10014","参数绑定失败" ),
     DUPLICATE_KEY("10015", "主键冲突"),
+    INVALID_ASSOCIATION("10016", "关联映射无效"),
+    OPTIMISTIC_LOCK_CONFLICT("10017", "乐观锁冲突"),
+    ID_GENERATION_FAILED("10018", "主键生成失败"),
 
     // 会话相关错误（20xxx）
     SESSION_HAS_CLOSED("20001","会话已关闭" ),
@@ -52,7 +56,14 @@ public enum ErrorCode {
     INVALID_SELECT_CLAUSE("40003", "无效的 SELECT 子句"),
     SQL_EXECUTION_FAILED("40004","SQL 执行失败" ),
     INVALID_OPERATOR("40005", "操作符无效"),
-    INVALID_ORDER_DIRECTION("40006","排序方向无效");
+    INVALID_ORDER_DIRECTION("40006","排序方向无效"),
+    FULL_TABLE_SCAN("40007", "查询计划包含大表全表扫描"),
+    UNSUPPORTED_QUERY("40008", "不支持的查询组合"),
+
+    // 缓存相关错误（50xxx）
+    CACHE_ENCODE_FAILED("50001", "缓存编码失败"),
+    CACHE_DECODE_FAILED("50002", "缓存解码失败"),
+    UNSUPPORTED_CACHE_TYPE("50003", "字段类型不支持缓存编码");
 
     private final String code;
     private final String message;
@@ -0,0 +1,33 @@
+package io.github.foreverstr.exception;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 乐观锁冲突：带 {@link io.github.foreverstr.annotation.Version} 的更新没有匹配到期望版本的行
+ * @author duyujie
+ * @version 1.0
+ */
+public class OptimisticLockException extends JormException {
+    private static final long serialVersionUID = 1L;
+    private final Class<?> entityClass;
+    private final List<Object> ids;
+
+    public OptimisticLockException(Class<?> entityClass, List<Object> ids) {
+        super(ErrorCode.OPTIMISTIC_LOCK_CONFLICT, String.format("%s 主键 %s 的版本已被修改",
+                entityClass.getSimpleName(), ids));
+        this.entityClass = entityClass;
+        this.ids = Collections.unmodifiableList(ids);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return 冲突行的主键，条件更新（无主键）时为空
+     */
+    public List<Object> getIds() {
+        return ids;
+    }
+}
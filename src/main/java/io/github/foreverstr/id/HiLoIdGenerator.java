@@ -0,0 +1,53 @@
+package io.github.foreverstr.id;
+
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * <p>hi-lo 号段生成器：每次向数据库取一个 hi 值，换取 {@code [hi * allocationSize, (hi + 1) * allocationSize)} 的号段。</p>
+ * <p>号段按线程分发：每个线程持有自己的号段，用完才访问数据库，分配过程没有共享锁。
+ * 线程结束或进程重启时未用完的号段会被丢弃，主键因此不连续。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public abstract class HiLoIdGenerator implements IdGenerator {
+    private final int allocationSize;
+    // [下一个可用值, 号段上界（不含）]
+    private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[2]);
+
+    protected HiLoIdGenerator(int allocationSize) {
+        if (allocationSize <= 0) {
+            throw new IllegalArgumentException("allocationSize 必须为正数");
+        }
+        this.allocationSize = allocationSize;
+    }
+
+    @Override
+    public long next(Connection connection) {
+        long[] block = blocks.get();
+        if (block[0] >= block[1]) {
+            long hi = nextHi(connection);
+            block[0] = hi * allocationSize;
+            block[1] = block[0] + allocationSize;
+        }
+        return block[0]++;
+    }
+
+    public int getAllocationSize() {
+        return allocationSize;
+    }
+
+    /**
+     * 向数据库申请一个新的 hi 值，每次调用必须返回不同的正数
+     * @param connection 当前会话的连接
+     * @return hi 值
+     */
+    protected abstract long nextHi(Connection connection);
+
+    static JormException failure(String message, SQLException e) {
+        return new JormException(ErrorCode.ID_GENERATION_FAILED, message, e);
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.foreverstr.id;
+
+import java.sql.Connection;
+
+/**
+ * <p>客户端主键生成器，插入前为实体分配主键。</p>
+ * <p>实现必须线程安全；同一实体类的所有会话共用一个实例，见 {@link IdGenerators}。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public interface IdGenerator {
+    /**
+     * 生成下一个主键
+     * @param connection 当前会话的连接，需要访问数据库的实现可以使用（不要关闭它）
+     * @return 主键
+     * @throws io.github.foreverstr.exception.JormException 10018 主键生成失败
+     */
+    long next(Connection connection);
+}
@@ -0,0 +1,85 @@
+package io.github.foreverstr.id;
+
+import io.github.foreverstr.annotation.Enum.GenerationType;
+import io.github.foreverstr.annotation.GeneratedValue;
+import io.github.foreverstr.util.EntityMetadata;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>按实体类缓存主键生成器。</p>
+ * <p>默认按 {@link GeneratedValue} 的策略创建：SEQUENCE 使用 {@link SequenceIdGenerator}，
+ * TABLE 使用 {@link TableIdGenerator}，SNOWFLAKE 共用一个 {@link SnowflakeIdGenerator}（机器号见 {@link #setWorkerId(long)}）。
+ * 也可以通过 {@link #register(Class, IdGenerator)} 为实体指定自定义生成器。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class IdGenerators {
+    private static final Map<Class<?>, IdGenerator> generators = new ConcurrentHashMap<>();
+    private static volatile SnowflakeIdGenerator snowflake = new SnowflakeIdGenerator(0);
+
+    private IdGenerators() {
+    }
+
+    /**
+     * 设置本进程的 Snowflake 机器号，多进程写同一张表时必须互不相同。只影响之后首次使用的实体
+     * @param workerId 机器号，0 ~ 1023
+     */
+    public static void setWorkerId(long workerId) {
+        snowflake = new SnowflakeIdGenerator(workerId);
+    }
+
+    /**
+     * 为实体注册自定义生成器，优先于注解上的策略
+     * @param entityClass 实体类
+     * @param generator 生成器
+     */
+    public static void register(Class<?> entityClass, IdGenerator generator) {
+        generators.put(entityClass, generator);
+    }
+
+    public static void unregister(Class<?> entityClass) {
+        generators.remove(entityClass);
+    }
+
+    /**
+     * @param entityClass 实体类
+     * @return 客户端生成器，主键由调用方赋值或由数据库自增时为 null
+     */
+    public static IdGenerator of(Class<?> entityClass) {
+        IdGenerator generator = generators.get(entityClass);
+        if (generator != null) {
+            return generator;
+        }
+        EntityMetadata.ColumnMeta id = EntityMetadata.of(entityClass).getIdColumn();
+        GeneratedValue generatedValue = id == null ? null : id.getField().getAnnotation(GeneratedValue.class);
+        if (generatedValue == null || !isClientSide(generatedValue.strategy())) {
+            return null;
+        }
+        return generators.computeIfAbsent(entityClass, k -> create(k, generatedValue));
+    }
+
+    /**
+     * @param strategy 主键策略
+     * @return 是否在客户端分配主键
+     */
+    public static boolean isClientSide(GenerationType strategy) {
+        return strategy == GenerationType.SEQUENCE || strategy == GenerationType.TABLE
+                || strategy == GenerationType.SNOWFLAKE;
+    }
+
+    private static IdGenerator create(Class<?> entityClass, GeneratedValue generatedValue) {
+        String table = EntityMetadata.of(entityClass).getTableName();
+        String name = generatedValue.generator();
+        switch (generatedValue.strategy()) {
+            case SEQUENCE:
+                return new SequenceIdGenerator(name.isEmpty() ? table + "_seq" : name, generatedValue.allocationSize());
+            case TABLE:
+                return new TableIdGenerator(TableIdGenerator.DEFAULT_TABLE, name.isEmpty() ? table : name,
+                        generatedValue.allocationSize());
+            default:
+                return snowflake;
+        }
+    }
+}
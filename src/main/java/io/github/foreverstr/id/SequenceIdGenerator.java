@@ -0,0 +1,38 @@
+package io.github.foreverstr.id;
+
+import io.github.foreverstr.session.factory.Jorm;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * <p>基于数据库序列的 hi-lo 生成器，序列需以 1 为步长递增，例如：</p>
+ * <pre>CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 1</pre>
+ * <p>序列取值不受事务回滚影响，因此直接使用当前会话的连接。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public class SequenceIdGenerator extends HiLoIdGenerator {
+    private final String sequenceName;
+
+    public SequenceIdGenerator(String sequenceName, int allocationSize) {
+        super(allocationSize);
+        if (!sequenceName.matches("[A-Za-z0-9_.]+")) {
+            throw new IllegalArgumentException("非法的序列名: " + sequenceName);
+        }
+        this.sequenceName = sequenceName;
+    }
+
+    @Override
+    protected long nextHi(Connection connection) {
+        String sql = Jorm.getDialect(connection).sequenceNextValue(sequenceName);
+        try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw failure("读取序列失败: " + sequenceName, e);
+        }
+    }
+}
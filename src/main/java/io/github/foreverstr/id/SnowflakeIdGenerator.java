@@ -0,0 +1,58 @@
+package io.github.foreverstr.id;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Snowflake 风格的时间序主键：41 位毫秒时间戳（自 2024-01-01 起）+ 10 位机器号 + 12 位毫秒内序号。</p>
+ * <p>状态（时间戳与序号）打包在一个 {@link AtomicLong} 中用 CAS 推进，不加锁也不等待：
+ * 同一毫秒内序号用完时借用下一毫秒，时钟回拨时沿用上次的时间戳继续递增，保证单调不重复。</p>
+ * <p>多个进程写同一张表时，每个进程必须使用不同的机器号。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+    public static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+
+    private final long workerId;
+    // (毫秒时间戳 - EPOCH) << SEQUENCE_BITS | 序号
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param workerId 机器号，0 ~ 1023
+     */
+    public SnowflakeIdGenerator(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId 取值范围为 0 ~ " + MAX_WORKER_ID);
+        }
+        this.workerId = workerId;
+    }
+
+    @Override
+    public long next(Connection connection) {
+        return next();
+    }
+
+    /**
+     * @return 下一个主键
+     */
+    public long next() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long current;
+        long updated;
+        do {
+            current = state.get();
+            updated = Math.max(now, current + 1);
+        } while (!state.compareAndSet(current, updated));
+        long timestamp = updated >>> SEQUENCE_BITS;
+        long sequence = updated & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | sequence;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+}
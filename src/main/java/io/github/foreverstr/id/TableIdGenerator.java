@@ -0,0 +1,76 @@
+package io.github.foreverstr.id;
+
+import io.github.foreverstr.session.factory.Jorm;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * <p>基于键值表的 hi-lo 生成器，适用于没有序列的数据库。键值表结构：</p>
+ * <pre>CREATE TABLE jorm_sequences (name VARCHAR(255) PRIMARY KEY, next_hi BIGINT NOT NULL)</pre>
+ * <p>hi 值在独立的短事务中递增并立即提交，不占用业务事务的行锁；键不存在时自动插入。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public class TableIdGenerator extends HiLoIdGenerator {
+    public static final String DEFAULT_TABLE = "jorm_sequences";
+
+    private final String key;
+    private final String updateSql;
+    private final String selectSql;
+    private final String insertSql;
+
+    public TableIdGenerator(String table, String key, int allocationSize) {
+        super(allocationSize);
+        if (!table.matches("[A-Za-z0-9_.]+")) {
+            throw new IllegalArgumentException("非法的表名: " + table);
+        }
+        this.key = key;
+        this.updateSql = "UPDATE " + table + " SET next_hi = next_hi + 1 WHERE name = ?";
+        this.selectSql = "SELECT next_hi FROM " + table + " WHERE name = ?";
+        this.insertSql = "INSERT INTO " + table + " (name, next_hi) VALUES (?, 0)";
+    }
+
+    @Override
+    protected long nextHi(Connection ignored) {
+        try (Connection conn = Jorm.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (increment(conn) == 0) {
+                    // 首次使用：插入初始行，并发插入冲突时另一方已插入，直接重试递增
+                    try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+                        stmt.setString(1, key);
+                        stmt.executeUpdate();
+                    } catch (SQLException duplicate) {
+                        conn.rollback();
+                    }
+                    increment(conn);
+                }
+                long hi;
+                try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                    stmt.setString(1, key);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        rs.next();
+                        hi = rs.getLong(1);
+                    }
+                }
+                conn.commit();
+                return hi;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw failure("读取键值表失败: " + key, e);
+        }
+    }
+
+    private int increment(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+            stmt.setString(1, key);
+            return stmt.executeUpdate();
+        }
+    }
+}
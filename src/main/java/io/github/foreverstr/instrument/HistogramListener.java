@@ -0,0 +1,78 @@
+package io.github.foreverstr.instrument;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>内置的直方图监听器，按 实体 × 操作 × 阶段 聚合耗时分布。</p>
+ * <p>每个组合的 {@link LatencyHistogram} 在首次出现时创建，之后的记录只有数组下标访问和原子自增，不分配对象。</p>
+ * <pre>
+ *     HistogramListener histograms = new HistogramListener();
+ *     Jorm.addListener(histograms);
+ *     ...
+ *     histograms.snapshot().forEach((k, v) -&gt; log.info("{} {}", k, v));
+ * </pre>
+ * @author duyujie
+ * @version 1.0
+ */
+public class HistogramListener implements JormListener {
+    private static final int PHASES = Phase.values().length;
+    private static final int SLOTS = Operation.values().length * PHASES;
+    // 与实体无关的操作（如事务）使用的占位键
+    private static final Class<?> NO_ENTITY = void.class;
+
+    private final Map<Class<?>, AtomicReferenceArray<LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPhase(Operation operation, Phase phase, Class<?> entityClass, long elapsedNanos, boolean success) {
+        histogram(entityClass, operation, phase).record(elapsedNanos);
+    }
+
+    /**
+     * @param entityClass 实体类，可为 null
+     * @param operation 操作
+     * @param phase 阶段
+     * @return 对应直方图，不存在时创建
+     */
+    public LatencyHistogram histogram(Class<?> entityClass, Operation operation, Phase phase) {
+        Class<?> key = entityClass == null ? NO_ENTITY : entityClass;
+        AtomicReferenceArray<LatencyHistogram> slots = histograms.get(key);
+        if (slots == null) {
+            slots = histograms.computeIfAbsent(key, k -> new AtomicReferenceArray<>(SLOTS));
+        }
+        int slot = operation.ordinal() * PHASES + phase.ordinal();
+        LatencyHistogram histogram = slots.get(slot);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = slots.compareAndSet(slot, null, created) ? created : slots.get(slot);
+        }
+        return histogram;
+    }
+
+    /**
+     * @return 所有已记录组合的快照，键形如 {@code User.FIND.EXECUTE}，与实体无关的操作以 {@code -} 代替实体名
+     */
+    public Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> result = new TreeMap<>();
+        Operation[] operations = Operation.values();
+        Phase[] phases = Phase.values();
+        for (Map.Entry<Class<?>, AtomicReferenceArray<LatencyHistogram>> e : histograms.entrySet()) {
+            String entity = e.getKey() == NO_ENTITY ? "-" : e.getKey().getSimpleName();
+            AtomicReferenceArray<LatencyHistogram> slots = e.getValue();
+            for (int i = 0; i < SLOTS; i++) {
+                LatencyHistogram histogram = slots.get(i);
+                if (histogram != null) {
+                    result.put(entity + "." + operations[i / PHASES] + "." + phases[i % PHASES], histogram.snapshot());
+                }
+            }
+        }
+        return new LinkedHashMap<>(result);
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+}
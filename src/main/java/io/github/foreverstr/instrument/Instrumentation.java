@@ -0,0 +1,152 @@
+package io.github.foreverstr.instrument;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>监听器分发中心，会话内部使用。</p>
+ * <p>用法：</p>
+ * <pre>
+ *     long t = Instrumentation.start();
+ *     ...
+ *     Instrumentation.record(Operation.FIND, Phase.EXECUTE, clazz, t, true);
+ * </pre>
+ * <p>未注册监听器时 {@link #start()} 返回 0 且不读取时钟，{@link #record} 直接返回，开销只有一次 volatile 读。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class Instrumentation {
+    private static final Logger log = LoggerFactory.getLogger(Instrumentation.class);
+    private static final JormListener[] NONE = new JormListener[0];
+    // 写时复制，读路径无锁
+    private static volatile JormListener[] listeners = NONE;
+
+    private Instrumentation() {
+    }
+
+    public static synchronized void addListener(JormListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("监听器不能为null");
+        }
+        JormListener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[copy.length - 1] = listener;
+        listeners = copy;
+    }
+
+    public static synchronized void removeListener(JormListener listener) {
+        JormListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                JormListener[] copy = new JormListener[current.length - 1];
+                System.arraycopy(current, 0, copy, 0, i);
+                System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+                listeners = copy;
+                return;
+            }
+        }
+    }
+
+    public static synchronized void clearListeners() {
+        listeners = NONE;
+    }
+
+    public static boolean isEnabled() {
+        return listeners.length != 0;
+    }
+
+    /**
+     * @return 当前纳秒时间；未注册监听器时返回 0
+     */
+    public static long start() {
+        return listeners.length == 0 ? 0L : System.nanoTime();
+    }
+
+    /**
+     * 记录从 startNanos 到现在的阶段耗时
+     * @param operation 操作
+     * @param phase 阶段
+     * @param entityClass 实体类，可为 null
+     * @param startNanos {@link #start()} 的返回值，为 0 时不记录
+     * @param success 是否成功
+     */
+    public static void record(Operation operation, Phase phase, Class<?> entityClass, long startNanos, boolean success) {
+        if (startNanos == 0L) {
+            return;
+        }
+        JormListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        for (JormListener listener : current) {
+            try {
+                listener.onPhase(operation, phase, entityClass, elapsed, success);
+            } catch (RuntimeException e) {
+                log.warn("监听器回调异常: {}", listener.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 记录一条 SQL 的执行，依次回调 {@link Phase#EXECUTE} 阶段与语句事件
+     * @param operation 操作
+     * @param entityClass 实体类
+     * @param sql 执行的 SQL
+     * @param params 绑定参数，可为 null
+     * @param startNanos {@link #start()} 的返回值，为 0 时不记录
+     * @param success 是否执行成功
+     */
+    public static void recordStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                                       long startNanos, boolean success) {
+        recordStatement(operation, entityClass, sql, params, startNanos, success, null);
+    }
+
+    /**
+     * 记录一条 SQL 的执行，并附带执行语句的连接
+     * @param connection 执行语句的连接，只取其标识，可为 null
+     */
+    public static void recordStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                                       long startNanos, boolean success, Connection connection) {
+        if (startNanos == 0L) {
+            return;
+        }
+        JormListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        int connectionId = connection == null ? 0 : System.identityHashCode(connection);
+        for (JormListener listener : current) {
+            try {
+                listener.onPhase(operation, Phase.EXECUTE, entityClass, elapsed, success);
+                listener.onStatement(operation, entityClass, sql, params, elapsed, success, connectionId);
+            } catch (RuntimeException e) {
+                log.warn("监听器回调异常: {}", listener.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 记录刚执行的语句返回或影响的行数，在 {@link #recordStatement} 之后于同一线程调用
+     * @param operation 操作
+     * @param entityClass 实体类
+     * @param rows 行数，小于 0 表示未知，不回调
+     */
+    public static void recordRows(Operation operation, Class<?> entityClass, long rows) {
+        JormListener[] current = listeners;
+        if (current.length == 0 || rows < 0) {
+            return;
+        }
+        for (JormListener listener : current) {
+            try {
+                listener.onRows(operation, entityClass, rows);
+            } catch (RuntimeException e) {
+                log.warn("监听器回调异常: {}", listener.getClass().getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.foreverstr.instrument;
+
+import java.util.List;
+
+/**
+ * <p>性能观测 SPI，通过 {@link io.github.foreverstr.session.factory.Jorm#addListener(JormListener)} 注册。</p>
+ * <p>回调在执行操作的线程上同步调用，实现必须线程安全、不可阻塞，且应避免在回调中分配对象。
+ * 没有注册任何监听器时，会话不会读取时钟，也不会产生回调。</p>
+ * <p>{@link Phase#EXECUTE}、{@link Phase#ROLLBACK} 与 {@link Phase#TOTAL} 在失败时也会回调（success 为 false），
+ * 其余阶段只在成功完成时回调。</p>
+ * @author duyujie
+ * @version 1.0
+ * @see HistogramListener
+ * @see io.github.foreverstr.diagnostics.SlowQueryLog
+ */
+public interface JormListener {
+
+    /**
+     * 某个阶段结束
+     * @param operation 操作
+     * @param phase 阶段
+     * @param entityClass 实体类，事务等与实体无关的操作为 null
+     * @param elapsedNanos 耗时（纳秒）
+     * @param success 阶段是否成功完成
+     */
+    default void onPhase(Operation operation, Phase phase, Class<?> entityClass, long elapsedNanos, boolean success) {
+    }
+
+    /**
+     * 一条 SQL 执行结束，紧随同一次执行的 {@link Phase#EXECUTE} 阶段回调之后
+     * @param operation 操作
+     * @param entityClass 实体类
+     * @param sql 执行的 SQL
+     * @param params 绑定参数，插入操作为实体列表；会话执行后会复用该列表，实现不得持有引用
+     * @param elapsedNanos 执行耗时（纳秒）
+     * @param success 是否执行成功
+     */
+    default void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                             long elapsedNanos, boolean success) {
+    }
+
+    /**
+     * 带连接标识的语句事件，默认转发给 {@link #onStatement(Operation, Class, String, List, long, boolean)}
+     * @param connectionId 执行语句的连接标识（连接对象的 identityHashCode），未知时为 0
+     */
+    default void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                             long elapsedNanos, boolean success, int connectionId) {
+        onStatement(operation, entityClass, sql, params, elapsedNanos, success);
+    }
+
+    /**
+     * 在同一线程上紧随语句事件之后回调，报告该语句返回或影响的行数；执行失败或行数未知时不回调
+     * @param operation 操作
+     * @param entityClass 实体类
+     * @param rows 行数
+     */
+    default void onRows(Operation operation, Class<?> entityClass, long rows) {
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.foreverstr.instrument;
+
+/**
+ * 被观测的会话操作
+ * @author duyujie
+ */
+public enum Operation {
+    FIND, SAVE, BATCH_SAVE, UPDATE, DELETE, TRANSACTION
+}
@@ -0,0 +1,27 @@
+package io.github.foreverstr.instrument;
+
+/**
+ * 操作内部的耗时阶段，{@link #TOTAL} 表示整个操作
+ * @author duyujie
+ */
+public enum Phase {
+    // 生成 SQL
+    BUILD_SQL,
+    // 客户端分配主键（可能访问序列或键值表）
+    GENERATE_ID,
+    // 获取数据库连接
+    ACQUIRE_CONNECTION,
+    // prepareStatement 与参数绑定
+    PREPARE,
+    // 执行语句
+    EXECUTE,
+    // 结果集映射为实体
+    MAP_ROWS,
+    // 读二级缓存
+    CACHE_GET,
+    // 写二级缓存
+    CACHE_PUT,
+    COMMIT,
+    ROLLBACK,
+    TOTAL
+}
@@ -0,0 +1,276 @@
+package io.github.foreverstr.session;
+
+import io.github.foreverstr.diagnostics.QueryPlanGuard;
+import io.github.foreverstr.dto.QueryParam;
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.instrument.Instrumentation;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
+import io.github.foreverstr.util.EntityMetadata;
+import io.github.foreverstr.util.EntityMetadata.ColumnMeta;
+import io.github.foreverstr.util.TypeHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>预编译查询：定义时完成条件校验与 SQL 生成，并记下每个占位符的取值来源（常量或 {@link QueryParam}），
+ * 执行时只做参数绑定、执行与按列下标映射。</p>
+ * <p>实例不可变，可在多个线程、多个会话之间共享。行映射计划在第一次执行时按结果集的列确定，之后复用。
+ * SQL 中的分页写法取决于编译时的 {@link io.github.foreverstr.session.factory.Jorm#getDialect() 方言}。
+ * 预编译查询不经过二级缓存，也不支持 Preload。</p>
+ * <pre>
+ * static final CompiledQuery&lt;User&gt; BY_STATUS = Jorm.compile(User.class, q -&gt; q
+ *         .Where("status", QueryParam.named("status"))
+ *         .Where("age", "&gt;", QueryParam.named("minAge"))
+ *         .Order("age DESC").Limit(20));
+ *
+ * List&lt;User&gt; users = BY_STATUS.find(Map.of("status", "active", "minAge", 18));
+ * </pre>
+ * @author duyujie
+ * @version 1.0
+ * @param <T> 实体类型
+ * @see FindSession#Compile(Class)
+ */
+public final class CompiledQuery<T> {
+    private static final Logger log = LoggerFactory.getLogger(CompiledQuery.class);
+
+    private final Class<T> entityClass;
+    private final EntityMetadata metadata;
+    private final String sql;
+    // 每个占位符：slots[i] < 0 时取 constants[i]，否则取第 slots[i] 个参数
+    private final Object[] constants;
+    private final int[] slots;
+    // 命名参数的名称，按参数序号排列；按位置绑定时为 null
+    private final String[] names;
+    private final int parameterCount;
+    private volatile RowPlan plan;
+
+    CompiledQuery(Class<T> entityClass, String sql, List<Object> bindings) {
+        this.entityClass = entityClass;
+        this.metadata = EntityMetadata.of(entityClass);
+        this.sql = sql;
+        this.constants = new Object[bindings.size()];
+        this.slots = new int[bindings.size()];
+        List<String> nameList = new ArrayList<>();
+        BitSet positions = new BitSet();
+        for (int i = 0; i < bindings.size(); i++) {
+            Object value = bindings.get(i);
+            if (!(value instanceof QueryParam)) {
+                constants[i] = value;
+                slots[i] = -1;
+                continue;
+            }
+            QueryParam param = (QueryParam) value;
+            if (param.isNamed()) {
+                int index = nameList.indexOf(param.getName());
+                if (index < 0) {
+                    index = nameList.size();
+                    nameList.add(param.getName());
+                }
+                slots[i] = index;
+            } else {
+                positions.set(param.getIndex());
+                slots[i] = param.getIndex();
+            }
+        }
+        if (!nameList.isEmpty() && !positions.isEmpty()) {
+            throw new IllegalArgumentException("同一个查询不能同时使用命名参数与位置参数");
+        }
+        if (positions.nextClearBit(0) != positions.length()) {
+            throw new IllegalArgumentException("位置参数必须从 0 开始连续编号: " + positions);
+        }
+        this.names = nameList.isEmpty() ? null : nameList.toArray(new String[0]);
+        this.parameterCount = names != null ? names.length : positions.length();
+    }
+
+    /**
+     * 按位置绑定参数执行，连接按当前线程的事务获取
+     * @param args 参数值，个数与 {@link QueryParam#at(int)} 的编号一致
+     * @return 查询结果
+     * @throws IllegalArgumentException 参数个数不符或查询使用命名参数
+     * @throws JormException 10002 查询执行失败
+     */
+    public List<T> find(Object... args) {
+        Object[] values = positional(args);
+        try (FindSession session = FindSession.recycled()) {
+            return execute(session.getNativeConnection(), values);
+        }
+    }
+
+    /**
+     * 按名称绑定参数执行，连接按当前线程的事务获取
+     * @param args 参数名到值的映射
+     * @return 查询结果
+     * @throws IllegalArgumentException 缺少参数或查询使用位置参数
+     * @throws JormException 10002 查询执行失败
+     */
+    public List<T> find(Map<String, ?> args) {
+        Object[] values = named(args);
+        try (FindSession session = FindSession.recycled()) {
+            return execute(session.getNativeConnection(), values);
+        }
+    }
+
+    /**
+     * 在指定连接上按位置绑定参数执行，连接由调用方管理
+     */
+    public List<T> find(Connection connection, Object... args) {
+        return execute(connection, positional(args));
+    }
+
+    /**
+     * 在指定连接上按名称绑定参数执行，连接由调用方管理
+     */
+    public List<T> find(Connection connection, Map<String, ?> args) {
+        return execute(connection, named(args));
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return 需要绑定的参数个数
+     */
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    private Object[] positional(Object[] args) {
+        if (names != null) {
+            throw new IllegalArgumentException("该查询使用命名参数: " + Arrays.toString(names));
+        }
+        Object[] values = args == null ? new Object[0] : args;
+        if (values.length != parameterCount) {
+            throw new IllegalArgumentException(String.format("参数个数不符: 需要 %d 个，传入 %d 个",
+                    parameterCount, values.length));
+        }
+        return values;
+    }
+
+    private Object[] named(Map<String, ?> args) {
+        if (names == null) {
+            if (parameterCount > 0) {
+                throw new IllegalArgumentException("该查询使用位置参数");
+            }
+            return new Object[0];
+        }
+        Object[] values = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            if (args == null || !args.containsKey(names[i])) {
+                throw new IllegalArgumentException("缺少参数: " + names[i]);
+            }
+            values[i] = args.get(names[i]);
+        }
+        return values;
+    }
+
+    private List<T> execute(Connection connection, Object[] values) {
+        long start = Instrumentation.start();
+        boolean success = false;
+        try {
+            if (QueryPlanGuard.isInstalled()) {
+                QueryPlanGuard.inspect(Operation.FIND, entityClass, sql, bound(values), connection);
+            }
+            long phaseStart = Instrumentation.start();
+            try (PreparedStatement stmt = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                for (int i = 0; i < slots.length; i++) {
+                    stmt.setObject(i + 1, slots[i] < 0 ? constants[i] : values[slots[i]]);
+                }
+                Instrumentation.record(Operation.FIND, Phase.PREPARE, entityClass, phaseStart, true);
+                phaseStart = Instrumentation.start();
+                ResultSet rs = null;
+                try {
+                    rs = stmt.executeQuery();
+                } finally {
+                    Instrumentation.recordStatement(Operation.FIND, entityClass, sql,
+                            phaseStart == 0L ? null : bound(values), phaseStart, rs != null, connection);
+                }
+                phaseStart = Instrumentation.start();
+                List<T> result;
+                try (ResultSet rows = rs) {
+                    result = map(rows);
+                }
+                Instrumentation.record(Operation.FIND, Phase.MAP_ROWS, entityClass, phaseStart, true);
+                Instrumentation.recordRows(Operation.FIND, entityClass, result.size());
+                success = true;
+                return result;
+            }
+        } catch (SQLException e) {
+            String errorMsg = String.format("SQL执行失败 [SQL=%s]", sql);
+            log.error("[ErrorCode={}] {}", ErrorCode.QUERY_EXECUTION_FAILED.getCode(), errorMsg, e);
+            throw new JormException(ErrorCode.QUERY_EXECUTION_FAILED, errorMsg, e);
+        } finally {
+            Instrumentation.record(Operation.FIND, Phase.TOTAL, entityClass, start, success);
+        }
+    }
+
+    // 观测用的实际参数列表，仅在有监听器时生成
+    private List<Object> bound(Object[] values) {
+        List<Object> params = new ArrayList<>(slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            params.add(slots[i] < 0 ? constants[i] : values[slots[i]]);
+        }
+        return params;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> map(ResultSet rs) throws SQLException {
+        RowPlan current = plan;
+        if (current == null) {
+            // 并发的首次执行可能各自生成一份计划，结果相同，后写入者覆盖即可
+            current = new RowPlan(metadata, rs.getMetaData());
+            plan = current;
+        }
+        List<T> list = new ArrayList<>();
+        ColumnMeta[] columns = current.columns;
+        TypeHandler[] handlers = current.handlers;
+        while (rs.next()) {
+            Object entity = metadata.newInstance();
+            for (int i = 0; i < columns.length; i++) {
+                ColumnMeta column = columns[i];
+                if (column == null) continue;
+                Object value = handlers[i] != null ? handlers[i].handle(rs, i + 1, column.getType()) : rs.getObject(i + 1);
+                if (value != null) {
+                    column.set(entity, value);
+                }
+            }
+            list.add((T) entity);
+        }
+        return list;
+    }
+
+    // 结果集列下标到实体字段的对应关系，无对应字段的列为 null
+    private static final class RowPlan {
+        private final ColumnMeta[] columns;
+        private final TypeHandler[] handlers;
+
+        private RowPlan(EntityMetadata metadata, ResultSetMetaData rsMeta) throws SQLException {
+            int count = rsMeta.getColumnCount();
+            this.columns = new ColumnMeta[count];
+            this.handlers = new TypeHandler[count];
+            for (int i = 0; i < count; i++) {
+                ColumnMeta column = metadata.findColumn(rsMeta.getColumnLabel(i + 1));
+                columns[i] = column;
+                handlers[i] = column == null ? null : TypeHandler.forType(column.getType());
+            }
+        }
+    }
+}
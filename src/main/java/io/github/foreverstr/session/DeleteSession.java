@@ -2,9 +2,14 @@ package io.github.foreverstr.session;
 
 import io.github.foreverstr.cache.CacheManager;
 import io.github.foreverstr.cache.SecondLevelCache;
+import io.github.foreverstr.diagnostics.QueryPlanGuard;
 import io.github.foreverstr.dto.Condition;
+import io.github.foreverstr.instrument.Instrumentation;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
 import io.github.foreverstr.session.base.BaseSession;
 import io.github.foreverstr.sqlBuilder.DeleteBuilder;
+import io.github.foreverstr.sqlBuilder.InClause;
 import io.github.foreverstr.transaction.TransactionTemplate;
 import io.github.foreverstr.util.EntityHelper;
 import io.github.foreverstr.exception.ErrorCode;
@@ -17,6 +22,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,11 +36,10 @@ import java.util.List;
  */
 public class DeleteSession extends BaseSession<DeleteSession> {
     private final List<Condition> conditions = new ArrayList<>();
-    private final List<Object> params = new ArrayList<>();
     private int limit;
     private static final Logger log = LoggerFactory.getLogger(FindSession.class);
     public DeleteSession() {
-        super();
+        super(Operation.DELETE, false);
     }
     public DeleteSession(Connection externalConn) {
         super(externalConn);
@@ -47,7 +52,19 @@ public class DeleteSession extends BaseSession<DeleteSession> {
      */
     public DeleteSession Where(String column, Object value) {
         conditions.add(new Condition(column, "=", value));
-        params.add(value);
+        return self();
+    }
+    /**
+     * 添加条件，操作符为 IN 时值必须是集合，超过分块大小时按块执行多条删除；
+     * 会话不在事务中时这些删除在一个本地事务中执行，任一块失败全部回滚
+     * @param column 条件列名
+     * @param operator 操作符
+     * @param value 条件值
+     * @return 当前对象 用于链式调用
+     */
+    public DeleteSession Where(String column, String operator, Object value) {
+        InClause.checkValue(operator, value);
+        conditions.add(new Condition(column, operator, value));
         return self();
     }
     /**
@@ -70,16 +87,34 @@ public class DeleteSession extends BaseSession<DeleteSession> {
         if (entity == null) {
             throw new IllegalArgumentException("删除实体不能为null");
         }
-        if (entity instanceof Collection) {
-            deleteBatch((Collection<?>) entity);
-        } else {
-            deleteSingle(entity);
+        long start = Instrumentation.start();
+        boolean success = false;
+        try {
+            if (entity instanceof Collection) {
+                deleteBatch((Collection<?>) entity);
+            } else {
+                deleteSingle(entity);
+            }
+            // 清除相关缓存
+            if (CacheManager.isCacheEnabled()) {
+                CacheManager.getSecondLevelCache().clearRegion(entity.getClass().getName());
+                log.debug("清除缓存区域: [Class={}]", entity.getClass().getName());
+            }
+            success = true;
+        } finally {
+            if (start != 0L) {
+                Instrumentation.record(Operation.DELETE, Phase.TOTAL, entityClassOf(entity), start, success);
+            }
         }
-        // 清除相关缓存
-        if (CacheManager.isCacheEnabled()) {
-            CacheManager.getSecondLevelCache().clearRegion(entity.getClass().getName());
-            log.debug("清除缓存区域: [Class={}]", entity.getClass().getName());
+    }
+    // 批量删除时取第一个元素的类型
+    private static Class<?> entityClassOf(Object entity) {
+        if (entity instanceof Collection) {
+            Collection<?> collection = (Collection<?>) entity;
+            Object first = collection.isEmpty() ? null : collection.iterator().next();
+            return first == null ? null : first.getClass();
         }
+        return entity.getClass();
     }
     // 执行单个实例对象删除
     private <T> void deleteSingle(T entity) {
@@ -88,16 +123,20 @@ public class DeleteSession extends BaseSession<DeleteSession> {
         Class<?> clazz = entity.getClass();
         String sql = null;
         try {
+            long phaseStart = Instrumentation.start();
             sql = DeleteBuilder.buildSingleDelete(clazz);
+            Instrumentation.record(Operation.DELETE, Phase.BUILD_SQL, clazz, phaseStart, true);
             Object idValue = EntityHelper.getIdValue(entity);
 
             if (idValue == null) {
                 throw new JormException(ErrorCode.INVALID_ENTITY, "实体ID值不能为null");
             }
 
+            phaseStart = Instrumentation.start();
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
                 stmt.setObject(1, idValue);
-                int rows = stmt.executeUpdate();
+                Instrumentation.record(Operation.DELETE, Phase.PREPARE, clazz, phaseStart, true);
+                int rows = executeUpdate(stmt, clazz, sql, Instrumentation.isEnabled() ? Collections.singletonList(idValue) : null);
                 log.debug("删除单个对象: [SQL={}, ID={}, 影响行数={}]", sql, idValue, rows);
             }
         } catch (IllegalAccessException e) {
@@ -124,17 +163,44 @@ public class DeleteSession extends BaseSession<DeleteSession> {
         Class<?> clazz = entityList.get(0).getClass();
         String sql = null;
         try {
-            sql = DeleteBuilder.buildBatchDelete(entityList.get(0).getClass(), new ArrayList<>(entities));
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                for (int i = 0; i < entityList.size(); i++) {
-                    Object idValue = EntityHelper.getIdValue(entityList.get(i));
-                    if (idValue == null) {
-                        throw new JormException(ErrorCode.INVALID_ENTITY, "实体ID值不能为null");
+            List<Object> ids = new ArrayList<>(entityList.size());
+            for (T entity : entityList) {
+                Object idValue = EntityHelper.getIdValue(entity);
+                if (idValue == null) {
+                    throw new JormException(ErrorCode.INVALID_ENTITY, "实体ID值不能为null");
+                }
+                ids.add(idValue);
+            }
+            // 占位符个数分桶，超长列表按块删除
+            String idColumn = EntityHelper.getIdColumnName(clazz);
+            Condition idCondition = new Condition(idColumn, InClause.OPERATOR, ids);
+            List<List<Condition>> chunks = InClause.split(Collections.singletonList(idCondition));
+            // 按块执行的多条删除在本地事务中整体生效，避免部分块已提交
+            boolean local = chunks.size() > 1 && beginLocalTransaction();
+            boolean completed = false;
+            try {
+                for (List<Condition> chunk : chunks) {
+                    long phaseStart = Instrumentation.start();
+                    Collection<?> chunkIds = (Collection<?>) chunk.get(0).getValue();
+                    sql = DeleteBuilder.buildBatchDelete(clazz, new ArrayList<>(chunkIds));
+                    List<Object> params = new ArrayList<>();
+                    InClause.bind(chunk, params);
+                    Instrumentation.record(Operation.DELETE, Phase.BUILD_SQL, clazz, phaseStart, true);
+                    phaseStart = Instrumentation.start();
+                    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                        for (int i = 0; i < params.size(); i++) {
+                            stmt.setObject(i + 1, params.get(i));
+                        }
+                        Instrumentation.record(Operation.DELETE, Phase.PREPARE, clazz, phaseStart, true);
+                        int rows = executeUpdate(stmt, clazz, sql, params);
+                        log.debug("批量删除: [SQL={}, 数量={}, 影响行数={}]", sql, chunkIds.size(), rows);
                     }
-                    stmt.setObject(i + 1, idValue);
                 }
-                int rows = stmt.executeUpdate();
-                log.debug("批量删除: [SQL={}, 数量={}, 影响行数={}]", sql, entityList.size(), rows);
+                completed = true;
+            } finally {
+                if (local) {
+                    endLocalTransaction(completed);
+                }
             }
         } catch (IllegalAccessException e) {
             String errorMsg = String.format("反射访问失败 [类=%s]", clazz.getSimpleName());
@@ -164,23 +230,53 @@ public class DeleteSession extends BaseSession<DeleteSession> {
             throw new IllegalArgumentException("目标类不能为null");
         }
 
+        long start = Instrumentation.start();
+        boolean success = false;
         String sql = null;
+        List<Object> params = new ArrayList<>();
         try {
-            sql = DeleteBuilder.buildClassDelete(clazz,conditions,limit);
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    for (int i = 0; i < params.size(); i++) {
-                        stmt.setObject(i + 1, params.get(i));
+            List<List<Condition>> chunks = InClause.split(conditions);
+            if (chunks.size() > 1 && limit > 0) {
+                String errorMsg = "IN 列表超过分块大小时不支持 Limit";
+                log.error("[ErrorCode={}] {}", ErrorCode.UNSUPPORTED_QUERY.getCode(), errorMsg);
+                throw new JormException(ErrorCode.UNSUPPORTED_QUERY, errorMsg);
+            }
+            boolean local = chunks.size() > 1 && beginLocalTransaction();
+            boolean completed = false;
+            try {
+                for (List<Condition> chunk : chunks) {
+                    long phaseStart = Instrumentation.start();
+                    sql = DeleteBuilder.buildClassDelete(clazz, chunk, limit);
+                    params = new ArrayList<>();
+                    InClause.bind(chunk, params);
+                    Instrumentation.record(Operation.DELETE, Phase.BUILD_SQL, clazz, phaseStart, true);
+                    QueryPlanGuard.inspect(Operation.DELETE, clazz, sql, params, connection);
+                    phaseStart = Instrumentation.start();
+                    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                        for (int i = 0; i < params.size(); i++) {
+                            stmt.setObject(i + 1, params.get(i));
+                        }
+                        Instrumentation.record(Operation.DELETE, Phase.PREPARE, clazz, phaseStart, true);
+                        int rows = executeUpdate(stmt, clazz, sql, params);
+                        log.debug("条件删除: [SQL={}, 参数={}, 影响行数={}]", sql, params, rows);
                     }
-                int rows = stmt.executeUpdate();
-                log.debug("条件删除: [SQL={}, 参数={}, 影响行数={}]", sql, params, rows);
+                }
+                completed = true;
+            } finally {
+                if (local) {
+                    endLocalTransaction(completed);
+                }
             }
+            success = true;
         } catch (SQLException e) {
-            String errorMsg = String.format("条件删除失败 [SQL=%s, 参数=%s]", sql, params);
+            String errorMsg = String.format("条件删除失败 [SQL=%s]", sql);
+            log.debug("失败SQL的参数: {}", params);
             log.error("[ErrorCode={}] {}", ErrorCode.CONDITIONAL_DELETE_FAILED.getCode(), errorMsg, e);
             throw new JormException(ErrorCode.CONDITIONAL_DELETE_FAILED, errorMsg, e);
         }finally {
             // 每次执行后重置状态
             resetState();
+            Instrumentation.record(Operation.DELETE, Phase.TOTAL, clazz, start, success);
         }
         // 缓存清理
         if (CacheManager.isCacheEnabled()) {
@@ -192,10 +288,21 @@ public class DeleteSession extends BaseSession<DeleteSession> {
             });
         }
     }
+    // 执行删除语句并记录执行阶段耗时
+    private int executeUpdate(PreparedStatement stmt, Class<?> clazz, String sql, List<?> boundParams) throws SQLException {
+        long phaseStart = Instrumentation.start();
+        int rows = -1;
+        try {
+            rows = stmt.executeUpdate();
+        } finally {
+            Instrumentation.recordStatement(Operation.DELETE, clazz, sql, boundParams, phaseStart, rows >= 0, connection);
+        }
+        Instrumentation.recordRows(Operation.DELETE, clazz, rows);
+        return rows;
+    }
     private void resetState() {
         this.conditions.clear();
-         this.params.clear();
-         this.limit = 0;
+        this.limit = 0;
     }
     @Override
     protected DeleteSession self() {
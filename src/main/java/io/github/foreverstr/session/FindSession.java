@@ -1,21 +1,49 @@
 package io.github.foreverstr.session;
 
+import io.github.foreverstr.cache.CachePolicy;
 import io.github.foreverstr.cache.SecondLevelCache;
+import io.github.foreverstr.columnar.ColumnBatch;
+import io.github.foreverstr.diagnostics.QueryPlanGuard;
 import io.github.foreverstr.dto.Condition;
+import io.github.foreverstr.dto.QueryParam;
+import io.github.foreverstr.instrument.Instrumentation;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
 import io.github.foreverstr.session.base.BaseSession;
 import io.github.foreverstr.sqlBuilder.FindBuilder;
+import io.github.foreverstr.sqlBuilder.InClause;
+import io.github.foreverstr.util.ProjectionPlan;
 import io.github.foreverstr.util.ResultSetMapper;
+import io.github.foreverstr.util.TypeHandler;
 import io.github.foreverstr.exception.ErrorCode;
 import io.github.foreverstr.exception.JormException;
 import io.github.foreverstr.cache.CacheManager;
+import io.github.foreverstr.util.AssociationMetadata;
 import io.github.foreverstr.util.EntityHelper;
+import io.github.foreverstr.util.EntityMetadata;
+import io.github.foreverstr.util.EntityMetadata.ColumnMeta;
+import io.github.foreverstr.util.primitive.IntList;
+import io.github.foreverstr.util.primitive.LongList;
+import io.github.foreverstr.util.primitive.LongLongMap;
+import io.github.foreverstr.util.primitive.ObjectLongMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Supplier;
 
 /**
  * 该类继承自 {@link BaseSession}，实现了查询逻辑的相关操作,必须通过 try-with-resources 使用本类
@@ -28,19 +56,71 @@ import java.util.List;
 public class FindSession extends BaseSession<FindSession> {
     private final List<Condition> conditions = new ArrayList<>();
     private final List<Condition> havingConditions = new ArrayList<>();
-    private final List<Object> params = new ArrayList<>();
     private String group;
     private String selectClause = "*";
     private String orderBy;
     private Integer limit;
+    private final List<String> preloads = new ArrayList<>();
     private static final Logger log = LoggerFactory.getLogger(FindSession.class);
+    // 每个线程复用的查询会话，见 recycled()
+    private static final ThreadLocal<FindSession> recycled = new ThreadLocal<>();
+    private boolean recyclable;
+    private boolean inUse;
 
     public FindSession() {
-        super();
+        super(Operation.FIND, false);
+    }
+    /**
+     * 只读会话：连接取自 {@link io.github.foreverstr.session.factory.Jorm#setReadDataSource 只读数据源}
+     * 并标记为只读，关闭时恢复。当前线程处于事务中时沿用事务连接，不改变其状态
+     * @param readOnly 是否只读
+     */
+    public FindSession(boolean readOnly) {
+        super(Operation.FIND, readOnly);
     }
     public FindSession(Connection externalConn) {
         super(externalConn);
     }
+
+    /**
+     * <p>获取当前线程复用的查询会话，托管连接按次获取，关闭后实例留给本线程下次使用。</p>
+     * <p>高频查询路径上省去每次创建会话及其条件列表的分配；上一个复用会话尚未关闭时（嵌套使用）返回普通会话。
+     * 关闭后不要再持有该实例的引用。</p>
+     * <pre>
+     * try (FindSession session = FindSession.recycled()) {
+     *     return session.Where("id", id).Find(User.class);
+     * }
+     * </pre>
+     * @return 已重新获取连接、状态已清空的会话
+     */
+    public static FindSession recycled() {
+        FindSession session = recycled.get();
+        if (session == null) {
+            session = new FindSession();
+            session.recyclable = true;
+            recycled.set(session);
+        } else if (session.inUse) {
+            return new FindSession();
+        } else {
+            session.reopen(false);
+        }
+        session.inUse = true;
+        return session;
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            if (inUse) {
+                resetState();
+                // 事务中 super.close() 不标记关闭，这里统一标记，关闭后保留的引用不能再发起查询
+                markClosed();
+                inUse = false;
+            }
+        }
+    }
     /**
      * <p>
      *     链式添加select子句
@@ -68,8 +148,8 @@ public class FindSession extends BaseSession<FindSession> {
      * @return 当前对象，用于链式调用。
      */
     public FindSession Having(String column, String operator, Object value) {
+        InClause.checkValue(operator, value);
         havingConditions.add(new Condition(column, operator, value));
-        params.add(value);
         return self();
     }
     /**
@@ -99,7 +179,6 @@ public class FindSession extends BaseSession<FindSession> {
      */
     public FindSession Where(String column, Object value) {
         conditions.add(new Condition(column, "=", value));
-        params.add(value);
         return self();
     }
     /**
@@ -107,7 +186,8 @@ public class FindSession extends BaseSession<FindSession> {
      *     链式添加条件
      * </p>
      * <p>
-     *     该方法用于指定查询条件。
+     *     该方法用于指定查询条件。操作符为 IN 时值必须是集合，占位符个数按 {@link InClause} 分桶，
+     *     超过分块大小的集合会拆成多条语句执行并合并结果。
      * </p>
      * @param column 字段名。
      * @param operator 操作符。
@@ -115,8 +195,8 @@ public class FindSession extends BaseSession<FindSession> {
      * @return 当前对象，用于链式调用。
      */
     public FindSession Where(String column, String operator, Object value) {
+        InClause.checkValue(operator, value);
         conditions.add(new Condition(column, operator, value));
-        params.add(value);
         return self();
     }
     /**
@@ -147,6 +227,23 @@ public class FindSession extends BaseSession<FindSession> {
         this.orderBy = orderBy;
         return self();
     }
+    /**
+     * <p>
+     *     预加载关联
+     * </p>
+     * <p>
+     *     主查询结束后，每个关联只额外执行一次 IN 查询（列表过长时按 {@link InClause} 分块），
+     *     按关联键在内存中拼接到实体上，避免逐条查询的 N+1 问题。关联字段需标注
+     *     {@link io.github.foreverstr.annotation.ManyToOne} 或 {@link io.github.foreverstr.annotation.OneToMany}。
+     *     带预加载的主查询不经过二级缓存。
+     * </p>
+     * @param association 关联字段名。
+     * @return 当前对象，用于链式调用。
+     */
+    public FindSession Preload(String association) {
+        preloads.add(association);
+        return self();
+    }
     /**
      * <p>
      *     执行查询
@@ -159,46 +256,646 @@ public class FindSession extends BaseSession<FindSession> {
      * @return 查询结果。
      */
     public <T> List<T> Find(Class<T> clazz) {
+        long start = Instrumentation.start();
+        boolean success = false;
+        try {
+            List<T> result = find(clazz);
+            success = true;
+            return result;
+        } finally {
+            Instrumentation.record(Operation.FIND, Phase.TOTAL, clazz, start, success);
+        }
+    }
+
+    private <T> List<T> find(Class<T> clazz) {
         // 前置校验：确保连接和参数合法
         checkIfClosed();
         if (clazz == null) {
             log.error("[ErrorCode={}] 模型未指定", ErrorCode.MODEL_NOT_SPECIFIED.getCode());
             throw new JormException(ErrorCode.MODEL_NOT_SPECIFIED, "模型未指定");
         }
-        // 生成缓存键
-        String cacheKey = generateCacheKey(clazz, conditions, limit, orderBy, group, havingConditions, selectClause);
-        // 尝试从二级缓存获取
-        if (CacheManager.isCacheEnabled()) {
-            SecondLevelCache cache = CacheManager.getSecondLevelCache();
-            Object cachedResult = cache.get(clazz.getName(), cacheKey);
-            if (cachedResult != null) {
-                log.debug("从二级缓存获取数据: [Class={}, Key={}]", clazz.getName(), cacheKey);
-                return (List<T>) cachedResult;
+        try {
+            CachePolicy cachePolicy = CacheManager.getCachePolicy(clazz);
+            // 预加载与工作单元会修改或跟踪返回的实体，不能与缓存共享实例
+            boolean useCache = CacheManager.isCacheEnabled() && cachePolicy.isEnabled() && preloads.isEmpty()
+                    && !isTracking();
+            // 缓存键只在使用缓存时生成
+            String cacheKey = useCache
+                    ? generateCacheKey(clazz, conditions, limit, orderBy, group, havingConditions, selectClause)
+                    : null;
+            // 尝试从二级缓存获取
+            if (useCache) {
+                SecondLevelCache cache = CacheManager.getSecondLevelCache();
+                long cacheStart = Instrumentation.start();
+                Object cachedResult = cache.get(clazz.getName(), cacheKey);
+                Instrumentation.record(Operation.FIND, Phase.CACHE_GET, clazz, cacheStart, true);
+                if (cachedResult != null) {
+                    log.debug("从二级缓存获取数据: [Class={}, Key={}]", clazz.getName(), cacheKey);
+                    return (List<T>) cachedResult;
+                }
+            }
+            long loadStart = useCache ? System.nanoTime() : 0L;
+            List<T> result = query(clazz, selectClause, rs -> ResultSetMapper.mapToList(rs, clazz),
+                    chunkable() ? FindSession::concat : null);
+            if (useCache) {
+                CacheManager.getStatistics().recordLoad(clazz.getName(), System.nanoTime() - loadStart);
+            }
+            // 将结果放入二级缓存，空结果仅在策略允许且缓存支持过期时短期缓存
+            SecondLevelCache cache = useCache ? CacheManager.getSecondLevelCache() : null;
+            if (useCache && result != null && cachePolicy.shouldCache(result.isEmpty())
+                    && (!result.isEmpty() || cache.supportsTtl())) {
+                long phaseStart = Instrumentation.start();
+                cache.put(clazz.getName(), cacheKey, result, cachePolicy.ttlFor(result.isEmpty()));
+                Instrumentation.record(Operation.FIND, Phase.CACHE_PUT, clazz, phaseStart, true);
+                log.debug("数据已缓存: [Class={}, Key={}, Size={}]", clazz.getName(), cacheKey, result.size());
+            }
+            preload(clazz, result);
+            track(result);
+            return result;
+        } finally {
+            resetState(); // 确保每次执行后状态重置
+        }
+    }
+
+    /**
+     * <p>
+     *     预编译查询
+     * </p>
+     * <p>
+     *     按当前定义的条件、排序、分组、分页与 Select 完成校验并生成 SQL，条件值可以是 {@link QueryParam} 占位符。
+     *     返回的 {@link CompiledQuery} 不可变、线程安全，可反复执行。本方法不访问数据库，调用后会话的查询状态被清空。
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @param <T> 模型类型。
+     * @return 预编译查询。
+     * @throws JormException 40008 使用了 Preload 或 IN 列表超过分块大小
+     * @throws IllegalArgumentException 占位符编号不合法
+     */
+    public <T> CompiledQuery<T> Compile(Class<T> clazz) {
+        checkIfClosed();
+        if (clazz == null) {
+            log.error("[ErrorCode={}] 模型未指定", ErrorCode.MODEL_NOT_SPECIFIED.getCode());
+            throw new JormException(ErrorCode.MODEL_NOT_SPECIFIED, "模型未指定");
+        }
+        try {
+            String unsupported = null;
+            if (!preloads.isEmpty()) {
+                unsupported = "预编译查询不支持 Preload";
+            } else if (InClause.split(conditions).size() > 1) {
+                unsupported = String.format("IN 列表超过分块大小 %d 时不能预编译", InClause.getMaxChunkSize());
+            }
+            if (unsupported != null) {
+                log.error("[ErrorCode={}] {}", ErrorCode.UNSUPPORTED_QUERY.getCode(), unsupported);
+                throw new JormException(ErrorCode.UNSUPPORTED_QUERY, unsupported);
+            }
+            String sql = FindBuilder.buildFindSelect(clazz, conditions, limit, orderBy, group, havingConditions, selectClause);
+            List<Object> bindings = new ArrayList<>();
+            InClause.bind(conditions, bindings);
+            InClause.bind(havingConditions, bindings);
+            log.debug("预编译查询: [SQL={}]", sql);
+            return new CompiledQuery<>(clazz, sql, bindings);
+        } finally {
+            resetState();
+        }
+    }
+
+    /**
+     * <p>
+     *     执行投影查询
+     * </p>
+     * <p>
+     *     SELECT 列由投影类型的字段（或 record 组件）推导，每行直接映射为投影对象，不创建完整实体。
+     *     投影属性与实体字段同名即可，也可通过 {@link io.github.foreverstr.annotation.Column} 指定列名。
+     *     投影结果不经过二级缓存，已设置的 {@link #Select(String)} 会被忽略。
+     * </p>
+     * @param clazz 要查询的模型类，决定表名与可用列。
+     * @param projection 投影类型，普通类需要无参构造器，也支持 record。
+     * @param <T> 模型类型。
+     * @param <P> 投影类型。
+     * @return 投影结果。
+     */
+    public <T, P> List<P> Find(Class<T> clazz, Class<P> projection) {
+        long start = Instrumentation.start();
+        boolean success = false;
+        try {
+            checkIfClosed();
+            if (clazz == null || projection == null) {
+                log.error("[ErrorCode={}] 模型未指定", ErrorCode.MODEL_NOT_SPECIFIED.getCode());
+                throw new JormException(ErrorCode.MODEL_NOT_SPECIFIED, "模型或投影类型未指定");
+            }
+            ProjectionPlan plan = ProjectionPlan.of(clazz, projection);
+            List<P> result = query(clazz, plan.getSelectClause(), plan::<P>mapAll, chunkable() ? FindSession::concat : null);
+            success = true;
+            return result;
+        } finally {
+            resetState();
+            Instrumentation.record(Operation.FIND, Phase.TOTAL, clazz, start, success);
+        }
+    }
+
+    /**
+     * <p>
+     *     以列式结构返回查询结果
+     * </p>
+     * <p>
+     *     每个查询列按下标直接读入一个原始类型数组（字符串列做字典编码，NULL 记录在位图中），不创建实体，
+     *     适合在客户端扫描、聚合大量行。未设置 {@link #Select(String)} 时读取实体的全部列（{@link io.github.foreverstr.annotation.Lazy} 字段除外），
+     *     否则只读取 Select 中列出的列（不支持聚合函数与别名）。结果不经过二级缓存。
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @return 列式结果。
+     */
+    public ColumnBatch FindColumnar(Class<?> clazz) {
+        return scalar(clazz, () -> {
+            List<ColumnMeta> metas = new ArrayList<>();
+            if (selectClause == null || selectClause.trim().isEmpty() || selectClause.trim().equals("*")) {
+                for (ColumnMeta meta : EntityMetadata.of(clazz).getColumns()) {
+                    if (!meta.isAggregation() && !meta.isLazy()) {
+                        metas.add(meta);
+                    }
+                }
+            } else {
+                for (String part : selectClause.split(",")) {
+                    metas.add(columnMetaOf(clazz, part));
+                }
+            }
+            String[] names = new String[metas.size()];
+            Class<?>[] types = new Class<?>[metas.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = metas.get(i).getColumnName();
+                types[i] = metas.get(i).getType();
+            }
+            return query(clazz, String.join(", ", names), rs -> ColumnBatch.read(rs, names, types), null);
+        });
+    }
+
+    /**
+     * <p>
+     *     批量加载懒加载字段
+     * </p>
+     * <p>
+     *     默认查询不读取标注 {@link io.github.foreverstr.annotation.Lazy} 的大字段。需要时调用本方法，
+     *     按主键执行一次 {@code SELECT id, 字段... WHERE id IN (...)}（列表过长时分块），把值写回实体。
+     *     已设置的条件会被忽略并清空。
+     * </p>
+     * @param entities 同一实体类型的查询结果，必须带有主键值。
+     * @param fields 要加载的字段名（或列名）。
+     * @param <T> 模型类型。
+     * @throws JormException 实体没有主键、未指定字段或字段不存在
+     */
+    public <T> void LoadLazy(List<T> entities, String... fields) {
+        if (entities == null || entities.isEmpty()) {
+            return;
+        }
+        Class<?> clazz = entities.get(0).getClass();
+        scalar(clazz, () -> {
+            EntityMetadata metadata = EntityMetadata.of(clazz);
+            ColumnMeta idColumn = metadata.getIdColumn();
+            if (idColumn == null) {
+                String errorMsg = "实体没有主键字段: " + clazz.getName();
+                log.error("[ErrorCode={}] {}", ErrorCode.INVALID_ENTITY.getCode(), errorMsg);
+                throw new JormException(ErrorCode.INVALID_ENTITY, errorMsg);
             }
+            if (fields == null || fields.length == 0) {
+                String errorMsg = "未指定要加载的字段";
+                log.error("[ErrorCode={}] {}", ErrorCode.INVALID_COLUMN.getCode(), errorMsg);
+                throw new JormException(ErrorCode.INVALID_COLUMN, errorMsg);
+            }
+            ColumnMeta[] targets = new ColumnMeta[fields.length];
+            List<String> columns = new ArrayList<>(fields.length + 1);
+            columns.add(idColumn.getColumnName());
+            for (int i = 0; i < fields.length; i++) {
+                ColumnMeta meta = metadata.findField(fields[i]);
+                targets[i] = meta != null && !meta.isAggregation() ? meta : columnMetaOf(clazz, fields[i]);
+                columns.add(targets[i].getColumnName());
+            }
+            Set<Object> ids = new LinkedHashSet<>();
+            for (T entity : entities) {
+                Object id = idColumn.get(entity);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            conditions.clear();
+            conditions.add(new Condition(idColumn.getColumnName(), InClause.OPERATOR, ids));
+            group = null;
+            orderBy = null;
+            limit = null;
+            havingConditions.clear();
+            Map<Object, Object[]> rows = query(clazz, String.join(", ", columns), rs -> {
+                Map<Object, Object[]> values = new HashMap<>();
+                while (rs.next()) {
+                    Object[] row = new Object[targets.length];
+                    for (int i = 0; i < targets.length; i++) {
+                        row[i] = readColumn(rs, i + 2, targets[i].getType());
+                    }
+                    values.put(AssociationMetadata.normalizeKey(rs.getObject(1)), row);
+                }
+                return values;
+            }, (a, b) -> {
+                a.putAll(b);
+                return a;
+            });
+            for (T entity : entities) {
+                Object[] row = rows.get(AssociationMetadata.normalizeKey(idColumn.get(entity)));
+                if (row != null) {
+                    for (int i = 0; i < targets.length; i++) {
+                        targets[i].set(entity, row[i]);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static Object readColumn(ResultSet rs, int index, Class<?> type) throws SQLException {
+        TypeHandler handler = TypeHandler.forType(type);
+        if (handler != null) {
+            return handler.handle(rs, index, type);
         }
+        return type.isPrimitive() ? rs.getObject(index) : rs.getObject(index, type);
+    }
+
+    /**
+     * <p>
+     *     统计满足条件的行数
+     * </p>
+     * <p>
+     *     生成 {@code SELECT COUNT(1)}，直接读取结果，不创建实体。以下标量查询均不经过二级缓存。
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @return 行数。
+     */
+    public long Count(Class<?> clazz) {
+        return scalar(clazz, () -> query(clazz, "COUNT(1)", rs -> rs.next() ? rs.getLong(1) : 0L,
+                chunkable() ? Long::sum : null));
+    }
+
+    /**
+     * <p>
+     *     判断是否存在满足条件的行
+     * </p>
+     * <p>
+     *     生成 {@code SELECT 1 ... LIMIT 1}，数据库找到第一行即可返回。
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @return 存在时为 true。
+     */
+    public boolean Exists(Class<?> clazz) {
+        return scalar(clazz, () -> {
+            this.limit = 1;
+            return query(clazz, "1", ResultSet::next, (a, b) -> a || b);
+        });
+    }
+
+    /**
+     * <p>
+     *     对数值列求和
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @param column 列名。
+     * @return 和，没有匹配行时为 0。
+     */
+    public long Sum(Class<?> clazz, String column) {
+        return scalar(clazz, () -> query(clazz, "SUM(" + columnOf(clazz, column) + ")",
+                rs -> rs.next() ? rs.getLong(1) : 0L, chunkable() ? Long::sum : null));
+    }
+
+    /**
+     * <p>
+     *     查询数值列的最小值
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @param column 列名。
+     * @return 最小值，没有匹配行时为空。
+     */
+    public OptionalLong Min(Class<?> clazz, String column) {
+        return scalar(clazz, () -> query(clazz, "MIN(" + columnOf(clazz, column) + ")", FindSession::optionalLong,
+                chunkable() ? (a, b) -> merge(a, b, Math::min) : null));
+    }
+
+    /**
+     * <p>
+     *     查询数值列的最大值
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @param column 列名。
+     * @return 最大值，没有匹配行时为空。
+     */
+    public OptionalLong Max(Class<?> clazz, String column) {
+        return scalar(clazz, () -> query(clazz, "MAX(" + columnOf(clazz, column) + ")", FindSession::optionalLong,
+                chunkable() ? (a, b) -> merge(a, b, Math::max) : null));
+    }
+
+    /**
+     * <p>
+     *     读取单列为 long 数组
+     * </p>
+     * <p>
+     *     按列下标读取，结果存放在原始类型数组中，不创建实体也不装箱。NULL 读取为 0。
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @param column 列名。
+     * @return 列值。
+     */
+    public long[] PluckLong(Class<?> clazz, String column) {
+        return scalar(clazz, () -> query(clazz, columnOf(clazz, column), rs -> {
+            LongList values = new LongList(initialCapacity());
+            while (rs.next()) {
+                values.add(rs.getLong(1));
+            }
+            return values.toArray();
+        }, chunkable() ? FindSession::concat : null));
+    }
+
+    /**
+     * <p>
+     *     读取单列为 int 数组
+     * </p>
+     * <p>
+     *     按列下标读取，结果存放在原始类型数组中，不创建实体也不装箱。NULL 读取为 0。
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @param column 列名。
+     * @return 列值。
+     */
+    public int[] PluckInt(Class<?> clazz, String column) {
+        return scalar(clazz, () -> query(clazz, columnOf(clazz, column), rs -> {
+            IntList values = new IntList(initialCapacity());
+            while (rs.next()) {
+                values.add(rs.getInt(1));
+            }
+            return values.toArray();
+        }, chunkable() ? FindSession::concat : null));
+    }
+
+    /**
+     * <p>
+     *     读取单列为字符串列表
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @param column 列名。
+     * @return 列值，NULL 保留为 null。
+     */
+    public List<String> PluckString(Class<?> clazz, String column) {
+        return scalar(clazz, () -> query(clazz, columnOf(clazz, column), rs -> {
+            List<String> values = new ArrayList<>();
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+            return values;
+        }, chunkable() ? FindSession::concat : null));
+    }
+
+    /**
+     * <p>
+     *     按整数列分组计数
+     * </p>
+     * <p>
+     *     生成 {@code SELECT column, COUNT(1) ... GROUP BY column}，结果存放在原始类型键值的哈希表中。
+     *     列值为 NULL 的分组会被忽略，已设置的 {@link #Group(String)} 会被覆盖。
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @param column 列名。
+     * @return 列值到行数的映射。
+     */
+    public LongLongMap GroupCount(Class<?> clazz, String column) {
+        return scalar(clazz, () -> {
+            String col = columnOf(clazz, column);
+            this.group = col;
+            return query(clazz, col + ", COUNT(1)", rs -> {
+                LongLongMap counts = new LongLongMap();
+                while (rs.next()) {
+                    long key = rs.getLong(1);
+                    if (!rs.wasNull()) {
+                        counts.put(key, rs.getLong(2));
+                    }
+                }
+                return counts;
+            }, chunkable(true) ? FindSession::merge : null);
+        });
+    }
+
+    /**
+     * <p>
+     *     按字符串列分组计数
+     * </p>
+     * <p>
+     *     与 {@link #GroupCount(Class, String)} 相同，键为字符串，计数不装箱。
+     * </p>
+     * @param clazz 要查询的模型类。
+     * @param column 列名。
+     * @return 列值到行数的映射。
+     */
+    public ObjectLongMap<String> GroupCountByString(Class<?> clazz, String column) {
+        return scalar(clazz, () -> {
+            String col = columnOf(clazz, column);
+            this.group = col;
+            return query(clazz, col + ", COUNT(1)", rs -> {
+                ObjectLongMap<String> counts = new ObjectLongMap<>();
+                while (rs.next()) {
+                    String key = rs.getString(1);
+                    if (key != null) {
+                        counts.put(key, rs.getLong(2));
+                    }
+                }
+                return counts;
+            }, chunkable(true) ? FindSession::merge : null);
+        });
+    }
+
+    // 不经过缓存的查询（标量、单列、列式）的公共流程：校验、耗时统计与状态重置
+    private <R> R scalar(Class<?> clazz, Supplier<R> action) {
+        long start = Instrumentation.start();
+        boolean success = false;
+        try {
+            checkIfClosed();
+            if (clazz == null) {
+                log.error("[ErrorCode={}] 模型未指定", ErrorCode.MODEL_NOT_SPECIFIED.getCode());
+                throw new JormException(ErrorCode.MODEL_NOT_SPECIFIED, "模型未指定");
+            }
+            R result = action.get();
+            success = true;
+            return result;
+        } finally {
+            resetState();
+            Instrumentation.record(Operation.FIND, Phase.TOTAL, clazz, start, success);
+        }
+    }
+
+    // 把列名解析为实体上的列，与 FindBuilder 的列名白名单保持一致
+    private static String columnOf(Class<?> clazz, String column) {
+        return columnMetaOf(clazz, column).getColumnName();
+    }
+
+    private static ColumnMeta columnMetaOf(Class<?> clazz, String column) {
+        ColumnMeta meta = column == null ? null : EntityMetadata.of(clazz).findColumn(column.trim());
+        if (meta == null || meta.isAggregation()) {
+            throw new JormException(ErrorCode.INVALID_COLUMN, String.format("实体 %s 不存在列 %s", clazz.getSimpleName(), column));
+        }
+        return meta;
+    }
+
+    // 有 Limit 时按其预分配，避免扩容
+    private int initialCapacity() {
+        return limit != null && limit > 0 ? Math.min(limit, 4096) : 16;
+    }
+
+    private static OptionalLong merge(OptionalLong a, OptionalLong b, LongBinaryOperator op) {
+        if (!a.isPresent()) return b;
+        if (!b.isPresent()) return a;
+        return OptionalLong.of(op.applyAsLong(a.getAsLong(), b.getAsLong()));
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    // 各块的分组计数相加
+    private static LongLongMap merge(LongLongMap a, LongLongMap b) {
+        b.forEach(a::addTo);
+        return a;
+    }
+
+    private static ObjectLongMap<String> merge(ObjectLongMap<String> a, ObjectLongMap<String> b) {
+        b.forEach(a::addTo);
+        return a;
+    }
+
+    private static OptionalLong optionalLong(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return OptionalLong.empty();
+        }
+        long value = rs.getLong(1);
+        return rs.wasNull() ? OptionalLong.empty() : OptionalLong.of(value);
+    }
+
+    // 逐个关联执行一次 IN 查询，按关联键拼接到实体上
+    @SuppressWarnings("unchecked")
+    private void preload(Class<?> clazz, List<?> entities) {
+        if (preloads.isEmpty() || entities.isEmpty()) {
+            return;
+        }
+        for (String name : preloads) {
+            AssociationMetadata association = AssociationMetadata.of(clazz, name);
+            Set<Object> keys = new LinkedHashSet<>();
+            for (Object entity : entities) {
+                Object key = association.getOwnerKey().get(entity);
+                if (key != null) {
+                    keys.add(AssociationMetadata.normalizeKey(key));
+                }
+            }
+            List<?> targets = Collections.emptyList();
+            if (!keys.isEmpty()) {
+                try (FindSession session = new FindSession(connection)) {
+                    targets = session.Where(association.getTargetKeyColumn(), InClause.OPERATOR, keys)
+                            .Find(association.getTargetClass());
+                }
+            }
+            Map<Object, Object> byKey = new HashMap<>(targets.size() * 2);
+            for (Object target : targets) {
+                Object key = AssociationMetadata.normalizeKey(association.getTargetKey().get(target));
+                if (association.isCollection()) {
+                    ((List<Object>) byKey.computeIfAbsent(key, k -> new ArrayList<>())).add(target);
+                } else {
+                    byKey.put(key, target);
+                }
+            }
+            for (Object entity : entities) {
+                Object value = byKey.get(AssociationMetadata.normalizeKey(association.getOwnerKey().get(entity)));
+                if (value == null && association.isCollection()) {
+                    value = new ArrayList<>();
+                }
+                association.set(entity, value);
+            }
+            log.debug("预加载关联: [Class={}, 关联={}, 键数量={}, 结果数量={}]", clazz.getName(), name, keys.size(), targets.size());
+        }
+    }
+
+    /**
+     * 生成并执行查询，由 extractor 处理结果集。
+     * IN 列表超过分块大小时按块依次执行，用 merger 合并各块结果；merger 为 null 表示当前查询无法按块合并。
+     */
+    private <R> R query(Class<?> clazz, String select, ResultSetExtractor<R> extractor, BinaryOperator<R> merger) {
+        List<List<Condition>> chunks = InClause.split(conditions);
+        if (chunks.size() == 1) {
+            return execute(clazz, select, chunks.get(0), extractor);
+        }
+        if (merger == null) {
+            String errorMsg = String.format("IN 列表超过分块大小 %d 时不支持排序、分页、分组或列式查询",
+                    InClause.getMaxChunkSize());
+            log.error("[ErrorCode={}] {}", ErrorCode.UNSUPPORTED_QUERY.getCode(), errorMsg);
+            throw new JormException(ErrorCode.UNSUPPORTED_QUERY, errorMsg);
+        }
+        R result = null;
+        for (List<Condition> chunk : chunks) {
+            R part = execute(clazz, select, chunk, extractor);
+            result = result == null ? part : merger.apply(result, part);
+        }
+        return result;
+    }
+
+    // 排序、分页、分组都会让按块执行的结果与整体查询不一致
+    private boolean chunkable() {
+        return chunkable(false);
+    }
+
+    // groupMergeable：结果按分组计数合并时，GROUP BY 本身不影响合并
+    private boolean chunkable(boolean groupMergeable) {
+        return (groupMergeable || group == null) && orderBy == null && limit == null && havingConditions.isEmpty();
+    }
+
+    private <R> R execute(Class<?> clazz, String select, List<Condition> where, ResultSetExtractor<R> extractor) {
         String sql = null;
+        List<Object> params = new ArrayList<>();
         try {
-            sql = FindBuilder.buildFindSelect(clazz, conditions, limit, orderBy, group, havingConditions, selectClause);
+            long phaseStart = Instrumentation.start();
+            sql = FindBuilder.buildFindSelect(clazz, where, limit, orderBy, group, havingConditions, select);
+            InClause.bind(where, params);
+            InClause.bind(havingConditions, params);
+            Instrumentation.record(Operation.FIND, Phase.BUILD_SQL, clazz, phaseStart, true);
             log.debug("生成的SQL: [{}], 参数: {}", sql, params);
 
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            QueryPlanGuard.inspect(Operation.FIND, clazz, sql, params, connection);
+            phaseStart = Instrumentation.start();
+            // 结果集只向前读取一遍，显式声明仅向前、只读，驱动可以流式返回
+            try (PreparedStatement stmt = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
                 for (int i = 0; i < params.size(); i++) {
                     stmt.setObject(i + 1, params.get(i));
                 }
-                ResultSet rs = stmt.executeQuery();
-                List<T> result = ResultSetMapper.mapToList(rs, clazz);
-                // 将结果放入二级缓存
-                if (CacheManager.isCacheEnabled() && result != null && !result.isEmpty()) {
-                    SecondLevelCache cache = CacheManager.getSecondLevelCache();
-                    cache.put(clazz.getName(), cacheKey, result);
-                    log.debug("数据已缓存: [Class={}, Key={}, Size={}]", clazz.getName(), cacheKey, result.size());
+                Instrumentation.record(Operation.FIND, Phase.PREPARE, clazz, phaseStart, true);
+                phaseStart = Instrumentation.start();
+                ResultSet rs = null;
+                try {
+                    rs = stmt.executeQuery();
+                } finally {
+                    Instrumentation.recordStatement(Operation.FIND, clazz, sql, params, phaseStart, rs != null, connection);
+                }
+                phaseStart = Instrumentation.start();
+                R result = extractor.extract(rs);
+                Instrumentation.record(Operation.FIND, Phase.MAP_ROWS, clazz, phaseStart, true);
+                if (result instanceof Collection) {
+                    Instrumentation.recordRows(Operation.FIND, clazz, ((Collection<?>) result).size());
                 }
                 return result;
             }
         } catch (SQLException e) {
-            String errorMsg = String.format("SQL执行失败 [SQL=%s, Params=%s]", sql, params);
+            // 参数可能很大或包含敏感数据，只在 debug 级别输出
+            String errorMsg = String.format("SQL执行失败 [SQL=%s]", sql);
+            log.debug("失败SQL的参数: {}", params);
             log.error("[ErrorCode={}] {}", ErrorCode.QUERY_EXECUTION_FAILED.getCode(), errorMsg, e);
             throw new JormException(ErrorCode.QUERY_EXECUTION_FAILED, errorMsg, e);
+        } catch (JormException e) {
+            throw e;
         } catch (IllegalAccessException | InstantiationException e) {
             String errorMsg = String.format("结果映射失败 [Class=%s]", clazz.getName());
             log.error("[ErrorCode={}] {}", ErrorCode.RESULT_MAPPING_FAILED.getCode(), errorMsg, e);
@@ -207,10 +904,19 @@ public class FindSession extends BaseSession<FindSession> {
             String errorMsg = String.format("未知查询错误 [SQL=%s]", sql);
             log.error("[ErrorCode={}] {}", ErrorCode.UNKNOWN_QUERY_ERROR.getCode(), errorMsg, e);
             throw new JormException(ErrorCode.UNKNOWN_QUERY_ERROR, errorMsg, e);
-        } finally {
-            resetState(); // 确保每次执行后状态重置
         }
     }
+
+    private static <E> List<E> concat(List<E> a, List<E> b) {
+        a.addAll(b);
+        return a;
+    }
+
+    // 结果集处理函数
+    @FunctionalInterface
+    private interface ResultSetExtractor<R> {
+        R extract(ResultSet rs) throws Exception;
+    }
     private String generateCacheKey(Class<?> clazz, List<Condition> conditions, Integer limit,
                                     String orderBy, String group, List<Condition> havingConditions,
                                     String selectClause) {
@@ -256,11 +962,11 @@ public class FindSession extends BaseSession<FindSession> {
     private void resetState() {
         this.conditions.clear();
         this.havingConditions.clear();
-        this.params.clear();
         this.group = null;
         this.selectClause = "*";
         this.orderBy = null;
         this.limit = null;
+        this.preloads.clear();
     }
 
     @Override
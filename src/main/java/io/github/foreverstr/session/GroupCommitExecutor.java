@@ -0,0 +1,275 @@
+package io.github.foreverstr.session;
+
+import io.github.foreverstr.transaction.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>组提交：把多个线程提交的小写入在短时间窗口内攒成一组，在同一连接的一个事务中依次执行，只提交一次，
+ * 从而把每次自动提交各自的提交（及数据库刷盘）开销分摊到整组。</p>
+ * <p>每个调用方通过自己的 {@link CompletableFuture} 拿到结果。组内某项工作抛出异常时整组回滚，
+ * 该项单独以异常完成，其余工作重新执行（工作抛出 {@link Error} 时同样处理）；提交本身失败时无法定位原因，
+ * 组内工作改为逐项提交。后台线程不会因单组执行出错而退出。</p>
+ * <p>工作在后台线程中执行，会话通过 {@link TransactionTemplate} 自动加入组事务。因为可能被重试，
+ * 工作应只包含数据库读写，不要依赖调用线程的线程变量或产生其他副作用。</p>
+ * <pre>
+ *     try (GroupCommitExecutor executor = new GroupCommitExecutor(64, 2, TimeUnit.MILLISECONDS)) {
+ *         executor.save(order).join();
+ *         executor.submit(() -> { try (UpdateSession s = new UpdateSession()) { ... } return null; });
+ *     }
+ * </pre>
+ * @author duyujie
+ * @version 1.0
+ * @see WriteBehindBuffer
+ */
+public class GroupCommitExecutor implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitExecutor.class);
+
+    private final Queue<Pending<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate();
+    private final int maxGroupSize;
+    private final long windowNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * @param maxGroupSize 每组最多包含的工作数，攒满后不再等待窗口结束
+     * @param window 第一项工作到达后等待其他工作的最长时间
+     * @param unit 时间单位
+     */
+    public GroupCommitExecutor(int maxGroupSize, long window, TimeUnit unit) {
+        if (maxGroupSize <= 0 || window < 0) {
+            throw new IllegalArgumentException("maxGroupSize 必须为正数，window 不能为负数");
+        }
+        this.maxGroupSize = maxGroupSize;
+        this.windowNanos = unit.toNanos(window);
+        this.worker = new Thread(this::runWorker, "jorm-group-commit");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 提交一项写入工作
+     * @param work 在组事务中执行的工作，返回值用于完成 future
+     * @return 组事务提交后完成；工作失败或提交失败时以异常完成
+     * @throws IllegalStateException 执行器已关闭
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> work) {
+        if (work == null) {
+            throw new IllegalArgumentException("工作不能为空");
+        }
+        if (!running) {
+            throw new IllegalStateException("组提交执行器已关闭");
+        }
+        Pending<T> pending = new Pending<>(work);
+        queue.offer(pending);
+        int depth = queued.incrementAndGet();
+        // 检查与入队之间执行器可能已关闭：能撤回说明没有线程会处理这项工作
+        if (!running && queue.remove(pending)) {
+            queued.decrementAndGet();
+            throw new IllegalStateException("组提交执行器已关闭");
+        }
+        if (depth == 1 || depth >= maxGroupSize) {
+            LockSupport.unpark(worker);
+        }
+        return pending.future;
+    }
+
+    /**
+     * 保存单个实体，主键回填后返回该实体
+     * @param entity 实体
+     * @return 组事务提交后完成
+     */
+    public <E> CompletableFuture<E> save(E entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("实体不能为空");
+        }
+        return submit(() -> {
+            try (SaveSession session = new SaveSession()) {
+                session.save(entity);
+            }
+            return entity;
+        });
+    }
+
+    /**
+     * 停止接收新工作，执行完剩余工作后结束后台线程。与关闭并发提交、未能执行的工作以 {@link IllegalStateException} 结束
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 后台线程结束后才入队的工作不会再被执行，以异常结束
+        IllegalStateException closed = new IllegalStateException("组提交执行器已关闭");
+        Pending<?> pending;
+        while ((pending = queue.poll()) != null) {
+            queued.decrementAndGet();
+            failed.incrementAndGet();
+            pending.fail(closed);
+        }
+    }
+
+    /**
+     * @return 执行过的组事务数（含回滚后的重试与逐项提交）
+     */
+    public long getGroupCount() {
+        return groups.get();
+    }
+
+    public long getCommittedCount() {
+        return committed.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return 因组内工作失败而重新执行整组的次数
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * @return 等待执行的工作数
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    private void runWorker() {
+        while (true) {
+            if (queued.get() == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+            // 第一项工作到达后等待窗口结束或攒满一组
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining;
+            while (running && queued.get() < maxGroupSize && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            List<Pending<?>> group = new ArrayList<>(Math.min(queued.get(), maxGroupSize));
+            Pending<?> pending;
+            while (group.size() < maxGroupSize && (pending = queue.poll()) != null) {
+                group.add(pending);
+            }
+            queued.addAndGet(-group.size());
+            try {
+                execute(group);
+            } catch (Throwable e) {
+                // 兜底：组内尚未完成的工作以异常结束，写线程继续处理后续工作
+                log.error("组提交执行异常，{} 项工作以失败结束", group.size(), e);
+                for (Pending<?> item : group) {
+                    if (!item.future.isDone()) {
+                        failed.incrementAndGet();
+                        item.fail(e);
+                    }
+                }
+            }
+        }
+    }
+
+    // 执行一组工作：失败的工作剔除后重试其余工作，直到整组提交成功
+    private void execute(List<Pending<?>> group) {
+        List<Pending<?>> remaining = new ArrayList<>(group);
+        while (!remaining.isEmpty()) {
+            Object[] results = new Object[remaining.size()];
+            int[] failedAt = {-1};
+            Throwable[] cause = {null};
+            try {
+                groups.incrementAndGet();
+                transactionTemplate.execute(() -> {
+                    for (int i = 0; i < remaining.size(); i++) {
+                        try {
+                            results[i] = remaining.get(i).work.call();
+                        } catch (Throwable e) {
+                            failedAt[0] = i;
+                            cause[0] = e;
+                            // Error 也要让组事务回滚，包装为运行时异常交给事务模板
+                            if (e instanceof Exception) {
+                                throw (Exception) e;
+                            }
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                if (failedAt[0] >= 0) {
+                    log.debug("组提交中第 {} 项工作失败，剔除后重试其余 {} 项", failedAt[0], remaining.size() - 1);
+                    failed.incrementAndGet();
+                    remaining.remove(failedAt[0]).fail(cause[0]);
+                    if (!remaining.isEmpty()) {
+                        retries.incrementAndGet();
+                    }
+                    continue;
+                }
+                // 提交失败（如延迟约束检查），无法判断是哪项工作导致，逐项提交
+                if (remaining.size() > 1) {
+                    log.warn("组提交失败，改为逐项提交 {} 项工作", remaining.size(), e);
+                    for (Pending<?> single : remaining) {
+                        execute(Collections.singletonList(single));
+                    }
+                } else {
+                    failed.incrementAndGet();
+                    remaining.get(0).fail(e);
+                }
+                return;
+            }
+            // 先计数再完成 future，调用方拿到结果时统计已经更新
+            committed.addAndGet(remaining.size());
+            for (int i = 0; i < remaining.size(); i++) {
+                remaining.get(i).complete(results[i]);
+            }
+            return;
+        }
+    }
+
+    private static final class Pending<T> {
+        private final Callable<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Pending(Callable<T> work) {
+            this.work = work;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object result) {
+            future.complete((T) result);
+        }
+
+        private void fail(Throwable e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
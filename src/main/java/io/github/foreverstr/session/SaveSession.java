@@ -2,13 +2,24 @@ package io.github.foreverstr.session;
 
 import io.github.foreverstr.annotation.Aggregation;
 import io.github.foreverstr.annotation.Column;
+import io.github.foreverstr.annotation.Enum.GenerationType;
+import io.github.foreverstr.annotation.GeneratedValue;
 import io.github.foreverstr.cache.CacheManager;
 import io.github.foreverstr.cache.SecondLevelCache;
+import io.github.foreverstr.dialect.Dialect;
+import io.github.foreverstr.instrument.Instrumentation;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
 import io.github.foreverstr.session.base.BaseSession;
+import io.github.foreverstr.session.factory.Jorm;
 import io.github.foreverstr.exception.ErrorCode;
 import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.id.IdGenerator;
+import io.github.foreverstr.id.IdGenerators;
 import io.github.foreverstr.sqlBuilder.SaveBuilder;
 import io.github.foreverstr.transaction.TransactionTemplate;
+import io.github.foreverstr.util.EntityHelper;
+import io.github.foreverstr.util.EntityMetadata;
 import io.github.foreverstr.util.SessionHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,7 +45,7 @@ public class SaveSession extends BaseSession<SaveSession> {
     private static final Map<Class<?>, List<Field>> nonNullableFieldsCache = new ConcurrentHashMap<>();
     private static final Logger log = LoggerFactory.getLogger(SaveSession.class);
     public SaveSession() {
-        super();
+        super(Operation.SAVE, false);
     }
     public SaveSession(Connection externalConn) {
         super(externalConn);
@@ -48,25 +59,66 @@ public class SaveSession extends BaseSession<SaveSession> {
      * @throws JormException 数据库操作异常，包括主键冲突，SQL生成失败，SQL执行失败，参数绑定失败
      */
     public <T> void save(T entity) {
+        long start = Instrumentation.start();
+        boolean success = false;
+        try {
+            insert(entity);
+            success = true;
+        } finally {
+            Instrumentation.record(Operation.SAVE, Phase.TOTAL, entity == null ? null : entity.getClass(), start, success);
+        }
+    }
+
+    private <T> void insert(T entity) {
         checkIfClosed();
+        Class<?> clazz = entity.getClass();
+        Dialect dialect = Jorm.getDialect(connection);
         try {
             String sql;
+            long phaseStart = Instrumentation.start();
             try {
-                sql = SaveBuilder.buildInsert(entity.getClass());
+                sql = SaveBuilder.buildInsert(clazz);
             } catch (Exception e) {
                 log.error("单个插入SQL生成失败: {}", e.getMessage(), e);
                 throw new JormException(ErrorCode.SQL_GENERATION_FAILED);
             }
-            try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            Instrumentation.record(Operation.SAVE, Phase.BUILD_SQL, clazz, phaseStart, true);
+            // 客户端分配主键时不需要回读生成的主键
+            boolean clientId = assignIds(Operation.SAVE, clazz, Collections.singletonList(entity));
+            boolean returning = !clientId && dialect.supportsReturning() && hasIdentityId(clazz);
+            if (returning) {
+                sql = dialect.returning(sql, EntityHelper.getIdColumnName(clazz));
+            }
+            phaseStart = Instrumentation.start();
+            try (PreparedStatement stmt = clientId || returning ? connection.prepareStatement(sql)
+                    : connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
                 SessionHelper.setInsertParameters(stmt, entity);
-                stmt.executeUpdate();
-                ResultSet rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    SessionHelper.setIdValue(entity, rs.getLong(1));
+                Instrumentation.record(Operation.SAVE, Phase.PREPARE, clazz, phaseStart, true);
+                phaseStart = Instrumentation.start();
+                boolean executed = false;
+                ResultSet keys = null;
+                try {
+                    if (returning) {
+                        keys = stmt.executeQuery();
+                    } else {
+                        stmt.executeUpdate();
+                    }
+                    executed = true;
+                } finally {
+                    Instrumentation.recordStatement(Operation.SAVE, clazz, sql,
+                            phaseStart == 0L ? null : Collections.singletonList(entity), phaseStart, executed, connection);
+                }
+                Instrumentation.recordRows(Operation.SAVE, clazz, 1);
+                if (!clientId) {
+                    try (ResultSet rs = keys != null ? keys : stmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            SessionHelper.setIdValue(entity, rs.getLong(1));
+                        }
+                    }
                 }
             }
         } catch (SQLException e) {
-            if (e.getSQLState().equals("23505")) {
+            if (dialect.isDuplicateKey(e)) {
                 log.error("单个插入数据主键冲突: {}", e.getMessage(), e);
                 throw new JormException(ErrorCode.DUPLICATE_KEY);
             } else {
@@ -82,7 +134,7 @@ public class SaveSession extends BaseSession<SaveSession> {
         if (CacheManager.isCacheEnabled()) {
             SecondLevelCache cache = CacheManager.getSecondLevelCache();
             if (cache != null) {
-                final String regionToClear = entity.getClass().getName();
+                final String regionToClear = clazz.getName();
                 TransactionTemplate.doAfterCommit(() -> {
                     cache.clearRegion(regionToClear);
                     log.debug("Cleared cache region after commit: {}", regionToClear);
@@ -93,6 +145,8 @@ public class SaveSession extends BaseSession<SaveSession> {
     /**
      * <p>批量增加</p>
      * <p>不存在于数据库表但实际业务需要的字段需要加上{@link Aggregation}</p>
+     * <p>超过方言参数上限时拆成多条多行插入，方言不支持多行插入时使用 JDBC batch；多条语句在当前线程没有事务时
+     * 由本地事务包裹，整体提交或回滚。</p>
      * @param <T> 泛型参数
      * @param entities 实体对象列表
      * @return 新增记录的主键列表
@@ -102,32 +156,53 @@ public class SaveSession extends BaseSession<SaveSession> {
         if (entities.isEmpty()) {
             return Collections.emptyList();
         }
+        Class<?> clazz = entities.get(0).getClass();
+        long start = Instrumentation.start();
+        boolean success = false;
+        List<Long> ids;
+        try {
+            ids = insertBatch(clazz, entities);
+            success = true;
+        } finally {
+            Instrumentation.record(Operation.BATCH_SAVE, Phase.TOTAL, clazz, start, success);
+        }
+        // 新增的行可能命中已缓存的查询（包括缓存的空结果），提交后清除该实体的缓存区域
+        if (CacheManager.isCacheEnabled()) {
+            SecondLevelCache cache = CacheManager.getSecondLevelCache();
+            final String regionToClear = clazz.getName();
+            TransactionTemplate.doAfterCommit(() -> cache.clearRegion(regionToClear));
+        }
+        return ids;
+    }
+
+    private <T> List<Long> insertBatch(Class<?> clazz, List<T> entities) {
         for (T entity : entities) {
             validateEntity(entity);
         }
+        Dialect dialect = Jorm.getDialect(connection);
         try {
-            String sql;
-            try{
-                sql = SaveBuilder.buildBatchInsert(entities.get(0).getClass(), entities.size());
-            } catch (Exception e) {
-                log.error("批量插入SQL生成失败: {}", e.getMessage(), e);
-                throw new JormException(ErrorCode.SQL_GENERATION_FAILED);
-            }
-            try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                int paramIndex = 1;
-                for (T entity : entities) {
-                    paramIndex = SessionHelper.setInsertParameters(stmt, entity, paramIndex);
-                }
-                stmt.executeUpdate();
-                ResultSet rs = stmt.getGeneratedKeys();
-                List<Long> ids = new ArrayList<>();
-                while (rs.next()) {
-                    ids.add(rs.getLong(1));
+            boolean clientId = assignIds(Operation.BATCH_SAVE, clazz, entities);
+            List<Long> ids = new ArrayList<>(entities.size());
+            boolean multiRow = dialect.supportsMultiRowInsert();
+            // 多行插入按方言的参数上限拆分；不支持多行插入时使用单行语句 + JDBC batch
+            int columns = Math.max(1, SaveBuilder.getInsertableColumnCount(clazz));
+            int rowsPerStatement = multiRow ? Math.max(1, dialect.getMaxParameters() / columns) : entities.size();
+            // 多条语句在本地事务中整体生效，与单条多行插入一样不会部分提交
+            boolean local = entities.size() > 1 && (!multiRow || entities.size() > rowsPerStatement)
+                    && beginLocalTransaction();
+            boolean completed = false;
+            try {
+                for (int from = 0; from < entities.size(); from += rowsPerStatement) {
+                    executeInsert(clazz, entities.subList(from, Math.min(from + rowsPerStatement, entities.size())),
+                            multiRow, clientId, dialect, ids);
                 }
-                return ids;
+                completed = true;
+            } finally {
+                if (local) endLocalTransaction(completed);
             }
+            return ids;
         } catch (SQLException e) {
-            if (e.getSQLState().equals("23505")) {
+            if (dialect.isDuplicateKey(e)) {
                 log.error("批量插入数据主键冲突: {}", e.getMessage(), e);
                 throw new JormException(ErrorCode.DUPLICATE_KEY);
             } else {
@@ -141,6 +216,177 @@ public class SaveSession extends BaseSession<SaveSession> {
         }
     }
 
+    /**
+     * <p>按主键插入或更新</p>
+     * <p>主键已存在时用实体的全部列覆盖该行，否则插入。语句由当前方言生成
+     * （H2 为 MERGE INTO，MySQL 为 ON DUPLICATE KEY UPDATE，PostgreSQL 为 ON CONFLICT），
+     * 多行合并为一条语句，超过方言参数上限时拆分，拆分后的多条语句在当前线程没有事务时由本地事务包裹，整体生效。</p>
+     * @param <T> 泛型参数
+     * @param entities 实体对象列表，主键不能为空（客户端主键策略会先分配主键）
+     * @throws JormException 数据库不支持、主键为空、SQL执行失败
+     */
+    public <T> void batchUpsert(List<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        checkIfClosed();
+        Class<?> clazz = entities.get(0).getClass();
+        long start = Instrumentation.start();
+        boolean success = false;
+        Dialect dialect = Jorm.getDialect(connection);
+        String sql = null;
+        try {
+            assignIds(Operation.BATCH_SAVE, clazz, entities);
+            List<Field> fields = SaveBuilder.getUpsertFields(clazz);
+            int rowsPerStatement = Math.max(1, dialect.getMaxParameters() / fields.size());
+            // 拆分为多条语句时在本地事务中整体生效
+            boolean local = entities.size() > rowsPerStatement && beginLocalTransaction();
+            boolean completed = false;
+            try {
+                for (int from = 0; from < entities.size(); from += rowsPerStatement) {
+                    List<T> rows = entities.subList(from, Math.min(from + rowsPerStatement, entities.size()));
+                    long phaseStart = Instrumentation.start();
+                    sql = SaveBuilder.buildUpsert(clazz, rows.size());
+                    Instrumentation.record(Operation.BATCH_SAVE, Phase.BUILD_SQL, clazz, phaseStart, true);
+                    phaseStart = Instrumentation.start();
+                    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                        int index = 1;
+                        for (T entity : rows) {
+                            validateEntity(entity);
+                            if (EntityHelper.getIdValue(entity) == null) {
+                                throw new JormException(ErrorCode.INVALID_ENTITY, "插入或更新的实体主键不能为空");
+                            }
+                            for (Field field : fields) {
+                                stmt.setObject(index++, field.get(entity));
+                            }
+                        }
+                        Instrumentation.record(Operation.BATCH_SAVE, Phase.PREPARE, clazz, phaseStart, true);
+                        phaseStart = Instrumentation.start();
+                        boolean executed = false;
+                        int affected = -1;
+                        try {
+                            affected = stmt.executeUpdate();
+                            executed = true;
+                        } finally {
+                            Instrumentation.recordStatement(Operation.BATCH_SAVE, clazz, sql, rows, phaseStart, executed, connection);
+                        }
+                        Instrumentation.recordRows(Operation.BATCH_SAVE, clazz, affected);
+                    }
+                }
+                completed = true;
+            } finally {
+                if (local) endLocalTransaction(completed);
+            }
+            success = true;
+        } catch (SQLException e) {
+            log.error("插入或更新SQL执行失败: SQL={}, SQL State={}, Error Code={}",
+                    sql, e.getSQLState(), e.getErrorCode(), e);
+            throw new JormException(ErrorCode.SQL_EXECUTION_FAILED, e);
+        } catch (IllegalAccessException e) {
+            log.error("插入或更新参数绑定失败: {}", e.getMessage(), e);
+            throw new JormException(ErrorCode.PARAMETER_BINDING_FAILED);
+        } finally {
+            Instrumentation.record(Operation.BATCH_SAVE, Phase.TOTAL, clazz, start, success);
+        }
+        if (CacheManager.isCacheEnabled()) {
+            SecondLevelCache cache = CacheManager.getSecondLevelCache();
+            final String regionToClear = clazz.getName();
+            TransactionTemplate.doAfterCommit(() -> cache.clearRegion(regionToClear));
+        }
+    }
+
+    /**
+     * 按主键插入或更新单个实体，见 {@link #batchUpsert(List)}
+     * @param <T> 泛型参数
+     * @param entity 实体对象
+     */
+    public <T> void upsert(T entity) {
+        batchUpsert(Collections.singletonList(entity));
+    }
+
+    // 执行一条多行插入，或一组单行插入的 JDBC batch，并按顺序收集主键
+    private <T> void executeInsert(Class<?> clazz, List<T> rows, boolean multiRow, boolean clientId,
+                                   Dialect dialect, List<Long> ids) throws SQLException, IllegalAccessException {
+        String sql;
+        long phaseStart = Instrumentation.start();
+        try {
+            sql = multiRow ? SaveBuilder.buildBatchInsert(clazz, rows.size()) : SaveBuilder.buildInsert(clazz);
+        } catch (Exception e) {
+            log.error("批量插入SQL生成失败: {}", e.getMessage(), e);
+            throw new JormException(ErrorCode.SQL_GENERATION_FAILED);
+        }
+        // RETURNING 只用于一条多行插入，JDBC batch 仍读取 generated keys
+        boolean returning = !clientId && multiRow && dialect.supportsReturning() && hasIdentityId(clazz);
+        if (returning) {
+            sql = dialect.returning(sql, EntityHelper.getIdColumnName(clazz));
+        }
+        Instrumentation.record(Operation.BATCH_SAVE, Phase.BUILD_SQL, clazz, phaseStart, true);
+        phaseStart = Instrumentation.start();
+        try (PreparedStatement stmt = clientId || returning ? connection.prepareStatement(sql)
+                : connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            int paramIndex = 1;
+            for (T entity : rows) {
+                if (multiRow) {
+                    paramIndex = SessionHelper.setInsertParameters(stmt, entity, paramIndex);
+                } else {
+                    SessionHelper.setInsertParameters(stmt, entity);
+                    stmt.addBatch();
+                }
+            }
+            Instrumentation.record(Operation.BATCH_SAVE, Phase.PREPARE, clazz, phaseStart, true);
+            phaseStart = Instrumentation.start();
+            boolean executed = false;
+            ResultSet keys = null;
+            try {
+                if (returning) {
+                    keys = stmt.executeQuery();
+                } else if (multiRow) {
+                    stmt.executeUpdate();
+                } else {
+                    stmt.executeBatch();
+                }
+                executed = true;
+            } finally {
+                Instrumentation.recordStatement(Operation.BATCH_SAVE, clazz, sql, rows, phaseStart, executed, connection);
+            }
+            Instrumentation.recordRows(Operation.BATCH_SAVE, clazz, rows.size());
+            if (clientId) {
+                for (T entity : rows) {
+                    ids.add(((Number) EntityHelper.getIdValue(entity)).longValue());
+                }
+                return;
+            }
+            try (ResultSet rs = keys != null ? keys : stmt.getGeneratedKeys()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+    }
+
+    // 主键是否由数据库自增生成
+    private static boolean hasIdentityId(Class<?> clazz) {
+        EntityMetadata.ColumnMeta id = EntityMetadata.of(clazz).getIdColumn();
+        GeneratedValue generatedValue = id == null ? null : id.getField().getAnnotation(GeneratedValue.class);
+        return generatedValue != null && generatedValue.strategy() == GenerationType.IDENTITY;
+    }
+
+    // 按主键策略在客户端为尚无主键的实体分配主键，返回是否为客户端策略
+    private boolean assignIds(Operation operation, Class<?> clazz, List<?> entities) throws IllegalAccessException {
+        IdGenerator generator = IdGenerators.of(clazz);
+        if (generator == null) {
+            return false;
+        }
+        long phaseStart = Instrumentation.start();
+        for (Object entity : entities) {
+            if (EntityHelper.getIdValue(entity) == null) {
+                SessionHelper.setIdValue(entity, generator.next(connection));
+            }
+        }
+        Instrumentation.record(operation, Phase.GENERATE_ID, clazz, phaseStart, true);
+        return true;
+    }
+
     // 遍历所有字段，检查 @Column(nullable = false) 的字段是否非空
     private <T> void validateEntity(T entity) {
         Class<?> clazz = entity.getClass();
@@ -2,12 +2,20 @@ package io.github.foreverstr.session;
 
 import io.github.foreverstr.cache.CacheManager;
 import io.github.foreverstr.cache.SecondLevelCache;
+import io.github.foreverstr.diagnostics.QueryPlanGuard;
 import io.github.foreverstr.dto.Condition;
 import io.github.foreverstr.exception.ErrorCode;
 import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.exception.OptimisticLockException;
+import io.github.foreverstr.instrument.Instrumentation;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
 import io.github.foreverstr.session.base.BaseSession;
+import io.github.foreverstr.sqlBuilder.InClause;
 import io.github.foreverstr.sqlBuilder.UpdateBuilder;
 import io.github.foreverstr.transaction.TransactionTemplate;
+import io.github.foreverstr.util.EntityMetadata;
+import io.github.foreverstr.util.EntityMetadata.ColumnMeta;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,7 +23,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * <p> 继承自BaseSession，实现了对数据库的更新操作 </p>
@@ -39,10 +46,11 @@ public class UpdateSession extends BaseSession<UpdateSession> {
     private final List<Condition> conditions = new ArrayList<>();
     private Class<?> entityClass;
     private final Map<String, Object> updates = new LinkedHashMap<>();
+    private Object expectedVersion;
 
     private static final Logger log = LoggerFactory.getLogger(UpdateSession.class);
     public UpdateSession() {
-        super();
+        super(Operation.UPDATE, false);
     }
     public UpdateSession(Connection externalConn) {
         super(externalConn);
@@ -67,13 +75,15 @@ public class UpdateSession extends BaseSession<UpdateSession> {
         return self();
     }
     /**
-     * 指定更新条件
+     * 指定更新条件，操作符为 IN 时值必须是集合，超过分块大小时按块执行多条更新；
+     * 会话不在事务中时这些更新在一个本地事务中执行，任一块失败全部回滚
      * @param column 列名
      * @param operator 操作符
      * @param value 值
      * @return 当前对象 以便链式调用
      */
     public UpdateSession Where(String column, String operator, Object value){
+        InClause.checkValue(operator, value);
         conditions.add(new Condition(column, operator, value));
         return self();
     }
@@ -87,11 +97,37 @@ public class UpdateSession extends BaseSession<UpdateSession> {
         updates.put(column, value);
         return self();
     }
+    /**
+     * <p>指定期望的版本号（乐观锁）</p>
+     * <p>实体需要有 {@link io.github.foreverstr.annotation.Version} 字段。版本号作为更新条件，
+     * 没有行被更新时抛出 {@link OptimisticLockException}。不调用本方法时版本号仍会自增，但不做冲突检测。</p>
+     * @param version 读取时的版本号
+     * @return 当前对象 以便链式调用
+     */
+    public UpdateSession Version(Object version) {
+        if (version == null) {
+            throw new IllegalArgumentException("期望版本号不能为空");
+        }
+        this.expectedVersion = version;
+        return self();
+    }
     /**
      * 执行更新操作
      * @throws JormException 更新异常
      */
     public void Update() {
+        Class<?> clazz = entityClass;
+        long start = Instrumentation.start();
+        boolean success = false;
+        try {
+            update();
+            success = true;
+        } finally {
+            Instrumentation.record(Operation.UPDATE, Phase.TOTAL, clazz, start, success);
+        }
+    }
+
+    private void update() {
         checkIfClosed();
 
         if (entityClass == null) {
@@ -110,39 +146,75 @@ public class UpdateSession extends BaseSession<UpdateSession> {
             throw new JormException(ErrorCode.CONDITION_NOT_SPECIFIED, errorMsg);
         }
 
+        // 乐观锁：SET 中版本自增（显式 Set 版本列时除外），指定期望版本时作为条件
+        ColumnMeta version = EntityMetadata.of(entityClass).getVersionColumn();
+        String versionColumn = version != null && !updates.containsKey(version.getColumnName())
+                ? version.getColumnName() : null;
+        if (expectedVersion != null) {
+            if (version == null) {
+                String errorMsg = "实体没有 @Version 字段: " + entityClass.getName();
+                log.error("[ErrorCode={}] {}", ErrorCode.INVALID_COLUMN.getCode(), errorMsg);
+                throw new JormException(ErrorCode.INVALID_COLUMN, errorMsg);
+            }
+            conditions.add(new Condition(version.getColumnName(), "=", expectedVersion));
+        }
+
         String sql = null;
+        int affectedRows = 0;
+        List<Object> ids = new ArrayList<>();
+        boolean checkVersion = expectedVersion != null;
         try {
-            sql = UpdateBuilder.buildUpdateSql(entityClass, conditions, updates);
-            log.debug("生成更新SQL: [{}], SET参数: {}, WHERE参数: {}",
-                    sql,
-                    updates.values(),
-                    conditions.stream().map(Condition::getValue).collect(Collectors.toList())
-            );
+            ColumnMeta id = EntityMetadata.of(entityClass).getIdColumn();
+            for (Condition cond : conditions) {
+                if (id != null && "=".equals(cond.getOperator()) && id.getColumnName().equalsIgnoreCase(cond.getColumn())) {
+                    ids.add(cond.getValue());
+                }
+            }
+            List<List<Condition>> chunks = InClause.split(conditions);
+            // 按块执行的多条更新在本地事务中整体生效，避免部分块已提交
+            boolean local = chunks.size() > 1 && beginLocalTransaction();
+            boolean completed = false;
+            try {
+                for (List<Condition> chunk : chunks) {
+                    long phaseStart = Instrumentation.start();
+                    sql = UpdateBuilder.buildUpdateSql(entityClass, chunk, updates, versionColumn);
+                    List<Object> params = boundParameters(chunk);
+                    Instrumentation.record(Operation.UPDATE, Phase.BUILD_SQL, entityClass, phaseStart, true);
+                    log.debug("生成更新SQL: [{}], 参数: {}", sql, params);
+                    QueryPlanGuard.inspect(Operation.UPDATE, entityClass, sql, params, connection);
 
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                int parameterIndex = 1;
-                // 绑定SET参数
-                for (Object value : updates.values()) {
-                    if (value == null) {
-                        log.warn("更新字段值为null，可能引发潜在问题");
+                    phaseStart = Instrumentation.start();
+                    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                        // 按 SET、WHERE 的顺序绑定参数
+                        for (int i = 0; i < params.size(); i++) {
+                            if (params.get(i) == null) {
+                                log.warn(i < updates.size() ? "更新字段值为null，可能引发潜在问题" : "条件值为null");
+                            }
+                            stmt.setObject(i + 1, params.get(i));
+                        }
+                        Instrumentation.record(Operation.UPDATE, Phase.PREPARE, entityClass, phaseStart, true);
+                        // 执行并记录影响行数
+                        phaseStart = Instrumentation.start();
+                        int rows = -1;
+                        try {
+                            rows = stmt.executeUpdate();
+                        } finally {
+                            Instrumentation.recordStatement(Operation.UPDATE, entityClass, sql, params, phaseStart, rows >= 0, connection);
+                        }
+                        Instrumentation.recordRows(Operation.UPDATE, entityClass, rows);
+                        affectedRows += rows;
                     }
-                    stmt.setObject(parameterIndex++, value);
                 }
-                // 绑定WHERE参数
-                for (Condition condition : conditions) {
-                    Object conditionValue = condition.getValue();
-                    if (conditionValue == null) {
-                        log.warn("条件值为null");
-                    }
-                    stmt.setObject(parameterIndex++, conditionValue);
+                completed = true;
+            } finally {
+                if (local) {
+                    endLocalTransaction(completed);
                 }
-                // 执行并记录影响行数
-                int affectedRows = stmt.executeUpdate();
-                log.debug("更新成功: [影响行数={}]", affectedRows);
+            }
+            log.debug("更新成功: [影响行数={}]", affectedRows);
 
-                if (affectedRows == 0) {
-                    log.warn("更新操作未影响任何行，请检查条件有效性");
-                }
+            if (affectedRows == 0) {
+                log.warn("更新操作未影响任何行，请检查条件有效性");
             }
         } catch (SQLException e) {
             String errorMsg = String.format("SQL执行失败 [SQL=%s]", sql);
@@ -151,6 +223,11 @@ public class UpdateSession extends BaseSession<UpdateSession> {
         } finally {
             this.conditions.clear();
             this.updates.clear();
+            this.expectedVersion = null;
+        }
+        if (checkVersion && affectedRows == 0) {
+            log.warn("乐观锁冲突: [Class={}, 主键={}]", entityClass.getName(), ids);
+            throw new OptimisticLockException(entityClass, ids);
         }
         // 缓存清理
         if (CacheManager.isCacheEnabled() && entityClass != null) {
@@ -162,6 +239,13 @@ public class UpdateSession extends BaseSession<UpdateSession> {
             });
         }
     }
+    // 按绑定顺序收集 SET 与 WHERE 参数
+    private List<Object> boundParameters(List<Condition> where) {
+        List<Object> values = new ArrayList<>(updates.size() + where.size());
+        values.addAll(updates.values());
+        InClause.bind(where, values);
+        return values;
+    }
     @Override
     protected UpdateSession self() {
         return this;
@@ -0,0 +1,236 @@
+package io.github.foreverstr.session;
+
+import io.github.foreverstr.instrument.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>异步后写缓冲：调用方把实体放入有界无锁队列后立即返回，后台写线程按实体类合并，
+ * 以多行 INSERT（每条最多 {@code maxBatchSize} 行）写入数据库。</p>
+ * <p>积压达到 {@code maxBatchSize} 或距上次写入超过 {@code flushInterval} 时触发写入；
+ * 队列满时 {@link #submit(Object)} 阻塞等待，{@link #offer(Object)} 直接返回 false。</p>
+ * <p>只适合可以接受异步持久化的场景：写入失败的实体交给错误处理器后丢弃，生成的主键不会回填到实体。</p>
+ * <pre>
+ *     try (WriteBehindBuffer buffer = new WriteBehindBuffer(10000, 500, 100, TimeUnit.MILLISECONDS)) {
+ *         buffer.submit(event);
+ *         ...
+ *         buffer.flush();
+ *     }
+ * </pre>
+ * @author duyujie
+ * @version 1.0
+ * @see SaveSession#batchSave(List)
+ */
+public class WriteBehindBuffer implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindBuffer.class);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    // 已入队但尚未写完（含写入中）的实体数，用于限界与背压
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final Thread writer;
+    private volatile long flushTarget;
+    private volatile boolean running = true;
+    private volatile BiConsumer<List<?>, Throwable> errorHandler =
+            (entities, e) -> log.error("后写缓冲写入失败，丢弃 {} 条实体", entities.size(), e);
+
+    /**
+     * @param capacity 最多积压的实体数
+     * @param maxBatchSize 单条 INSERT 的最大行数，积压达到该值时立即写入
+     * @param flushInterval 积压不足一批时的最长等待时间
+     * @param unit 时间单位
+     */
+    public WriteBehindBuffer(int capacity, int maxBatchSize, long flushInterval, TimeUnit unit) {
+        if (capacity <= 0 || maxBatchSize <= 0 || flushInterval <= 0) {
+            throw new IllegalArgumentException("capacity、maxBatchSize、flushInterval 必须为正数");
+        }
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = unit.toNanos(flushInterval);
+        this.writer = new Thread(this::runWriter, "jorm-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 设置写入失败时的处理器，默认记录错误日志
+     * @param errorHandler 参数为写入失败的实体与异常，在写线程中调用
+     */
+    public void setErrorHandler(BiConsumer<List<?>, Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * 放入实体，队列满时阻塞直到有空位
+     * @param entity 实体
+     * @throws IllegalStateException 缓冲已关闭
+     */
+    public void submit(Object entity) {
+        long backoff = 1000L;
+        while (!offer(entity)) {
+            checkRunning();
+            LockSupport.parkNanos(backoff);
+            backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    /**
+     * 尝试放入实体，队列满时立即返回
+     * @param entity 实体
+     * @return 是否放入
+     * @throws IllegalStateException 缓冲已关闭
+     */
+    public boolean offer(Object entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("实体不能为空");
+        }
+        checkRunning();
+        int depth;
+        do {
+            depth = pending.get();
+            if (depth >= capacity) {
+                LockSupport.unpark(writer);
+                return false;
+            }
+        } while (!pending.compareAndSet(depth, depth + 1));
+        // 先计数再入队：写线程处理到本实体时它一定已计入 submitted，flush 读到的目标不会被其他生产者的实体提前满足
+        submitted.incrementAndGet();
+        queue.offer(entity);
+        if ((depth + 1) % maxBatchSize == 0) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * 阻塞直到调用前放入的实体全部处理完（写入或交给错误处理器）
+     */
+    public void flush() {
+        long target = submitted.get();
+        if (processed.get() >= target) {
+            return;
+        }
+        if (flushTarget < target) {
+            flushTarget = target;
+        }
+        LockSupport.unpark(writer);
+        long backoff = 1000L;
+        while (processed.get() < target) {
+            if (!writer.isAlive()) {
+                throw new IllegalStateException("后写缓冲的写线程已退出");
+            }
+            LockSupport.parkNanos(backoff);
+            backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    /**
+     * 停止接收新实体，写完剩余积压后结束写线程
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return 已放入但尚未写完的实体数
+     */
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return 每条多行 INSERT 的写入耗时分布（纳秒，含获取连接）
+     */
+    public LatencyHistogram.Snapshot getFlushLatency() {
+        return flushLatency.snapshot();
+    }
+
+    private void checkRunning() {
+        if (!running) {
+            throw new IllegalStateException("后写缓冲已关闭");
+        }
+    }
+
+    private void runWriter() {
+        while (running || pending.get() > 0) {
+            if (running && pending.get() < maxBatchSize && processed.get() >= flushTarget) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+            drain();
+        }
+    }
+
+    // 取出当前积压，按实体类分组后逐批写入
+    private void drain() {
+        Map<Class<?>, List<Object>> byClass = new LinkedHashMap<>();
+        Object entity;
+        int taken = 0;
+        while (taken < capacity && (entity = queue.poll()) != null) {
+            byClass.computeIfAbsent(entity.getClass(), k -> new ArrayList<>()).add(entity);
+            taken++;
+        }
+        for (List<Object> entities : byClass.values()) {
+            for (int from = 0; from < entities.size(); from += maxBatchSize) {
+                write(entities.subList(from, Math.min(from + maxBatchSize, entities.size())));
+            }
+        }
+        // 按出队顺序整体计数，分组写入打乱的顺序不影响 flush 的判断
+        processed.addAndGet(taken);
+    }
+
+    private void write(List<Object> chunk) {
+        long start = System.nanoTime();
+        try (SaveSession session = new SaveSession()) {
+            session.batchSave(chunk);
+            written.addAndGet(chunk.size());
+        } catch (RuntimeException e) {
+            failed.addAndGet(chunk.size());
+            try {
+                errorHandler.accept(new ArrayList<>(chunk), e);
+            } catch (RuntimeException handlerError) {
+                log.error("后写缓冲错误处理器异常", handlerError);
+            }
+        } finally {
+            flushLatency.record(System.nanoTime() - start);
+            pending.addAndGet(-chunk.size());
+        }
+    }
+}
@@ -2,14 +2,17 @@ package io.github.foreverstr.session.base;
 
 import io.github.foreverstr.exception.ErrorCode;
 import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.instrument.Instrumentation;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
 import io.github.foreverstr.session.factory.Jorm;
+import io.github.foreverstr.transaction.ConnectionState;
 import io.github.foreverstr.transaction.CurrentTransactionConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * <p>BaseSession 封装了数据库连接和自动事务管理，保存点管理。</p>
@@ -21,25 +24,54 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public abstract class BaseSession<T extends BaseSession<T>> implements AutoCloseable {
     protected Connection connection;
     protected boolean isManagedConnection;
-    private final Map<String, Savepoint> savepoints = new LinkedHashMap<>();
+    // 保存点与一级缓存在第一次使用时才创建，多数查询会话用不到
+    private Map<String, Savepoint> savepoints;
     private static final Logger log = LoggerFactory.getLogger(BaseSession.class);
-    private final AtomicBoolean closed = new AtomicBoolean(false);
-    private final Map<Class<?>, Map<Object, Object>> firstLevelCache = new HashMap<>(); // 一级缓存
+    private boolean closed; // 会话只在单个线程内使用
+    private Map<Class<?>, Map<Object, Object>> firstLevelCache; // 一级缓存
+    private UnitOfWork unitOfWork; // 由 JormSession 开启工作单元时注入
+    private boolean readOnly; // 本会话把连接标记为只读，关闭时需恢复
+    private final Operation operation; // 获取连接耗时归属的操作类型，为 null 时不记录
 
     // 用于支持手动事务，闭包事务
     protected BaseSession(Connection connection) {
         this.connection = connection;
         this.isManagedConnection = false;
+        this.operation = null;
+        detectDialect();
     }
 
     // 支持自动事务
     protected BaseSession() {
-        this(Jorm.getConnection());
+        this(null, false);
+    }
+
+    /**
+     * 支持自动事务；readOnly 为 true 时连接取自只读数据源并标记为只读，处于事务中时沿用事务连接
+     * @param operation 会话对应的操作类型，获取连接的耗时记在该操作下，为 null 时不记录
+     * @param readOnly 是否只读
+     */
+    protected BaseSession(Operation operation, boolean readOnly) {
+        this.operation = operation;
+        open(readOnly);
+    }
+
+    private void open(boolean readOnly) {
+        long start = Instrumentation.start();
+        this.connection = Jorm.getConnection(readOnly);
+        if (operation != null) {
+            Instrumentation.record(operation, Phase.ACQUIRE_CONNECTION, null, start, true);
+        }
         this.isManagedConnection = true;
+        detectDialect();
         // 只在当前线程没有事务时才启用自动提交
         if (!CurrentTransactionConnection.hasTransaction()) {
             try {
-                this.connection.setAutoCommit(true);
+                ConnectionState.setAutoCommit(this.connection, true);
+                if (readOnly) {
+                    ConnectionState.setReadOnly(this.connection, true);
+                    this.readOnly = true;
+                }
             } catch (SQLException e) {
                 log.error("[ErrorCode={}] 自动事务开启失败，自动提交设置异常",
                         ErrorCode.TRANSACTION_AUTOMATIC_FAILED.getCode(), e);
@@ -47,16 +79,96 @@ public abstract class BaseSession<T extends BaseSession<T>> implements AutoClose
             }
         }
     }
+    /**
+     * 复用会话实例：清空保存点、一级缓存与工作单元后重新获取托管连接，只能在 {@link #close()} 之后调用
+     * @param readOnly 是否只读
+     */
+    protected void reopen(boolean readOnly) {
+        clearCache();
+        if (savepoints != null) {
+            savepoints.clear();
+        }
+        this.unitOfWork = null;
+        this.readOnly = false;
+        this.closed = false;
+        open(readOnly);
+    }
+
+    /**
+     * 多条语句需要整体生效时开启本地事务：当前线程没有事务且连接处于自动提交时关闭自动提交并返回 true，
+     * 调用方随后必须调用 {@link #endLocalTransaction(boolean)}；否则返回 false，语句随外层事务或调用方自行提交
+     */
+    protected boolean beginLocalTransaction() throws SQLException {
+        if (CurrentTransactionConnection.hasTransaction() || !getAutoCommit()) {
+            return false;
+        }
+        setAutoCommit(false);
+        return true;
+    }
+
+    /**
+     * 结束 {@link #beginLocalTransaction()} 开启的本地事务：成功时提交，否则回滚，最后恢复自动提交。
+     * 回滚失败只记录日志，不覆盖原始异常
+     * @param commit 是否提交
+     * @throws SQLException 提交失败
+     */
+    protected void endLocalTransaction(boolean commit) throws SQLException {
+        try {
+            if (commit) {
+                connection.commit();
+            } else {
+                try {
+                    connection.rollback();
+                } catch (SQLException e) {
+                    log.error("[ErrorCode={}] 本地事务回滚失败", ErrorCode.ROLLBACK_FAILED.getCode(), e);
+                }
+            }
+        } finally {
+            setAutoCommit(true);
+        }
+    }
+
+    // 只有托管连接的状态经 ConnectionState 记录；外部传入的连接可能被调用方直接修改，每次都询问驱动
+    private boolean getAutoCommit() throws SQLException {
+        return isManagedConnection ? ConnectionState.getAutoCommit(connection) : connection.getAutoCommit();
+    }
+
+    private void setAutoCommit(boolean autoCommit) throws SQLException {
+        if (isManagedConnection) {
+            ConnectionState.setAutoCommit(connection, autoCommit);
+        } else {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // 方言尚未确定时按本会话的连接识别，SQL 构建器之后直接读取缓存的方言；外部传入连接、未设置数据源时同样可用
+    private void detectDialect() {
+        if (connection != null) {
+            Jorm.getDialect(connection);
+        }
+    }
+
     // 抽象方法：返回当前对象的引用（子类需实现）
     protected abstract T self();
 
+    /**
+     * 只把会话标记为已关闭，不处理连接；事务中 {@link #close()} 不关闭事务连接也不改变关闭状态，
+     * 需要在事务中同样拒绝后续调用的子类在关闭时调用本方法
+     */
+    protected void markClosed() {
+        closed = true;
+    }
+
     protected void checkIfClosed() {
-        if (closed.get()) {
+        if (closed) {
             log.error("当前会话已关闭");
             throw new JormException(ErrorCode.SESSION_HAS_CLOSED);
         }
     }
     protected <E> E getFromCache(Class<E> clazz, Object id) {
+        if (firstLevelCache == null) {
+            return null;
+        }
         Map<Object, Object> cachePerClass = firstLevelCache.get(clazz);
         if (cachePerClass != null) {
             return (E) cachePerClass.get(id);
@@ -66,12 +178,40 @@ public abstract class BaseSession<T extends BaseSession<T>> implements AutoClose
 
     protected void putInCache(Object entity, Object id) {
         Class<?> clazz = entity.getClass();
+        if (firstLevelCache == null) {
+            firstLevelCache = new HashMap<>();
+        }
         Map<Object, Object> cachePerClass = firstLevelCache.computeIfAbsent(clazz, k -> new HashMap<>());
         cachePerClass.put(id, entity);
     }
 
     protected void clearCache() {
-        firstLevelCache.clear();
+        if (firstLevelCache != null) {
+            firstLevelCache.clear();
+        }
+    }
+
+    // 工作单元：JormSession 开启后，查询得到的实体会被登记快照
+    void setUnitOfWork(UnitOfWork unitOfWork) {
+        this.unitOfWork = unitOfWork;
+    }
+
+    /**
+     * @return 会话是否把连接标记为只读
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    protected boolean isTracking() {
+        return unitOfWork != null;
+    }
+
+    protected void track(List<?> entities) {
+        if (unitOfWork == null || entities == null) return;
+        for (Object entity : entities) {
+            unitOfWork.register(entity);
+        }
     }
 
 
@@ -85,9 +225,10 @@ public abstract class BaseSession<T extends BaseSession<T>> implements AutoClose
             return;
         }
 
-        if (!closed.compareAndSet(false, true)) {
+        if (closed) {
             return;
         }
+        closed = true;
         if (!isManagedConnection) {
             log.debug("非托管连接需手动管理，此处不执行关闭");
             return;
@@ -97,16 +238,19 @@ public abstract class BaseSession<T extends BaseSession<T>> implements AutoClose
             return;
         }
         try {
-            if (!connection.isClosed() && !connection.getAutoCommit()) {
+            if (!connection.isClosed() && !ConnectionState.getAutoCommit(connection)) {
                 connection.rollback();
                 log.debug("非事务环境：未提交事务已回滚");
             }
+            // 恢复只读标记后再交还连接池
+            if (readOnly && !connection.isClosed()) {
+                ConnectionState.setReadOnly(connection, false);
+            }
+            ConnectionState.release(connection);
             if (!connection.isClosed()) connection.close();
         } catch (SQLException e) {
             log.error("[ErrorCode={}] 关闭连接失败", ErrorCode.SESSION_CLOSED_FAILED.getCode(), e);
             throw new JormException(ErrorCode.SESSION_CLOSED_FAILED, e);
-        }finally {
-            closed.set(true);
         }
     }
     /**
@@ -117,6 +261,9 @@ public abstract class BaseSession<T extends BaseSession<T>> implements AutoClose
      * @throws JormException 保存点创建失败或名称重复
      */
     public void createSavepoint(String name) {
+        if (savepoints == null) {
+            savepoints = new LinkedHashMap<>();
+        }
         if (savepoints.containsKey(name)) {
             log.error("[ErrorCode={}] 保存点名称重复",
                     ErrorCode.DUPLICATE_SAVEPOINT_NAME.getCode());
@@ -139,7 +286,7 @@ public abstract class BaseSession<T extends BaseSession<T>> implements AutoClose
      * @throws JormException 未找到保存点或回滚失败
      */
     public void rollbackToSavepoint(String name) {
-        Savepoint sp = savepoints.get(name);
+        Savepoint sp = savepoints == null ? null : savepoints.get(name);
         if (sp == null) {
             log.error("[ErrorCode={}] 未找到保存点: {}",
                     ErrorCode.NO_SAVEPOINT.getCode(), name);
@@ -4,6 +4,7 @@ import io.github.foreverstr.session.DeleteSession;
 import io.github.foreverstr.session.FindSession;
 import io.github.foreverstr.session.SaveSession;
 import io.github.foreverstr.session.UpdateSession;
+import io.github.foreverstr.transaction.TransactionTemplate;
 
 import java.sql.Connection;
 
@@ -12,6 +13,8 @@ import java.sql.Connection;
  * <pre>
  * try (JormSession session = new JormSession(connection))
  * </pre>
+ * <p>调用 {@link #enableUnitOfWork()} 后，通过本会话查询到的实体会被记录快照，
+ * 修改字段后由 {@link #flush()}（或 {@link TransactionTemplate} 提交前自动）只更新变化的列。</p>
  * @author duyujie
  * @version 1.0
  * @see SaveSession
@@ -25,6 +28,8 @@ public class JormSession implements AutoCloseable {
     private FindSession findSession;
     private UpdateSession updateSession;
     private DeleteSession deleteSession;
+    private UnitOfWork unitOfWork;
+    private boolean flushOnCommit;
 
     public JormSession(Connection conn) {
         this.connection = conn;
@@ -51,6 +56,7 @@ public class JormSession implements AutoCloseable {
             }else {
                 findSession = new FindSession();
             }
+            ((BaseSession<?>) findSession).setUnitOfWork(unitOfWork);
         }
         return findSession;
     }
@@ -74,6 +80,57 @@ public class JormSession implements AutoCloseable {
         }
         return deleteSession;
     }
+    /**
+     * <p>开启工作单元</p>
+     * <p>之后 {@link #findSession()} 查询到的实体会记录字段快照；在 {@link TransactionTemplate#execute} 中开启时，
+     * 事务提交前自动刷新，否则需要手动调用 {@link #flush()}。重复调用无副作用。</p>
+     * @return 当前对象
+     */
+    public JormSession enableUnitOfWork() {
+        if (unitOfWork == null) {
+            unitOfWork = new UnitOfWork();
+            if (findSession != null) {
+                ((BaseSession<?>) findSession).setUnitOfWork(unitOfWork);
+            }
+            flushOnCommit = TransactionTemplate.doBeforeCommit(this::flush);
+        }
+        return this;
+    }
+
+    /**
+     * 手动登记不是通过本会话查询得到的实体
+     * @param entities 带主键的实体
+     * @return 当前对象
+     */
+    public JormSession track(Object... entities) {
+        enableUnitOfWork();
+        for (Object entity : entities) {
+            unitOfWork.register(entity);
+        }
+        return this;
+    }
+
+    /**
+     * <p>把已跟踪实体的变化写回数据库</p>
+     * <p>只更新与快照相比发生变化的列；变化列相同的同表实体合并为一条批量语句，按表名、主键顺序执行。</p>
+     * @return 更新的行数，未开启工作单元时为 0
+     * @throws io.github.foreverstr.exception.JormException 10011 更新执行失败
+     * @throws io.github.foreverstr.exception.OptimisticLockException 10017 带版本号的实体已被其他事务修改
+     */
+    public int flush() {
+        if (unitOfWork == null) {
+            return 0;
+        }
+        return unitOfWork.flush(updateSession().getNativeConnection());
+    }
+
+    /**
+     * @return 工作单元，未开启时为 null
+     */
+    public UnitOfWork getUnitOfWork() {
+        return unitOfWork;
+    }
+
     @Override
     public void close() {
         // 统一关闭所有会话
@@ -81,5 +138,7 @@ public class JormSession implements AutoCloseable {
         if (findSession != null) findSession.close();
         if (updateSession != null) updateSession.close();
         if (deleteSession != null) deleteSession.close();
+        // 事务提交前还需要刷新，快照保留到提交
+        if (unitOfWork != null && !flushOnCommit) unitOfWork.clear();
     }
 }
@@ -0,0 +1,315 @@
+package io.github.foreverstr.session.base;
+
+import io.github.foreverstr.cache.CacheManager;
+import io.github.foreverstr.cache.SecondLevelCache;
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.exception.OptimisticLockException;
+import io.github.foreverstr.instrument.Instrumentation;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
+import io.github.foreverstr.transaction.TransactionTemplate;
+import io.github.foreverstr.util.EntityMetadata;
+import io.github.foreverstr.util.EntityMetadata.ColumnMeta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <p>工作单元：记录会话加载的实体在加载时的字段快照，刷新时比对出变化的列，只更新这些列。</p>
+ * <p>刷新时按 (表, 变化列集合) 分组，每组一条 {@code UPDATE ... WHERE id = ?} 语句以 JDBC 批量执行；
+ * 组按表名排序，组内按主键排序，使并发事务尽量以相同顺序加锁。每个实体类型只登记一次缓存清理。</p>
+ * <p>带 {@link io.github.foreverstr.annotation.Version} 字段的实体按版本号更新并自增，任一行影响 0 行时抛出
+ * {@link OptimisticLockException}。部分驱动的批量执行只返回 {@link java.sql.Statement#SUCCESS_NO_INFO}
+ * （如开启 rewriteBatchedStatements 的 MySQL、Oracle），无法据此发现冲突，因此带版本字段的组复用同一条预编译语句逐行执行。</p>
+ * <p>主键、版本、聚合字段、{@link io.github.foreverstr.annotation.Lazy} 字段与关联字段不参与比对。非线程安全，随会话使用。</p>
+ * @author duyujie
+ * @version 1.0
+ * @see JormSession#enableUnitOfWork()
+ */
+public final class UnitOfWork {
+    private static final Logger log = LoggerFactory.getLogger(UnitOfWork.class);
+
+    // 实体 -> 加载时的列值快照（下标与 EntityMetadata#getColumns 一致）
+    private final Map<Object, Object[]> snapshots = new IdentityHashMap<>();
+
+    /**
+     * 登记实体并记录当前字段快照，已登记的实体会刷新快照
+     * @param entity 带 {@link io.github.foreverstr.annotation.Id} 的实体，主键为 null 的实体忽略
+     */
+    public void register(Object entity) {
+        if (entity == null) return;
+        EntityMetadata metadata = EntityMetadata.of(entity.getClass());
+        ColumnMeta id = metadata.getIdColumn();
+        if (id == null || metadata.getTableName() == null) {
+            throw new JormException(ErrorCode.INVALID_ENTITY, "工作单元只能跟踪带 @Table 与 @Id 的实体: "
+                    + entity.getClass().getName());
+        }
+        if (id.get(entity) == null) {
+            log.debug("主键为空的实体不做跟踪: {}", entity.getClass().getName());
+            return;
+        }
+        snapshots.put(entity, snapshot(metadata, entity));
+    }
+
+    /**
+     * 停止跟踪实体
+     * @param entity 实体
+     */
+    public void detach(Object entity) {
+        snapshots.remove(entity);
+    }
+
+    /**
+     * @return 正在跟踪的实体数
+     */
+    public int size() {
+        return snapshots.size();
+    }
+
+    /**
+     * @return 与快照相比有变化的实体数
+     */
+    public int dirtyCount() {
+        int count = 0;
+        for (Map.Entry<Object, Object[]> entry : snapshots.entrySet()) {
+            if (!changedColumns(entry.getKey(), entry.getValue()).isEmpty()) count++;
+        }
+        return count;
+    }
+
+    /**
+     * 把变化写回数据库，所有语句组都成功后才自增版本号并以当前值作为新的快照；
+     * 任一组失败时快照与版本号保持不变，事务回滚后可以重新刷新
+     * @param connection 执行更新的连接
+     * @return 更新的行数
+     * @throws JormException 10011 更新执行失败
+     * @throws OptimisticLockException 10017 版本冲突
+     */
+    public int flush(Connection connection) {
+        Map<String, Group> groups = collect();
+        if (groups.isEmpty()) {
+            return 0;
+        }
+        int affectedRows = 0;
+        Set<Class<?>> touched = new LinkedHashSet<>();
+        for (Group group : groups.values()) {
+            affectedRows += group.execute(connection);
+            touched.add(group.metadata.getEntityClass());
+        }
+        for (Group group : groups.values()) {
+            group.applied();
+            for (Object entity : group.entities) {
+                snapshots.put(entity, snapshot(group.metadata, entity));
+            }
+        }
+        log.debug("工作单元刷新完成: [语句组={}, 影响行数={}]", groups.size(), affectedRows);
+        // 缓存清理：每个实体类型一次
+        if (CacheManager.isCacheEnabled()) {
+            SecondLevelCache cache = CacheManager.getSecondLevelCache();
+            for (Class<?> type : touched) {
+                final String regionToClear = type.getName();
+                TransactionTemplate.doAfterCommit(() -> {
+                    cache.clearRegion(regionToClear);
+                    log.debug("Cleared cache region after commit: {}", regionToClear);
+                });
+            }
+        }
+        return affectedRows;
+    }
+
+    /**
+     * 清空所有快照
+     */
+    public void clear() {
+        snapshots.clear();
+    }
+
+    // 按 (表名, 变化列) 分组，TreeMap 保证组按表名有序
+    private Map<String, Group> collect() {
+        Map<String, Group> groups = new TreeMap<>();
+        for (Map.Entry<Object, Object[]> entry : snapshots.entrySet()) {
+            Object entity = entry.getKey();
+            BitSet changed = changedColumns(entity, entry.getValue());
+            if (changed.isEmpty()) continue;
+            EntityMetadata metadata = EntityMetadata.of(entity.getClass());
+            String key = metadata.getTableName() + '\u0000' + entity.getClass().getName() + '\u0000' + changed;
+            groups.computeIfAbsent(key, k -> new Group(metadata, changed)).entities.add(entity);
+        }
+        return groups;
+    }
+
+    private static BitSet changedColumns(Object entity, Object[] snapshot) {
+        List<ColumnMeta> columns = EntityMetadata.of(entity.getClass()).getColumns();
+        BitSet changed = new BitSet(columns.size());
+        for (ColumnMeta column : columns) {
+            if (!tracked(column)) continue;
+            if (!Objects.deepEquals(snapshot[column.getIndex()], column.get(entity))) {
+                changed.set(column.getIndex());
+            }
+        }
+        return changed;
+    }
+
+    private static Object[] snapshot(EntityMetadata metadata, Object entity) {
+        List<ColumnMeta> columns = metadata.getColumns();
+        Object[] values = new Object[columns.size()];
+        for (ColumnMeta column : columns) {
+            if (tracked(column)) {
+                values[column.getIndex()] = copy(column.get(entity));
+            }
+        }
+        return values;
+    }
+
+    // 可变的数组值（如 byte[]）需要复制，否则原地修改无法被发现
+    private static Object copy(Object value) {
+        if (value instanceof byte[]) return ((byte[]) value).clone();
+        if (value instanceof char[]) return ((char[]) value).clone();
+        return value;
+    }
+
+    private static boolean tracked(ColumnMeta column) {
+        return !column.isId() && !column.isAggregation() && !column.isLazy() && !column.isVersion();
+    }
+
+    // 同一表、同一组变化列的实体共用一条批量语句
+    private static final class Group {
+        private final EntityMetadata metadata;
+        private final List<ColumnMeta> columns = new ArrayList<>();
+        private final List<Object> entities = new ArrayList<>();
+
+        private Group(EntityMetadata metadata, BitSet changed) {
+            this.metadata = metadata;
+            for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                columns.add(metadata.getColumns().get(i));
+            }
+        }
+
+        private String sql() {
+            StringBuilder sql = new StringBuilder("UPDATE ").append(metadata.getTableName()).append(" SET ");
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) sql.append(", ");
+                sql.append(columns.get(i).getColumnName()).append("=?");
+            }
+            ColumnMeta version = metadata.getVersionColumn();
+            if (version != null) {
+                sql.append(", ").append(version.getColumnName()).append(" = ").append(version.getColumnName()).append(" + 1");
+            }
+            sql.append(" WHERE ").append(metadata.getIdColumn().getColumnName()).append(" = ?");
+            if (version != null) {
+                sql.append(" AND ").append(version.getColumnName()).append(" = ?");
+            }
+            return sql.toString();
+        }
+
+        private int execute(Connection connection) {
+            Class<?> clazz = metadata.getEntityClass();
+            ColumnMeta id = metadata.getIdColumn();
+            ColumnMeta version = metadata.getVersionColumn();
+            entities.sort(Comparator.comparing(id::get, UnitOfWork::compareKeys));
+            String sql = sql();
+            long phaseStart = Instrumentation.start();
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                List<Object> params = phaseStart == 0L ? null : new ArrayList<>();
+                int[] counts = null;
+                if (version == null) {
+                    for (Object entity : entities) {
+                        bind(stmt, entity, params);
+                        stmt.addBatch();
+                    }
+                    Instrumentation.record(Operation.UPDATE, Phase.PREPARE, clazz, phaseStart, true);
+                    phaseStart = Instrumentation.start();
+                    try {
+                        counts = stmt.executeBatch();
+                    } finally {
+                        Instrumentation.recordStatement(Operation.UPDATE, clazz, sql, params, phaseStart, counts != null, connection);
+                    }
+                } else {
+                    // 乐观锁需要每行准确的影响行数，不依赖驱动的批量返回值
+                    Instrumentation.record(Operation.UPDATE, Phase.PREPARE, clazz, phaseStart, true);
+                    phaseStart = Instrumentation.start();
+                    int[] executed = new int[entities.size()];
+                    try {
+                        for (int i = 0; i < executed.length; i++) {
+                            bind(stmt, entities.get(i), params);
+                            executed[i] = stmt.executeUpdate();
+                        }
+                        counts = executed;
+                    } finally {
+                        Instrumentation.recordStatement(Operation.UPDATE, clazz, sql, params, phaseStart, counts != null, connection);
+                    }
+                }
+                int rows = 0;
+                List<Object> conflicts = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    // 驱动无法给出单条行数时按 1 行计
+                    rows += counts[i] == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(counts[i], 0);
+                    if (version != null && counts[i] == 0) {
+                        conflicts.add(id.get(entities.get(i)));
+                    }
+                }
+                Instrumentation.recordRows(Operation.UPDATE, clazz, rows);
+                if (!conflicts.isEmpty()) {
+                    log.warn("乐观锁冲突: [Class={}, 主键={}]", clazz.getName(), conflicts);
+                    throw new OptimisticLockException(clazz, conflicts);
+                }
+                log.debug("工作单元批量更新: [SQL={}, 实体数={}]", sql, entities.size());
+                return rows;
+            } catch (SQLException e) {
+                String errorMsg = String.format("SQL执行失败 [SQL=%s]", sql);
+                log.error("[ErrorCode={}] {}", ErrorCode.UPDATE_EXECUTION_FAILED.getCode(), errorMsg, e);
+                throw new JormException(ErrorCode.UPDATE_EXECUTION_FAILED, errorMsg, e);
+            }
+        }
+
+        // 绑定一个实体的参数：变化列、主键，有版本字段时再加期望的版本号
+        private void bind(PreparedStatement stmt, Object entity, List<Object> params) throws SQLException {
+            ColumnMeta id = metadata.getIdColumn();
+            ColumnMeta version = metadata.getVersionColumn();
+            int index = 1;
+            for (ColumnMeta column : columns) {
+                Object value = column.get(entity);
+                stmt.setObject(index++, value);
+                if (params != null) params.add(value);
+            }
+            stmt.setObject(index++, id.get(entity));
+            if (params != null) params.add(id.get(entity));
+            if (version != null) {
+                stmt.setObject(index, version.get(entity));
+                if (params != null) params.add(version.get(entity));
+            }
+        }
+
+        // 全部语句组执行成功后同步实体上的版本号
+        private void applied() {
+            ColumnMeta version = metadata.getVersionColumn();
+            if (version != null) {
+                for (Object entity : entities) {
+                    version.set(entity, version.nextVersion(entity));
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(Object a, Object b) {
+        if (a instanceof Comparable && a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return String.valueOf(a).compareTo(String.valueOf(b));
+    }
+}
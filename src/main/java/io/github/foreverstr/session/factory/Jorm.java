@@ -1,40 +1,131 @@
 package io.github.foreverstr.session.factory;
 
 import javax.sql.DataSource;
+import io.github.foreverstr.diagnostics.QueryPlanGuard;
+import io.github.foreverstr.dialect.Dialect;
+import io.github.foreverstr.dialect.Dialects;
+import io.github.foreverstr.dialect.MySqlDialect;
 import io.github.foreverstr.exception.ErrorCode;
 import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.instrument.Instrumentation;
+import io.github.foreverstr.instrument.JormListener;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
+import io.github.foreverstr.session.CompiledQuery;
 import io.github.foreverstr.session.DeleteSession;
 import io.github.foreverstr.session.FindSession;
 import io.github.foreverstr.session.SaveSession;
 import io.github.foreverstr.session.UpdateSession;
 import io.github.foreverstr.transaction.CurrentTransactionConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.function.Consumer;
 
 /**
  * 单一操作可直接通过工厂类执行，支持自动事务和和外部传入连接。
  * @author duyujie
  */
 public class Jorm {
+    private static final Logger log = LoggerFactory.getLogger(Jorm.class);
     // 静态变量保存 Spring 托管的 DataSource
     private static DataSource dataSource;
+    // 只读会话、只读事务使用的数据源（如从库），未设置时使用主数据源
+    private static volatile DataSource readDataSource;
+    // 当前方言，首次使用时按数据源识别
+    private static volatile Dialect dialect;
 
     // 由 Starter 模块调用此方法注入 DataSource
     public static void setDataSource(DataSource dataSource) {
         Jorm.dataSource = dataSource;
+        Jorm.dialect = null;
+    }
+
+    // 设置只读数据源，传入 null 恢复为主数据源
+    public static void setReadDataSource(DataSource readDataSource) {
+        Jorm.readDataSource = readDataSource;
+    }
+
+    // 手动指定方言，跳过自动识别
+    public static void setDialect(Dialect dialect) {
+        Jorm.dialect = dialect;
+    }
+
+    // 获取当前方言，未指定且尚未识别时按数据源识别
+    public static Dialect getDialect() {
+        return getDialect(null);
+    }
+
+    /**
+     * 获取当前方言：未指定时识别一次并缓存，优先使用传入连接的 DatabaseMetaData，没有连接时使用数据源。
+     * 无法识别时只记录一次警告，缓存并使用 MySQL 方言（与早期版本生成的 LIMIT 写法一致）
+     * @param connection 调用方当前持有的连接，可为 null
+     */
+    public static Dialect getDialect(Connection connection) {
+        Dialect current = dialect;
+        if (current != null) {
+            return current;
+        }
+        synchronized (Jorm.class) {
+            if (dialect == null) {
+                dialect = detectDialect(connection);
+                log.debug("使用数据库方言: {}", dialect.getName());
+            }
+            return dialect;
+        }
+    }
+
+    private static Dialect detectDialect(Connection connection) {
+        try {
+            if (connection != null) {
+                return Dialects.detect(connection.getMetaData());
+            }
+            if (dataSource != null) {
+                try (Connection conn = dataSource.getConnection()) {
+                    return Dialects.detect(conn.getMetaData());
+                }
+            }
+            log.warn("未设置数据源且没有可用连接，无法识别数据库方言，使用 MySQL 方言");
+        } catch (SQLException e) {
+            log.warn("数据库方言识别失败，使用 MySQL 方言", e);
+        }
+        return new MySqlDialect();
+    }
+    // 直接访问数据源（不参与当前线程的事务），例如主键号段的独立短事务
+    public static DataSource getDataSource() {
+        if (dataSource == null) {
+            throw new JormException(ErrorCode.CONNECTION_ERROR, "未设置数据源");
+        }
+        return dataSource;
     }
     public static SaveSession saveSession() {
-        return new SaveSession(getConnection());
+        return new SaveSession(getConnection(Operation.SAVE));
     }
     public static FindSession findSession() {
-        return new FindSession(getConnection());
+        return new FindSession(getConnection(Operation.FIND));
     }
     public static DeleteSession deleteSession() {
-        return new DeleteSession(getConnection());
+        return new DeleteSession(getConnection(Operation.DELETE));
     }
     public static UpdateSession updateSession() {
-        return new UpdateSession(getConnection());
+        return new UpdateSession(getConnection(Operation.UPDATE));
+    }
+    // 只读查询会话：连接来自只读数据源并标记为只读，会话关闭时归还
+    public static FindSession readOnlySession() {
+        return new FindSession(true);
+    }
+    /**
+     * 预编译查询：在不连接数据库的 FindSession 上定义查询，生成可跨线程共享的 {@link CompiledQuery}
+     * @param clazz 模型类
+     * @param definition 查询定义，条件值可使用 {@link io.github.foreverstr.dto.QueryParam} 占位符
+     */
+    public static <T> CompiledQuery<T> compile(Class<T> clazz, Consumer<FindSession> definition) {
+        try (FindSession session = new FindSession((Connection) null)) {
+            definition.accept(session);
+            return session.Compile(clazz);
+        }
     }
     public static SaveSession saveSession(Connection conn) {
         return new SaveSession(conn);
@@ -49,6 +140,30 @@ public class Jorm {
         return new UpdateSession(conn);
     }
 
+    // 注册性能观测监听器，未注册时会话不产生任何观测开销
+    public static void addListener(JormListener listener) {
+        Instrumentation.addListener(listener);
+    }
+    public static void removeListener(JormListener listener) {
+        Instrumentation.removeListener(listener);
+    }
+    public static void clearListeners() {
+        Instrumentation.clearListeners();
+    }
+
+    // 安装查询计划守卫，新形状首次执行时采集 EXPLAIN；传入 null 卸载
+    public static void setQueryPlanGuard(QueryPlanGuard guard) {
+        QueryPlanGuard.install(guard);
+    }
+
+    // 获取连接并记录耗时
+    private static Connection getConnection(Operation operation) {
+        long start = Instrumentation.start();
+        Connection conn = getConnection();
+        Instrumentation.record(operation, Phase.ACQUIRE_CONNECTION, null, start, true);
+        return conn;
+    }
+
     // 统一的连接获取方法（处理异常）
     public static Connection getConnection() {
         // 优先返回当前事务中的连接
@@ -63,4 +178,26 @@ public class Jorm {
             throw new JormException(ErrorCode.CONNECTION_ERROR, e);
         }
     }
+
+    /**
+     * 按读写意图获取连接：当前线程有事务时返回事务连接，否则只读请求优先使用只读数据源。
+     * 获取期间 {@link CurrentTransactionConnection#isReadOnly()} 为 true，供路由数据源判断。
+     * @param readOnly 是否只读
+     */
+    public static Connection getConnection(boolean readOnly) {
+        Connection transactionConn = CurrentTransactionConnection.get();
+        if (transactionConn != null || !readOnly) {
+            return getConnection();
+        }
+        DataSource target = readDataSource != null ? readDataSource : dataSource;
+        boolean marked = CurrentTransactionConnection.isReadOnly();
+        CurrentTransactionConnection.setReadOnly(true);
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            throw new JormException(ErrorCode.CONNECTION_ERROR, e);
+        } finally {
+            CurrentTransactionConnection.setReadOnly(marked);
+        }
+    }
 }
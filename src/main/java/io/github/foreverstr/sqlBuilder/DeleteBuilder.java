@@ -2,6 +2,7 @@ package io.github.foreverstr.sqlBuilder;
 
 import io.github.foreverstr.annotation.Table;
 import io.github.foreverstr.dto.Condition;
+import io.github.foreverstr.session.factory.Jorm;
 import io.github.foreverstr.util.EntityHelper;
 
 import java.util.List;
@@ -18,37 +19,26 @@ public class DeleteBuilder {
         whereClause.append(idColumn).append(" = ?");
         return String.format("DELETE FROM %s WHERE %s", tableName, whereClause);
     }
-    //批量实例删除语句
+    //批量实例删除语句，占位符个数按 InClause 分桶
     public static String buildBatchDelete(Class<?> clazz, List<Object> entities) {
         Table table = clazz.getAnnotation(Table.class);
         String tableName = table.name().isEmpty() ?
                 clazz.getSimpleName().toLowerCase() : table.name();
-        StringBuilder whereClause = new StringBuilder();
         String idColumn = EntityHelper.getIdColumnName(clazz);
-        whereClause.append(idColumn).append(" IN (");
-        for (int i = 0; i < entities.size(); i++) {
-            if (i > 0) {
-                whereClause.append(",");
-            }
-            whereClause.append("?");
-        }
-        whereClause.append(")");
-        return String.format("DELETE FROM %s WHERE %s", tableName, whereClause);
+        return String.format("DELETE FROM %s WHERE %s", tableName,
+                InClause.render(new Condition(idColumn, InClause.OPERATOR, entities)));
     }
     //类删除语句
     public static String buildClassDelete(Class<?> clazz, List<Condition> conditions, int limit) {
         Table table = clazz.getAnnotation(Table.class);
         String tableName = table.name().isEmpty() ? clazz.getSimpleName().toLowerCase() : table.name();
 
-        StringBuilder sql = new StringBuilder("DELETE FROM ").append(tableName);
-        if (!conditions.isEmpty()) {
-            sql.append(" WHERE ").append(conditions.stream()
-                    .map(c -> c.getColumn() + " " + c.getOperator() + " ?")
-                    .collect(Collectors.joining(" AND ")));
-        }
+        String where = conditions.isEmpty() ? null : conditions.stream()
+                .map(InClause::render)
+                .collect(Collectors.joining(" AND "));
         if (limit > 0) {
-            sql.append(" LIMIT ").append(limit);
+            return Jorm.getDialect().deleteWithLimit(tableName, where, limit);
         }
-        return sql.toString();
+        return "DELETE FROM " + tableName + (where == null ? "" : " WHERE " + where);
     }
 }
@@ -5,18 +5,35 @@ import io.github.foreverstr.annotation.Table;
 import io.github.foreverstr.dto.Condition;
 import io.github.foreverstr.exception.ErrorCode;
 import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.session.factory.Jorm;
 import io.github.foreverstr.util.AssertUtils;
+import io.github.foreverstr.util.EntityHelper;
+import io.github.foreverstr.util.EntityMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public class FindBuilder {
     private static final Logger log = LoggerFactory.getLogger(FindBuilder.class);
     private static final Set<String> ALLOWED_ORDER_DIRECTIONS = Collections.unmodifiableSet(
             new HashSet<>(java.util.Arrays.asList("ASC", "DESC"))
     );
+    private static final Set<String> ALLOWED_OPERATORS = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList("=", ">", "<", ">=", "<=", "LIKE", InClause.OPERATOR))
+    );
+    private static final Pattern SELECT_PART = Pattern.compile(
+            "(?i)" + // 全局大小写不敏感
+                    "(" +
+                    "[a-zA-Z0-9_]+(\\s+AS\\s+[a-zA-Z0-9_]+)?" +  // 普通列名或别名
+                    "|" +
+                    "(SUM|COUNT|AVG|MAX|MIN)\\s*\\([a-zA-Z0-9_]+\\)(\\s+AS\\s+[a-zA-Z0-9_]+)?" + // 聚合函数（允许大小写和空格）
+                    ")");
+    // 列名白名单缓存，每次查询都要校验
+    private static final Map<Class<?>, Set<String>> validColumnsCache = new ConcurrentHashMap<>();
     //单表查询
     public static String buildFindSelect(Class<?> clazz, List<Condition> conditions,
                                          Integer limit,String orderBy,
@@ -26,32 +43,28 @@ public class FindBuilder {
         AssertUtils.throwAway(table, ErrorCode.SQL_GENERATION_FAILED);
         String tableName = !table.name().isEmpty() ? table.name() : clazz.getSimpleName().toLowerCase();
 
-        List<String> validColumns = getValidColumns(clazz); // 通过反射获取有效列名
+        Set<String> validColumns = getValidColumns(clazz); // 通过反射获取有效列名
+        // 默认查询跳过 @Lazy 大字段；由实体元数据生成的列清单无需再校验
+        boolean defaultSelect = selectClause.trim().equals("*");
+        if (defaultSelect) {
+            selectClause = EntityMetadata.of(clazz).getDefaultSelect();
+        }
 
-        Set<String> tempSet = new HashSet<>(Arrays.asList("=", ">", "<", ">=", "<=", "LIKE"));
-        Set<String> allowedOperators = Collections.unmodifiableSet(tempSet);
         for (Condition cond : conditions) {
             if (!validColumns.contains(cond.getColumn())) {
                 throw new JormException(ErrorCode.INVALID_COLUMN);
             }
-            if (!allowedOperators.contains(cond.getOperator().toUpperCase())) {
+            if (!ALLOWED_OPERATORS.contains(cond.getOperator().toUpperCase())) {
 
                 throw new JormException(ErrorCode.INVALID_OPERATOR);
             }
         }
         //校验Select子句
-        if (!selectClause.equals("*") && !selectClause.trim().isEmpty()) {
+        if (!defaultSelect && !selectClause.equals("*") && !selectClause.trim().isEmpty()) {
             String[] selectParts = selectClause.split(",");
             for (String part : selectParts) {
                 part = part.trim();
-                String regex =
-                        "(?i)" + // 全局大小写不敏感
-                                "(" +
-                                "[a-zA-Z0-9_]+(\\s+AS\\s+[a-zA-Z0-9_]+)?" +  // 普通列名或别名
-                                "|" +
-                                "(SUM|COUNT|AVG|MAX|MIN)\\s*\\([a-zA-Z0-9_]+\\)(\\s+AS\\s+[a-zA-Z0-9_]+)?" + // 聚合函数（允许大小写和空格）
-                                ")";
-                if (!part.matches(regex)) {
+                if (!SELECT_PART.matcher(part).matches()) {
                     throw new JormException(ErrorCode.INVALID_SELECT_CLAUSE);
                 }
             }
@@ -62,7 +75,7 @@ public class FindBuilder {
             sql.append(" WHERE ");
             List<String> conditionClauses = new ArrayList<>();
             for (Condition cond : conditions) {
-                conditionClauses.add(cond.getColumn() + " " + cond.getOperator() + " ?");
+                conditionClauses.add(InClause.render(cond));
             }
             sql.append(String.join(" AND ", conditionClauses));
         }
@@ -79,7 +92,7 @@ public class FindBuilder {
             sql.append(" HAVING ");
             List<String> clauses = new ArrayList<>();
             for (Condition cond : havingConditions) {
-                clauses.add(cond.getColumn() + " " + cond.getOperator() + " ?");
+                clauses.add(InClause.render(cond));
             }
             sql.append(String.join(" AND ", clauses));
         }
@@ -96,24 +109,27 @@ public class FindBuilder {
             }
             sql.append(" ORDER BY ").append(orderBy);
         }
-        if (limit != null) {
-            sql.append(" LIMIT ").append(limit);
-        }
-        log.info("{}",sql);
-        return sql.toString();
+        String result = limit != null ? Jorm.getDialect().limit(sql.toString(), limit) : sql.toString();
+        log.debug("{}", result);
+        return result;
     }
 
     //列名白名单获取
-    private static List<String> getValidColumns(Class<?> clazz) {
-        List<String> columns = new ArrayList<>();
+    private static Set<String> getValidColumns(Class<?> clazz) {
+        return validColumnsCache.computeIfAbsent(clazz, FindBuilder::loadValidColumns);
+    }
+
+    private static Set<String> loadValidColumns(Class<?> clazz) {
+        Set<String> columns = new HashSet<>();
         for (Field field : clazz.getDeclaredFields()) {
             // if (field.isAnnotationPresent(Aggregation.class)) continue;
+            if (EntityHelper.isAssociation(field)) continue;
             Column columnAnnotation = field.getAnnotation(Column.class);
             String columnName = (columnAnnotation != null && !columnAnnotation.name().isEmpty())
                     ? columnAnnotation.name()
                     : field.getName().toLowerCase();
             columns.add(columnName);
         }
-        return columns;
+        return Collections.unmodifiableSet(columns);
     }
 }
@@ -0,0 +1,178 @@
+package io.github.foreverstr.sqlBuilder;
+
+import io.github.foreverstr.dto.Condition;
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>IN 条件的占位符分桶与分块。</p>
+ * <p>占位符个数向上取整到 2 的幂（不足部分重复最后一个值补齐，不改变匹配结果），
+ * 因此不同长度的列表只会生成少数几种 SQL，预编译语句缓存可以复用；
+ * 超过分块大小的列表拆成多条语句依次执行。IN 是集合语义，重复值只保留第一次出现，
+ * 避免落在不同块中时同一行被返回或计数多次；集合中的 null 会被忽略（IN 中的 NULL 不会匹配任何行），
+ * 空集合生成 {@code IN (NULL)}，不匹配任何行。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class InClause {
+    private static final Logger log = LoggerFactory.getLogger(InClause.class);
+    public static final String OPERATOR = "IN";
+    private static volatile int maxChunkSize = 512;
+    private static final Map<Integer, String> placeholderCache = new ConcurrentHashMap<>();
+
+    private InClause() {
+    }
+
+    /**
+     * 设置单条语句中 IN 列表的最大长度，超过时拆分为多条语句
+     * @param size 最大长度，默认 512
+     * @throws IllegalArgumentException size 小于 1
+     */
+    public static void setMaxChunkSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("IN 分块大小必须大于0");
+        }
+        maxChunkSize = size;
+    }
+
+    public static int getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public static boolean isIn(Condition condition) {
+        return OPERATOR.equalsIgnoreCase(condition.getOperator());
+    }
+
+    /**
+     * 校验 IN 条件的值
+     * @param operator 操作符
+     * @param value 条件值
+     * @throws JormException 40005 操作符为 IN 但值不是集合
+     */
+    public static void checkValue(String operator, Object value) {
+        if (OPERATOR.equalsIgnoreCase(operator) && !(value instanceof Collection)) {
+            String errorMsg = "IN 条件的值必须是集合";
+            log.error("[ErrorCode={}] {}", ErrorCode.INVALID_OPERATOR.getCode(), errorMsg);
+            throw new JormException(ErrorCode.INVALID_OPERATOR, errorMsg);
+        }
+    }
+
+    /**
+     * @param size 列表长度
+     * @return 实际生成的占位符个数
+     */
+    public static int bucketSize(int size) {
+        if (size <= 0) {
+            return 0;
+        }
+        int max = maxChunkSize;
+        if (size >= max) {
+            return max;
+        }
+        int bucket = Integer.highestOneBit(size);
+        return Math.min(bucket == size ? size : bucket << 1, max);
+    }
+
+    /**
+     * 渲染单个条件，IN 条件按分桶后的长度生成占位符
+     * @param condition 条件
+     * @return 形如 {@code col = ?} 或 {@code col IN (?, ?)} 的片段
+     */
+    public static String render(Condition condition) {
+        if (!isIn(condition)) {
+            return condition.getColumn() + " " + condition.getOperator() + " ?";
+        }
+        return condition.getColumn() + " IN " + placeholders(bucketSize(values(condition).size()));
+    }
+
+    /**
+     * 按绑定顺序展开条件参数，IN 条件的值补齐到分桶长度
+     * @param conditions 条件
+     * @param out 参数输出列表
+     */
+    public static void bind(List<Condition> conditions, List<Object> out) {
+        for (Condition condition : conditions) {
+            if (!isIn(condition)) {
+                out.add(condition.getValue());
+                continue;
+            }
+            List<Object> values = values(condition);
+            out.addAll(values);
+            for (int i = values.size(), n = bucketSize(values.size()); i < n; i++) {
+                out.add(values.get(values.size() - 1));
+            }
+        }
+    }
+
+    /**
+     * <p>把超过分块大小的 IN 条件拆成多组条件，每组生成一条语句；没有超长列表时返回只含原条件的列表。</p>
+     * <p>同一组条件中最多只能有一个 IN 条件需要拆分。</p>
+     * @param conditions 条件
+     * @return 按块拆分后的条件组
+     * @throws JormException 40008 多个 IN 条件同时超过分块大小
+     */
+    public static List<List<Condition>> split(List<Condition> conditions) {
+        int max = maxChunkSize;
+        int target = -1;
+        for (int i = 0; i < conditions.size(); i++) {
+            Condition condition = conditions.get(i);
+            if (isIn(condition) && values(condition).size() > max) {
+                if (target >= 0) {
+                    String errorMsg = "最多只能有一个 IN 条件超过分块大小 " + max;
+                    log.error("[ErrorCode={}] {}", ErrorCode.UNSUPPORTED_QUERY.getCode(), errorMsg);
+                    throw new JormException(ErrorCode.UNSUPPORTED_QUERY, errorMsg);
+                }
+                target = i;
+            }
+        }
+        if (target < 0) {
+            return Collections.singletonList(conditions);
+        }
+        Condition oversized = conditions.get(target);
+        List<Object> values = values(oversized);
+        List<List<Condition>> chunks = new ArrayList<>((values.size() + max - 1) / max);
+        for (int from = 0; from < values.size(); from += max) {
+            List<Condition> chunk = new ArrayList<>(conditions);
+            chunk.set(target, new Condition(oversized.getColumn(), OPERATOR,
+                    values.subList(from, Math.min(values.size(), from + max))));
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    // 去掉 null 与重复值后的值，保持原有顺序
+    private static List<Object> values(Condition condition) {
+        Collection<?> collection = (Collection<?>) condition.getValue();
+        Set<Object> values = new LinkedHashSet<>(collection.size() * 4 / 3 + 1);
+        for (Object value : collection) {
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return new ArrayList<>(values);
+    }
+
+    private static String placeholders(int count) {
+        return placeholderCache.computeIfAbsent(count, n -> {
+            if (n == 0) {
+                return "(NULL)";
+            }
+            StringBuilder sb = new StringBuilder(n * 3 + 1).append('(');
+            for (int i = 0; i < n; i++) {
+                sb.append(i == 0 ? "?" : ", ?");
+            }
+            return sb.append(')').toString();
+        });
+    }
+}
@@ -5,11 +5,14 @@ import io.github.foreverstr.annotation.Column;
 import io.github.foreverstr.annotation.Table;
 import io.github.foreverstr.util.EntityHelper;
 import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.session.factory.Jorm;
 import io.github.foreverstr.util.AssertUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -45,12 +48,35 @@ public class SaveBuilder {
         String columns = generateColumnNames(fields);
         String placeholders = String.join(", ", Collections.nCopies(fields.size(), "?"));
 
-        log.info("Insert fields: {}", fields);
-        log.info("Placeholders: {}", placeholders);
+        log.debug("Insert fields: {}", fields);
+        log.debug("Placeholders: {}", placeholders);
 
         return String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, columns, placeholders);
     }
 
+    // 单行插入的列数（即每行的参数个数）
+    public static int getInsertableColumnCount(Class<?> clazz) {
+        return getInsertableFields(clazz).size();
+    }
+
+    // 插入或更新的字段：主键 + 可插入字段（自增主键不在可插入字段中）
+    public static List<Field> getUpsertFields(Class<?> clazz) {
+        List<Field> fields = new ArrayList<>(getInsertableFields(clazz));
+        Field idField = EntityHelper.getIdField(clazz);
+        if (!fields.contains(idField)) {
+            fields.add(0, idField);
+        }
+        fields.forEach(f -> f.setAccessible(true));
+        return fields;
+    }
+
+    // 按主键插入或更新，语法由当前方言决定
+    public static String buildUpsert(Class<?> clazz, int rows) {
+        List<Field> fields = getUpsertFields(clazz);
+        List<String> columns = Arrays.asList(generateColumnNames(fields).split(", "));
+        return Jorm.getDialect().upsert(getTableName(clazz), columns, EntityHelper.getIdColumnName(clazz), rows);
+    }
+
     // 批量插入
     public static String buildBatchInsert(Class<?> clazz, int batchSize) {
         String tableName = getTableName(clazz);
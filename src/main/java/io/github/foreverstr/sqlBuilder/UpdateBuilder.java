@@ -12,6 +12,14 @@ public class UpdateBuilder {
     public static String buildUpdateSql(Class<?> clazz ,
                                         List<Condition> conditions,
                                         Map<String, Object> updates) {
+        return buildUpdateSql(clazz, conditions, updates, null);
+    }
+
+    // 构建更新SQL，versionColumn 不为空时在 SET 中追加版本自增
+    public static String buildUpdateSql(Class<?> clazz ,
+                                        List<Condition> conditions,
+                                        Map<String, Object> updates,
+                                        String versionColumn) {
         Table table = clazz.getAnnotation(Table.class);
         String tableName = table.name().isEmpty()
                         ? clazz.getSimpleName().toLowerCase() : table.name();
@@ -19,8 +27,11 @@ public class UpdateBuilder {
         String setClause = updates.keySet().stream()
                 .map(column -> column + "=?")
                 .collect(Collectors.joining(", "));
+        if (versionColumn != null) {
+            setClause += ", " + versionColumn + " = " + versionColumn + " + 1";
+        }
         String whereClause = conditions.stream()
-                .map(condition -> condition.getColumn() + " " + condition.getOperator() + " ?")
+                .map(InClause::render)
                 .collect(Collectors.joining(" AND "));
         return String.format("UPDATE %s SET %s WHERE %s", tableName, setClause, whereClause);
     }
@@ -0,0 +1,85 @@
+package io.github.foreverstr.transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * <p>记录连接的自动提交与只读状态，值未变化时不再调用驱动的 setter，省去多余的网络往返。</p>
+ * <p>状态未知时（连接第一次经过本类）照常调用 setter 并记下结果。连接交还连接池之前需调用
+ * {@link #release(Connection)}，以免连接池复用同一对象时沿用过期的状态；
+ * 经本类修改过状态的连接，不要再直接调用对应的 setter。</p>
+ * <p>只用于 Jorm 托管的会话连接与事务模板、事务管理器持有的连接；调用方传入的外部连接随时可能被直接修改，
+ * 不经过本类。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class ConnectionState {
+    private static final Map<Connection, State> states = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ConnectionState() {
+    }
+
+    /**
+     * 设置自动提交，与已记录的状态相同时不访问驱动
+     */
+    public static void setAutoCommit(Connection connection, boolean autoCommit) throws SQLException {
+        State state = state(connection);
+        if (state.autoCommit == null || state.autoCommit != autoCommit) {
+            connection.setAutoCommit(autoCommit);
+            state.autoCommit = autoCommit;
+        }
+    }
+
+    /**
+     * 读取自动提交，优先使用已记录的状态
+     */
+    public static boolean getAutoCommit(Connection connection) throws SQLException {
+        State state = state(connection);
+        if (state.autoCommit == null) {
+            state.autoCommit = connection.getAutoCommit();
+        }
+        return state.autoCommit;
+    }
+
+    /**
+     * 设置只读提示，与已记录的状态相同时不访问驱动。只能在事务开始前调用
+     */
+    public static void setReadOnly(Connection connection, boolean readOnly) throws SQLException {
+        State state = state(connection);
+        if (state.readOnly == null || state.readOnly != readOnly) {
+            connection.setReadOnly(readOnly);
+            state.readOnly = readOnly;
+        }
+    }
+
+    /**
+     * 读取只读提示，优先使用已记录的状态
+     */
+    public static boolean isReadOnly(Connection connection) throws SQLException {
+        State state = state(connection);
+        if (state.readOnly == null) {
+            state.readOnly = connection.isReadOnly();
+        }
+        return state.readOnly;
+    }
+
+    /**
+     * 丢弃连接的状态记录，在关闭（交还）连接前调用
+     */
+    public static void release(Connection connection) {
+        states.remove(connection);
+    }
+
+    private static State state(Connection connection) {
+        return states.computeIfAbsent(connection, k -> new State());
+    }
+
+    // null 表示尚未知道驱动端的取值
+    private static final class State {
+        private Boolean autoCommit;
+        private Boolean readOnly;
+    }
+}
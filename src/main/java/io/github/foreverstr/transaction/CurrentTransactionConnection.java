@@ -7,6 +7,8 @@ import java.sql.Connection;
  */
 public class CurrentTransactionConnection {
     private static final ThreadLocal<Connection> currentConnection = new ThreadLocal<>();
+    // 只读标记：只读事务期间、或正在为只读会话获取连接时为 true
+    private static final ThreadLocal<Boolean> readOnly = new ThreadLocal<>();
 
     public static Connection get() {
         return currentConnection.get();
@@ -18,6 +20,22 @@ public class CurrentTransactionConnection {
 
     public static void clear() {
         currentConnection.remove();
+        readOnly.remove();
+    }
+
+    /**
+     * 当前线程的连接请求是否只读，路由数据源可据此把请求发往从库
+     */
+    public static boolean isReadOnly() {
+        return Boolean.TRUE.equals(readOnly.get());
+    }
+
+    public static void setReadOnly(boolean value) {
+        if (value) {
+            readOnly.set(Boolean.TRUE);
+        } else {
+            readOnly.remove();
+        }
     }
 
     public static boolean hasTransaction() {
@@ -51,7 +51,7 @@ public class TransactionManager {
         }
         conn = Jorm.getConnection();
         try {
-            conn.setAutoCommit(false);
+            ConnectionState.setAutoCommit(conn, false);
             transactionConnectionHolder.set(conn);
             return conn;
         } catch (SQLException e) {
@@ -110,6 +110,7 @@ public class TransactionManager {
         Connection conn = transactionConnectionHolder.get();
         if (conn != null) {
             try {
+                ConnectionState.release(conn);
                 conn.close();
             } catch (SQLException e) {
                 log.error("[ErrorCode={}] 连接关闭失败",ErrorCode.TRANSACTION_CLOSE_FAILED.getCode(), e);
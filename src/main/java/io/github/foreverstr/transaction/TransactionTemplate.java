@@ -1,5 +1,8 @@
 package io.github.foreverstr.transaction;
 
+import io.github.foreverstr.instrument.Instrumentation;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
 import io.github.foreverstr.session.factory.Jorm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,10 +17,28 @@ import java.util.function.Consumer;
 /**
  * 事务模板类，提供简洁的编程式事务管理
  * 自动处理连接获取、事务提交/回滚和资源释放
+ * 只读模板的事务连接取自只读数据源并标记为只读，加入已有事务时沿用外层事务的模式
  */
 public class TransactionTemplate {
     private static final Logger log = LoggerFactory.getLogger(TransactionTemplate.class);
     private static final ThreadLocal<List<Runnable>> afterCommitCallbacks = new ThreadLocal<>();
+    private static final ThreadLocal<List<Runnable>> beforeCommitCallbacks = new ThreadLocal<>();
+    private final boolean readOnly;
+
+    public TransactionTemplate() {
+        this(false);
+    }
+
+    /**
+     * @param readOnly 是否开启只读事务
+     */
+    public TransactionTemplate(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
 
     /**
      * 在事务中执行操作，无返回值
@@ -37,6 +58,8 @@ public class TransactionTemplate {
         boolean existingTransaction = false;
         List<Runnable> callbacks = new ArrayList<>();
         afterCommitCallbacks.set(callbacks);
+        long start = Instrumentation.start();
+        boolean success = false;
 
         try {
             // 检查是否已有事务
@@ -46,10 +69,18 @@ public class TransactionTemplate {
                 log.debug("Using existing transaction");
             } else {
                 // 创建新连接并开始事务
-                conn = Jorm.getConnection();
-                conn.setAutoCommit(false);
+                long phaseStart = Instrumentation.start();
+                conn = Jorm.getConnection(readOnly);
+                Instrumentation.record(Operation.TRANSACTION, Phase.ACQUIRE_CONNECTION, null, phaseStart, true);
                 CurrentTransactionConnection.set(conn);
-                log.debug("Started new transaction");
+                CurrentTransactionConnection.setReadOnly(readOnly);
+                // 只读标记必须在事务开始前设置
+                if (readOnly) {
+                    ConnectionState.setReadOnly(conn, true);
+                }
+                ConnectionState.setAutoCommit(conn, false);
+                beforeCommitCallbacks.set(new ArrayList<>());
+                log.debug("Started new {}transaction", readOnly ? "read-only " : "");
             }
 
             // 执行用户代码
@@ -57,7 +88,14 @@ public class TransactionTemplate {
 
             // 如果是新事务，则提交
             if (!existingTransaction) {
+                // 提交前的回调（如工作单元刷新）失败时整个事务回滚
+                List<Runnable> beforeCommit = beforeCommitCallbacks.get();
+                for (int i = 0; i < beforeCommit.size(); i++) {
+                    beforeCommit.get(i).run();
+                }
+                long phaseStart = Instrumentation.start();
                 conn.commit();
+                Instrumentation.record(Operation.TRANSACTION, Phase.COMMIT, null, phaseStart, true);
                 log.debug("Transaction committed");
 
                 // 执行提交后的回调
@@ -73,14 +111,18 @@ public class TransactionTemplate {
                 }
             }
 
+            success = true;
             return result;
         } catch (Exception e) {
             // 如果是新事务，则回滚
             if (!existingTransaction && conn != null) {
+                long phaseStart = Instrumentation.start();
                 try {
                     conn.rollback();
+                    Instrumentation.record(Operation.TRANSACTION, Phase.ROLLBACK, null, phaseStart, true);
                     log.debug("Transaction rolled back due to exception", e);
                 } catch (SQLException rollbackEx) {
+                    Instrumentation.record(Operation.TRANSACTION, Phase.ROLLBACK, null, phaseStart, false);
                     log.warn("Rollback failed", rollbackEx);
                     e.addSuppressed(rollbackEx);
                 }
@@ -95,7 +137,16 @@ public class TransactionTemplate {
             // 清理资源
             if (!existingTransaction) {
                 CurrentTransactionConnection.clear();
+                beforeCommitCallbacks.remove();
                 if (conn != null) {
+                    if (readOnly) {
+                        try {
+                            ConnectionState.setReadOnly(conn, false);
+                        } catch (SQLException e) {
+                            log.warn("Failed to reset read-only flag", e);
+                        }
+                    }
+                    ConnectionState.release(conn);
                     try {
                         conn.close();
                     } catch (SQLException e) {
@@ -104,7 +155,23 @@ public class TransactionTemplate {
                 }
             }
             afterCommitCallbacks.remove();
+            if (!existingTransaction) {
+                Instrumentation.record(Operation.TRANSACTION, Phase.TOTAL, null, start, success);
+            }
+        }
+    }
+
+    /**
+     * 注册事务提交前的回调，回调抛出异常时事务回滚
+     * @return 当前线程处于 {@code execute} 事务中时返回 true，否则不登记并返回 false
+     */
+    public static boolean doBeforeCommit(Runnable callback) {
+        List<Runnable> callbacks = beforeCommitCallbacks.get();
+        if (callbacks == null) {
+            return false;
         }
+        callbacks.add(callback);
+        return true;
     }
 
     /**
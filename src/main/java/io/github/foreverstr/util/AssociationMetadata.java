@@ -0,0 +1,166 @@
+package io.github.foreverstr.util;
+
+import io.github.foreverstr.annotation.ManyToOne;
+import io.github.foreverstr.annotation.OneToMany;
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.util.EntityMetadata.ColumnMeta;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>关联字段（{@link ManyToOne}、{@link OneToMany}）的元数据，按 (实体, 字段名) 缓存。</p>
+ * <p>关联两端的键统一描述为：当前实体上的 {@link #getOwnerKey() ownerKey} 与目标实体上的
+ * {@link #getTargetKey() targetKey}，值相等即关联。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class AssociationMetadata {
+    private static final Map<Class<?>, Map<String, AssociationMetadata>> associationCache = new ConcurrentHashMap<>();
+
+    private final Field field;
+    private final boolean collection;
+    private final Class<?> targetClass;
+    private final ColumnMeta ownerKey;
+    private final ColumnMeta targetKey;
+
+    private AssociationMetadata(Class<?> owner, Field field) {
+        this.field = field;
+        field.setAccessible(true);
+        EntityMetadata ownerMeta = EntityMetadata.of(owner);
+        ManyToOne manyToOne = field.getAnnotation(ManyToOne.class);
+        OneToMany oneToMany = field.getAnnotation(OneToMany.class);
+        if (manyToOne != null) {
+            this.collection = false;
+            this.targetClass = field.getType();
+            EntityMetadata targetMeta = EntityMetadata.of(targetClass);
+            this.ownerKey = requireColumn(ownerMeta, manyToOne.foreignKey(), field);
+            this.targetKey = requireId(targetMeta, field);
+        } else if (oneToMany != null) {
+            if (!field.getType().isAssignableFrom(List.class)) {
+                throw invalid(field, "OneToMany 字段类型必须为 List");
+            }
+            this.collection = true;
+            this.targetClass = oneToMany.targetEntity() != void.class ? oneToMany.targetEntity() : elementType(field);
+            EntityMetadata targetMeta = EntityMetadata.of(targetClass);
+            this.ownerKey = requireId(ownerMeta, field);
+            this.targetKey = requireColumn(targetMeta, oneToMany.foreignKey(), field);
+        } else {
+            throw invalid(field, "字段未标注 @ManyToOne 或 @OneToMany");
+        }
+    }
+
+    /**
+     * 获取实体的关联字段元数据（线程安全，按类缓存）
+     * @param owner 实体类
+     * @param name 关联字段名
+     * @return 关联元数据
+     * @throws JormException 10016 字段不存在或不是关联字段
+     */
+    public static AssociationMetadata of(Class<?> owner, String name) {
+        return associationCache.computeIfAbsent(owner, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, n -> {
+                    Field field;
+                    try {
+                        field = owner.getDeclaredField(n);
+                    } catch (NoSuchFieldException e) {
+                        throw new JormException(ErrorCode.INVALID_ASSOCIATION,
+                                String.format("实体 %s 不存在关联 %s", owner.getSimpleName(), n));
+                    }
+                    return new AssociationMetadata(owner, field);
+                });
+    }
+
+    /**
+     * @return 是否为一对多（字段值为 List）
+     */
+    public boolean isCollection() {
+        return collection;
+    }
+
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * @return 当前实体上参与关联的列：多对一为外键列，一对多为主键列
+     */
+    public ColumnMeta getOwnerKey() {
+        return ownerKey;
+    }
+
+    /**
+     * @return 目标实体上参与关联的列：多对一为主键列，一对多为外键列
+     */
+    public ColumnMeta getTargetKey() {
+        return targetKey;
+    }
+
+    /**
+     * @return 目标键在查询条件中使用的列名
+     */
+    public String getTargetKeyColumn() {
+        return targetKey.getColumnName();
+    }
+
+    /**
+     * 把关联结果写入实体
+     * @param entity 当前实体
+     * @param value 目标实体或目标实体列表
+     */
+    public void set(Object entity, Object value) {
+        try {
+            field.set(entity, value);
+        } catch (IllegalAccessException e) {
+            throw new JormException(ErrorCode.REFLECTION_ACCESS_FAILED, "关联字段写入失败: " + field.getName(), e);
+        }
+    }
+
+    /**
+     * 统一关联键的类型，避免 Integer 与 Long 主键、外键因类型不同而无法匹配
+     * @param value 键值
+     * @return 整数统一为 Long，其他原样返回
+     */
+    public static Object normalizeKey(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    private static ColumnMeta requireColumn(EntityMetadata meta, String column, Field field) {
+        ColumnMeta result = meta.findColumn(column);
+        if (result == null) {
+            throw invalid(field, String.format("实体 %s 不存在外键列 %s", meta.getEntityClass().getSimpleName(), column));
+        }
+        return result;
+    }
+
+    private static ColumnMeta requireId(EntityMetadata meta, Field field) {
+        if (meta.getIdColumn() == null) {
+            throw invalid(field, "实体没有主键字段: " + meta.getEntityClass().getSimpleName());
+        }
+        return meta.getIdColumn();
+    }
+
+    private static Class<?> elementType(Field field) {
+        Type type = field.getGenericType();
+        if (type instanceof ParameterizedType) {
+            Type arg = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (arg instanceof Class) {
+                return (Class<?>) arg;
+            }
+        }
+        throw invalid(field, "无法推断 OneToMany 的目标实体，请指定 targetEntity");
+    }
+
+    private static JormException invalid(Field field, String message) {
+        return new JormException(ErrorCode.INVALID_ASSOCIATION,
+                String.format("%s.%s: %s", field.getDeclaringClass().getSimpleName(), field.getName(), message));
+    }
+}
@@ -5,6 +5,8 @@ import io.github.foreverstr.annotation.Column;
 import io.github.foreverstr.annotation.Enum.GenerationType;
 import io.github.foreverstr.annotation.GeneratedValue;
 import io.github.foreverstr.annotation.Id;
+import io.github.foreverstr.annotation.ManyToOne;
+import io.github.foreverstr.annotation.OneToMany;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
@@ -12,7 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 public class EntityHelper {
-    //获取需要插入的字段（排除自增主键和聚合字段）
+    //获取需要插入的字段（排除自增主键、聚合字段和关联字段）
     public static List<Field> getInsertableFields(Class<?> clazz) {
         return Arrays.stream(clazz.getDeclaredFields())
                 .filter(f -> {
@@ -20,7 +22,7 @@ public class EntityHelper {
                         GeneratedValue generatedValue = f.getAnnotation(GeneratedValue.class);
                         return generatedValue == null || generatedValue.strategy() != GenerationType.IDENTITY;
                     }
-                    return !f.isAnnotationPresent(Aggregation.class);
+                    return !f.isAnnotationPresent(Aggregation.class) && !isAssociation(f);
                 })
                 .collect(Collectors.toList());
     }
@@ -39,13 +41,18 @@ public class EntityHelper {
                 .orElseThrow(() -> new RuntimeException("该类没有主键字段" + clazz.getName()));
     }
 
-    //获取可更新字段（排除主键）
+    //获取可更新字段（排除主键和关联字段）
     public static List<Field> getUpdatableFields(Class<?> clazz) {
         return Arrays.stream(clazz.getDeclaredFields())
-                .filter(f -> !f.isAnnotationPresent(Id.class))
+                .filter(f -> !f.isAnnotationPresent(Id.class) && !isAssociation(f))
                 .collect(Collectors.toList());
     }
 
+    //是否为关联字段（不对应数据库列）
+    public static boolean isAssociation(Field field) {
+        return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToMany.class);
+    }
+
     //获取实体的主键值
     public static Object getIdValue(Object entity) throws IllegalAccessException {
         Field idField = getIdField(entity.getClass());
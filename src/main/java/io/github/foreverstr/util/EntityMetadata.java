@@ -0,0 +1,312 @@
+package io.github.foreverstr.util;
+
+import io.github.foreverstr.annotation.Aggregation;
+import io.github.foreverstr.annotation.Column;
+import io.github.foreverstr.annotation.Id;
+import io.github.foreverstr.annotation.Lazy;
+import io.github.foreverstr.annotation.Table;
+import io.github.foreverstr.annotation.Version;
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>实体元数据，按类缓存表名、列顺序、列名以及字段读写句柄。</p>
+ * <p>读写句柄在首次解析时通过 {@link MethodHandle} 绑定，之后的读写不再做反射查找；
+ * 基本类型字段的句柄保留原始类型签名，调用方可通过 {@code invokeExact} 避免装箱。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public class EntityMetadata {
+    private static final Map<Class<?>, EntityMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    private final Class<?> entityClass;
+    private final String tableName;
+    private final List<ColumnMeta> columns;
+    private final ColumnMeta idColumn;
+    private final ColumnMeta versionColumn;
+    private final String defaultSelect;
+    private final MethodHandle constructor;
+
+    private EntityMetadata(Class<?> entityClass) {
+        this.entityClass = entityClass;
+        Table table = entityClass.getAnnotation(Table.class);
+        this.tableName = table == null ? null
+                : (!table.name().isEmpty() ? table.name() : entityClass.getSimpleName().toLowerCase());
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<ColumnMeta> list = new ArrayList<>();
+        ColumnMeta id = null;
+        ColumnMeta version = null;
+        for (Field field : entityClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || EntityHelper.isAssociation(field)) continue;
+            ColumnMeta meta = new ColumnMeta(field, list.size(), lookup);
+            list.add(meta);
+            if (meta.isId() && id == null) id = meta;
+            if (meta.isVersion() && version == null) version = meta;
+        }
+        this.columns = Collections.unmodifiableList(list);
+        this.idColumn = id;
+        this.versionColumn = version;
+        this.defaultSelect = buildDefaultSelect(list);
+        MethodHandle ctor = null;
+        try {
+            ctor = lookup.unreflectConstructor(accessible(entityClass.getDeclaredConstructor()))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            // 没有无参构造器的类型（如 record）由调用方自行实例化
+        }
+        this.constructor = ctor;
+    }
+
+    /**
+     * 获取指定类的元数据（线程安全，按类缓存）
+     * @param clazz 实体类
+     * @return 元数据
+     */
+    public static EntityMetadata of(Class<?> clazz) {
+        return metadataCache.computeIfAbsent(clazz, EntityMetadata::new);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return 表名，未标注 {@link Table} 时为 null
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * @return 按字段声明顺序排列的列
+     */
+    public List<ColumnMeta> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return 主键列，没有 {@link Id} 字段时为 null
+     */
+    public ColumnMeta getIdColumn() {
+        return idColumn;
+    }
+
+    /**
+     * @return 乐观锁版本列，没有 {@link Version} 字段时为 null
+     */
+    public ColumnMeta getVersionColumn() {
+        return versionColumn;
+    }
+
+    /**
+     * @return 未指定 SELECT 时使用的列：没有 {@link Lazy} 字段时为 {@code *}，否则为除懒加载与聚合字段外的所有列
+     */
+    public String getDefaultSelect() {
+        return defaultSelect;
+    }
+
+    /**
+     * 按字段名查找列
+     * @param fieldName 字段名
+     * @return 列，不存在时为 null
+     */
+    public ColumnMeta findField(String fieldName) {
+        for (ColumnMeta column : columns) {
+            if (column.getField().getName().equals(fieldName)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按列名（忽略大小写）查找列
+     * @param columnName 列名
+     * @return 列，不存在时为 null
+     */
+    public ColumnMeta findColumn(String columnName) {
+        for (ColumnMeta column : columns) {
+            if (column.getColumnName().equalsIgnoreCase(columnName)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 通过缓存的构造器句柄创建实体
+     * @return 新实例
+     * @throws JormException 10005 实体没有可访问的无参构造器或构造失败
+     */
+    public Object newInstance() {
+        if (constructor == null) {
+            throw new JormException(ErrorCode.REFLECTION_ACCESS_FAILED,
+                    "实体缺少无参构造器: " + entityClass.getName());
+        }
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new JormException(ErrorCode.REFLECTION_ACCESS_FAILED,
+                    "实体实例化失败: " + entityClass.getName(), e);
+        }
+    }
+
+    private static String buildDefaultSelect(List<ColumnMeta> columns) {
+        boolean hasLazy = false;
+        List<String> names = new ArrayList<>();
+        for (ColumnMeta column : columns) {
+            if (column.isLazy()) {
+                hasLazy = true;
+            } else if (!column.isAggregation()) {
+                names.add(column.getColumnName());
+            }
+        }
+        return hasLazy ? String.join(", ", names) : "*";
+    }
+
+    private static <A extends java.lang.reflect.AccessibleObject> A accessible(A member) {
+        member.setAccessible(true);
+        return member;
+    }
+
+    /**
+     * 单个列的元数据
+     */
+    public static final class ColumnMeta {
+        private final Field field;
+        private final int index;
+        private final String columnName;
+        private final boolean id;
+        private final boolean aggregation;
+        private final boolean lazy;
+        private final boolean version;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        private ColumnMeta(Field field, int index, MethodHandles.Lookup lookup) {
+            this.field = field;
+            this.index = index;
+            Column column = field.getAnnotation(Column.class);
+            // 未指定列名时取小写字段名，与 FindBuilder 的列名白名单一致
+            this.columnName = column != null && !column.name().isEmpty() ? column.name() : field.getName().toLowerCase();
+            this.id = field.isAnnotationPresent(Id.class);
+            this.aggregation = field.isAnnotationPresent(Aggregation.class);
+            this.lazy = field.isAnnotationPresent(Lazy.class);
+            this.version = field.isAnnotationPresent(Version.class);
+            Class<?> handleType = field.getType().isPrimitive() ? field.getType() : Object.class;
+            try {
+                accessible(field);
+                this.getter = lookup.unreflectGetter(field)
+                        .asType(MethodType.methodType(handleType, Object.class));
+                this.setter = lookup.unreflectSetter(field)
+                        .asType(MethodType.methodType(void.class, Object.class, handleType));
+            } catch (IllegalAccessException e) {
+                throw new JormException(ErrorCode.REFLECTION_ACCESS_FAILED,
+                        "字段句柄解析失败: " + field, e);
+            }
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        /**
+         * @return 列在 {@link EntityMetadata#getColumns()} 中的位置
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return 列名：{@link Column#name()}，未指定时为小写的字段名
+         */
+        public String getColumnName() {
+            return columnName;
+        }
+
+        public Class<?> getType() {
+            return field.getType();
+        }
+
+        public boolean isId() {
+            return id;
+        }
+
+        public boolean isAggregation() {
+            return aggregation;
+        }
+
+        public boolean isLazy() {
+            return lazy;
+        }
+
+        public boolean isVersion() {
+            return version;
+        }
+
+        /**
+         * 版本列的下一个值：当前值加 1，null 视为 0
+         * @param entity 实体
+         * @return 与字段类型一致的版本号
+         */
+        public Object nextVersion(Object entity) {
+            Object current = get(entity);
+            long next = current == null ? 1L : ((Number) current).longValue() + 1;
+            return getType() == int.class || getType() == Integer.class ? (Object) (int) next : (Object) next;
+        }
+
+        /**
+         * 读句柄：基本类型字段签名为 {@code (Object)prim}，其余为 {@code (Object)Object}
+         * @return 读句柄
+         */
+        public MethodHandle getter() {
+            return getter;
+        }
+
+        /**
+         * 写句柄：基本类型字段签名为 {@code (Object,prim)void}，其余为 {@code (Object,Object)void}
+         * @return 写句柄
+         */
+        public MethodHandle setter() {
+            return setter;
+        }
+
+        /**
+         * 读取字段值（基本类型会装箱）
+         * @param entity 实体
+         * @return 字段值
+         */
+        public Object get(Object entity) {
+            try {
+                return getter.invoke(entity);
+            } catch (Throwable e) {
+                throw new JormException(ErrorCode.REFLECTION_ACCESS_FAILED, "字段读取失败: " + field, e);
+            }
+        }
+
+        /**
+         * 写入字段值，基本类型字段写入 null 时忽略
+         * @param entity 实体
+         * @param value 字段值
+         */
+        public void set(Object entity, Object value) {
+            if (value == null && field.getType().isPrimitive()) return;
+            try {
+                setter.invoke(entity, value);
+            } catch (Throwable e) {
+                throw new JormException(ErrorCode.REFLECTION_ACCESS_FAILED, "字段写入失败: " + field, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package io.github.foreverstr.util;
+
+import io.github.foreverstr.annotation.Column;
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.util.EntityMetadata.ColumnMeta;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>投影查询的列计划：由投影类型的字段（或 record 组件）推导 SELECT 列，并按列下标把每行直接映射为投影对象。</p>
+ * <p>投影属性按以下顺序对应到实体列：属性上 {@link Column#name()} 指定的列名；与实体字段同名；与实体列名相同（忽略大小写）。
+ * 计划按 (实体, 投影) 缓存，映射时不做按名查找与反射。</p>
+ * <p>普通类需要无参构造器，record 通过规范构造器创建（仅在 Java 16+ 运行时识别）。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class ProjectionPlan {
+    private static final Map<Class<?>, Map<Class<?>, ProjectionPlan>> planCache = new ConcurrentHashMap<>();
+    // Java 16+ 才有 record 相关 API，按反射探测以兼容 Java 11
+    private static final Method IS_RECORD = findMethod(Class.class, "isRecord");
+    private static final Method GET_RECORD_COMPONENTS = findMethod(Class.class, "getRecordComponents");
+
+    private final Class<?> projection;
+    private final String selectClause;
+    private final Class<?>[] types;
+    private final TypeHandler[] handlers;
+    // 普通类：无参构造 + 字段写入；record：规范构造器
+    private final EntityMetadata metadata;
+    private final ColumnMeta[] targets;
+    private final MethodHandle recordConstructor;
+
+    private ProjectionPlan(Class<?> entityClass, Class<?> projection) {
+        this.projection = projection;
+        EntityMetadata entity = EntityMetadata.of(entityClass);
+        List<Class<?>> typeList = new ArrayList<>();
+        List<String> columns = new ArrayList<>();
+        Object[] components = recordComponents(projection);
+        if (components != null) {
+            for (Object component : components) {
+                String name = (String) invoke(component, "getName");
+                Class<?> type = (Class<?>) invoke(component, "getType");
+                Column column = null;
+                try {
+                    // record 组件上的注解会传递到同名私有字段
+                    column = projection.getDeclaredField(name).getAnnotation(Column.class);
+                } catch (NoSuchFieldException ignored) {
+                }
+                typeList.add(type);
+                columns.add(resolveColumn(entity, projection, name, column));
+            }
+            this.metadata = null;
+            this.targets = null;
+            this.recordConstructor = canonicalConstructor(projection, typeList);
+        } else {
+            this.metadata = EntityMetadata.of(projection);
+            List<ColumnMeta> props = metadata.getColumns();
+            this.targets = props.toArray(new ColumnMeta[0]);
+            for (ColumnMeta prop : props) {
+                Field field = prop.getField();
+                typeList.add(field.getType());
+                columns.add(resolveColumn(entity, projection, field.getName(), field.getAnnotation(Column.class)));
+            }
+            this.recordConstructor = null;
+        }
+        if (columns.isEmpty()) {
+            throw new JormException(ErrorCode.INVALID_SELECT_CLAUSE, "投影类型没有可映射的属性: " + projection.getName());
+        }
+        this.selectClause = String.join(", ", columns);
+        this.types = typeList.toArray(new Class<?>[0]);
+        this.handlers = new TypeHandler[types.length];
+        for (int i = 0; i < types.length; i++) {
+            handlers[i] = TypeHandler.forType(types[i]);
+        }
+    }
+
+    /**
+     * 获取 (实体, 投影) 对应的列计划（线程安全，按类缓存）
+     * @param entityClass 实体类，决定表名与可用列
+     * @param projection 投影类型
+     * @return 列计划
+     * @throws JormException 10013 投影属性无法对应到实体列
+     */
+    public static ProjectionPlan of(Class<?> entityClass, Class<?> projection) {
+        return planCache.computeIfAbsent(entityClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(projection, p -> new ProjectionPlan(entityClass, p));
+    }
+
+    /**
+     * @return 逗号分隔的 SELECT 列
+     */
+    public String getSelectClause() {
+        return selectClause;
+    }
+
+    /**
+     * 把结果集剩余的所有行映射为投影对象
+     * @param rs 结果集，列顺序与 {@link #getSelectClause()} 一致
+     * @param <P> 投影类型
+     * @return 投影对象列表
+     * @throws SQLException 读取失败
+     */
+    @SuppressWarnings("unchecked")
+    public <P> List<P> mapAll(ResultSet rs) throws SQLException {
+        List<P> list = new ArrayList<>();
+        Object[] values = recordConstructor != null ? new Object[types.length] : null;
+        while (rs.next()) {
+            if (values != null) {
+                for (int i = 0; i < types.length; i++) {
+                    values[i] = read(rs, i);
+                }
+                list.add((P) construct(values));
+            } else {
+                Object target = metadata.newInstance();
+                for (int i = 0; i < types.length; i++) {
+                    targets[i].set(target, read(rs, i));
+                }
+                list.add((P) target);
+            }
+        }
+        return list;
+    }
+
+    private Object read(ResultSet rs, int i) throws SQLException {
+        TypeHandler handler = handlers[i];
+        if (handler != null) {
+            return handler.handle(rs, i + 1, types[i]);
+        }
+        // 未内置处理器的基本类型按驱动默认类型读取
+        return types[i].isPrimitive() ? rs.getObject(i + 1) : rs.getObject(i + 1, types[i]);
+    }
+
+    private Object construct(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            // record 的基本类型组件不接受 null
+            if (values[i] == null && types[i].isPrimitive()) {
+                values[i] = primitiveDefault(types[i]);
+            }
+        }
+        try {
+            return (Object) recordConstructor.invokeExact(values);
+        } catch (Throwable e) {
+            throw new JormException(ErrorCode.REFLECTION_ACCESS_FAILED, "投影实例化失败: " + projection.getName(), e);
+        }
+    }
+
+    private static String resolveColumn(EntityMetadata entity, Class<?> projection, String property, Column column) {
+        if (column != null && !column.name().isEmpty()) {
+            ColumnMeta meta = entity.findColumn(column.name());
+            if (meta != null) {
+                return meta.getColumnName();
+            }
+        } else {
+            for (ColumnMeta meta : entity.getColumns()) {
+                if (meta.getField().getName().equals(property) && !meta.isAggregation()) {
+                    return meta.getColumnName();
+                }
+            }
+            ColumnMeta meta = entity.findColumn(property);
+            if (meta != null && !meta.isAggregation()) {
+                return meta.getColumnName();
+            }
+        }
+        throw new JormException(ErrorCode.INVALID_COLUMN, String.format("投影属性 %s.%s 无法对应到实体 %s 的列",
+                projection.getSimpleName(), property, entity.getEntityClass().getSimpleName()));
+    }
+
+    private static Object[] recordComponents(Class<?> type) {
+        if (IS_RECORD == null || GET_RECORD_COMPONENTS == null) {
+            return null;
+        }
+        try {
+            if (!(Boolean) IS_RECORD.invoke(type)) {
+                return null;
+            }
+            return (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle canonicalConstructor(Class<?> type, List<Class<?>> componentTypes) {
+        try {
+            Constructor<?> ctor = type.getDeclaredConstructor(componentTypes.toArray(new Class<?>[0]));
+            ctor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(ctor)
+                    .asSpreader(Object[].class, componentTypes.size())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new JormException(ErrorCode.REFLECTION_ACCESS_FAILED, "record 规范构造器不可访问: " + type.getName(), e);
+        }
+    }
+
+    private static Object invoke(Object target, String method) {
+        try {
+            return target.getClass().getMethod(method).invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new JormException(ErrorCode.REFLECTION_ACCESS_FAILED, "record 组件解析失败", e);
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Object primitiveDefault(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return 0;
+    }
+}
@@ -45,6 +45,7 @@ public class ResultSetMapper {
             columnNames.add(metaData.getColumnLabel(i).toLowerCase());
         }
         for (Field field : clazz.getDeclaredFields()) {
+            if (EntityHelper.isAssociation(field)) continue;
             field.setAccessible(true);
             Column column = field.getAnnotation(Column.class);
             String columnName = column == null ? field.getName()
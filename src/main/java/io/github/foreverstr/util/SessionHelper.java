@@ -1,6 +1,7 @@
 package io.github.foreverstr.util;
 
 import io.github.foreverstr.annotation.Aggregation;
+import io.github.foreverstr.annotation.Version;
 
 import java.lang.reflect.Field;
 import java.sql.PreparedStatement;
@@ -40,6 +41,11 @@ public class SessionHelper {
         for (Field field : filteredFields) {
             field.setAccessible(true);
             Object value = field.get(entity);
+            // 版本号未赋值时从 0 开始
+            if (value == null && field.isAnnotationPresent(Version.class)) {
+                value = field.getType() == Integer.class ? (Object) 0 : (Object) 0L;
+                field.set(entity, value);
+            }
             stmt.setObject(index, value);
             index++;
         }
@@ -12,30 +12,37 @@ import java.util.concurrent.ConcurrentHashMap;
 public enum TypeHandler {
     INTEGER(int.class, Integer.class) {
         @Override Object getValue(ResultSet rs, String col) throws SQLException { return rs.getInt(col); }
+        @Override Object getValue(ResultSet rs, int idx) throws SQLException { return rs.getInt(idx); }
         @Override Object getNullValue(Class<?> type) { return type.isPrimitive() ? 0 : null; }
     },
     LONG(long.class, Long.class) {
         @Override Object getValue(ResultSet rs, String col) throws SQLException { return rs.getLong(col); }
+        @Override Object getValue(ResultSet rs, int idx) throws SQLException { return rs.getLong(idx); }
         @Override Object getNullValue(Class<?> type) { return type.isPrimitive() ? 0L : null; }
     },
     BOOLEAN(boolean.class, Boolean.class) {
         @Override Object getValue(ResultSet rs, String col) throws SQLException { return rs.getBoolean(col); }
+        @Override Object getValue(ResultSet rs, int idx) throws SQLException { return rs.getBoolean(idx); }
         @Override Object getNullValue(Class<?> type) { return type.isPrimitive() ? false : null; }
     },
     SHORT(short.class, Short.class) {
         @Override Object getValue(ResultSet rs, String col) throws SQLException { return rs.getShort(col); }
+        @Override Object getValue(ResultSet rs, int idx) throws SQLException { return rs.getShort(idx); }
         @Override Object getNullValue(Class<?> type) { return type.isPrimitive() ? (short) 0 : null; }
     },
     STRING(String.class) {
         @Override Object getValue(ResultSet rs, String col) throws SQLException { return rs.getString(col); }
+        @Override Object getValue(ResultSet rs, int idx) throws SQLException { return rs.getString(idx); }
         @Override Object getNullValue(Class<?> type) { return null; }
     },
     DOUBLE(double.class, Double.class) {
         @Override Object getValue(ResultSet rs, String col) throws SQLException { return rs.getDouble(col); }
+        @Override Object getValue(ResultSet rs, int idx) throws SQLException { return rs.getDouble(idx); }
         @Override Object getNullValue(Class<?> type) { return type.isPrimitive() ? 0.0 : null; }
     },
     DATE(java.util.Date.class) {
         @Override Object getValue(ResultSet rs, String col) throws SQLException { return rs.getTimestamp(col); }
+        @Override Object getValue(ResultSet rs, int idx) throws SQLException { return rs.getTimestamp(idx); }
         @Override Object getNullValue(Class<?> type) { return null; }
     };
 
@@ -56,10 +63,32 @@ public enum TypeHandler {
     }
 
     abstract Object getValue(ResultSet rs, String col) throws SQLException;
+    abstract Object getValue(ResultSet rs, int idx) throws SQLException;
     abstract Object getNullValue(Class<?> type);
 
     public Object handle(ResultSet rs, String col, Class<?> type) throws SQLException {
         Object value = getValue(rs, col);
         return rs.wasNull() ? getNullValue(type) : value;
     }
+
+    /**
+     * 按列下标读取，省去按列名查找列的开销
+     * @param rs 结果集
+     * @param idx 列下标，从 1 开始
+     * @param type 目标类型
+     * @return 值，数据库为 NULL 时返回该类型的空值
+     * @throws SQLException 读取失败
+     */
+    public Object handle(ResultSet rs, int idx, Class<?> type) throws SQLException {
+        Object value = getValue(rs, idx);
+        return rs.wasNull() ? getNullValue(type) : value;
+    }
+
+    /**
+     * @param type 目标类型
+     * @return 数据库为 NULL 时写入该类型的值，基本类型为 0 或 false，其余为 null
+     */
+    public Object nullValue(Class<?> type) {
+        return getNullValue(type);
+    }
 }
@@ -0,0 +1,178 @@
+package io.github.foreverstr.util.primitive;
+
+import java.util.Arrays;
+
+/**
+ * <p>long 到 long 的开放寻址哈希表（线性探测），键值均以原始类型存储，不装箱。</p>
+ * <p>非线程安全。未包含的键读取为 0。</p>
+ * @author duyujie
+ * @version 1.0
+ */
+public final class LongLongMap {
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    public LongLongMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize 预计的键数量
+     */
+    public LongLongMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * @param key 键
+     * @return 对应的值，不存在时为 0
+     */
+    public long get(long key) {
+        int slot = find(key);
+        return slot < 0 ? 0L : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public void put(long key, long value) {
+        int slot = insertionSlot(key);
+        values[slot] = value;
+    }
+
+    /**
+     * 对键累加，不存在时视为 0
+     * @param key 键
+     * @param delta 增量
+     * @return 累加后的值
+     */
+    public long addTo(long key, long delta) {
+        int slot = insertionSlot(key);
+        return values[slot] += delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return 所有键（无序）
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) result[n++] = keys[i];
+        }
+        return result;
+    }
+
+    /**
+     * 遍历所有键值对（无序）
+     * @param visitor 访问函数
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) visitor.accept(keys[i], values[i]);
+        }
+    }
+
+    private int find(long key) {
+        for (int i = hash(key) & mask; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    private int insertionSlot(long key) {
+        int i = hash(key) & mask;
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(keys.length << 1);
+            return insertionSlot(key);
+        }
+        used[i] = true;
+        keys[i] = key;
+        size++;
+        return i;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) continue;
+            int j = hash(oldKeys[i]) & mask;
+            while (used[j]) j = (j + 1) & mask;
+            used[j] = true;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int capacity = 8;
+        while (capacity * 3 < Math.max(0, expectedSize) * 4) capacity <<= 1;
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(v));
+        return sb.append('}').toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongLongMap)) return false;
+        LongLongMap other = (LongLongMap) o;
+        if (other.size != size) return false;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i] && (!other.containsKey(keys[i]) || other.get(keys[i]) != values[i])) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) h += Long.hashCode(keys[i]) ^ Long.hashCode(values[i]);
+        }
+        return h;
+    }
+
+    /**
+     * 键值对访问函数
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(long key, long value);
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.foreverstr.util.primitive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>对象到 long 的开放寻址哈希表（线性探测），值以原始类型存储，不装箱。键不能为 null。</p>
+ * <p>非线程安全。未包含的键读取为 0。</p>
+ * @param <K> 键类型
+ * @author duyujie
+ * @version 1.0
+ */
+public final class ObjectLongMap<K> {
+    private Object[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+
+    public ObjectLongMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize 预计的键数量
+     */
+    public ObjectLongMap(int expectedSize) {
+        allocate(LongLongMap.tableSizeFor(expectedSize));
+    }
+
+    /**
+     * @param key 键
+     * @return 对应的值，不存在时为 0
+     */
+    public long get(K key) {
+        int slot = find(key);
+        return slot < 0 ? 0L : values[slot];
+    }
+
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    public void put(K key, long value) {
+        values[insertionSlot(key)] = value;
+    }
+
+    /**
+     * 对键累加，不存在时视为 0
+     * @param key 键
+     * @param delta 增量
+     * @return 累加后的值
+     */
+    public long addTo(K key, long delta) {
+        return values[insertionSlot(key)] += delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return 所有键（无序）
+     */
+    @SuppressWarnings("unchecked")
+    public List<K> keys() {
+        List<K> result = new ArrayList<>(size);
+        for (Object key : keys) {
+            if (key != null) result.add((K) key);
+        }
+        return result;
+    }
+
+    /**
+     * 遍历所有键值对（无序）
+     * @param visitor 访问函数
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<? super K> visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) visitor.accept((K) keys[i], values[i]);
+        }
+    }
+
+    private int find(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        for (int i = hash(key) & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) return i;
+        }
+        return -1;
+    }
+
+    private int insertionSlot(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("键不能为null");
+        }
+        int i = hash(key) & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) return i;
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(keys.length << 1);
+            return insertionSlot(key);
+        }
+        keys[i] = key;
+        size++;
+        return i;
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+            int j = hash(oldKeys[i]) & mask;
+            while (keys[j] != null) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> sb.append(sb.length() > 1 ? ", " : "").append(k).append('=').append(v));
+        return sb.append('}').toString();
+    }
+
+    /**
+     * 键值对访问函数
+     * @param <K> 键类型
+     */
+    @FunctionalInterface
+    public interface Visitor<K> {
+        void accept(K key, long value);
+    }
+}
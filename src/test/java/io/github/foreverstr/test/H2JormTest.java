@@ -1,15 +1,56 @@
 package io.github.foreverstr.test;
 
+import io.github.foreverstr.annotation.Enum.GenerationType;
+import io.github.foreverstr.annotation.GeneratedValue;
+import io.github.foreverstr.annotation.Id;
+import io.github.foreverstr.annotation.Lazy;
+import io.github.foreverstr.annotation.Table;
+import io.github.foreverstr.annotation.Version;
 import io.github.foreverstr.cache.CacheManager;
+import io.github.foreverstr.cache.CachePolicy;
+import io.github.foreverstr.cache.CacheRegionStats;
+import io.github.foreverstr.cache.EncodedSecondLevelCache;
+import io.github.foreverstr.cache.codec.BinaryRowCodec;
+import io.github.foreverstr.cache.impl.OffHeapSecondLevelCache;
+import io.github.foreverstr.columnar.ColumnBatch;
+import io.github.foreverstr.columnar.StringColumn;
+import io.github.foreverstr.diagnostics.QueryPlanGuard;
+import io.github.foreverstr.diagnostics.SlowQueryLog;
+import io.github.foreverstr.diagnostics.SqlFingerprint;
+import io.github.foreverstr.diagnostics.SqlTraceRing;
+import io.github.foreverstr.entity.Order;
 import io.github.foreverstr.entity.User;
+import io.github.foreverstr.dto.QueryParam;
+import io.github.foreverstr.dialect.Dialect;
+import io.github.foreverstr.dialect.Dialects;
+import io.github.foreverstr.dialect.GenericDialect;
+import io.github.foreverstr.dialect.H2Dialect;
+import io.github.foreverstr.dialect.MySqlDialect;
+import io.github.foreverstr.dialect.PostgreSqlDialect;
+import io.github.foreverstr.exception.ErrorCode;
+import io.github.foreverstr.exception.JormException;
+import io.github.foreverstr.exception.OptimisticLockException;
+import io.github.foreverstr.id.SnowflakeIdGenerator;
+import io.github.foreverstr.instrument.HistogramListener;
+import io.github.foreverstr.instrument.JormListener;
+import io.github.foreverstr.instrument.LatencyHistogram;
+import io.github.foreverstr.instrument.Operation;
+import io.github.foreverstr.instrument.Phase;
+import io.github.foreverstr.session.CompiledQuery;
 import io.github.foreverstr.session.DeleteSession;
 import io.github.foreverstr.session.FindSession;
+import io.github.foreverstr.session.GroupCommitExecutor;
 import io.github.foreverstr.session.SaveSession;
 import io.github.foreverstr.session.UpdateSession;
+import io.github.foreverstr.session.WriteBehindBuffer;
 import io.github.foreverstr.session.base.JormSession;
 import io.github.foreverstr.session.factory.Jorm;
+import io.github.foreverstr.sqlBuilder.InClause;
+import io.github.foreverstr.transaction.CurrentTransactionConnection;
 import io.github.foreverstr.transaction.TransactionManager;
 import io.github.foreverstr.transaction.TransactionTemplate;
+import io.github.foreverstr.util.EntityMetadata;
+import io.github.foreverstr.util.primitive.LongLongMap;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,10 +61,21 @@ import org.springframework.core.io.ClassPathResource;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,6 +113,8 @@ public class H2JormTest {
     @AfterEach
     void tearDown() {
         CacheManager.setCacheEnabled(false);
+        CacheManager.removeCachePolicy(User.class);
+        Jorm.clearListeners();
     }
 
     // 测试自动事务
@@ -366,6 +420,1387 @@ public class H2JormTest {
         }
     }
 
+    // 测试二进制缓存编解码
+    @Test
+    void testBinaryRowCodecRoundTrip() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            User user = new User("编码用户" + (i % 7), 20 + i, i % 2 == 0 ? "active" : null);
+            user.setId((long) i);
+            user.setTotalAge(-i);
+            users.add(user);
+        }
+        BinaryRowCodec codec = new BinaryRowCodec();
+        byte[] payload = codec.encode(User.class, users);
+        List<User> decoded = codec.decode(User.class, payload);
+
+        assertEquals(users.size(), decoded.size());
+        for (int i = 0; i < users.size(); i++) {
+            User expected = users.get(i);
+            User actual = decoded.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getAge(), actual.getAge());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertNull(actual.getDepartment());
+            assertEquals(expected.getTotalAge(), actual.getTotalAge());
+        }
+        // 字典 + 压缩后应明显小于逐行写字符串
+        assertTrue(payload.length < users.size() * 16, "payload=" + payload.length);
+        assertTrue(codec.decode(User.class, codec.encode(User.class, new ArrayList<>())).isEmpty());
+    }
+
+    // 测试以字节形式存储的二级缓存
+    @Test
+    void testEncodedSecondLevelCache() throws SQLException {
+        MapEncodedCache cache = new MapEncodedCache();
+        CacheManager.setSecondLevelCache(cache);
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            try (SaveSession session = Jorm.saveSession(connection)) {
+                session.save(new User("缓存用户", 33, "active"));
+            }
+            List<User> first;
+            try (FindSession session = Jorm.findSession(connection)) {
+                first = session.Where("status", "active").Find(User.class);
+            }
+            assertEquals(1, cache.store.size());
+
+            List<User> second;
+            try (FindSession session = Jorm.findSession(connection)) {
+                second = session.Where("status", "active").Find(User.class);
+            }
+            assertNotSame(first.get(0), second.get(0)); // 每次命中都解码出新实例
+            assertEquals("缓存用户", second.get(0).getName());
+            assertEquals(33, second.get(0).getAge());
+
+            // 不支持按条目过期的缓存不缓存空结果
+            CacheManager.registerCachePolicy(User.class, new CachePolicy(true, 60_000, true, 60_000));
+            try (FindSession session = Jorm.findSession(connection)) {
+                assertTrue(session.Where("status", "不存在").Find(User.class).isEmpty());
+            }
+            assertEquals(1, cache.store.size());
+        }
+    }
+
+    // 测试堆外缓存的读写、区域清理和容量淘汰
+    @Test
+    void testOffHeapSecondLevelCache() {
+        CacheManager.getStatistics().reset();
+        OffHeapSecondLevelCache cache = new OffHeapSecondLevelCache(8 * 1024, 2, new BinaryRowCodec(0));
+        String region = User.class.getName();
+        for (int i = 0; i < 500; i++) {
+            User user = new User("堆外用户" + i, i, "active");
+            user.setId((long) i);
+            cache.put(region, "key" + i, Arrays.asList(user));
+        }
+        assertTrue(cache.evictionCount() > 0);
+        assertTrue(cache.usedBytes() <= cache.capacity());
+        assertNull(cache.get(region, "key0")); // 最早写入的条目已被淘汰
+        // 未安装到 CacheManager 的实例不写入全局统计
+        assertEquals(0, CacheManager.getStatistics().snapshot(region).getEvictions());
+        assertEquals(0, CacheManager.getStatistics().snapshot(region).getTotalEntryBytes());
+
+        List<User> latest = (List<User>) cache.get(region, "key499");
+        assertEquals("堆外用户499", latest.get(0).getName());
+        assertEquals(499L, latest.get(0).getId());
+
+        cache.remove(region, "key499");
+        assertNull(cache.get(region, "key499"));
+        assertNotNull(cache.get(region, "key498"));
+        cache.clearRegion(region);
+        assertNull(cache.get(region, "key498"));
+
+        cache.put(region, "again", Arrays.asList(new User("重新写入", 1, "active")));
+        assertEquals(1, ((List<User>) cache.get(region, "again")).size());
+        cache.clearAll();
+        assertEquals(0, cache.size());
+    }
+
+    // 测试空结果的负缓存及其过期
+    @Test
+    void testNegativeResultCaching() throws Exception {
+        CacheManager.setSecondLevelCache(new OffHeapSecondLevelCache(64 * 1024));
+        CacheManager.registerCachePolicy(User.class, new CachePolicy(true, 60_000, true, 200));
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            try (FindSession session = Jorm.findSession(connection)) {
+                assertTrue(session.Where("user_name", "负缓存用户").Find(User.class).isEmpty());
+            }
+            // 绕过 Jorm 直接写入，缓存不会被清理
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("INSERT INTO users (user_name, age, status) VALUES ('负缓存用户', 1, 'active')");
+            }
+            try (FindSession session = Jorm.findSession(connection)) {
+                assertTrue(session.Where("user_name", "负缓存用户").Find(User.class).isEmpty(), "空结果应命中负缓存");
+            }
+            Thread.sleep(300);
+            try (FindSession session = Jorm.findSession(connection)) {
+                assertEquals(1, session.Where("user_name", "负缓存用户").Find(User.class).size(), "负缓存应已过期");
+            }
+            // 批量插入后清除缓存区域，已缓存的空结果不会遮住新插入的行
+            try (FindSession session = Jorm.findSession(connection)) {
+                assertTrue(session.Where("user_name", "批量负缓存").Find(User.class).isEmpty());
+            }
+            try (SaveSession session = Jorm.saveSession(connection)) {
+                session.batchSave(Arrays.asList(new User("批量负缓存", 1, "active"), new User("批量负缓存", 2, "active")));
+            }
+            try (FindSession session = Jorm.findSession(connection)) {
+                assertEquals(2, session.Where("user_name", "批量负缓存").Find(User.class).size());
+            }
+        }
+    }
+
+    // 测试按区域的缓存统计
+    @Test
+    void testCacheStatistics() throws SQLException {
+        CacheManager.getStatistics().reset();
+        CacheManager.setSecondLevelCache(new OffHeapSecondLevelCache(64 * 1024));
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            try (SaveSession session = Jorm.saveSession(connection)) {
+                session.save(new User("统计用户", 40, "active"));
+            }
+            for (int i = 0; i < 3; i++) {
+                try (FindSession session = Jorm.findSession(connection)) {
+                    assertEquals(1, session.Where("status", "active").Find(User.class).size());
+                }
+            }
+            try (UpdateSession session = Jorm.updateSession(connection)) {
+                session.Model(User.class).Where("status", "active").Set("age", 41).Update();
+            }
+        }
+        CacheRegionStats stats = CacheManager.getStatistics().snapshot(User.class.getName());
+        assertEquals(2, stats.getHits());
+        assertTrue(stats.getMisses() >= 1);
+        assertEquals(1, stats.getPuts());
+        assertEquals(1, stats.getLoads());
+        assertTrue(stats.getInvalidations() >= 1);
+        assertEquals(1.0, stats.getAverageEntryRows());
+        assertTrue(stats.getAverageEntryBytes() > 0);
+        assertTrue(CacheManager.getStatistics().snapshot().containsKey(User.class.getName()));
+    }
+
+    // 测试分阶段耗时观测
+    @Test
+    void testPhaseInstrumentation() {
+        HistogramListener histograms = new HistogramListener();
+        Jorm.addListener(histograms);
+        transactionTemplate.execute(() -> {
+            try (SaveSession session = new SaveSession()) {
+                session.save(new User("观测用户", 33, "active"));
+            }
+            return null;
+        });
+        try (FindSession session = Jorm.findSession()) {
+            assertEquals(1, session.Where("status", "active").Find(User.class).size());
+        }
+        try (DeleteSession session = Jorm.deleteSession()) {
+            session.Where("status", "active").Delete(User.class);
+        }
+
+        assertEquals(1, histograms.histogram(User.class, Operation.SAVE, Phase.EXECUTE).snapshot().getCount());
+        for (Phase phase : new Phase[]{Phase.BUILD_SQL, Phase.PREPARE, Phase.EXECUTE, Phase.MAP_ROWS, Phase.TOTAL}) {
+            assertEquals(1, histograms.histogram(User.class, Operation.FIND, phase).snapshot().getCount(), phase.name());
+        }
+        assertEquals(1, histograms.histogram(null, Operation.FIND, Phase.ACQUIRE_CONNECTION).snapshot().getCount());
+        assertEquals(1, histograms.histogram(null, Operation.TRANSACTION, Phase.COMMIT).snapshot().getCount());
+        Map<String, LatencyHistogram.Snapshot> snapshot = histograms.snapshot();
+        assertTrue(snapshot.containsKey("User.DELETE.TOTAL"));
+        assertTrue(snapshot.containsKey("-.TRANSACTION.TOTAL"));
+        assertTrue(snapshot.get("User.FIND.TOTAL").getPercentileNanos(99) > 0);
+
+        // 移除监听器后不再记录
+        Jorm.removeListener(histograms);
+        try (FindSession session = Jorm.findSession()) {
+            session.Find(User.class);
+        }
+        assertEquals(1, histograms.histogram(User.class, Operation.FIND, Phase.TOTAL).snapshot().getCount());
+    }
+
+    // 测试慢查询指纹聚合
+    @Test
+    void testSlowQueryLog() {
+        assertEquals("DELETE FROM users WHERE id IN (?+)",
+                SqlFingerprint.of("DELETE FROM users WHERE id IN (?,?,?)"));
+        assertEquals("INSERT INTO users (user_name, age) VALUES (?+)",
+                SqlFingerprint.of("INSERT INTO users (user_name, age) VALUES (?, ?), (?, ?)"));
+        assertEquals("SELECT * FROM users WHERE status = ? LIMIT ?",
+                SqlFingerprint.of("SELECT  * FROM users WHERE status = 'x' LIMIT 10"));
+        // 不同 LIMIT 数值的原始 SQL 超过缓存容量后仍归入同一编号，缓存换代不影响结果
+        int limitId = SqlFingerprint.idOf("SELECT * FROM users LIMIT 1");
+        for (int i = 2; i <= 10_000; i++) {
+            assertEquals(limitId, SqlFingerprint.idOf("SELECT * FROM users LIMIT " + i));
+        }
+        assertEquals(limitId, SqlFingerprint.idOf("SELECT * FROM users LIMIT 1"));
+        assertEquals("SELECT * FROM users LIMIT ?", SqlFingerprint.byId(limitId));
+
+        SlowQueryLog slowLog = new SlowQueryLog(0, TimeUnit.MILLISECONDS);
+        slowLog.setParameterSampleRate(1);
+        Jorm.addListener(slowLog);
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(Arrays.asList(new User("慢1", 20, "active"), new User("慢2", 21, "active")));
+        }
+        for (int limit = 1; limit <= 3; limit++) {
+            try (FindSession session = Jorm.findSession()) {
+                session.Where("status", "active").Limit(limit).Find(User.class);
+            }
+        }
+        List<SlowQueryLog.QueryStats> top = slowLog.top(10);
+        SlowQueryLog.QueryStats find = top.stream()
+                .filter(q -> q.getFingerprint().startsWith("SELECT")).findFirst().orElseThrow(AssertionError::new);
+        assertEquals("SELECT * FROM users WHERE status = ? LIMIT ?", find.getFingerprint());
+        assertEquals(3, find.getCount());
+        assertEquals(2, top.size());
+        assertEquals(1, slowLog.top(1).size());
+        assertTrue(slowLog.report(5).contains("INSERT INTO users"));
+    }
+
+    // 测试投影查询
+    @Test
+    void testProjectionQuery() {
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(Arrays.asList(new User("投影1", 25, "active"), new User("投影2", 35, "inactive")));
+        }
+        try (FindSession session = Jorm.findSession()) {
+            List<UserSummary> summaries = session.Where("status", "active").Find(User.class, UserSummary.class);
+            assertEquals(1, summaries.size());
+            assertNotNull(summaries.get(0).id);
+            assertEquals("投影1", summaries.get(0).name);
+            assertEquals(25, summaries.get(0).age);
+
+            // 会话状态已重置，可继续查询
+            assertEquals(2, session.Order("age").Find(User.class, UserSummary.class).size());
+        }
+        try (FindSession session = Jorm.findSession()) {
+            JormException e = assertThrows(JormException.class, () -> session.Find(User.class, BadSummary.class));
+            assertEquals(ErrorCode.INVALID_COLUMN, e.getErrorCode());
+        }
+    }
+
+    @Test
+    void testScalarQueries() {
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(Arrays.asList(new User("标量1", 20, "active"), new User("标量2", 30, "active"),
+                    new User("标量3", 30, "inactive")));
+        }
+        try (FindSession session = Jorm.findSession()) {
+            assertEquals(3, session.Count(User.class));
+            assertEquals(2, session.Where("status", "active").Count(User.class));
+            assertTrue(session.Where("age", ">", 25).Exists(User.class));
+            assertFalse(session.Where("age", ">", 99).Exists(User.class));
+            assertEquals(80, session.Sum(User.class, "age"));
+            assertEquals(20, session.Min(User.class, "age").getAsLong());
+            assertFalse(session.Where("age", ">", 99).Max(User.class, "age").isPresent());
+
+            assertArrayEquals(new int[]{20, 30, 30}, session.Order("age").PluckInt(User.class, "age"));
+            assertEquals(2, session.Where("status", "active").PluckLong(User.class, "id").length);
+            assertEquals(Arrays.asList("标量1", "标量2"), session.Where("status", "active").Order("age")
+                    .PluckString(User.class, "user_name"));
+
+            LongLongMap byAge = session.GroupCount(User.class, "age");
+            assertEquals(2, byAge.size());
+            assertEquals(2, byAge.get(30));
+            assertEquals(1, session.GroupCountByString(User.class, "status").get("inactive"));
+
+            JormException e = assertThrows(JormException.class, () -> session.PluckInt(User.class, "nickname"));
+            assertEquals(ErrorCode.INVALID_COLUMN, e.getErrorCode());
+        }
+    }
+
+    @Test
+    void testColumnarQuery() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < ColumnBatch.CHUNK_SIZE + 100; i++) {
+            users.add(new User("列式" + i, i % 50, i % 3 == 0 ? "inactive" : "active"));
+        }
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(users);
+        }
+        try (FindSession session = Jorm.findSession()) {
+            ColumnBatch batch = session.Order("id").FindColumnar(User.class);
+            assertEquals(users.size(), batch.getRowCount());
+            int[] ages = batch.getIntColumn("age").values();
+            assertEquals(users.size(), ages.length);
+            assertEquals(49, ages[49]);
+
+            StringColumn status = batch.getStringColumn("status");
+            assertEquals(2, status.getDictionary().size());
+            assertEquals("inactive", status.getString(0));
+            // 未设置的部门全部为 NULL
+            assertEquals(users.size(), batch.getColumn("department").getNullCount());
+            assertTrue(batch.getColumn("department").isNull(users.size() - 1));
+
+            ColumnBatch selected = session.Select("id, user_name").Where("age", 1).FindColumnar(User.class);
+            assertEquals(2, selected.getColumns().size());
+            assertEquals("列式1", selected.getStringColumn("user_name").getString(0));
+        }
+    }
+
+    @Test
+    void testInQueryBucketing() throws SQLException {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            users.add(new User("IN" + i, 20 + i, "active"));
+        }
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(users);
+        }
+        List<Long> ids = new ArrayList<>();
+        try (FindSession session = Jorm.findSession()) {
+            for (long id : session.Order("id").PluckLong(User.class, "id")) {
+                ids.add(id);
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        Jorm.addListener(new JormListener() {
+            @Override
+            public void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                                    long elapsedNanos, boolean success) {
+                statements.add(sql);
+            }
+        });
+        CacheManager.setCacheEnabled(false);
+        InClause.setMaxChunkSize(4);
+        try {
+            try (FindSession session = Jorm.findSession()) {
+                // 3 个值补齐为 4 个占位符
+                assertEquals(3, session.Where("id", "IN", ids.subList(0, 3)).Find(User.class).size());
+                assertTrue(statements.get(0).endsWith("id IN (?, ?, ?, ?)"));
+                // 10 个值拆成 4 + 4 + 2 三条语句，只有两种 SQL
+                statements.clear();
+                assertEquals(10, session.Where("id", "IN", ids).Count(User.class));
+                assertEquals(3, statements.size());
+                assertEquals(2, new java.util.HashSet<>(statements).size());
+                // 重复值去重后再分块，落在不同块中的重复值不会重复返回或计数
+                List<Long> duplicated = new ArrayList<>(ids.subList(0, 4));
+                duplicated.addAll(ids.subList(0, 2));
+                assertEquals(4, session.Where("id", "IN", duplicated).Find(User.class).size());
+                assertEquals(4, session.Where("id", "IN", duplicated).Count(User.class));
+                assertEquals(0, session.Where("id", "IN", Collections.emptyList()).Find(User.class).size());
+                JormException e = assertThrows(JormException.class,
+                        () -> session.Where("id", "IN", ids).Order("age").Find(User.class));
+                assertEquals(ErrorCode.UNSUPPORTED_QUERY, e.getErrorCode());
+                e = assertThrows(JormException.class, () -> session.Where("id", "IN", 1));
+                assertEquals(ErrorCode.INVALID_OPERATOR, e.getErrorCode());
+            }
+            try (UpdateSession session = Jorm.updateSession()) {
+                session.Model(User.class).Where("id", "IN", ids.subList(0, 5)).Set("status", "inactive").Update();
+            }
+            List<User> loaded;
+            try (FindSession session = Jorm.findSession()) {
+                loaded = session.Where("id", "IN", ids.subList(5, 7)).Find(User.class);
+            }
+            try (DeleteSession session = Jorm.deleteSession()) {
+                session.Where("status", "=", "inactive").Delete(User.class);
+                session.Delete(loaded);
+            }
+            try (FindSession session = Jorm.findSession()) {
+                assertArrayEquals(new long[]{ids.get(7), ids.get(8), ids.get(9)},
+                        session.Where("id", "IN", ids).PluckLong(User.class, "id"));
+            }
+            // 不在事务中时按块执行的更新、删除是一个整体：第二块失败，第一块的修改也回滚
+            List<Object> broken = new ArrayList<>(ids.subList(7, 10));
+            broken.addAll(Arrays.asList(ids.get(0), ids.get(1), "不是数字"));
+            assertThrows(JormException.class, () -> {
+                try (UpdateSession session = Jorm.updateSession()) {
+                    session.Model(User.class).Where("id", "IN", broken).Set("status", "partial").Update();
+                }
+            });
+            assertThrows(JormException.class, () -> {
+                try (DeleteSession session = Jorm.deleteSession()) {
+                    session.Where("id", "IN", broken).Delete(User.class);
+                }
+            });
+            try (FindSession session = Jorm.findSession()) {
+                assertEquals(3, session.Where("id", "IN", ids).Count(User.class));
+                assertEquals(0, session.Where("status", "partial").Count(User.class));
+            }
+            // 外部连接：调用方之后自行关闭自动提交开启事务，按块更新既不提交也不改变调用方的事务
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+                try (UpdateSession session = Jorm.updateSession(connection)) {
+                    session.Model(User.class).Where("id", "IN", ids).Set("status", "external").Update();
+                }
+                connection.setAutoCommit(false);
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("UPDATE users SET age = 99 WHERE id = " + ids.get(7));
+                }
+                try (UpdateSession session = Jorm.updateSession(connection)) {
+                    session.Model(User.class).Where("id", "IN", ids).Set("status", "caller").Update();
+                }
+                assertFalse(connection.getAutoCommit());
+                connection.rollback();
+            }
+            try (FindSession session = Jorm.findSession()) {
+                assertEquals(3, session.Where("status", "external").Count(User.class));
+                assertEquals(0, session.Where("age", 99).Count(User.class));
+            }
+        } finally {
+            InClause.setMaxChunkSize(512);
+        }
+    }
+
+    @Test
+    void testPreloadAssociations() {
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(Arrays.asList(new User("买家1", 20, "active"), new User("买家2", 30, "active"),
+                    new User("买家3", 40, "active")));
+        }
+        long[] ids;
+        try (FindSession session = Jorm.findSession()) {
+            ids = session.Order("id").PluckLong(User.class, "id");
+        }
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(Arrays.asList(new Order(ids[0], "键盘", 1), new Order(ids[0], "鼠标", 2),
+                    new Order(ids[1], "显示器", 1)));
+        }
+        List<String> statements = new ArrayList<>();
+        Jorm.addListener(new JormListener() {
+            @Override
+            public void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                                    long elapsedNanos, boolean success) {
+                statements.add(sql);
+            }
+        });
+        try (FindSession session = Jorm.findSession()) {
+            List<User> users = session.Preload("orders").Order("id").Find(User.class);
+            // 主查询 + 每个关联一次 IN 查询
+            assertEquals(2, statements.size());
+            assertEquals(2, users.get(0).getOrders().size());
+            assertEquals(1, users.get(1).getOrders().size());
+            assertTrue(users.get(2).getOrders().isEmpty());
+
+            List<Order> orders = session.Preload("user").Find(Order.class);
+            assertEquals(3, orders.size());
+            orders.forEach(o -> assertEquals(o.getUserId(), o.getUser().getId()));
+            // 同一买家的订单共享同一个实体
+            assertSame(orders.get(0).getUser(), orders.get(1).getUser());
+
+            JormException e = assertThrows(JormException.class, () -> session.Preload("friends").Find(User.class));
+            assertEquals(ErrorCode.INVALID_ASSOCIATION, e.getErrorCode());
+        }
+    }
+
+    @Test
+    void testLazyColumns() {
+        List<UserProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UserProfile profile = new UserProfile();
+            profile.nickname = "昵称" + i;
+            profile.bio = "很长的简介" + i;
+            profiles.add(profile);
+        }
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(profiles);
+        }
+        List<String> statements = new ArrayList<>();
+        Jorm.addListener(new JormListener() {
+            @Override
+            public void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                                    long elapsedNanos, boolean success) {
+                statements.add(sql);
+            }
+        });
+        try (FindSession session = Jorm.findSession()) {
+            List<UserProfile> loaded = session.Find(UserProfile.class);
+            assertEquals("SELECT id, nickname FROM user_profiles", statements.get(0));
+            assertEquals(3, loaded.size());
+            assertNull(loaded.get(0).bio);
+
+            JormException e = assertThrows(JormException.class, () -> session.LoadLazy(loaded));
+            assertEquals(ErrorCode.INVALID_COLUMN, e.getErrorCode());
+            session.LoadLazy(loaded, "bio");
+            assertEquals(2, statements.size());
+            loaded.forEach(p -> assertEquals("很长的简介" + p.nickname.substring(2), p.bio));
+        }
+        // 未指定列名的驼峰字段与 FindBuilder 的列名白名单一样取小写
+        assertEquals("id, displayname", EntityMetadata.of(LazyNote.class).getDefaultSelect());
+    }
+
+    @Table(name = "lazy_notes")
+    public static class LazyNote {
+        @Id
+        private Long id;
+        private String displayName;
+        @Lazy
+        private String content;
+    }
+
+    // 测试工作单元：只更新变化的列，按变化列分组批量执行，提交前自动刷新
+    @Test
+    void testUnitOfWork() {
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(Arrays.asList(new User("甲", 20, "active"), new User("乙", 21, "active"),
+                    new User("丙", 22, "active"), new User("丁", 23, "active")));
+        }
+        List<String> statements = new ArrayList<>();
+        Jorm.addListener(new JormListener() {
+            @Override
+            public void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                                    long elapsedNanos, boolean success) {
+                if (operation == Operation.UPDATE) statements.add(sql);
+            }
+        });
+        transactionTemplate.execute(() -> {
+            try (JormSession session = new JormSession()) {
+                List<User> users = session.enableUnitOfWork().findSession().Order("id").Find(User.class);
+                users.get(0).setAge(30);
+                users.get(1).setAge(31);
+                users.get(2).setStatus("inactive");
+                assertEquals(3, session.getUnitOfWork().dirtyCount());
+            }
+            return null;
+        });
+        // 两组变化列，各一条批量语句
+        assertEquals(Arrays.asList("UPDATE users SET age=? WHERE id = ?", "UPDATE users SET status=? WHERE id = ?"),
+                statements);
+        try (FindSession session = Jorm.findSession()) {
+            List<User> users = session.Order("id").Find(User.class);
+            assertEquals(30, users.get(0).getAge());
+            assertEquals(31, users.get(1).getAge());
+            assertEquals("inactive", users.get(2).getStatus());
+            assertEquals(23, users.get(3).getAge());
+        }
+        // 手动刷新：没有变化时不执行语句
+        try (JormSession session = new JormSession()) {
+            List<User> users = session.enableUnitOfWork().findSession().Find(User.class);
+            assertEquals(0, session.flush());
+            users.get(3).setAge(40);
+            assertEquals(1, session.flush());
+            assertEquals(0, session.flush());
+        }
+        assertEquals(3, statements.size());
+    }
+
+    // 测试后写缓冲：按批合并为多行插入，满时拒绝，关闭时写完积压
+    @Test
+    void testWriteBehindBuffer() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        Jorm.addListener(new JormListener() {
+            @Override
+            public void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                                    long elapsedNanos, boolean success) {
+                if (operation == Operation.BATCH_SAVE) batchSizes.add(params.size());
+            }
+        });
+        try (WriteBehindBuffer buffer = new WriteBehindBuffer(100, 10, 1, TimeUnit.HOURS)) {
+            for (int i = 0; i < 25; i++) {
+                buffer.submit(new User("事件" + i, i, "active"));
+            }
+            buffer.flush();
+            assertEquals(0, buffer.getQueueDepth());
+            assertEquals(25, buffer.getWrittenCount());
+            assertEquals(25, batchSizes.stream().mapToInt(Integer::intValue).sum());
+            assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+            assertEquals(batchSizes.size(), buffer.getFlushLatency().getCount());
+        }
+        try (WriteBehindBuffer buffer = new WriteBehindBuffer(2, 10, 1, TimeUnit.HOURS)) {
+            assertTrue(buffer.offer(new User("积压1", 1, "inactive")));
+            assertTrue(buffer.offer(new User("积压2", 2, "inactive")));
+            assertFalse(buffer.offer(new User("积压3", 3, "inactive")));
+            assertEquals(2, buffer.getQueueDepth());
+            buffer.close();
+            assertThrows(IllegalStateException.class, () -> buffer.offer(new User("关闭后", 4, "inactive")));
+        }
+        try (FindSession session = Jorm.findSession()) {
+            assertEquals(25, session.Where("status", "active").Count(User.class));
+            assertEquals(2, session.Where("status", "inactive").Count(User.class));
+        }
+    }
+
+    // 测试多个生产者并发放入并各自 flush：flush 返回时本线程放入的实体一定已写入
+    @Test
+    void testWriteBehindBufferConcurrentFlush() throws Exception {
+        int threads = 8;
+        int perThread = 20;
+        List<String> missing = new CopyOnWriteArrayList<>();
+        try (WriteBehindBuffer buffer = new WriteBehindBuffer(1000, 5, 1, TimeUnit.HOURS)) {
+            Thread[] producers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                producers[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        String name = "并发" + thread + "-" + i;
+                        buffer.submit(new User(name, i, "concurrent"));
+                        buffer.flush();
+                        try (FindSession session = new FindSession()) {
+                            if (session.Where("user_name", name).Count(User.class) != 1) {
+                                missing.add(name);
+                            }
+                        }
+                    }
+                });
+                producers[t].start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            assertEquals(threads * perThread, buffer.getWrittenCount());
+        }
+        assertTrue(missing.isEmpty(), "flush 返回后仍未写入: " + missing);
+    }
+
+    // 测试乐观锁：版本号作为条件并自增，条件更新与工作单元批量更新都能发现冲突
+    @Test
+    void testOptimisticLocking() throws SQLException {
+        Account account = new Account();
+        account.owner = "张三";
+        account.balance = 100;
+        try (SaveSession session = Jorm.saveSession()) {
+            session.save(account);
+        }
+        assertEquals(0L, account.version);
+        try (UpdateSession session = Jorm.updateSession()) {
+            session.Model(Account.class).Where("id", account.id).Version(0L).Set("balance", 90).Update();
+            OptimisticLockException e = assertThrows(OptimisticLockException.class, () ->
+                    session.Model(Account.class).Where("id", account.id).Version(0L).Set("balance", 80).Update());
+            assertEquals(ErrorCode.OPTIMISTIC_LOCK_CONFLICT, e.getErrorCode());
+            assertEquals(Collections.singletonList(account.id), e.getIds());
+        }
+
+        try (JormSession first = new JormSession(); JormSession second = new JormSession()) {
+            Account mine = first.enableUnitOfWork().findSession().Where("id", account.id).Find(Account.class).get(0);
+            Account theirs = second.enableUnitOfWork().findSession().Where("id", account.id).Find(Account.class).get(0);
+            assertEquals(1L, mine.version);
+            mine.balance = 70;
+            assertEquals(1, first.flush());
+            assertEquals(2L, mine.version);
+            theirs.balance = 60;
+            OptimisticLockException e = assertThrows(OptimisticLockException.class, second::flush);
+            assertEquals(Collections.singletonList(account.id), e.getIds());
+        }
+        try (FindSession session = Jorm.findSession()) {
+            Account stored = session.Where("id", account.id).Find(Account.class).get(0);
+            assertEquals(70, stored.balance);
+            assertEquals(2L, stored.version);
+        }
+
+        // 后面的语句组冲突时，先执行成功的组也不刷新快照和版本号，回滚后可以重新刷新
+        Account other = new Account();
+        other.owner = "李四";
+        other.balance = 100;
+        try (SaveSession session = Jorm.saveSession()) {
+            session.save(other);
+        }
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            connection.setAutoCommit(false);
+            try (JormSession session = new JormSession(connection)) {
+                List<Account> accounts = session.enableUnitOfWork().findSession()
+                        .Where("id", "IN", Arrays.asList(account.id, other.id)).Order("id").Find(Account.class);
+                Account renamed = accounts.get(0);
+                Account stale = accounts.get(1);
+                renamed.owner = "张三丰"; // owner 列的语句组先执行并成功
+                stale.balance = 50;       // balance 列的语句组随后冲突
+                try (UpdateSession update = Jorm.updateSession()) {
+                    update.Model(Account.class).Where("id", other.id).Version(stale.version).Set("balance", 10).Update();
+                }
+                assertThrows(OptimisticLockException.class, session::flush);
+                connection.rollback();
+                assertEquals(2L, renamed.version);
+                assertEquals(2, session.getUnitOfWork().dirtyCount());
+
+                session.getUnitOfWork().detach(stale);
+                assertEquals(1, session.flush());
+                connection.commit();
+                assertEquals(3L, renamed.version);
+            }
+        }
+        try (FindSession session = Jorm.findSession()) {
+            assertEquals("张三丰", session.Where("id", account.id).Find(Account.class).get(0).owner);
+        }
+
+        // 模拟批量执行只返回 SUCCESS_NO_INFO 的驱动：版本冲突仍然能被发现
+        try (Connection target = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            Connection connection = (Connection) java.lang.reflect.Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        try {
+                            Object result = method.invoke(target, args);
+                            if (!"prepareStatement".equals(method.getName())) {
+                                return result;
+                            }
+                            java.sql.PreparedStatement stmt = (java.sql.PreparedStatement) result;
+                            return java.lang.reflect.Proxy.newProxyInstance(getClass().getClassLoader(),
+                                    new Class<?>[]{java.sql.PreparedStatement.class}, (p, m, a) -> {
+                                        Object r = m.invoke(stmt, a);
+                                        if ("executeBatch".equals(m.getName())) {
+                                            int[] counts = (int[]) r;
+                                            Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                                        }
+                                        return r;
+                                    });
+                        } catch (java.lang.reflect.InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+            try (JormSession session = new JormSession(connection)) {
+                List<Account> accounts = session.enableUnitOfWork().findSession()
+                        .Where("id", "IN", Arrays.asList(account.id, other.id)).Order("id").Find(Account.class);
+                accounts.forEach(a -> a.balance = 1);
+                try (UpdateSession update = Jorm.updateSession()) {
+                    update.Model(Account.class).Where("id", other.id).Version(accounts.get(1).version).Set("balance", 5).Update();
+                }
+                OptimisticLockException e = assertThrows(OptimisticLockException.class, session::flush);
+                assertEquals(Collections.singletonList(other.id), e.getIds());
+            }
+        }
+    }
+
+    @Table(name = "accounts")
+    public static class Account {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+        private String owner;
+        private int balance;
+        @Version
+        private Long version;
+    }
+
+    // 测试客户端主键：序列号段、键值表号段与 Snowflake，插入不再回读生成的主键
+    @Test
+    void testClientSideIdGeneration() throws Exception {
+        List<SeqItem> items = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            SeqItem item = new SeqItem();
+            item.name = "条目" + i;
+            items.add(item);
+        }
+        List<Long> ids;
+        try (SaveSession session = Jorm.saveSession()) {
+            ids = session.batchSave(items);
+        }
+        // allocationSize = 10：三次取序列，号段 [10, 20)、[20, 30)、[30, 40)
+        for (int i = 0; i < 25; i++) {
+            assertEquals(10L + i, ids.get(i));
+            assertEquals(ids.get(i), items.get(i).id);
+        }
+
+        KeyedItem keyed = new KeyedItem();
+        keyed.name = "键值表";
+        try (SaveSession session = Jorm.saveSession()) {
+            session.save(keyed);
+        }
+        assertEquals(50L, keyed.id);
+        try (Connection conn = DriverManager.getConnection(jdbcUrl, "sa", "");
+             ResultSet rs = conn.createStatement().executeQuery(
+                     "SELECT next_hi FROM jorm_sequences WHERE name = 'keyed_items'")) {
+            assertTrue(rs.next());
+            assertEquals(1L, rs.getLong(1));
+        }
+
+        SnowflakeIdGenerator snowflake = new SnowflakeIdGenerator(7);
+        Set<Long> generated = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                long last = -1;
+                for (int i = 0; i < 5000; i++) {
+                    long id = snowflake.next();
+                    assertTrue(id > last);
+                    assertEquals(7L, (id >>> 12) & 1023);
+                    last = id;
+                    generated.add(id);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(20000, generated.size());
+    }
+
+    @Table(name = "seq_items")
+    public static class SeqItem {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, allocationSize = 10)
+        private Long id;
+        private String name;
+    }
+
+    @Table(name = "keyed_items")
+    public static class KeyedItem {
+        @Id
+        @GeneratedValue(strategy = GenerationType.TABLE)
+        private Long id;
+        private String name;
+    }
+
+    // 测试数据库方言：自动识别、插入或更新、分页与批量插入的不同写法
+    @Test
+    void testDialects() {
+        assertTrue(Jorm.getDialect() instanceof H2Dialect);
+        User user = new User("方言", 20, "active");
+        try (SaveSession session = Jorm.saveSession()) {
+            session.save(user);
+            user.setAge(21);
+            User created = new User("新建", 30, "active");
+            created.setId(1000L);
+            session.batchUpsert(Arrays.asList(user, created));   // MERGE INTO ... KEY (id)
+
+            // H2 的 MySQL 兼容模式可以直接验证 MySQL 方言的写法
+            Jorm.setDialect(new MySqlDialect());
+            created.setAge(31);
+            session.upsert(created);                               // ON DUPLICATE KEY UPDATE
+        }
+        try (FindSession session = Jorm.findSession()) {
+            assertEquals(21, session.Where("id", user.getId()).Find(User.class).get(0).getAge());
+            assertEquals(31, session.Where("id", 1000L).Find(User.class).get(0).getAge());
+        }
+
+        // 标准 SQL 方言：FETCH FIRST 分页，批量插入走 JDBC batch
+        Jorm.setDialect(new GenericDialect());
+        List<String> statements = new ArrayList<>();
+        Jorm.addListener(new JormListener() {
+            @Override
+            public void onStatement(Operation operation, Class<?> entityClass, String sql, List<?> params,
+                                    long elapsedNanos, boolean success) {
+                statements.add(sql);
+            }
+        });
+        try (SaveSession session = Jorm.saveSession()) {
+            List<Long> ids = session.batchSave(Arrays.asList(new User("批1", 1, "batch"), new User("批2", 2, "batch")));
+            assertEquals(2, ids.size());
+        }
+        try (FindSession session = Jorm.findSession()) {
+            assertEquals(1, session.Where("status", "batch").Limit(1).Find(User.class).size());
+        }
+        assertFalse(statements.get(0).contains("), ("));
+        assertTrue(statements.get(1).endsWith("FETCH FIRST 1 ROWS ONLY"));
+
+        // 拆成多条语句（JDBC batch 或按参数上限拆分）的批量插入、插入或更新整体生效，后面的语句失败时前面的也回滚
+        String tooLong = String.join("", Collections.nCopies(300, "长"));
+        assertThrows(JormException.class, () -> {
+            try (SaveSession session = Jorm.saveSession()) {
+                session.batchSave(Arrays.asList(new User("原子1", 1, "atomic"), new User(tooLong, 2, "atomic")));
+            }
+        });
+        Jorm.setDialect(new H2Dialect() {
+            @Override
+            public int getMaxParameters() {
+                return 5; // 每条语句一行
+            }
+        });
+        assertThrows(JormException.class, () -> {
+            try (SaveSession session = Jorm.saveSession()) {
+                session.batchSave(Arrays.asList(new User("原子2", 3, "atomic"), new User(tooLong, 4, "atomic")));
+            }
+        });
+        User first = new User("原子3", 5, "atomic");
+        first.setId(2000L);
+        User second = new User(tooLong, 6, "atomic");
+        second.setId(2001L);
+        assertThrows(JormException.class, () -> {
+            try (SaveSession session = Jorm.saveSession()) {
+                session.batchUpsert(Arrays.asList(first, second));
+            }
+        });
+        try (FindSession session = Jorm.findSession()) {
+            assertEquals(0, session.Where("status", "atomic").Count(User.class));
+        }
+
+        PostgreSqlDialect postgres = new PostgreSqlDialect();
+        assertEquals("INSERT INTO users (id, name) VALUES (?, ?), (?, ?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name",
+                postgres.upsert("users", Arrays.asList("id", "name"), "id", 2));
+        assertEquals("DELETE FROM users WHERE ctid IN (SELECT ctid FROM users WHERE age > ? LIMIT 10)",
+                postgres.deleteWithLimit("users", "age > ?", 10));
+        assertTrue(new MySqlDialect().isDuplicateKey(new SQLException("Duplicate entry", "23000", 1062)));
+        assertTrue(Dialects.forProductName("PostgreSQL") instanceof PostgreSqlDialect);
+        assertTrue(Dialects.forProductName("Oracle") instanceof GenericDialect);
+    }
+
+    // 测试未设置数据源时按外部传入连接识别方言，识别结果（含兜底方言）只确定一次
+    @Test
+    void testDialectWithoutDataSource() throws SQLException {
+        Jorm.setDataSource(null);
+        try (Connection conn = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            try (SaveSession session = Jorm.saveSession(conn)) {
+                session.save(new User("外部连接", 20, "external"));
+            }
+            try (FindSession session = Jorm.findSession(conn)) {
+                assertEquals(1, session.Where("status", "external").Limit(1).Find(User.class).size());
+            }
+            assertTrue(Jorm.getDialect() instanceof H2Dialect);
+        }
+
+        // 既没有数据源也没有连接时兜底为 MySQL 方言并缓存
+        Jorm.setDataSource(null);
+        Dialect fallback = Jorm.getDialect();
+        assertTrue(fallback instanceof MySqlDialect);
+        assertSame(fallback, Jorm.getDialect());
+    }
+
+    // 测试只读会话、只读事务与从库路由
+    @Test
+    void testReadOnlySessions() {
+        try (SaveSession session = new SaveSession()) {
+            session.save(new User("只读", 30, "ro"));
+        }
+        List<String> calls = new CopyOnWriteArrayList<>();
+        List<Boolean> routedReadOnly = new CopyOnWriteArrayList<>();
+        // 模拟从库：记录连接请求时的只读标记，以及驱动收到的状态设置调用
+        Jorm.setReadDataSource(new SimpleDataSource(jdbcUrl) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                routedReadOnly.add(CurrentTransactionConnection.isReadOnly());
+                Connection target = super.getConnection();
+                return (Connection) java.lang.reflect.Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                            if (method.getName().startsWith("set")) {
+                                calls.add(method.getName() + "(" + args[0] + ")");
+                            }
+                            try {
+                                return method.invoke(target, args);
+                            } catch (java.lang.reflect.InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        });
+        try {
+            try (FindSession session = Jorm.readOnlySession()) {
+                assertTrue(session.isReadOnly());
+                assertEquals(1, session.Where("status", "ro").Find(User.class).size());
+            }
+            assertEquals(Arrays.asList("setAutoCommit(true)", "setReadOnly(true)", "setReadOnly(false)"), calls);
+            assertEquals(Collections.singletonList(true), routedReadOnly);
+            assertFalse(CurrentTransactionConnection.isReadOnly());
+
+            calls.clear();
+            int count = new TransactionTemplate(true).execute(() -> {
+                assertTrue(CurrentTransactionConnection.isReadOnly());
+                // 事务内的只读会话沿用事务连接，不再设置连接状态
+                try (FindSession session = new FindSession(true)) {
+                    assertFalse(session.isReadOnly());
+                    session.Find(User.class);
+                }
+                try (FindSession session = new FindSession()) {
+                    return session.Where("status", "ro").Find(User.class).size();
+                }
+            });
+            assertEquals(1, count);
+            assertEquals(Arrays.asList("setReadOnly(true)", "setAutoCommit(false)", "setReadOnly(false)"), calls);
+            assertEquals(2, routedReadOnly.size());
+            assertFalse(CurrentTransactionConnection.isReadOnly());
+
+            // 读写会话仍使用主数据源
+            try (FindSession session = new FindSession()) {
+                assertFalse(session.isReadOnly());
+                session.Find(User.class);
+            }
+            assertEquals(2, routedReadOnly.size());
+        } finally {
+            Jorm.setReadDataSource(null);
+        }
+    }
+
+    // 测试线程内复用的查询会话
+    @Test
+    void testRecycledFindSession() throws Exception {
+        try (SaveSession session = new SaveSession()) {
+            session.batchSave(Arrays.asList(new User("复用1", 20, "recycled"), new User("复用2", 30, "recycled")));
+        }
+        FindSession first;
+        try (FindSession session = FindSession.recycled()) {
+            first = session;
+            // 条件用完即清空，未执行的条件也会在关闭时清空
+            assertEquals(2, session.Where("status", "recycled").Find(User.class).size());
+            session.Where("age", 20);
+            // 上一个复用会话未关闭时返回新的会话
+            try (FindSession nested = FindSession.recycled()) {
+                assertNotSame(first, nested);
+                assertEquals(1, nested.Where("age", 30).Find(User.class).size());
+            }
+        }
+        assertThrows(JormException.class, () -> first.Find(User.class));
+
+        try (FindSession session = FindSession.recycled()) {
+            assertSame(first, session);
+            assertEquals(2, session.Order("age DESC").Find(User.class).size());
+            session.createSavepoint("sp");
+        }
+        // 在其他线程中获得的是另一个实例
+        FindSession[] other = new FindSession[1];
+        Thread thread = new Thread(() -> {
+            try (FindSession session = FindSession.recycled()) {
+                other[0] = session;
+            }
+        });
+        thread.start();
+        thread.join();
+        assertNotSame(first, other[0]);
+        // 复用时保存点已清空，可以重新创建同名保存点
+        try (FindSession session = FindSession.recycled()) {
+            assertSame(first, session);
+            session.createSavepoint("sp");
+        }
+        // 事务中关闭后同样不能再使用，事务连接保持打开
+        transactionTemplate.execute(() -> {
+            try (FindSession session = FindSession.recycled()) {
+                assertSame(first, session);
+                assertEquals(2, session.Where("status", "recycled").Find(User.class).size());
+            }
+            assertThrows(JormException.class, () -> first.Find(User.class));
+            assertFalse(CurrentTransactionConnection.get().isClosed());
+            try (FindSession session = FindSession.recycled()) {
+                assertSame(first, session);
+                assertEquals(2, session.Where("status", "recycled").Find(User.class).size());
+            }
+            return null;
+        });
+    }
+
+    // 测试预编译查询：命名与位置参数、常量条件、多线程共享与事务内执行
+    @Test
+    void testCompiledQuery() throws Exception {
+        try (SaveSession session = new SaveSession()) {
+            session.batchSave(Arrays.asList(new User("编译1", 20, "compiled"), new User("编译2", 30, "compiled"),
+                    new User("编译3", 40, "compiled"), new User("其他", 50, "other")));
+        }
+        CompiledQuery<User> byStatus = Jorm.compile(User.class, q -> q
+                .Where("status", QueryParam.named("status"))
+                .Where("age", ">", QueryParam.named("minAge"))
+                .Where("user_name", "IN", Arrays.asList("编译1", "编译2", "编译3", "其他"))
+                .Order("age DESC")
+                .Limit(2));
+        assertEquals(2, byStatus.getParameterCount());
+        Map<String, Object> args = new java.util.HashMap<>();
+        args.put("status", "compiled");
+        args.put("minAge", 10);
+        List<User> users = byStatus.find(args);
+        assertEquals(Arrays.asList("编译3", "编译2"), Arrays.asList(users.get(0).getName(), users.get(1).getName()));
+        assertNotNull(users.get(0).getId());
+        assertThrows(IllegalArgumentException.class, () -> byStatus.find(Collections.singletonMap("status", "x")));
+        assertThrows(IllegalArgumentException.class, () -> byStatus.find("compiled", 10));
+
+        // 同一位置参数可以出现多次
+        CompiledQuery<User> range = Jorm.compile(User.class, q -> q
+                .Where("age", ">=", QueryParam.at(0))
+                .Where("age", "<=", QueryParam.at(1))
+                .Where("status", "compiled"));
+        assertEquals(2, range.find(25, 45).size());
+        assertThrows(IllegalArgumentException.class, () -> range.find(25));
+        assertThrows(IllegalArgumentException.class, () -> Jorm.compile(User.class, q -> q
+                .Where("age", QueryParam.at(1))));
+        assertThrows(IllegalArgumentException.class, () -> Jorm.compile(User.class, q -> q
+                .Where("age", QueryParam.at(0)).Where("status", QueryParam.named("status"))));
+        assertThrows(JormException.class, () -> Jorm.compile(User.class, q -> q
+                .Where("no_such_column", QueryParam.at(0))));
+        JormException unsupported = assertThrows(JormException.class, () -> Jorm.compile(User.class, q -> q
+                .Where("status", QueryParam.at(0)).Preload("orders")));
+        assertEquals(ErrorCode.UNSUPPORTED_QUERY, unsupported.getErrorCode());
+
+        // 多线程共享同一个预编译查询
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int age = 20 + t * 10;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 50; i++) {
+                        List<User> found = range.find(age, age);
+                        assertEquals(age == 50 ? 0 : 1, found.size());
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.isEmpty(), errors.toString());
+
+        // 事务内执行使用事务连接，可以看到未提交的写入
+        int seen = transactionTemplate.execute(() -> {
+            try (SaveSession session = new SaveSession()) {
+                session.save(new User("编译4", 35, "compiled"));
+            }
+            return range.find(30, 40).size();
+        });
+        assertEquals(3, seen);
+
+        // 聚合列按列名映射到 @Aggregation 字段
+        CompiledQuery<User> total = Jorm.compile(User.class, q -> q
+                .Select("status, SUM(age) AS totalAge").Where("status", QueryParam.at(0)).Group("status"));
+        assertEquals(125, total.find("compiled").get(0).getTotalAge());
+    }
+
+    // 测试组提交：多线程的小写入合并为少量事务，失败的工作单独以异常完成
+    @Test
+    void testGroupCommit() throws Exception {
+        int threads = 4;
+        int perThread = 25;
+        List<CompletableFuture<User>> futures = new CopyOnWriteArrayList<>();
+        CompletableFuture<Object> failing;
+        try (GroupCommitExecutor executor = new GroupCommitExecutor(200, 50, TimeUnit.MILLISECONDS)) {
+            // 失败的工作先写入一行再抛异常，这一行必须随重试被回滚
+            failing = executor.submit(() -> {
+                try (SaveSession session = new SaveSession()) {
+                    session.save(new User("组提交失败", 1, "group-failed"));
+                }
+                throw new IllegalStateException("boom");
+            });
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                workers[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        futures.add(executor.save(new User("组提交" + thread + "-" + i, i, "group")));
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+            assertEquals("boom", error.getCause().getMessage());
+            assertEquals(threads * perThread, executor.getCommittedCount());
+            assertEquals(1, executor.getFailedCount());
+            assertTrue(executor.getRetryCount() >= 1);
+            // 全部写入远少于一条一个事务
+            assertTrue(executor.getGroupCount() < threads * perThread / 2, "事务数: " + executor.getGroupCount());
+        }
+        for (CompletableFuture<User> future : futures) {
+            assertNotNull(future.get().getId());
+        }
+        try (FindSession session = new FindSession()) {
+            assertEquals(threads * perThread, session.Where("status", "group").Find(User.class).size());
+            assertTrue(session.Where("status", "group-failed").Find(User.class).isEmpty());
+        }
+
+        // 工作抛出 Error 时只有该项失败，写线程继续处理后续工作
+        try (GroupCommitExecutor executor = new GroupCommitExecutor(10, 50, TimeUnit.MILLISECONDS)) {
+            CompletableFuture<Object> error = executor.submit(() -> {
+                throw new AssertionError("fatal");
+            });
+            CompletableFuture<User> saved = executor.save(new User("Error 之后", 1, "group-error"));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> error.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof AssertionError);
+            assertNotNull(saved.get(10, TimeUnit.SECONDS).getId());
+            assertNotNull(executor.save(new User("再次提交", 2, "group-error")).get(10, TimeUnit.SECONDS).getId());
+            assertEquals(1, executor.getFailedCount());
+        }
+        try (FindSession session = new FindSession()) {
+            assertEquals(2, session.Where("status", "group-error").Count(User.class));
+        }
+
+        // 与关闭并发的提交：要么被拒绝，要么返回的 future 在关闭后一定已完成
+        for (int round = 0; round < 20; round++) {
+            List<CompletableFuture<Integer>> submitted = new CopyOnWriteArrayList<>();
+            GroupCommitExecutor executor = new GroupCommitExecutor(10, 1, TimeUnit.MILLISECONDS);
+            Thread producer = new Thread(() -> {
+                try {
+                    while (true) {
+                        submitted.add(executor.submit(() -> 1));
+                    }
+                } catch (IllegalStateException expected) {
+                    // 执行器已关闭
+                }
+            });
+            producer.start();
+            Thread.sleep(2);
+            executor.close();
+            producer.join();
+            assertTrue(submitted.stream().allMatch(CompletableFuture::isDone), "关闭后仍有未完成的工作");
+        }
+    }
+
+    // 测试 SQL 执行轨迹：记录指纹编号、行数、连接与线程，容量写满后只保留最近的记录
+    @Test
+    void testSqlTraceRing() throws Exception {
+        SqlTraceRing trace = new SqlTraceRing(6);
+        assertEquals(8, trace.getCapacity());
+        Jorm.addListener(trace);
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(Arrays.asList(new User("轨迹1", 20, "trace"), new User("轨迹2", 21, "trace")));
+        }
+        try (FindSession session = Jorm.findSession()) {
+            assertEquals(2, session.Where("status", "trace").Find(User.class).size());
+        }
+        try (UpdateSession session = Jorm.updateSession()) {
+            session.Model(User.class).Where("status", "trace").Set("age", 30).Update();
+        }
+        assertThrows(JormException.class, () -> {
+            try (FindSession session = Jorm.findSession()) {
+                session.Where("age", "不是数字").Find(User.class);
+            }
+        });
+
+        List<SqlTraceRing.TraceEntry> entries = trace.snapshot();
+        assertEquals(Operation.BATCH_SAVE, entries.get(0).getOperation());
+        assertEquals(2, entries.get(0).getRows());
+        SqlTraceRing.TraceEntry find = entries.stream()
+                .filter(e -> e.getOperation() == Operation.FIND).findFirst().orElseThrow(AssertionError::new);
+        assertEquals(2, find.getRows());
+        assertEquals(SqlFingerprint.idOf("SELECT * FROM users WHERE status = ?"), find.getFingerprintId());
+        assertEquals(Thread.currentThread().getId(), find.getThreadId());
+        assertNotEquals(0, find.getConnectionId());
+        assertTrue(find.isSuccess());
+        SqlTraceRing.TraceEntry update = trace.filter(e -> e.getOperation() == Operation.UPDATE).get(0);
+        assertEquals(2, update.getRows());
+        assertEquals(User.class, update.getEntityClass());
+        assertTrue(update.getFingerprint().startsWith("UPDATE users SET"));
+        List<SqlTraceRing.TraceEntry> failed = trace.filter(e -> !e.isSuccess());
+        assertEquals(1, failed.size());
+        assertEquals(-1, failed.get(0).getRows());
+        assertTrue(trace.dump().contains("failed"));
+
+        // 环绕后只保留最近的 8 条，序号连续
+        Thread other = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                try (FindSession session = Jorm.findSession()) {
+                    session.Where("id", i).Find(User.class);
+                }
+            }
+        }, "trace-worker");
+        other.start();
+        other.join();
+        entries = trace.snapshot();
+        assertEquals(8, entries.size());
+        assertEquals(trace.getRecordedCount() - 1, entries.get(7).getSequence());
+        assertEquals("trace-worker", entries.get(7).getThreadName());
+        assertEquals(0, entries.get(7).getRows());
+
+        trace.clear();
+        assertTrue(trace.snapshot().isEmpty());
+        Jorm.removeListener(trace);
+    }
+
+    // 测试查询计划守卫：新形状首次执行时采集 EXPLAIN，标记大表全表扫描，拒绝模式下直接拒绝
+    @Test
+    void testQueryPlanGuard() throws Exception {
+        try (SaveSession session = Jorm.saveSession()) {
+            session.batchSave(Arrays.asList(new User("计划1", 20, "plan"), new User("计划2", 21, "plan"),
+                    new User("计划3", 22, "plan")));
+        }
+        QueryPlanGuard guard = new QueryPlanGuard(3);
+        Jorm.setQueryPlanGuard(guard);
+        try {
+            Long id;
+            try (FindSession session = Jorm.findSession()) {
+                List<User> users = session.Where("status", "plan").Find(User.class);
+                assertEquals(3, users.size());
+                id = users.get(0).getId();
+                assertEquals(1, session.Where("id", id).Find(User.class).size());
+            }
+            assertTrue(guard.awaitPlans(10, TimeUnit.SECONDS));
+
+            QueryPlanGuard.QueryPlan byStatus = guard.getPlan("SELECT * FROM users WHERE status = ?");
+            assertNotNull(byStatus);
+            assertNull(byStatus.getError());
+            assertEquals(Operation.FIND, byStatus.getOperation());
+            assertTrue(byStatus.isFlagged());
+            assertEquals(Long.valueOf(3), byStatus.getFlaggedTables().get("users"));
+            assertTrue(byStatus.getPlan().contains("tableScan"));
+            QueryPlanGuard.QueryPlan byId = guard.getPlan("SELECT * FROM users WHERE id = ?");
+            assertFalse(byId.isFlagged());
+            assertTrue(byId.getFullScanTables().isEmpty());
+            assertEquals(1, guard.getFlagged().size());
+
+            // 拒绝模式：已标记的形状与新出现的全表扫描形状都在执行前被拒绝
+            guard.setRejectFullScans(true);
+            JormException e = assertThrows(JormException.class, () -> {
+                try (FindSession session = Jorm.findSession()) {
+                    session.Where("status", "plan").Find(User.class);
+                }
+            });
+            assertEquals(ErrorCode.FULL_TABLE_SCAN, e.getErrorCode());
+            // 被拒绝的预编译查询同样记录 TOTAL 阶段
+            List<Boolean> totals = new CopyOnWriteArrayList<>();
+            Jorm.addListener(new JormListener() {
+                @Override
+                public void onPhase(Operation operation, Phase phase, Class<?> entityClass, long elapsedNanos,
+                                    boolean success) {
+                    if (phase == Phase.TOTAL) totals.add(success);
+                }
+            });
+            CompiledQuery<User> compiled = Jorm.compile(User.class, q -> q.Where("status", QueryParam.at(0)));
+            assertThrows(JormException.class, () -> compiled.find("plan"));
+            assertEquals(Collections.singletonList(false), totals);
+            Jorm.clearListeners();
+            e = assertThrows(JormException.class, () -> {
+                try (UpdateSession session = Jorm.updateSession()) {
+                    session.Model(User.class).Where("age", ">", 0).Set("status", "rejected").Update();
+                }
+            });
+            assertEquals(ErrorCode.FULL_TABLE_SCAN, e.getErrorCode());
+            try (FindSession session = Jorm.findSession()) {
+                assertEquals(1, session.Where("id", id).Find(User.class).size());
+            }
+        } finally {
+            guard.close();
+        }
+        try (FindSession session = Jorm.findSession()) {
+            assertTrue(session.Where("status", "rejected").Find(User.class).isEmpty());
+        }
+
+        // 表行数未达到阈值时只记录全表扫描，不标记
+        try (QueryPlanGuard lenient = new QueryPlanGuard(1000)) {
+            lenient.setRejectFullScans(true);
+            Jorm.setQueryPlanGuard(lenient);
+            try (FindSession session = Jorm.findSession()) {
+                assertEquals(3, session.Where("status", "plan").Find(User.class).size());
+            }
+            QueryPlanGuard.QueryPlan plan = lenient.getPlan("SELECT * FROM users WHERE status = ?");
+            assertFalse(plan.isFlagged());
+            assertEquals(Collections.singleton("users"), plan.getFullScanTables());
+        }
+        assertFalse(QueryPlanGuard.isInstalled());
+    }
+
+    @Table(name = "user_profiles")
+    public static class UserProfile {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+        private String nickname;
+        @Lazy
+        private String bio;
+    }
+
+    // 投影类型：只包含列表页需要的列
+    private static class UserSummary {
+        private Long id;
+        private String name;
+        private int age;
+    }
+
+    private static class BadSummary {
+        private String nickname;
+    }
+
+    // 以 Map 保存字节的缓存实现，用于测试
+    private static class MapEncodedCache extends EncodedSecondLevelCache {
+        private final Map<String, byte[]> store = new ConcurrentHashMap<>();
+
+        @Override
+        protected void putBytes(String region, String key, byte[] payload) {
+            store.put(region + "|" + key, payload);
+        }
+
+        @Override
+        protected byte[] getBytes(String region, String key) {
+            return store.get(region + "|" + key);
+        }
+
+        @Override
+        public void remove(String region, String key) {
+            store.remove(region + "|" + key);
+        }
+
+        @Override
+        public void clearRegion(String region) {
+            store.keySet().removeIf(k -> k.startsWith(region + "|"));
+        }
+
+        @Override
+        public void clearAll() {
+            store.clear();
+        }
+    }
+
     // 简单DataSource实现用于测试
     private static class SimpleDataSource implements javax.sql.DataSource {
         private final String jdbcUrl;
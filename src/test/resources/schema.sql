@@ -4,4 +4,40 @@ CREATE TABLE IF NOT EXISTS `users` (
       age INT,
       status VARCHAR(255),
       department VARCHAR(255)
-);
\ No newline at end of file
+);
+CREATE TABLE IF NOT EXISTS `orders` (
+      id BIGINT PRIMARY KEY AUTO_INCREMENT,
+      user_id BIGINT,
+      item VARCHAR(255),
+      amount INT
+);
+
+CREATE TABLE IF NOT EXISTS `user_profiles` (
+      id BIGINT PRIMARY KEY AUTO_INCREMENT,
+      nickname VARCHAR(255),
+      bio CLOB
+);
+
+CREATE TABLE IF NOT EXISTS `accounts` (
+      id BIGINT PRIMARY KEY AUTO_INCREMENT,
+      owner VARCHAR(255),
+      balance INT,
+      version BIGINT
+);
+
+CREATE SEQUENCE IF NOT EXISTS seq_items_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS `seq_items` (
+      id BIGINT PRIMARY KEY,
+      name VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS `jorm_sequences` (
+      name VARCHAR(255) PRIMARY KEY,
+      next_hi BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS `keyed_items` (
+      id BIGINT PRIMARY KEY,
+      name VARCHAR(255)
+);